@@ -0,0 +1,40 @@
+package com.deyoch.common.result;
+
+import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
+
+/**
+ * 带总数精确性标记的分页参数
+ * 允许分页插件在无筛选条件的大表上使用表统计信息估算总数，并记录返回的总数是否精确
+ *
+ * @param <T> 分页数据的类型
+ * @author deyoch-oa
+ */
+public class CountAwarePage<T> extends Page<T> {
+
+    /**
+     * 是否允许使用估算总数
+     */
+    private final boolean approximateAllowed;
+
+    /**
+     * 总数是否精确
+     */
+    private boolean totalExact = true;
+
+    public CountAwarePage(long current, long size, boolean approximateAllowed) {
+        super(current, size);
+        this.approximateAllowed = approximateAllowed;
+    }
+
+    public boolean isApproximateAllowed() {
+        return approximateAllowed;
+    }
+
+    public boolean isTotalExact() {
+        return totalExact;
+    }
+
+    public void setTotalExact(boolean totalExact) {
+        this.totalExact = totalExact;
+    }
+}
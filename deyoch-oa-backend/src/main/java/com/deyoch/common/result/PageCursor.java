@@ -0,0 +1,113 @@
+package com.deyoch.common.result;
+
+import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
+import com.baomidou.mybatisplus.core.toolkit.support.SFunction;
+import lombok.Getter;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * 游标分页（键集分页）的游标
+ * 记录上一页最后一行的(created_at, id)，下一页从该位置之后继续读取：
+ * WHERE created_at &lt; ? OR (created_at = ? AND id &lt; ?) ORDER BY created_at DESC, id DESC LIMIT size + 1
+ * 每页都是一次索引范围扫描，不需要OFFSET跳过前面的行，也不需要COUNT(*)
+ * 对外以URL安全的Base64编码传递，客户端应将其视为不透明字符串
+ *
+ * @author deyoch-oa
+ */
+@Getter
+public class PageCursor {
+
+    /**
+     * 上一页最后一行的创建时间
+     */
+    private final LocalDateTime createdAt;
+
+    /**
+     * 上一页最后一行的ID
+     */
+    private final Long id;
+
+    public PageCursor(LocalDateTime createdAt, Long id) {
+        this.createdAt = createdAt;
+        this.id = id;
+    }
+
+    /**
+     * 编码游标
+     * @return 不透明的游标字符串
+     */
+    public String encode() {
+        String raw = createdAt + "|" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * 解码游标
+     * @param cursor 游标字符串，空字符串表示第一页
+     * @return 游标，第一页返回null
+     * @throws IllegalArgumentException 游标格式不正确
+     */
+    public static PageCursor decode(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return null;
+        }
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor.trim()), StandardCharsets.UTF_8);
+            int separator = raw.indexOf('|');
+            if (separator < 0) {
+                throw new IllegalArgumentException("无效的分页游标");
+            }
+            return new PageCursor(LocalDateTime.parse(raw.substring(0, separator)),
+                    Long.parseLong(raw.substring(separator + 1)));
+        } catch (DateTimeParseException | IllegalArgumentException e) {
+            throw new IllegalArgumentException("无效的分页游标", e);
+        }
+    }
+
+    /**
+     * 为查询条件追加游标位置和排序
+     * 多查询一行用于判断是否还有下一页；创建时间为空的行无法定位，不参与游标分页
+     * @param wrapper 查询条件
+     * @param createdAtColumn 创建时间列
+     * @param idColumn ID列
+     * @param cursor 游标，第一页为null
+     * @param size 每页大小
+     */
+    public static <T> void apply(LambdaQueryWrapper<T> wrapper, SFunction<T, LocalDateTime> createdAtColumn,
+                                 SFunction<T, Long> idColumn, PageCursor cursor, int size) {
+        wrapper.isNotNull(createdAtColumn);
+        if (cursor != null) {
+            wrapper.and(w -> w.lt(createdAtColumn, cursor.getCreatedAt())
+                    .or(x -> x.eq(createdAtColumn, cursor.getCreatedAt()).lt(idColumn, cursor.getId())));
+        }
+        wrapper.orderByDesc(createdAtColumn).orderByDesc(idColumn);
+        wrapper.last("LIMIT " + (size + 1));
+    }
+
+    /**
+     * 将多查询一行的结果转换为游标分页结果
+     * @param rows 查询结果（最多size + 1行）
+     * @param size 每页大小
+     * @param createdAtGetter 创建时间取值
+     * @param idGetter ID取值
+     * @return 分页结果，还有下一页时带nextCursor
+     */
+    public static <T> PageResult<T> toPageResult(List<T> rows, int size, Function<T, LocalDateTime> createdAtGetter,
+                                                 Function<T, Long> idGetter) {
+        String nextCursor = null;
+        List<T> records = rows;
+        if (rows.size() > size) {
+            records = new ArrayList<>(rows.subList(0, size));
+            T last = records.get(size - 1);
+            nextCursor = new PageCursor(createdAtGetter.apply(last), idGetter.apply(last)).encode();
+        }
+        return PageResult.ofCursor((long) size, records, nextCursor);
+    }
+}
@@ -1,5 +1,6 @@
 package com.deyoch.common.result;
 
+import com.baomidou.mybatisplus.core.metadata.IPage;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 import java.util.ArrayList;
@@ -47,6 +48,18 @@ public class PageResult<T> {
      */
     private List<T> records;
     
+    /**
+     * 下一页游标
+     * 仅游标分页模式返回，为null表示没有下一页；游标分页不统计总数，total和pages为null
+     */
+    private String nextCursor;
+    
+    /**
+     * 总记录数是否精确
+     * 无筛选条件的大表可能使用表统计信息估算总数，此时为false；游标分页不统计总数，为null
+     */
+    private Boolean totalExact;
+    
     /**
      * 创建一个分页结果
      * 用于分页查询后，构建返回结果
@@ -69,10 +82,42 @@ public class PageResult<T> {
         // 例如：total=100, size=10 -> pages=10
         // 例如：total=101, size=10 -> pages=11
         result.setPages((total + size - 1) / size);
+        result.setTotalExact(true);
         
         return result;
     }
     
+    /**
+     * 根据分页查询结果创建分页结果
+     * 分页参数为CountAwarePage时带上总数是否精确的标记
+     *
+     * @param page 分页查询结果
+     * @param records 当前页数据列表
+     * @return 分页结果
+     */
+    public static <T> PageResult<T> of(IPage<?> page, List<T> records) {
+        PageResult<T> result = of(page.getCurrent(), page.getSize(), page.getTotal(), records);
+        if (page instanceof CountAwarePage<?> countAwarePage) {
+            result.setTotalExact(countAwarePage.isTotalExact());
+        }
+        return result;
+    }
+    
+    /**
+     * 截取当前页的数据
+     * 用于已在内存中得到全部结果（如全文索引命中的ID列表）时分页
+     *
+     * @param all 全部数据
+     * @param current 当前页码
+     * @param size 每页大小
+     * @return 当前页数据
+     */
+    public static <T> List<T> slice(List<T> all, long current, long size) {
+        long from = Math.min(Math.max(current - 1, 0) * size, all.size());
+        long to = Math.min(from + size, all.size());
+        return new ArrayList<>(all.subList((int) from, (int) to));
+    }
+    
     /**
      * 创建一个空分页结果
      * 用于查询无结果时，返回空的分页对象
@@ -87,10 +132,28 @@ public class PageResult<T> {
         result.setSize(size);
         result.setTotal(0L);
         result.setPages(0L);
+        result.setTotalExact(true);
         result.setRecords(new ArrayList<>());
         return result;
     }
     
+    /**
+     * 创建一个游标分页结果
+     * 用于键集分页查询后，构建返回结果
+     *
+     * @param size 每页大小
+     * @param records 当前页数据列表
+     * @param nextCursor 下一页游标，没有下一页时为null
+     * @return 分页结果
+     */
+    public static <T> PageResult<T> ofCursor(Long size, List<T> records, String nextCursor) {
+        PageResult<T> result = new PageResult<>();
+        result.setSize(size);
+        result.setRecords(records);
+        result.setNextCursor(nextCursor);
+        return result;
+    }
+    
     /**
      * 判断是否有上一页
      *
@@ -107,7 +170,10 @@ public class PageResult<T> {
      * @return 有下一页返回true
      */
     public boolean hasNext() {
-        // 当前页码小于总页数，说明有下一页
+        // 游标分页有下一页游标，或当前页码小于总页数，说明有下一页
+        if (nextCursor != null) {
+            return true;
+        }
         return current != null && pages != null && current < pages;
     }
     
@@ -118,6 +184,10 @@ public class PageResult<T> {
      * @return 偏移量
      */
     public Long getOffset() {
+        // 游标分页没有页码，也没有偏移量
+        if (current == null || size == null) {
+            return null;
+        }
         // 计算公式：(current - 1) * size
         // 例如：current=1, size=10 -> offset=0
         // 例如：current=2, size=10 -> offset=10
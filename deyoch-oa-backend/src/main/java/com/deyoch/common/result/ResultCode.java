@@ -52,6 +52,12 @@ public enum ResultCode {
      */
     METHOD_NOT_ALLOWED(405, "请求方法不允许"),
     
+    /**
+     * 请求过多，请稍后重试
+     * 用于服务端处理队列已满、快速拒绝的情况，如登录高峰时密码校验排队过长
+     */
+    TOO_MANY_REQUESTS(429, "系统繁忙，请稍后重试"),
+    
     // ========== 服务器错误 5xx ==========
     /**
      * 服务器内部错误
@@ -209,6 +215,18 @@ public enum ResultCode {
      */
     SCHEDULE_NOT_FOUND(1701, "日程不存在"),
     
+    /**
+     * 日程时间无效
+     * 用于创建或更新日程时结束时间早于开始时间，或跨度超出上限
+     */
+    SCHEDULE_TIME_INVALID(1702, "日程时间无效"),
+    
+    /**
+     * 日程时间冲突
+     * 用于以拒绝冲突模式创建或更新日程时与已有日程时间重叠
+     */
+    SCHEDULE_CONFLICT(1703, "日程时间冲突"),
+    
     // 部门相关错误 1801-1899
     
     /**
@@ -0,0 +1,306 @@
+package com.deyoch.config;
+
+import com.baomidou.mybatisplus.annotation.DbType;
+import com.baomidou.mybatisplus.core.metadata.IPage;
+import com.baomidou.mybatisplus.core.toolkit.ParameterUtils;
+import com.baomidou.mybatisplus.extension.plugins.inner.PaginationInnerInterceptor;
+import com.deyoch.common.result.CountAwarePage;
+import com.deyoch.utils.LruCache;
+import lombok.extern.slf4j.Slf4j;
+import net.sf.jsqlparser.parser.CCJSqlParserUtil;
+import net.sf.jsqlparser.schema.Table;
+import net.sf.jsqlparser.statement.Statement;
+import net.sf.jsqlparser.statement.select.PlainSelect;
+import net.sf.jsqlparser.util.TablesNamesFinder;
+import org.apache.ibatis.cache.CacheKey;
+import org.apache.ibatis.executor.Executor;
+import org.apache.ibatis.mapping.BoundSql;
+import org.apache.ibatis.mapping.MappedStatement;
+import org.apache.ibatis.session.ResultHandler;
+import org.apache.ibatis.session.RowBounds;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 缓存COUNT结果的分页插件
+ * 翻页时筛选条件不变，只有页码变化，COUNT结果按(语句, SQL, 参数值)缓存后每页只需一次查询
+ * 失效方式：每张表维护一个版本号，任何经过MyBatis的写语句在执行前和所在事务结束后递增所涉及表的版本，
+ * 缓存条目记录COUNT执行前各表的版本，读取时版本不一致即视为失效；无法解析表名的写语句使全部条目失效
+ * 其他节点或绕过MyBatis的写入无法感知，由ttl兜底
+ * 对无筛选条件的单表分页，若分页参数为允许估算的CountAwarePage且开启了估算模式，
+ * 使用information_schema中的表行数估算值代替COUNT(*)，并在分页参数上标记总数不精确
+ *
+ * @author deyoch-oa
+ */
+@Slf4j
+public class CachedCountPaginationInnerInterceptor extends PaginationInnerInterceptor {
+
+    private static final String ESTIMATE_SQL =
+            "SELECT TABLE_ROWS FROM information_schema.TABLES WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = ?";
+
+    /**
+     * 事务内待失效表集合的资源键
+     */
+    private final Object transactionKey = new Object();
+
+    private final int maxSize;
+    private final boolean approximateEnabled;
+    private final long approximateMinRows;
+
+    private final LruCache<CacheKey, CountEntry> cache;
+
+    /**
+     * 表名到版本号的映射
+     */
+    private final Map<String, AtomicLong> tableVersions = new ConcurrentHashMap<>();
+
+    /**
+     * 全局版本号，无法解析表名的写语句递增
+     */
+    private final AtomicLong globalVersion = new AtomicLong();
+
+    /**
+     * 写语句ID到所涉及表名的映射，空集合表示无法解析
+     */
+    private final Map<String, Set<String>> statementTables = new ConcurrentHashMap<>();
+
+    /**
+     * 创建分页插件
+     * @param dbType 数据库类型
+     * @param maxSize 最多缓存的COUNT结果数量，0表示不缓存
+     * @param ttl 缓存有效期（毫秒）
+     * @param approximateEnabled 是否允许对无筛选条件的列表使用估算总数
+     * @param approximateMinRows 估算行数不低于该值时才使用估算总数，小表仍精确统计
+     */
+    public CachedCountPaginationInnerInterceptor(DbType dbType, int maxSize, long ttl,
+                                                 boolean approximateEnabled, long approximateMinRows) {
+        super(dbType);
+        this.maxSize = Math.max(0, maxSize);
+        this.cache = new LruCache<>(this.maxSize, ttl);
+        this.approximateEnabled = approximateEnabled;
+        this.approximateMinRows = approximateMinRows;
+    }
+
+    @Override
+    public boolean willDoQuery(Executor executor, MappedStatement ms, Object parameter, RowBounds rowBounds,
+                               ResultHandler resultHandler, BoundSql boundSql) throws SQLException {
+        IPage<?> page = ParameterUtils.findPage(parameter).orElse(null);
+        if (page == null || page.getSize() < 0 || !page.searchCount()
+                || resultHandler != Executor.NO_RESULT_HANDLER) {
+            return super.willDoQuery(executor, ms, parameter, rowBounds, resultHandler, boundSql);
+        }
+        boolean approximateAllowed = approximateEnabled && page instanceof CountAwarePage<?> countAwarePage
+                && countAwarePage.isApproximateAllowed();
+        if (maxSize == 0 && !approximateAllowed) {
+            return super.willDoQuery(executor, ms, parameter, rowBounds, resultHandler, boundSql);
+        }
+
+        // 此时分页参数尚未拼入SQL，缓存键与页码无关
+        CacheKey key = executor.createCacheKey(ms, parameter, RowBounds.DEFAULT, boundSql);
+        CountEntry cached = lookup(key);
+        if (cached != null) {
+            applyTotal(page, cached.total, cached.exact);
+            return continuePage(page);
+        }
+
+        SqlShape shape = parseSelect(boundSql.getSql());
+        if (shape == null) {
+            return super.willDoQuery(executor, ms, parameter, rowBounds, resultHandler, boundSql);
+        }
+        // 在执行COUNT之前记录版本，执行期间发生的写入会使本次结果在写入缓存前就已失效
+        long global = globalVersion.get();
+        long[] versions = snapshot(shape.tables);
+
+        Long estimate = approximateAllowed && shape.unfilteredTable != null
+                ? estimateRows(executor, shape.unfilteredTable) : null;
+        boolean proceed;
+        boolean exact;
+        if (estimate != null && estimate >= approximateMinRows) {
+            applyTotal(page, estimate, false);
+            proceed = continuePage(page);
+            exact = false;
+        } else {
+            proceed = super.willDoQuery(executor, ms, parameter, rowBounds, resultHandler, boundSql);
+            applyTotal(page, page.getTotal(), true);
+            exact = true;
+        }
+        store(key, new CountEntry(page.getTotal(), exact, shape.tables, versions, global));
+        return proceed;
+    }
+
+    @Override
+    public void beforeUpdate(Executor executor, MappedStatement ms, Object parameter) throws SQLException {
+        Set<String> tables = statementTables.computeIfAbsent(ms.getId(), id -> parseWrite(ms, parameter));
+        invalidate(tables);
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return;
+        }
+        // 事务结束（提交或回滚）后再次失效，丢弃事务进行期间其他连接读到的旧总数以及本事务内读到的未提交总数
+        @SuppressWarnings("unchecked")
+        Set<String> pending = (Set<String>) TransactionSynchronizationManager.getResource(transactionKey);
+        if (pending == null) {
+            Set<String> created = new HashSet<>();
+            TransactionSynchronizationManager.bindResource(transactionKey, created);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    TransactionSynchronizationManager.unbindResourceIfPossible(transactionKey);
+                    invalidate(created);
+                }
+            });
+            pending = created;
+        }
+        if (tables.isEmpty()) {
+            // 用空表名标记需要全局失效
+            pending.clear();
+            pending.add("");
+        } else if (!pending.contains("")) {
+            pending.addAll(tables);
+        }
+    }
+
+    private CountEntry lookup(CacheKey key) {
+        if (maxSize == 0) {
+            return null;
+        }
+        CountEntry entry = cache.get(key);
+        if (entry == null) {
+            return null;
+        }
+        if (entry.globalVersion != globalVersion.get() || !Arrays.equals(entry.versions, snapshot(entry.tables))) {
+            cache.remove(key, entry);
+            return null;
+        }
+        return entry;
+    }
+
+    private void store(CacheKey key, CountEntry entry) {
+        if (maxSize == 0) {
+            return;
+        }
+        cache.put(key, entry);
+    }
+
+    private void invalidate(Set<String> tables) {
+        if (tables.isEmpty() || tables.contains("")) {
+            globalVersion.incrementAndGet();
+            return;
+        }
+        for (String table : tables) {
+            tableVersions.computeIfAbsent(table, t -> new AtomicLong()).incrementAndGet();
+        }
+    }
+
+    private long[] snapshot(String[] tables) {
+        long[] versions = new long[tables.length];
+        for (int i = 0; i < tables.length; i++) {
+            AtomicLong version = tableVersions.get(tables[i]);
+            versions[i] = version != null ? version.get() : 0L;
+        }
+        return versions;
+    }
+
+    private void applyTotal(IPage<?> page, long total, boolean exact) {
+        page.setTotal(total);
+        if (page instanceof CountAwarePage<?> countAwarePage) {
+            countAwarePage.setTotalExact(exact);
+        }
+    }
+
+    /**
+     * 读取表行数估算值（InnoDB为采样统计，可能与实际行数有一定偏差）
+     */
+    private Long estimateRows(Executor executor, String table) {
+        try {
+            Connection connection = executor.getTransaction().getConnection();
+            try (PreparedStatement statement = connection.prepareStatement(ESTIMATE_SQL)) {
+                statement.setString(1, table);
+                try (ResultSet resultSet = statement.executeQuery()) {
+                    if (resultSet.next()) {
+                        long rows = resultSet.getLong(1);
+                        return resultSet.wasNull() ? null : rows;
+                    }
+                }
+            }
+        } catch (SQLException e) {
+            log.warn("读取表{}的行数估算值失败，改为精确统计", table, e);
+        }
+        return null;
+    }
+
+    /**
+     * 解析查询语句涉及的表，以及是否为无筛选条件的单表查询
+     * @return 解析失败返回null
+     */
+    private SqlShape parseSelect(String sql) {
+        try {
+            Statement statement = CCJSqlParserUtil.parse(sql);
+            Set<String> tables = normalize(new TablesNamesFinder<>().getTables(statement));
+            if (tables.isEmpty()) {
+                return null;
+            }
+            String unfilteredTable = null;
+            if (statement instanceof PlainSelect select && select.getFromItem() instanceof Table table
+                    && (select.getJoins() == null || select.getJoins().isEmpty()) && select.getWhere() == null
+                    && select.getGroupBy() == null && select.getHaving() == null && select.getDistinct() == null) {
+                unfilteredTable = normalize(table.getName());
+            }
+            return new SqlShape(tables.toArray(new String[0]), unfilteredTable);
+        } catch (Exception e) {
+            log.debug("无法解析分页查询语句，不缓存总数：{}", sql, e);
+            return null;
+        }
+    }
+
+    /**
+     * 解析写语句涉及的表
+     * @return 解析失败返回空集合
+     */
+    private Set<String> parseWrite(MappedStatement ms, Object parameter) {
+        try {
+            return normalize(TablesNamesFinder.findTables(ms.getBoundSql(parameter).getSql()));
+        } catch (Exception e) {
+            log.debug("无法解析写语句{}涉及的表，写入时将使全部总数缓存失效", ms.getId(), e);
+            return Collections.emptySet();
+        }
+    }
+
+    private static Set<String> normalize(Set<String> tables) {
+        Set<String> normalized = new HashSet<>();
+        for (String table : tables) {
+            normalized.add(normalize(table));
+        }
+        return normalized;
+    }
+
+    private static String normalize(String table) {
+        String name = table.substring(table.lastIndexOf('.') + 1);
+        return name.replace("`", "").toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * 查询语句的解析结果
+     */
+    private record SqlShape(String[] tables, String unfilteredTable) {
+    }
+
+    /**
+     * 缓存的总数
+     */
+    private record CountEntry(long total, boolean exact, String[] tables, long[] versions,
+                              long globalVersion) {
+    }
+}
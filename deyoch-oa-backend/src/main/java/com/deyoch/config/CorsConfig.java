@@ -38,6 +38,7 @@ public class CorsConfig {
         // 暴露的响应头，前端可以获取这些头信息
         config.addExposedHeader("Authorization");
         config.addExposedHeader("Content-Disposition");
+        config.addExposedHeader("ETag");
         
         // 创建URL映射源
         UrlBasedCorsConfigurationSource source = new UrlBasedCorsConfigurationSource();
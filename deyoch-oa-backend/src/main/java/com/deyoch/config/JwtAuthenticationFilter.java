@@ -3,6 +3,13 @@ package com.deyoch.config;
 import com.deyoch.entity.DeyochUser;
 import com.deyoch.mapper.DeyochUserMapper;
 import com.deyoch.common.result.Result;
+import com.deyoch.security.AuthorityBits;
+import com.deyoch.security.PermissionBitsetIndex;
+import com.deyoch.security.PermissionCodec;
+import com.deyoch.security.PermissionEpoch;
+import com.deyoch.security.TokenContext;
+import com.deyoch.security.TokenRevocationStore;
+import com.deyoch.security.UserAuthorityCache;
 import com.deyoch.service.PermissionService;
 import com.deyoch.utils.JwtUtil;
 import io.jsonwebtoken.Claims;
@@ -10,8 +17,9 @@ import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
-import lombok.AllArgsConstructor;
+import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
@@ -24,6 +32,7 @@ import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.BitSet;
 import java.util.List;
 import java.util.stream.Collectors;
 import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
@@ -36,7 +45,7 @@ import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
  * @author deyoch-oa
  */
 @Component
-@AllArgsConstructor
+@RequiredArgsConstructor
 @Slf4j
 public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
@@ -44,14 +53,25 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
     private final JwtUtil jwtUtil;
     private final DeyochUserMapper deyochUserMapper;
     private final PermissionService permissionService;
+    private final UserAuthorityCache userAuthorityCache;
+    private final PermissionCodec permissionCodec;
+    private final PermissionEpoch permissionEpoch;
+    private final PermissionBitsetIndex permissionBitsetIndex;
+    private final TokenRevocationStore tokenRevocationStore;
+
+    /**
+     * 是否启用无状态授权：直接使用Token中签入的权限，纪元过期时回退到数据库
+     */
+    @Value("${auth.stateless.enabled:false}")
+    private boolean statelessEnabled;
 
     /**
      * 过滤请求，验证JWT Token
      * 核心逻辑：
      * 1. 从请求头获取Token
-     * 2. 验证Token有效性
+     * 2. 验证Token有效性及是否已吊销，并将解析结果绑定到请求
      * 3. 获取用户信息
-     * 4. 从数据库获取用户权限
+     * 4. 获取用户权限（无状态模式读取Token，否则读取缓存，未命中时查询数据库）
      * 5. 设置认证信息到SecurityContext
      * 6. 继续执行过滤器链
      * 
@@ -68,33 +88,32 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
             // 默认格式：Authorization: Bearer {token}
             String token = extractTokenFromRequest(request);
 
-            // 2. 验证Token是否有效
-            if (StringUtils.hasText(token) && jwtUtil.validateToken(token)) {
-                // 3. 解析Token，获取Claims
-                Claims claims = jwtUtil.parseToken(token);
+            // 2. 验证并解析Token（每个请求只验签一次）
+            Claims claims = StringUtils.hasText(token) ? jwtUtil.tryParseToken(token) : null;
+            // 已登出（吊销）的Token不再认证
+            if (claims != null && tokenRevocationStore.isRevoked(claims.getId())) {
+                claims = null;
+            }
+            if (claims != null) {
+                // 3. 将解析结果绑定到请求，后续UserContextUtil直接读取，无需再次验签
+                TokenContext tokenContext = new TokenContext(claims);
+                TokenContext.bind(request, tokenContext);
 
                 // 4. 从Claims中获取用户信息
-                String username = claims.getSubject();
-
-                // 5. 从数据库获取用户详情
-                LambdaQueryWrapper<DeyochUser> queryWrapper = new LambdaQueryWrapper<>();
-                queryWrapper.eq(DeyochUser::getUsername, username);
-                DeyochUser user = deyochUserMapper.selectOne(queryWrapper);
-
-                if (user != null) {
-                    // 6. 获取用户权限编码列表
-                    Result<List<String>> permCodesResult = permissionService.getUserPermCodes(user.getId());
-                    List<String> permCodes = new ArrayList<>();
-                    if (permCodesResult.getCode() == 200 && permCodesResult.getData() != null) {
-                        permCodes = permCodesResult.getData();
-                    }
+                String username = tokenContext.getUsername();
 
-                    // 7. 将权限编码转换为GrantedAuthority对象列表
-                    List<GrantedAuthority> authorities = permCodes.stream()
-                            .map(SimpleGrantedAuthority::new)
-                            .collect(Collectors.toList());
+                // 5. 获取用户权限
+                // 无状态模式下优先使用Token中签入的权限；否则读取缓存，未命中再查询数据库
+                List<GrantedAuthority> authorities = resolveTokenAuthorities(claims);
+                Long roleId = authorities != null ? claims.get(JwtUtil.CLAIM_ROLE_ID, Long.class) : null;
+                if (authorities == null) {
+                    UserAuthorityCache.CachedAuthority cached = loadAuthorities(username);
+                    authorities = cached != null ? cached.getAuthorities() : null;
+                    roleId = cached != null ? cached.getRoleId() : null;
+                }
 
-                    // 8. 创建UserDetails对象
+                if (authorities != null) {
+                    // 6. 创建UserDetails对象
                     // UserDetails是Spring Security的核心接口，用于表示用户信息
                     UserDetails userDetails = new User(
                             username,  // 用户名
@@ -102,7 +121,7 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
                             authorities  // 权限列表
                     );
 
-                    // 9. 创建认证对象
+                    // 7. 创建认证对象
                     // UsernamePasswordAuthenticationToken是Spring Security的认证对象
                     // 参数1：用户详情，参数2：凭证（JWT不需要），参数3：权限列表
                     UsernamePasswordAuthenticationToken authentication = new UsernamePasswordAuthenticationToken(
@@ -111,23 +130,92 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
                             userDetails.getAuthorities()  // 权限列表
                     );
 
-                    // 10. 设置认证信息到SecurityContext
+                    // 附带角色权限位图，@PreAuthorize的hasAuthority据此做位测试
+                    BitSet roleBits = roleId != null ? permissionBitsetIndex.getRoleBits(roleId) : null;
+                    if (roleBits != null) {
+                        authentication.setDetails(new AuthorityBits(roleId, roleBits));
+                    }
+
+                    // 8. 设置认证信息到SecurityContext
                     // SecurityContext是Spring Security的核心上下文，用于存储认证信息
                     // 后续的@PreAuthorize等注解会从这里获取认证信息
                     SecurityContextHolder.getContext().setAuthentication(authentication);
                 }
             }
         } catch (Exception e) {
-            // 11. 处理Token验证异常
+            // 9. 处理Token验证异常
             // 可以记录日志，或者返回401响应
             log.error("JWT认证失败: {}", e);
         }
 
-        // 12. 继续执行过滤器链
+        // 10. 继续执行过滤器链
         // 无论Token是否有效，都必须继续执行后续过滤器
         filterChain.doFilter(request, response);
     }
 
+    /**
+     * 从Token中签入的权限构建授权列表（无状态授权模式）
+     * 仅当签发后该用户、其角色以及权限定义都没有变更时可信，否则需回退到数据库
+     *
+     * @param claims Token声明
+     * @return 权限列表，Token未携带权限或纪元已过期返回null
+     */
+    private List<GrantedAuthority> resolveTokenAuthorities(Claims claims) {
+        if (!statelessEnabled) {
+            return null;
+        }
+        String encodedPerms = claims.get(JwtUtil.CLAIM_PERMS, String.class);
+        Long epoch = claims.get(JwtUtil.CLAIM_PERM_EPOCH, Long.class);
+        if (encodedPerms == null || epoch == null || !permissionEpoch.isCurrent(epoch,
+                claims.get("userId", Long.class), claims.get(JwtUtil.CLAIM_ROLE_ID, Long.class))) {
+            return null;
+        }
+        List<String> permCodes = permissionCodec.decode(encodedPerms);
+        if (permCodes == null) {
+            return null;
+        }
+        return permCodes.stream()
+                .map(SimpleGrantedAuthority::new)
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * 加载用户权限
+     * 缓存命中时不访问数据库；未命中时查询用户及其权限编码并写入缓存
+     *
+     * @param username 用户名
+     * @return 用户权限缓存条目，用户不存在返回null
+     */
+    private UserAuthorityCache.CachedAuthority loadAuthorities(String username) {
+        UserAuthorityCache.CachedAuthority cached = userAuthorityCache.get(username);
+        if (cached != null) {
+            return cached;
+        }
+        long generation = userAuthorityCache.generation();
+
+        // 从数据库获取用户详情
+        LambdaQueryWrapper<DeyochUser> queryWrapper = new LambdaQueryWrapper<>();
+        queryWrapper.eq(DeyochUser::getUsername, username);
+        DeyochUser user = deyochUserMapper.selectOne(queryWrapper);
+        if (user == null) {
+            return null;
+        }
+
+        // 获取用户权限编码列表
+        Result<List<String>> permCodesResult = permissionService.getUserPermCodes(user.getId());
+        List<String> permCodes = new ArrayList<>();
+        if (permCodesResult.getCode() == 200 && permCodesResult.getData() != null) {
+            permCodes = permCodesResult.getData();
+        }
+
+        // 将权限编码转换为GrantedAuthority对象列表
+        List<GrantedAuthority> authorities = permCodes.stream()
+                .map(SimpleGrantedAuthority::new)
+                .collect(Collectors.toList());
+
+        return userAuthorityCache.put(username, user.getId(), user.getRoleId(), authorities, generation);
+    }
+
     /**
      * 从请求头中提取JWT Token
      * 默认从Authorization头中获取，格式为：Bearer {token}
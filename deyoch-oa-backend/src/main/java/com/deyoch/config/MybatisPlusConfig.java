@@ -1,5 +1,6 @@
 package com.deyoch.config;
 
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import com.baomidou.mybatisplus.annotation.DbType;
@@ -16,16 +17,21 @@ public class MybatisPlusConfig {
 
     /**
      * 配置MyBatis Plus拦截器
-     * 根据官方文档配置分页插件
+     * 根据官方文档配置分页插件，COUNT结果按查询条件缓存，写入对应表时失效
      * 
      * @return MybatisPlusInterceptor
      */
     @Bean
-    public MybatisPlusInterceptor mybatisPlusInterceptor() {
+    public MybatisPlusInterceptor mybatisPlusInterceptor(
+            @Value("${pagination.count-cache.max-size:2000}") int countCacheMaxSize,
+            @Value("${pagination.count-cache.ttl:60000}") long countCacheTtl,
+            @Value("${pagination.approximate-total.enabled:false}") boolean approximateEnabled,
+            @Value("${pagination.approximate-total.min-rows:100000}") long approximateMinRows) {
         MybatisPlusInterceptor interceptor = new MybatisPlusInterceptor();
         
-        // 添加分页插件
-        PaginationInnerInterceptor paginationInnerInterceptor = new PaginationInnerInterceptor(DbType.MYSQL);
+        // 添加分页插件，翻页时复用缓存的COUNT结果
+        PaginationInnerInterceptor paginationInnerInterceptor = new CachedCountPaginationInnerInterceptor(
+                DbType.MYSQL, countCacheMaxSize, countCacheTtl, approximateEnabled, approximateMinRows);
         // 设置单页分页条数限制，防止恶意查询
         paginationInnerInterceptor.setMaxLimit(1000L);
         
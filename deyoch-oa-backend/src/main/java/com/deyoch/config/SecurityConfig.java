@@ -1,7 +1,11 @@
 package com.deyoch.config;
 
+import com.deyoch.security.IndexedMethodSecurityExpressionHandler;
+import com.deyoch.security.PermissionBitsetIndex;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.security.access.expression.method.MethodSecurityExpressionHandler;
 import org.springframework.security.config.annotation.method.configuration.EnableMethodSecurity;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
@@ -40,6 +44,20 @@ public class SecurityConfig {
         return new BCryptPasswordEncoder();
     }
 
+    /**
+     * 配置方法安全表达式处理器
+     * 使@PreAuthorize中的hasAuthority通过角色权限位图判断，而不是线性扫描权限列表
+     * 必须声明为static，保证在方法安全基础设施初始化之前可用
+     *
+     * @param permissionBitsetIndexProvider 角色权限位图索引
+     * @return MethodSecurityExpressionHandler 表达式处理器
+     */
+    @Bean
+    static MethodSecurityExpressionHandler methodSecurityExpressionHandler(
+            ObjectProvider<PermissionBitsetIndex> permissionBitsetIndexProvider) {
+        return new IndexedMethodSecurityExpressionHandler(permissionBitsetIndexProvider);
+    }
+
     /**
      * 配置安全过滤器链
      * 定义系统的认证和授权规则
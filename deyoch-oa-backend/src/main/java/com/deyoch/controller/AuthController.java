@@ -3,8 +3,11 @@ package com.deyoch.controller;
 import com.deyoch.dto.LoginRequestDto;
 import com.deyoch.dto.LoginResponseDto;
 import com.deyoch.common.result.Result;
+import com.deyoch.security.PasswordHashExecutor;
 import com.deyoch.service.AuthService;
 import lombok.RequiredArgsConstructor;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
@@ -12,6 +15,9 @@ import org.springframework.web.bind.annotation.RestController;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import io.swagger.v3.oas.annotations.Operation;
 
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
 @RestController
 @RequestMapping("auth")
 @RequiredArgsConstructor
@@ -19,15 +25,17 @@ import io.swagger.v3.oas.annotations.Operation;
 public class AuthController {
 
     private final AuthService authService;
+    private final PasswordHashExecutor passwordHashExecutor;
 
     /**
      * 用户登录接口
      * @param request 登录请求参数
+     * 异步处理：密码校验期间释放请求线程
      * @return 登录结果，包含Token和用户信息
      */
     @PostMapping("/login")
     @Operation(summary = "用户登录", description = "用户登录接口，返回Token和用户信息")
-    public Result<LoginResponseDto> login(@RequestBody LoginRequestDto request) {
+    public CompletableFuture<Result<LoginResponseDto>> login(@RequestBody LoginRequestDto request) {
         return authService.login(request);
     }
     
@@ -41,4 +49,15 @@ public class AuthController {
         return authService.logout();
     }
 
+    /**
+     * 获取密码哈希执行器统计
+     * @return 队列长度、拒绝次数、排队等待时间与哈希耗时
+     */
+    @GetMapping("/hash/stats")
+    @Operation(summary = "密码哈希统计", description = "获取密码哈希执行器的排队与耗时统计")
+    @PreAuthorize("hasAuthority('sys:perm:manage')")
+    public Result<Map<String, Object>> getHashStats() {
+        return Result.success(passwordHashExecutor.getStats());
+    }
+
 }
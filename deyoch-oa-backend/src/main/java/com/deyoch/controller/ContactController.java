@@ -4,12 +4,17 @@ import com.deyoch.common.result.PageResult;
 import com.deyoch.common.result.Result;
 import com.deyoch.dto.ContactDto;
 import com.deyoch.dto.OrgTreeDto;
+import com.deyoch.dto.OrgTreeSnapshot;
 import com.deyoch.service.ContactService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
 
@@ -48,12 +53,25 @@ public class ContactController {
     
     /**
      * 获取组织架构树
+     * 响应携带ETag，客户端带If-None-Match请求且版本未变化时返回304，不再传输树数据
      */
     @GetMapping("/org-tree")
-    @Operation(summary = "获取组织架构树", description = "返回完整的组织架构树形结构")
-    public Result<List<OrgTreeDto>> getOrganizationTree() {
-        log.info("获取组织架构树");
-        return contactService.getOrganizationTree();
+    @Operation(summary = "获取组织架构树", description = "返回完整的组织架构树形结构，支持If-None-Match协商缓存")
+    public ResponseEntity<Result<List<OrgTreeDto>>> getOrganizationTree(
+            @Parameter(description = "上次响应的ETag") @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        log.debug("获取组织架构树 - If-None-Match: {}", ifNoneMatch);
+        Result<OrgTreeSnapshot> result = contactService.getOrganizationTreeSnapshot();
+        if (result.getCode() != 200 || result.getData() == null) {
+            return ResponseEntity.ok(Result.error(result.getCode(), result.getMessage()));
+        }
+        OrgTreeSnapshot snapshot = result.getData();
+        if (ifNoneMatch != null && ifNoneMatch.contains(snapshot.getEtag())) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(snapshot.getEtag()).build();
+        }
+        return ResponseEntity.ok()
+                .eTag(snapshot.getEtag())
+                .cacheControl(CacheControl.noCache())
+                .body(Result.success(snapshot.getTree()));
     }
     
     /**
@@ -108,4 +108,16 @@ public class DeptController {
     public Result<Void> updateDeptStatus(@PathVariable @Parameter(description = "部门ID") Long id, @RequestParam @Parameter(description = "部门状态") Integer status) {
         return deptService.updateDeptStatus(id, status);
     }
+
+    /**
+     * 重建部门闭包表
+     * 直接修改数据库中的parent_id后使用
+     * @return 重建结果
+     */
+    @PostMapping("/closure/rebuild")
+    @PreAuthorize("hasAuthority('sys:dept:manage')")
+    @Operation(summary = "重建部门闭包表", description = "根据parent_id全量重建部门层级闭包表")
+    public Result<Void> rebuildDeptClosure() {
+        return deptService.rebuildDeptClosure();
+    }
 }
\ No newline at end of file
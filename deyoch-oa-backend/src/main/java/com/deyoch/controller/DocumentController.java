@@ -3,7 +3,11 @@ package com.deyoch.controller;
 import com.deyoch.entity.DeyochDocument;
 import com.deyoch.common.result.PageResult;
 import com.deyoch.common.result.Result;
+import com.deyoch.dto.SearchHitDto;
+import com.deyoch.service.DocumentContentService;
 import com.deyoch.service.DocumentService;
+import com.deyoch.service.SearchService;
+import com.deyoch.service.index.SearchType;
 import lombok.RequiredArgsConstructor;
 import org.springframework.core.io.Resource;
 import org.springframework.http.ResponseEntity;
@@ -15,6 +19,7 @@ import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 
 import java.util.List;
+import java.util.Map;
 
 /**
  * 文档管理控制器
@@ -27,6 +32,8 @@ import java.util.List;
 public class DocumentController {
 
     private final DocumentService documentService;
+    private final DocumentContentService documentContentService;
+    private final SearchService searchService;
 
     /**
      * 获取文档列表
@@ -41,10 +48,53 @@ public class DocumentController {
     public Result<PageResult<DeyochDocument>> getDocumentList(
             @RequestParam(defaultValue = "1") @Parameter(description = "页码") Integer page,
             @RequestParam(defaultValue = "10") @Parameter(description = "每页数量") Integer size,
-            @RequestParam(required = false) @Parameter(description = "搜索关键词") String keyword) {
+            @RequestParam(required = false) @Parameter(description = "搜索关键词") String keyword,
+            @RequestParam(required = false) @Parameter(description = "分页游标，传入时使用游标分页（第一页传空字符串），忽略页码") String cursor) {
+        if (cursor != null) {
+            return documentService.getDocumentListByCursor(cursor, size, keyword);
+        }
         return documentService.getDocumentList(page, size, keyword);
     }
 
+    /**
+     * 按正文内容检索文档
+     * @param keyword 关键词，多个词以空格分隔，须全部命中
+     * @param page 页码
+     * @param size 每页数量
+     * @return 按相关度排序的命中列表，片段取自文档正文
+     */
+    @GetMapping("/search")
+    @PreAuthorize("hasAuthority('oa:document:manage')")
+    @Operation(summary = "文档内容检索", description = "按文件名和抽取的正文检索文档，结果带高亮片段")
+    public Result<PageResult<SearchHitDto>> searchDocuments(
+            @RequestParam @Parameter(description = "关键词") String keyword,
+            @RequestParam(defaultValue = "1") @Parameter(description = "页码") Integer page,
+            @RequestParam(defaultValue = "10") @Parameter(description = "每页数量") Integer size) {
+        return searchService.search(keyword, SearchType.DOCUMENT.getCode(), page, size);
+    }
+
+    /**
+     * 补偿抽取文档正文
+     * @return 提交结果
+     */
+    @PostMapping("/content/backfill")
+    @PreAuthorize("hasAuthority('sys:perm:manage')")
+    @Operation(summary = "补偿抽取文档正文", description = "为尚未抽取或文件已变更的文档排队抽取正文")
+    public Result<Void> backfillContent() {
+        return documentContentService.backfill();
+    }
+
+    /**
+     * 获取正文抽取统计
+     * @return 抽取统计
+     */
+    @GetMapping("/content/stats")
+    @PreAuthorize("hasAuthority('sys:perm:manage')")
+    @Operation(summary = "正文抽取统计", description = "获取正文抽取的成功、截断、失败、跳过数量和队列长度")
+    public Result<Map<String, Object>> getContentStats() {
+        return Result.success(documentContentService.getStats());
+    }
+
     /**
      * 根据ID获取文档详情
      * @param id 文档ID
@@ -60,13 +110,16 @@ public class DocumentController {
     /**
      * 根据部门ID获取文档列表
      * @param deptId 部门ID
+     * @param includeChildren 是否包含子部门
      * @return 文档列表
      */
     @GetMapping("/dept/{deptId}")
     @PreAuthorize("hasAuthority('oa:document:manage')")
-    @Operation(summary = "根据部门ID获取文档列表", description = "根据部门ID获取该部门下的所有文档")
-    public Result<List<DeyochDocument>> getDocumentsByDeptId(@PathVariable @Parameter(description = "部门ID") Long deptId) {
-        return documentService.getDocumentsByDeptId(deptId);
+    @Operation(summary = "根据部门ID获取文档列表", description = "根据部门ID获取该部门（可包含子部门）下的所有文档")
+    public Result<List<DeyochDocument>> getDocumentsByDeptId(
+            @PathVariable @Parameter(description = "部门ID") Long deptId,
+            @RequestParam(defaultValue = "false") @Parameter(description = "是否包含子部门") Boolean includeChildren) {
+        return documentService.getDocumentsByDeptId(deptId, includeChildren);
     }
 
     /**
@@ -66,10 +66,14 @@ public class MessageController {
             @Parameter(description = "页码，默认1") @RequestParam(defaultValue = "1") Integer page,
             @Parameter(description = "每页大小，默认20") @RequestParam(defaultValue = "20") Integer size,
             @Parameter(description = "消息类型") @RequestParam(required = false) Integer type,
-            @Parameter(description = "是否已读") @RequestParam(required = false) Integer isRead) {
+            @Parameter(description = "是否已读") @RequestParam(required = false) Integer isRead,
+            @Parameter(description = "分页游标，传入时使用游标分页（第一页传空字符串），按创建时间倒序") @RequestParam(required = false) String cursor) {
         
-        log.info("查询用户消息 - 用户ID: {}, page: {}, size: {}, type: {}, isRead: {}", 
-                userId, page, size, type, isRead);
+        log.info("查询用户消息 - 用户ID: {}, page: {}, size: {}, type: {}, isRead: {}, cursor: {}", 
+                userId, page, size, type, isRead, cursor);
+        if (cursor != null) {
+            return messageService.getUserMessagesByCursor(userId, cursor, size, type, isRead);
+        }
         return messageService.getUserMessages(userId, page, size, type, isRead);
     }
     
@@ -2,6 +2,7 @@ package com.deyoch.controller;
 
 import com.deyoch.entity.DeyochPermission;
 import com.deyoch.common.result.Result;
+import com.deyoch.security.UserAuthorityCache;
 import com.deyoch.service.PermissionService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.security.access.prepost.PreAuthorize;
@@ -24,6 +25,7 @@ import java.util.Map;
 public class PermissionController {
 
     private final PermissionService permissionService;
+    private final UserAuthorityCache userAuthorityCache;
 
     /**
      * 获取权限树
@@ -123,4 +125,15 @@ public class PermissionController {
     public Result<List<String>> getUserPermCodes(@PathVariable @Parameter(description = "用户ID") Long userId) {
         return permissionService.getUserPermCodes(userId);
     }
-}
\ No newline at end of file
+
+    /**
+     * 获取用户权限缓存统计信息
+     * @return 缓存命中数、未命中数、命中率等
+     */
+    @GetMapping("/cache/stats")
+    @PreAuthorize("hasAuthority('sys:perm:manage')")
+    @Operation(summary = "获取权限缓存统计", description = "获取认证过滤器中用户权限缓存的命中统计")
+    public Result<Map<String, Object>> getAuthorityCacheStats() {
+        return Result.success(userAuthorityCache.getStats());
+    }
+}
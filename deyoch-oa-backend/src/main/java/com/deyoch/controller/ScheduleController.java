@@ -1,8 +1,14 @@
 package com.deyoch.controller;
 
+import com.deyoch.dto.FreeSlotDto;
+import com.deyoch.dto.ScheduleConflictCheckDto;
+import com.deyoch.dto.ScheduleDayDto;
 import com.deyoch.entity.DeyochSchedule;
+import com.deyoch.entity.DeyochScheduleSeries;
+import com.deyoch.entity.DeyochScheduleSeriesException;
 import com.deyoch.common.result.Result;
 import com.deyoch.service.ScheduleService;
+import com.deyoch.service.ScheduleSeriesService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
@@ -23,6 +29,7 @@ import java.util.List;
 public class ScheduleController {
 
     private final ScheduleService scheduleService;
+    private final ScheduleSeriesService scheduleSeriesService;
 
     /**
      * 获取日程列表
@@ -47,6 +54,66 @@ public class ScheduleController {
         return scheduleService.getScheduleListByUserId(userId);
     }
 
+    /**
+     * 获取日历视图
+     * @param view 视图类型
+     * @param date 视图内的任意日期
+     * @return 按天分组的日程
+     */
+    @GetMapping("/calendar")
+    @PreAuthorize("hasAuthority('oa:schedule:manage')")
+    @Operation(summary = "获取日历视图", description = "按月或按周返回当前用户的日程，按天分组，跨天日程展开到覆盖的每一天")
+    public Result<List<ScheduleDayDto>> getCalendarView(
+            @RequestParam(defaultValue = "month") @Parameter(description = "视图类型：month-月视图，week-周视图") String view,
+            @RequestParam(required = false) @Parameter(description = "视图内的任意日期，格式yyyy-MM-dd，默认今天") String date) {
+        return scheduleService.getCalendarView(view, date);
+    }
+
+    /**
+     * 获取分享给当前用户的日程
+     * @return 日程列表
+     */
+    @GetMapping("/shared")
+    @PreAuthorize("hasAuthority('oa:schedule:manage')")
+    @Operation(summary = "获取分享给我的日程", description = "获取其他用户分享给当前用户的日程")
+    public Result<List<DeyochSchedule>> getSharedScheduleList() {
+        return scheduleService.getSharedScheduleList();
+    }
+
+    /**
+     * 分享日程
+     * @param id 日程ID
+     * @param sharedUserIds 被分享用户ID列表
+     * @return 分享结果
+     */
+    @PostMapping("/{id}/share")
+    @PreAuthorize("hasAuthority('oa:schedule:manage')")
+    @Operation(summary = "分享日程", description = "设置日程的分享用户，列表整体替换，只有日程创建者可以操作")
+    public Result<Void> shareSchedule(@PathVariable @Parameter(description = "日程ID") Long id, @RequestBody List<Long> sharedUserIds) {
+        return scheduleService.shareSchedule(id, sharedUserIds);
+    }
+
+    /**
+     * 查找共同空闲时段
+     * @param userIds 用户ID列表
+     * @param startTime 范围开始
+     * @param endTime 范围结束
+     * @param duration 时段长度（分钟）
+     * @param limit 最多返回的时段数
+     * @return 空闲时段列表
+     */
+    @GetMapping("/free-slots")
+    @PreAuthorize("hasAuthority('oa:schedule:manage')")
+    @Operation(summary = "查找共同空闲时段", description = "查找多个用户在时间范围内都空闲且不短于指定时长的时段")
+    public Result<List<FreeSlotDto>> findFreeSlots(
+            @RequestParam @Parameter(description = "用户ID列表") List<Long> userIds,
+            @RequestParam @Parameter(description = "范围开始，格式yyyy-MM-dd HH:mm:ss") String startTime,
+            @RequestParam @Parameter(description = "范围结束，格式yyyy-MM-dd HH:mm:ss") String endTime,
+            @RequestParam @Parameter(description = "时段长度（分钟）") Integer duration,
+            @RequestParam(defaultValue = "5") @Parameter(description = "最多返回的时段数") Integer limit) {
+        return scheduleService.findFreeSlots(userIds, startTime, endTime, duration, limit);
+    }
+
     /**
      * 根据ID获取日程详情
      * @param id 日程ID
@@ -62,27 +129,43 @@ public class ScheduleController {
     /**
      * 创建日程
      * @param schedule 日程信息
+     * @param rejectOnConflict 冲突时是否拒绝
      * @return 创建结果
      */
     @PostMapping
     @PreAuthorize("hasAuthority('oa:schedule:manage')")
-    @Operation(summary = "创建日程", description = "创建新的日程")
-    public Result<DeyochSchedule> createSchedule(@RequestBody DeyochSchedule schedule) {
-        return scheduleService.createSchedule(schedule);
+    @Operation(summary = "创建日程", description = "创建新的日程，返回与之时间冲突的已有日程")
+    public Result<DeyochSchedule> createSchedule(@RequestBody DeyochSchedule schedule,
+            @RequestParam(defaultValue = "false") @Parameter(description = "与已有日程冲突时是否拒绝") boolean rejectOnConflict) {
+        return scheduleService.createSchedule(schedule, rejectOnConflict);
     }
 
     /**
      * 更新日程信息
      * @param id 日程ID
      * @param schedule 日程信息
+     * @param rejectOnConflict 冲突时是否拒绝
      * @return 更新结果
      */
     @PutMapping("/{id}")
     @PreAuthorize("hasAuthority('oa:schedule:manage')")
-    @Operation(summary = "更新日程信息", description = "根据日程ID更新日程信息")
-    public Result<DeyochSchedule> updateSchedule(@PathVariable @Parameter(description = "日程ID") Long id, @RequestBody DeyochSchedule schedule) {
+    @Operation(summary = "更新日程信息", description = "根据日程ID更新日程信息，返回与之时间冲突的其他日程")
+    public Result<DeyochSchedule> updateSchedule(@PathVariable @Parameter(description = "日程ID") Long id, @RequestBody DeyochSchedule schedule,
+            @RequestParam(defaultValue = "false") @Parameter(description = "与其他日程冲突时是否拒绝") boolean rejectOnConflict) {
         schedule.setId(id);
-        return scheduleService.updateSchedule(schedule);
+        return scheduleService.updateSchedule(schedule, rejectOnConflict);
+    }
+
+    /**
+     * 批量检查日程冲突
+     * @param schedules 待检查的日程
+     * @return 检查结果
+     */
+    @PostMapping("/conflicts/check")
+    @PreAuthorize("hasAuthority('oa:schedule:manage')")
+    @Operation(summary = "批量检查日程冲突", description = "检查多个待创建或修改的日程与已有日程及彼此之间的时间冲突，不写入数据")
+    public Result<List<ScheduleConflictCheckDto>> checkConflicts(@RequestBody List<DeyochSchedule> schedules) {
+        return scheduleService.checkConflicts(schedules);
     }
 
     /**
@@ -109,4 +192,68 @@ public class ScheduleController {
     public Result<Void> updateScheduleStatus(@PathVariable @Parameter(description = "日程ID") Long id, @RequestParam @Parameter(description = "日程状态") Integer status) {
         return scheduleService.updateScheduleStatus(id, status);
     }
-}
\ No newline at end of file
+
+    /**
+     * 获取当前用户的重复日程系列
+     * @return 系列列表
+     */
+    @GetMapping("/series")
+    @PreAuthorize("hasAuthority('oa:schedule:manage')")
+    @Operation(summary = "获取重复日程列表", description = "获取当前用户的重复日程系列，实例在日程查询中按时间范围展开")
+    public Result<List<DeyochScheduleSeries>> getMySeriesList() {
+        return scheduleSeriesService.getMySeriesList();
+    }
+
+    /**
+     * 创建重复日程
+     * @param series 系列信息
+     * @return 创建结果
+     */
+    @PostMapping("/series")
+    @PreAuthorize("hasAuthority('oa:schedule:manage')")
+    @Operation(summary = "创建重复日程", description = "按每天、每周或每月的规则创建重复日程，开始和结束时间为首次实例的时间")
+    public Result<DeyochScheduleSeries> createSeries(@RequestBody DeyochScheduleSeries series) {
+        return scheduleSeriesService.createSeries(series);
+    }
+
+    /**
+     * 更新重复日程
+     * @param id 系列ID
+     * @param series 系列信息
+     * @return 更新结果
+     */
+    @PutMapping("/series/{id}")
+    @PreAuthorize("hasAuthority('oa:schedule:manage')")
+    @Operation(summary = "更新重复日程", description = "更新重复日程系列，重复规则整体替换")
+    public Result<DeyochScheduleSeries> updateSeries(@PathVariable @Parameter(description = "系列ID") Long id,
+            @RequestBody DeyochScheduleSeries series) {
+        series.setId(id);
+        return scheduleSeriesService.updateSeries(series);
+    }
+
+    /**
+     * 删除重复日程
+     * @param id 系列ID
+     * @return 删除结果
+     */
+    @DeleteMapping("/series/{id}")
+    @PreAuthorize("hasAuthority('oa:schedule:manage')")
+    @Operation(summary = "删除重复日程", description = "删除重复日程系列及其所有实例")
+    public Result<Void> deleteSeries(@PathVariable @Parameter(description = "系列ID") Long id) {
+        return scheduleSeriesService.deleteSeries(id);
+    }
+
+    /**
+     * 修改或取消重复日程的单个实例
+     * @param id 系列ID
+     * @param exception 例外信息
+     * @return 保存结果
+     */
+    @PutMapping("/series/{id}/occurrence")
+    @PreAuthorize("hasAuthority('oa:schedule:manage')")
+    @Operation(summary = "修改重复日程的单个实例", description = "按原定开始时间修改或取消系列中的一个实例，不影响其他实例")
+    public Result<Void> saveOccurrenceException(@PathVariable @Parameter(description = "系列ID") Long id,
+            @RequestBody DeyochScheduleSeriesException exception) {
+        return scheduleSeriesService.saveOccurrenceException(id, exception);
+    }
+}
@@ -0,0 +1,69 @@
+package com.deyoch.controller;
+
+import com.deyoch.common.result.PageResult;
+import com.deyoch.common.result.Result;
+import com.deyoch.dto.SearchHitDto;
+import com.deyoch.service.SearchService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+
+import java.util.Map;
+
+/**
+ * 全文检索控制器
+ * 统一检索文档、任务和公告
+ */
+@RestController
+@RequestMapping("search")
+@RequiredArgsConstructor
+@Tag(name = "全文检索", description = "文档、任务、公告统一检索接口")
+public class SearchController {
+
+    private final SearchService searchService;
+
+    /**
+     * 全文检索
+     * @param keyword 关键词
+     * @param type 数据类型
+     * @param page 页码
+     * @param size 每页数量
+     * @return 按相关度排序的命中列表
+     */
+    @GetMapping
+    @Operation(summary = "全文检索", description = "按相关度检索文档、任务和公告，结果按当前用户权限过滤并高亮命中词")
+    public Result<PageResult<SearchHitDto>> search(
+            @RequestParam @Parameter(description = "关键词，多个词以空格分隔") String keyword,
+            @RequestParam(required = false) @Parameter(description = "数据类型：document、task、announcement，为空时检索全部") String type,
+            @RequestParam(defaultValue = "1") @Parameter(description = "页码") Integer page,
+            @RequestParam(defaultValue = "10") @Parameter(description = "每页数量") Integer size) {
+        return searchService.search(keyword, type, page, size);
+    }
+
+    /**
+     * 全量重建索引
+     * @param type 数据类型，为空时重建全部类型
+     * @return 提交结果
+     */
+    @PostMapping("/rebuild")
+    @PreAuthorize("hasAuthority('sys:perm:manage')")
+    @Operation(summary = "重建检索索引", description = "从数据库重新加载数据并重建全文索引，异步执行")
+    public Result<Void> rebuild(
+            @RequestParam(required = false) @Parameter(description = "数据类型，为空时重建全部") String type) {
+        return searchService.rebuild(type);
+    }
+
+    /**
+     * 获取索引统计
+     * @return 各类型条目数、词元数以及检索次数
+     */
+    @GetMapping("/stats")
+    @PreAuthorize("hasAuthority('sys:perm:manage')")
+    @Operation(summary = "获取检索索引统计", description = "获取各类型全文索引的条目数、词元数和检索次数")
+    public Result<Map<String, Object>> getStats() {
+        return Result.success(searchService.getStats());
+    }
+}
@@ -38,7 +38,11 @@ public class TaskController {
     public Result<PageResult<DeyochTask>> getTaskList(
             @RequestParam(defaultValue = "1") @Parameter(description = "页码") Integer page,
             @RequestParam(defaultValue = "10") @Parameter(description = "每页数量") Integer size,
-            @RequestParam(required = false) @Parameter(description = "搜索关键词") String keyword) {
+            @RequestParam(required = false) @Parameter(description = "搜索关键词") String keyword,
+            @RequestParam(required = false) @Parameter(description = "分页游标，传入时使用游标分页（第一页传空字符串），忽略页码") String cursor) {
+        if (cursor != null) {
+            return taskService.getTaskListByCursor(cursor, size, keyword);
+        }
         return taskService.getTaskList(page, size, keyword);
     }
 
@@ -141,4 +145,16 @@ public class TaskController {
     public Result<List<DeyochTask>> getTasksByPriority(@PathVariable @Parameter(description = "任务优先级") Integer priority) {
         return taskService.getTasksByPriority(priority);
     }
+
+    /**
+     * 获取部门及其子部门成员负责的任务
+     * @param deptId 部门ID
+     * @return 任务列表
+     */
+    @GetMapping("/dept/{deptId}")
+    @PreAuthorize("hasAuthority('oa:task:manage')")
+    @Operation(summary = "根据部门获取任务列表", description = "获取部门及其所有子部门成员负责的任务")
+    public Result<List<DeyochTask>> getTasksByDeptId(@PathVariable @Parameter(description = "部门ID") Long deptId) {
+        return taskService.getTasksByDeptId(deptId);
+    }
 }
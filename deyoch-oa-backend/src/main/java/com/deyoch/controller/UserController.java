@@ -3,6 +3,7 @@ package com.deyoch.controller;
 import com.deyoch.entity.DeyochUser;
 import com.deyoch.common.result.PageResult;
 import com.deyoch.common.result.Result;
+import com.deyoch.service.UserInfoConverter;
 import com.deyoch.service.UserService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.security.access.prepost.PreAuthorize;
@@ -11,6 +12,9 @@ import io.swagger.v3.oas.annotations.tags.Tag;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 
+import java.util.List;
+import java.util.Map;
+
 /**
  * 用户管理控制器
  * 处理用户相关的HTTP请求
@@ -22,6 +26,7 @@ import io.swagger.v3.oas.annotations.Parameter;
 public class UserController {
 
     private final UserService userService;
+    private final UserInfoConverter userInfoConverter;
 
     /**
      * 获取用户列表（分页）
@@ -36,7 +41,11 @@ public class UserController {
     public Result<PageResult<DeyochUser>> getUserList(
             @RequestParam(defaultValue = "1") @Parameter(description = "页码") Integer page,
             @RequestParam(defaultValue = "10") @Parameter(description = "每页数量") Integer size,
-            @RequestParam(required = false) @Parameter(description = "搜索关键词") String keyword) {
+            @RequestParam(required = false) @Parameter(description = "搜索关键词") String keyword,
+            @RequestParam(required = false) @Parameter(description = "分页游标，传入时使用游标分页（第一页传空字符串），忽略页码") String cursor) {
+        if (cursor != null) {
+            return userService.getUserListByCursor(cursor, size, keyword);
+        }
         return userService.getUserList(page, size, keyword);
     }
 
@@ -103,6 +112,18 @@ public class UserController {
         return userService.updateUserStatus(id, status);
     }
 
+    /**
+     * 获取部门及其子部门下的用户
+     * @param deptId 部门ID
+     * @return 用户列表
+     */
+    @GetMapping("/dept/{deptId}")
+    @PreAuthorize("hasAuthority('sys:user:manage')")
+    @Operation(summary = "根据部门获取用户列表", description = "获取部门及其所有子部门下的用户")
+    public Result<List<DeyochUser>> getUsersByDeptId(@PathVariable @Parameter(description = "部门ID") Long deptId) {
+        return userService.getUsersByDeptId(deptId);
+    }
+
     /**
      * 获取当前登录用户信息
      * @return 当前用户信息
@@ -135,6 +156,17 @@ public class UserController {
         return userService.changePassword(passwordRequest.getCurrentPassword(), passwordRequest.getNewPassword());
     }
 
+    /**
+     * 获取用户信息缓存统计
+     * @return 缓存命中数、未命中数、命中率、数据库查询次数等
+     */
+    @GetMapping("/info-cache/stats")
+    @PreAuthorize("hasAuthority('sys:user:manage')")
+    @Operation(summary = "获取用户信息缓存统计", description = "获取列表页用户名填充所用缓存的命中统计")
+    public Result<Map<String, Object>> getUserInfoCacheStats() {
+        return Result.success(userInfoConverter.getCacheStats());
+    }
+
     /**
      * 密码修改请求类
      */
@@ -0,0 +1,33 @@
+package com.deyoch.dto;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+/**
+ * 共同空闲时段数据传输对象
+ *
+ * @author deyoch-oa
+ */
+@Data
+public class FreeSlotDto {
+
+    /**
+     * 时段开始时间
+     */
+    @JsonFormat(pattern = "yyyy-MM-dd HH:mm:ss")
+    private LocalDateTime startTime;
+
+    /**
+     * 时段结束时间（开始时间加上请求的时长）
+     */
+    @JsonFormat(pattern = "yyyy-MM-dd HH:mm:ss")
+    private LocalDateTime endTime;
+
+    /**
+     * 所有人都空闲到的时间，即该空档的结束位置
+     */
+    @JsonFormat(pattern = "yyyy-MM-dd HH:mm:ss")
+    private LocalDateTime freeUntil;
+}
@@ -0,0 +1,35 @@
+package com.deyoch.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.List;
+
+/**
+ * 组织架构树快照
+ * 版本号在用户或部门变更后递增，ETag由版本号生成，客户端可凭If-None-Match跳过未变化的数据
+ *
+ * @author deyoch
+ */
+@Getter
+@AllArgsConstructor
+public class OrgTreeSnapshot {
+
+    /**
+     * 快照版本号
+     */
+    private final long version;
+
+    /**
+     * 组织架构树（只读）
+     */
+    private final List<OrgTreeDto> tree;
+
+    /**
+     * 获取ETag
+     * @return 带引号的强ETag
+     */
+    public String getEtag() {
+        return "\"org-" + Long.toHexString(version) + "\"";
+    }
+}
@@ -0,0 +1,30 @@
+package com.deyoch.dto;
+
+import lombok.Data;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 批量冲突检查中单个待检查日程的结果
+ *
+ * @author deyoch-oa
+ */
+@Data
+public class ScheduleConflictCheckDto {
+
+    /**
+     * 待检查日程在请求列表中的下标
+     */
+    private int index;
+
+    /**
+     * 与之冲突的已有日程，按开始时间升序排列
+     */
+    private List<ScheduleConflictDto> conflicts = new ArrayList<>();
+
+    /**
+     * 同一批次中与之冲突的其他待检查日程下标（同一用户）
+     */
+    private List<Integer> overlapsWith = new ArrayList<>();
+}
@@ -0,0 +1,48 @@
+package com.deyoch.dto;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+/**
+ * 时间冲突的日程
+ *
+ * @author deyoch-oa
+ */
+@Data
+public class ScheduleConflictDto {
+
+    /**
+     * 日程ID，重复日程的实例为空
+     */
+    private Long scheduleId;
+
+    /**
+     * 重复日程系列ID，普通日程为空
+     */
+    private Long seriesId;
+
+    /**
+     * 重复日程实例的原定开始时间，普通日程为空
+     */
+    @JsonFormat(pattern = "yyyy-MM-dd HH:mm:ss")
+    private LocalDateTime originalStartTime;
+
+    /**
+     * 日程标题
+     */
+    private String title;
+
+    /**
+     * 开始时间
+     */
+    @JsonFormat(pattern = "yyyy-MM-dd HH:mm:ss")
+    private LocalDateTime startTime;
+
+    /**
+     * 结束时间
+     */
+    @JsonFormat(pattern = "yyyy-MM-dd HH:mm:ss")
+    private LocalDateTime endTime;
+}
@@ -0,0 +1,30 @@
+package com.deyoch.dto;
+
+import com.deyoch.entity.DeyochSchedule;
+import com.fasterxml.jackson.annotation.JsonFormat;
+import lombok.Data;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 日历视图中单日的日程
+ * 跨天日程出现在它覆盖的每一天
+ *
+ * @author deyoch-oa
+ */
+@Data
+public class ScheduleDayDto {
+
+    /**
+     * 日期
+     */
+    @JsonFormat(pattern = "yyyy-MM-dd")
+    private LocalDate date;
+
+    /**
+     * 当天的日程，按开始时间升序排列
+     */
+    private List<DeyochSchedule> schedules = new ArrayList<>();
+}
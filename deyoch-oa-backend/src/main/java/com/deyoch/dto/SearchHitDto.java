@@ -0,0 +1,47 @@
+package com.deyoch.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.time.LocalDateTime;
+
+/**
+ * 全文检索命中
+ * 标题和片段中的命中词以&lt;em&gt;标记，其余内容已做HTML转义
+ *
+ * @author deyoch
+ */
+@Getter
+@AllArgsConstructor
+public class SearchHitDto {
+
+    /**
+     * 数据类型：document、task、announcement
+     */
+    private final String type;
+
+    /**
+     * 数据ID
+     */
+    private final Long id;
+
+    /**
+     * 高亮后的标题
+     */
+    private final String title;
+
+    /**
+     * 高亮后的正文片段
+     */
+    private final String snippet;
+
+    /**
+     * 相关度得分
+     */
+    private final double score;
+
+    /**
+     * 时间（文档、任务为创建时间，公告为发布时间）
+     */
+    private final LocalDateTime time;
+}
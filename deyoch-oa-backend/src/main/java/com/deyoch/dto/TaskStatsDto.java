@@ -0,0 +1,33 @@
+package com.deyoch.dto;
+
+import lombok.Data;
+
+/**
+ * 用户任务统计数据传输对象
+ * 统计范围为用户创建或负责的任务，同一任务只计一次
+ *
+ * @author deyoch
+ */
+@Data
+public class TaskStatsDto {
+
+    /**
+     * 待办任务数（状态0、1）
+     */
+    private long pending;
+
+    /**
+     * 待阅任务数（状态2）
+     */
+    private long pendingReview;
+
+    /**
+     * 已完成任务数（状态3）
+     */
+    private long completed;
+
+    /**
+     * 逾期任务数（结束时间早于当前时间且未完成）
+     */
+    private long overdue;
+}
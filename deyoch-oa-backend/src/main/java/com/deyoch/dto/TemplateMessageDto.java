@@ -0,0 +1,35 @@
+package com.deyoch.dto;
+
+import lombok.Data;
+
+import java.util.Map;
+
+/**
+ * 模板消息数据传输对象
+ * 批量按模板发送时描述单个接收者的消息
+ *
+ * @author deyoch-oa
+ */
+@Data
+public class TemplateMessageDto {
+
+    /**
+     * 接收者ID
+     */
+    private Long receiverId;
+
+    /**
+     * 模板变量
+     */
+    private Map<String, Object> variables;
+
+    /**
+     * 关联类型：task,process,announcement,document
+     */
+    private String relatedType;
+
+    /**
+     * 关联ID
+     */
+    private Long relatedId;
+}
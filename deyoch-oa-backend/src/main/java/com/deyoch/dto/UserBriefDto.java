@@ -0,0 +1,35 @@
+package com.deyoch.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * 用户简要信息
+ * 列表页展示创建人、负责人等所需的用户名、昵称和头像，由用户信息转换器缓存
+ *
+ * @author deyoch
+ */
+@Getter
+@AllArgsConstructor
+public class UserBriefDto {
+
+    /**
+     * 用户ID
+     */
+    private final Long id;
+
+    /**
+     * 用户名，用户不存在时为"未知用户"
+     */
+    private final String username;
+
+    /**
+     * 昵称
+     */
+    private final String nickname;
+
+    /**
+     * 头像
+     */
+    private final String avatar;
+}
@@ -6,7 +6,9 @@ import lombok.AllArgsConstructor;
 import java.time.LocalDateTime;
 import com.fasterxml.jackson.annotation.JsonFormat;
 import com.baomidou.mybatisplus.annotation.IdType;
+import com.baomidou.mybatisplus.annotation.TableField;
 import com.baomidou.mybatisplus.annotation.TableId;
+import java.util.List;
 
 @Data
 @NoArgsConstructor
@@ -27,5 +29,7 @@ public class DeyochDept {
   private LocalDateTime createdAt;
   @JsonFormat(pattern = "yyyy-MM-dd HH:mm:ss")
   private LocalDateTime updatedAt;
+  @TableField(exist = false)
+  private List<DeyochDept> children;
 
 }
@@ -0,0 +1,35 @@
+package com.deyoch.entity;
+
+import com.baomidou.mybatisplus.annotation.TableName;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * 部门层级闭包实体类
+ * 每一对（祖先, 后代）部门一条记录，部门自身以depth=0记录
+ * 查询某部门及其所有子部门只需按ancestor_id做一次索引查找
+ *
+ * @author deyoch-oa
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@TableName("deyoch_dept_closure")
+public class DeyochDeptClosure {
+
+    /**
+     * 祖先部门ID
+     */
+    private Long ancestorId;
+
+    /**
+     * 后代部门ID
+     */
+    private Long descendantId;
+
+    /**
+     * 层级距离：0-自身，1-直接子部门
+     */
+    private Integer depth;
+}
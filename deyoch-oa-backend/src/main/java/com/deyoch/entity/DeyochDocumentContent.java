@@ -0,0 +1,57 @@
+package com.deyoch.entity;
+
+import com.baomidou.mybatisplus.annotation.*;
+import lombok.Data;
+import java.time.LocalDateTime;
+
+/**
+ * 文档正文实体类
+ * 保存从文档当前文件中抽取的纯文本（GZIP压缩），供全文检索使用
+ *
+ * @author deyoch
+ */
+@Data
+@TableName("deyoch_document_content")
+public class DeyochDocumentContent {
+
+    /**
+     * 文档ID
+     */
+    @TableId(type = IdType.INPUT)
+    private Long documentId;
+
+    /**
+     * 抽取时使用的文件路径，文件变化后据此判断结果是否过期
+     */
+    private String sourcePath;
+
+    /**
+     * 抽取状态：1-成功，2-失败，3-跳过（类型不支持或文件过大）
+     */
+    private Integer status;
+
+    /**
+     * GZIP压缩的UTF-8正文
+     */
+    private byte[] content;
+
+    /**
+     * 正文字符数
+     */
+    private Integer textLength;
+
+    /**
+     * 是否因字符数或耗时超出预算被截断：0-否，1-是
+     */
+    private Integer truncated;
+
+    /**
+     * 失败或跳过原因
+     */
+    private String errorMessage;
+
+    /**
+     * 抽取时间
+     */
+    private LocalDateTime extractedAt;
+}
@@ -0,0 +1,39 @@
+package com.deyoch.entity;
+
+import com.baomidou.mybatisplus.annotation.IdType;
+import com.baomidou.mybatisplus.annotation.TableId;
+import com.baomidou.mybatisplus.annotation.TableName;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * 权限变更记录实体类
+ * 自增主键作为所有实例共享的权限纪元，记录在超过Token有效期后即可清理
+ *
+ * @author deyoch-oa
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@TableName("deyoch_permission_change")
+public class DeyochPermissionChange {
+
+    /**
+     * 变更序号
+     */
+    @TableId(type = IdType.AUTO)
+    private Long id;
+
+    /**
+     * 变更范围：all-全部，u:{用户ID}，r:{角色ID}
+     */
+    private String scope;
+
+    /**
+     * 变更时间
+     */
+    private LocalDateTime createdAt;
+}
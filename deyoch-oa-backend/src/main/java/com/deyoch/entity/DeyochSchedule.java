@@ -4,7 +4,9 @@ import lombok.Data;
 import lombok.NoArgsConstructor;
 import lombok.AllArgsConstructor;
 import java.time.LocalDateTime;
+import java.util.List;
 import com.fasterxml.jackson.annotation.JsonFormat;
+import com.deyoch.dto.ScheduleConflictDto;
 import com.baomidou.mybatisplus.annotation.IdType;
 import com.baomidou.mybatisplus.annotation.TableId;
 import com.baomidou.mybatisplus.annotation.TableField;
@@ -34,4 +36,17 @@ public class DeyochSchedule {
   @TableField(exist = false)
   private String creatorName;
 
+  // 非数据库字段，创建或更新时返回与之时间冲突的日程
+  @TableField(exist = false)
+  private List<ScheduleConflictDto> conflicts;
+
+  // 非数据库字段，重复日程展开的实例所属系列，普通日程为空
+  @TableField(exist = false)
+  private Long seriesId;
+
+  // 非数据库字段，重复日程实例按规则原定的开始时间，修改或取消单个实例时用于标识实例
+  @TableField(exist = false)
+  @JsonFormat(pattern = "yyyy-MM-dd HH:mm:ss")
+  private LocalDateTime originalStartTime;
+
 }
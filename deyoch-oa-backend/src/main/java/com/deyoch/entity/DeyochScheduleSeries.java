@@ -0,0 +1,89 @@
+package com.deyoch.entity;
+
+import com.baomidou.mybatisplus.annotation.FieldStrategy;
+import com.baomidou.mybatisplus.annotation.IdType;
+import com.baomidou.mybatisplus.annotation.TableField;
+import com.baomidou.mybatisplus.annotation.TableId;
+import com.baomidou.mybatisplus.annotation.TableName;
+import com.fasterxml.jackson.annotation.JsonFormat;
+import lombok.Data;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * 重复日程系列实体类
+ * 一个系列只保存一条记录，实例在查询时按重复规则展开，单个实例的修改和取消保存在例外表中
+ * 重复规则的可选字段更新时总是写入，传空表示清除
+ *
+ * @author deyoch-oa
+ */
+@Data
+@TableName("deyoch_schedule_series")
+public class DeyochScheduleSeries {
+
+    @TableId(type = IdType.AUTO)
+    private Long id;
+
+    private String title;
+
+    private String content;
+
+    private Long userId;
+
+    private String location;
+
+    /**
+     * 首次开始时间，之后的实例沿用其时刻
+     */
+    @JsonFormat(pattern = "yyyy-MM-dd HH:mm:ss")
+    private LocalDateTime startTime;
+
+    /**
+     * 首次结束时间，之后的实例沿用其时长
+     */
+    @JsonFormat(pattern = "yyyy-MM-dd HH:mm:ss")
+    private LocalDateTime endTime;
+
+    /**
+     * 重复频率：DAILY-每天，WEEKLY-每周，MONTHLY-每月
+     */
+    private String frequency;
+
+    /**
+     * 重复间隔，如每2周
+     */
+    private Integer repeatInterval;
+
+    /**
+     * 每周重复的星期，按位表示：1-周一，2-周二，4-周三，…，64-周日
+     */
+    @TableField(updateStrategy = FieldStrategy.ALWAYS)
+    private Integer weekdays;
+
+    /**
+     * 截止日期（包含），为空表示不限
+     */
+    @JsonFormat(pattern = "yyyy-MM-dd")
+    @TableField(updateStrategy = FieldStrategy.ALWAYS)
+    private LocalDate untilDate;
+
+    /**
+     * 重复次数，为空表示不限
+     */
+    @TableField(updateStrategy = FieldStrategy.ALWAYS)
+    private Integer occurrenceCount;
+
+    /**
+     * 最后一次开始时间的上界，由截止日期或重复次数计算，为空表示无限重复
+     */
+    @JsonFormat(pattern = "yyyy-MM-dd HH:mm:ss")
+    @TableField(updateStrategy = FieldStrategy.ALWAYS)
+    private LocalDateTime lastStartTime;
+
+    @JsonFormat(pattern = "yyyy-MM-dd HH:mm:ss")
+    private LocalDateTime createdAt;
+
+    @JsonFormat(pattern = "yyyy-MM-dd HH:mm:ss")
+    private LocalDateTime updatedAt;
+}
@@ -0,0 +1,59 @@
+package com.deyoch.entity;
+
+import com.baomidou.mybatisplus.annotation.TableName;
+import com.fasterxml.jackson.annotation.JsonFormat;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+/**
+ * 重复日程例外实体类
+ * 每个（系列, 原定开始时间）一条记录，表示该实例被取消或被单独修改，系列删除时级联删除
+ *
+ * @author deyoch-oa
+ */
+@Data
+@TableName("deyoch_schedule_series_exception")
+public class DeyochScheduleSeriesException {
+
+    /**
+     * 系列ID
+     */
+    private Long seriesId;
+
+    /**
+     * 实例按重复规则原定的开始时间
+     */
+    @JsonFormat(pattern = "yyyy-MM-dd HH:mm:ss")
+    private LocalDateTime originalStartTime;
+
+    /**
+     * 是否取消：0-否，1-是
+     */
+    private Integer cancelled;
+
+    /**
+     * 修改后的标题，为空时沿用系列
+     */
+    private String title;
+
+    /**
+     * 修改后的开始时间，为空时沿用原定时间
+     */
+    @JsonFormat(pattern = "yyyy-MM-dd HH:mm:ss")
+    private LocalDateTime startTime;
+
+    /**
+     * 修改后的结束时间，为空时按系列时长计算
+     */
+    @JsonFormat(pattern = "yyyy-MM-dd HH:mm:ss")
+    private LocalDateTime endTime;
+
+    /**
+     * 修改后的地点，为空时沿用系列
+     */
+    private String location;
+
+    @JsonFormat(pattern = "yyyy-MM-dd HH:mm:ss")
+    private LocalDateTime createdAt;
+}
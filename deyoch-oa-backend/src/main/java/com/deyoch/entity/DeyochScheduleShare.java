@@ -0,0 +1,37 @@
+package com.deyoch.entity;
+
+import com.baomidou.mybatisplus.annotation.TableName;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+/**
+ * 日程分享实体类
+ * 每个（日程, 被分享用户）一条记录，日程或用户删除时级联删除
+ *
+ * @author deyoch-oa
+ */
+@Data
+@TableName("deyoch_schedule_share")
+public class DeyochScheduleShare {
+
+    /**
+     * 日程ID
+     */
+    private Long scheduleId;
+
+    /**
+     * 被分享用户ID
+     */
+    private Long userId;
+
+    /**
+     * 分享人ID
+     */
+    private Long sharedBy;
+
+    /**
+     * 分享时间
+     */
+    private LocalDateTime createdAt;
+}
@@ -0,0 +1,44 @@
+package com.deyoch.entity;
+
+import com.baomidou.mybatisplus.annotation.IdType;
+import com.baomidou.mybatisplus.annotation.TableId;
+import com.baomidou.mybatisplus.annotation.TableName;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Token吊销记录实体类
+ * 以Token唯一标识（jti）为主键，记录在Token过期后即可清理
+ *
+ * @author deyoch-oa
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@TableName("deyoch_token_revocation")
+public class DeyochTokenRevocation {
+
+    /**
+     * Token唯一标识
+     */
+    @TableId(type = IdType.INPUT)
+    private String jti;
+
+    /**
+     * 用户ID
+     */
+    private Long userId;
+
+    /**
+     * Token过期时间
+     */
+    private LocalDateTime expireAt;
+
+    /**
+     * 吊销时间
+     */
+    private LocalDateTime createdAt;
+}
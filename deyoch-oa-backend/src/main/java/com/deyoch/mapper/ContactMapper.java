@@ -8,6 +8,7 @@ import com.deyoch.dto.OrgTreeDto;
 import com.deyoch.entity.DeyochUser;
 import org.apache.ibatis.annotations.Mapper;
 import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.cursor.Cursor;
 
 import java.util.List;
 
@@ -40,12 +41,11 @@ public interface ContactMapper extends BaseMapper<DeyochUser> {
     List<OrgTreeDto> selectDepartmentTree();
     
     /**
-     * 根据部门ID查询用户信息（用于构建组织架构树）
+     * 查询所有启用且有部门的用户，按部门分组排序（用于一次性组装组织架构树）
      * 
-     * @param deptId 部门ID
-     * @return 用户列表
+     * @return 用户节点列表
      */
-    List<OrgTreeDto> selectUsersByDeptId(@Param("deptId") Long deptId);
+    List<OrgTreeDto> selectActiveUsersForTree();
     
     /**
      * 查询所有通讯录数据（用于导出）
@@ -54,6 +54,39 @@ public interface ContactMapper extends BaseMapper<DeyochUser> {
      */
     List<ContactDto> selectAllContacts();
     
+    /**
+     * 以游标方式流式读取所有通讯录数据（用于导出）
+     * 必须在事务内使用，游标在事务结束时关闭
+     * 
+     * @return 通讯录游标
+     */
+    Cursor<ContactDto> selectAllContactsCursor();
+    
+    /**
+     * 根据用户ID查询联系人（仅启用用户）
+     * 
+     * @param userId 用户ID
+     * @return 联系人，不存在或已禁用时返回null
+     */
+    ContactDto selectContactById(@Param("userId") Long userId);
+    
+    /**
+     * 查询部门下的所有联系人（仅启用用户，不含子部门）
+     * 
+     * @param deptId 部门ID
+     * @return 联系人列表
+     */
+    List<ContactDto> selectContactsByDeptId(@Param("deptId") Long deptId);
+    
+    /**
+     * 按用户名更新联系信息（用于导入）
+     * 空值字段保持原值不变，SQL文本固定，便于JDBC批量执行
+     * 
+     * @param contact 联系人（username必填）
+     * @return 更新行数，用户名不存在时为0
+     */
+    int updateContactByUsername(ContactDto contact);
+    
     /**
      * 根据关键词搜索联系人
      * 
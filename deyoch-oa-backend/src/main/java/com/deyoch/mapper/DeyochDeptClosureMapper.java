@@ -0,0 +1,72 @@
+package com.deyoch.mapper;
+
+import com.baomidou.mybatisplus.core.mapper.BaseMapper;
+import com.deyoch.entity.DeyochDeptClosure;
+import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+
+import java.util.List;
+
+/**
+ * 部门层级闭包表 Mapper接口
+ * 维护部门新增、移动时的闭包记录，每个操作都是一条集合SQL
+ */
+@Mapper
+public interface DeyochDeptClosureMapper extends BaseMapper<DeyochDeptClosure> {
+
+    /**
+     * 部门及其所有子部门ID的子查询，用于inSql条件
+     * 例如：wrapper.inSql(DeyochDocument::getDeptId, DeyochDeptClosureMapper.subtreeSql(deptId))
+     *
+     * @param deptId 部门ID
+     * @return 子查询SQL
+     */
+    static String subtreeSql(Long deptId) {
+        return "SELECT descendant_id FROM deyoch_dept_closure WHERE ancestor_id = " + deptId;
+    }
+
+    /**
+     * 部门及其所有子部门下用户ID的子查询，用于inSql条件
+     *
+     * @param deptId 部门ID
+     * @return 子查询SQL
+     */
+    static String subtreeUserSql(Long deptId) {
+        return "SELECT u.id FROM deyoch_user u INNER JOIN deyoch_dept_closure c ON u.dept_id = c.descendant_id"
+                + " WHERE c.ancestor_id = " + deptId;
+    }
+
+    /**
+     * 新部门挂到父部门下：复制父部门的所有祖先记录并加上自身记录
+     *
+     * @param deptId 新部门ID
+     * @param parentId 父部门ID，根部门传0
+     * @return 插入数量
+     */
+    int insertNode(@Param("deptId") Long deptId, @Param("parentId") Long parentId);
+
+    /**
+     * 断开子树与其原祖先的关联（子树内部的记录保留）
+     *
+     * @param deptId 子树根部门ID
+     * @return 删除数量
+     */
+    int detachSubtree(@Param("deptId") Long deptId);
+
+    /**
+     * 将子树挂到新父部门下：新父部门的每个祖先与子树中的每个部门建立关联
+     *
+     * @param deptId 子树根部门ID
+     * @param parentId 新父部门ID
+     * @return 插入数量
+     */
+    int attachSubtree(@Param("deptId") Long deptId, @Param("parentId") Long parentId);
+
+    /**
+     * 批量插入闭包记录
+     *
+     * @param closures 闭包记录，不能为空
+     * @return 插入数量
+     */
+    int insertBatch(@Param("closures") List<DeyochDeptClosure> closures);
+}
@@ -0,0 +1,29 @@
+package com.deyoch.mapper;
+
+import com.baomidou.mybatisplus.core.mapper.BaseMapper;
+import com.deyoch.entity.DeyochDocumentContent;
+import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+
+import java.util.List;
+
+/**
+ * 文档正文 Mapper接口
+ */
+@Mapper
+public interface DeyochDocumentContentMapper extends BaseMapper<DeyochDocumentContent> {
+
+    /**
+     * 写入或覆盖文档正文
+     * @param content 文档正文
+     * @return 影响行数
+     */
+    int upsert(DeyochDocumentContent content);
+
+    /**
+     * 查询尚未抽取或抽取后文件已变更的文档ID
+     * @param limit 最多返回条数
+     * @return 文档ID，按ID倒序（新文档优先）
+     */
+    List<Long> selectPendingDocumentIds(@Param("limit") int limit);
+}
@@ -0,0 +1,14 @@
+package com.deyoch.mapper;
+
+import com.deyoch.entity.DeyochPermissionChange;
+import com.baomidou.mybatisplus.core.mapper.BaseMapper;
+import org.apache.ibatis.annotations.Mapper;
+
+/**
+ * 权限变更记录表 Mapper接口
+ * 继承BaseMapper可以获得基础的CRUD方法
+ */
+@Mapper
+public interface DeyochPermissionChangeMapper extends BaseMapper<DeyochPermissionChange> {
+
+}
@@ -0,0 +1,21 @@
+package com.deyoch.mapper;
+
+import com.baomidou.mybatisplus.core.mapper.BaseMapper;
+import com.deyoch.entity.DeyochScheduleSeriesException;
+import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+
+/**
+ * 重复日程例外表 Mapper接口
+ */
+@Mapper
+public interface DeyochScheduleSeriesExceptionMapper extends BaseMapper<DeyochScheduleSeriesException> {
+
+    /**
+     * 保存实例的例外，同一实例已有例外时整体覆盖
+     *
+     * @param exception 例外
+     * @return 影响行数
+     */
+    int upsert(@Param("exception") DeyochScheduleSeriesException exception);
+}
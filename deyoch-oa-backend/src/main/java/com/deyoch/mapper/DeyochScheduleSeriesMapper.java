@@ -0,0 +1,12 @@
+package com.deyoch.mapper;
+
+import com.baomidou.mybatisplus.core.mapper.BaseMapper;
+import com.deyoch.entity.DeyochScheduleSeries;
+import org.apache.ibatis.annotations.Mapper;
+
+/**
+ * 重复日程系列表 Mapper接口
+ */
+@Mapper
+public interface DeyochScheduleSeriesMapper extends BaseMapper<DeyochScheduleSeries> {
+}
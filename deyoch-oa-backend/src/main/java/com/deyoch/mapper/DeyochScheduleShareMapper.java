@@ -0,0 +1,37 @@
+package com.deyoch.mapper;
+
+import com.baomidou.mybatisplus.core.mapper.BaseMapper;
+import com.deyoch.entity.DeyochScheduleShare;
+import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+
+import java.util.List;
+
+/**
+ * 日程分享表 Mapper接口
+ */
+@Mapper
+public interface DeyochScheduleShareMapper extends BaseMapper<DeyochScheduleShare> {
+
+    /**
+     * 分享给用户的日程ID的子查询，用于inSql条件
+     * 例如：wrapper.inSql(DeyochSchedule::getId, DeyochScheduleShareMapper.sharedWithSql(userId))
+     *
+     * @param userId 被分享用户ID
+     * @return 子查询SQL
+     */
+    static String sharedWithSql(Long userId) {
+        return "SELECT schedule_id FROM deyoch_schedule_share WHERE user_id = " + userId;
+    }
+
+    /**
+     * 批量分享日程，已分享的用户忽略
+     *
+     * @param scheduleId 日程ID
+     * @param userIds 被分享用户ID列表
+     * @param sharedBy 分享人ID
+     * @return 插入数量
+     */
+    int insertBatch(@Param("scheduleId") Long scheduleId, @Param("userIds") List<Long> userIds,
+                    @Param("sharedBy") Long sharedBy);
+}
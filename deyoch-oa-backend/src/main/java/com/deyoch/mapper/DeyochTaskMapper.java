@@ -1,8 +1,12 @@
 package com.deyoch.mapper;
 
+import com.deyoch.dto.TaskStatsDto;
 import com.deyoch.entity.DeyochTask;
 import com.baomidou.mybatisplus.core.mapper.BaseMapper;
 import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+
+import java.time.LocalDateTime;
 
 /**
  * 任务表 Mapper接口
@@ -10,5 +14,12 @@ import org.apache.ibatis.annotations.Mapper;
  */
 @Mapper
 public interface DeyochTaskMapper extends BaseMapper<DeyochTask> {
-    
-}
\ No newline at end of file
+
+    /**
+     * 统计用户创建或负责的任务，按状态分组计数并统计逾期数，一次查询完成
+     * @param userId 用户ID
+     * @param now 当前时间，结束时间早于该时间且未完成的任务计为逾期
+     * @return 任务统计
+     */
+    TaskStatsDto selectTaskStats(@Param("userId") Long userId, @Param("now") LocalDateTime now);
+}
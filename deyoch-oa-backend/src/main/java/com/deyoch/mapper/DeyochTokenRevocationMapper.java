@@ -0,0 +1,14 @@
+package com.deyoch.mapper;
+
+import com.deyoch.entity.DeyochTokenRevocation;
+import com.baomidou.mybatisplus.core.mapper.BaseMapper;
+import org.apache.ibatis.annotations.Mapper;
+
+/**
+ * Token吊销表 Mapper接口
+ * 继承BaseMapper可以获得基础的CRUD方法
+ */
+@Mapper
+public interface DeyochTokenRevocationMapper extends BaseMapper<DeyochTokenRevocation> {
+
+}
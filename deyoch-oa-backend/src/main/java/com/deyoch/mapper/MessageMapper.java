@@ -8,6 +8,7 @@ import com.deyoch.entity.DeyochMessage;
 import org.apache.ibatis.annotations.Mapper;
 import org.apache.ibatis.annotations.Param;
 
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Map;
 
@@ -34,6 +35,24 @@ public interface MessageMapper extends BaseMapper<DeyochMessage> {
                                         @Param("type") Integer type,
                                         @Param("isRead") Integer isRead);
     
+    /**
+     * 游标分页查询用户消息（按创建时间、ID倒序）
+     * 
+     * @param userId 用户ID
+     * @param type 消息类型
+     * @param isRead 是否已读
+     * @param cursorCreatedAt 上一页最后一条的创建时间，第一页为null
+     * @param cursorId 上一页最后一条的ID
+     * @param limit 查询条数
+     * @return 消息列表
+     */
+    List<MessageDto> selectUserMessagesAfter(@Param("userId") Long userId,
+                                             @Param("type") Integer type,
+                                             @Param("isRead") Integer isRead,
+                                             @Param("cursorCreatedAt") LocalDateTime cursorCreatedAt,
+                                             @Param("cursorId") Long cursorId,
+                                             @Param("limit") int limit);
+    
     /**
      * 获取用户未读消息数量
      * 
@@ -59,6 +78,14 @@ public interface MessageMapper extends BaseMapper<DeyochMessage> {
      */
     int batchMarkAsRead(@Param("messageIds") List<Long> messageIds, @Param("userId") Long userId);
     
+    /**
+     * 批量插入消息，插入后回填消息ID
+     * 
+     * @param messages 消息列表
+     * @return 插入数量
+     */
+    int insertBatch(@Param("messages") List<DeyochMessage> messages);
+    
     /**
      * 根据消息ID和用户ID查询消息
      * 
@@ -0,0 +1,28 @@
+package com.deyoch.security;
+
+import lombok.Getter;
+
+import java.util.BitSet;
+
+/**
+ * 认证对象附带的权限位图
+ * JWT过滤器将当前用户所属角色的预计算位图放入Authentication的details中，
+ * 供方法级权限表达式以位测试的方式判断权限
+ *
+ * @author deyoch-oa
+ */
+@Getter
+public class AuthorityBits {
+
+    private final Long roleId;
+
+    /**
+     * 角色权限位图，与索引共享，只读
+     */
+    private final BitSet bits;
+
+    public AuthorityBits(Long roleId, BitSet bits) {
+        this.roleId = roleId;
+        this.bits = bits;
+    }
+}
@@ -0,0 +1,40 @@
+package com.deyoch.security;
+
+import org.aopalliance.intercept.MethodInvocation;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.expression.EvaluationContext;
+import org.springframework.expression.spel.support.StandardEvaluationContext;
+import org.springframework.security.access.expression.method.DefaultMethodSecurityExpressionHandler;
+import org.springframework.security.access.expression.method.MethodSecurityExpressionOperations;
+import org.springframework.security.core.Authentication;
+
+import java.util.function.Supplier;
+
+/**
+ * 方法安全表达式处理器
+ * 在默认处理器创建的求值上下文中，将根对象替换为基于权限位图的IndexedSecurityExpressionRoot
+ *
+ * @author deyoch-oa
+ */
+public class IndexedMethodSecurityExpressionHandler extends DefaultMethodSecurityExpressionHandler {
+
+    /**
+     * 延迟获取索引，避免安全基础设施初始化时提前创建Mapper
+     */
+    private final ObjectProvider<PermissionBitsetIndex> permissionBitsetIndexProvider;
+
+    public IndexedMethodSecurityExpressionHandler(ObjectProvider<PermissionBitsetIndex> permissionBitsetIndexProvider) {
+        this.permissionBitsetIndexProvider = permissionBitsetIndexProvider;
+    }
+
+    @Override
+    public EvaluationContext createEvaluationContext(Supplier<Authentication> authentication, MethodInvocation mi) {
+        EvaluationContext context = super.createEvaluationContext(authentication, mi);
+        if (context instanceof StandardEvaluationContext standardContext
+                && context.getRootObject().getValue() instanceof MethodSecurityExpressionOperations root) {
+            standardContext.setRootObject(new IndexedSecurityExpressionRoot(root,
+                    permissionBitsetIndexProvider.getObject()));
+        }
+        return context;
+    }
+}
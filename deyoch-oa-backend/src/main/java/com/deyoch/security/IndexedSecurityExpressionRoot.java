@@ -0,0 +1,137 @@
+package com.deyoch.security;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.security.access.expression.method.MethodSecurityExpressionOperations;
+import org.springframework.security.core.Authentication;
+
+/**
+ * 基于权限位图的方法安全表达式根对象
+ * hasAuthority/hasAnyAuthority优先使用认证对象上的角色位图做位测试，
+ * 其余表达式以及未携带位图的认证对象全部委托给Spring Security默认实现
+ *
+ * @author deyoch-oa
+ */
+@Slf4j
+public class IndexedSecurityExpressionRoot implements MethodSecurityExpressionOperations {
+
+    private final MethodSecurityExpressionOperations delegate;
+    private final PermissionBitsetIndex permissionBitsetIndex;
+
+    public IndexedSecurityExpressionRoot(MethodSecurityExpressionOperations delegate,
+                                         PermissionBitsetIndex permissionBitsetIndex) {
+        this.delegate = delegate;
+        this.permissionBitsetIndex = permissionBitsetIndex;
+    }
+
+    @Override
+    public boolean hasAuthority(String authority) {
+        AuthorityBits authorityBits = getAuthorityBits();
+        if (authorityBits == null) {
+            return delegate.hasAuthority(authority);
+        }
+        try {
+            return permissionBitsetIndex.hasAuthority(authorityBits.getBits(), authority);
+        } catch (Exception e) {
+            log.warn("权限位图判断失败，回退到权限列表判断", e);
+            return delegate.hasAuthority(authority);
+        }
+    }
+
+    @Override
+    public boolean hasAnyAuthority(String... authorities) {
+        for (String authority : authorities) {
+            if (hasAuthority(authority)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private AuthorityBits getAuthorityBits() {
+        Authentication authentication = delegate.getAuthentication();
+        if (authentication != null && authentication.getDetails() instanceof AuthorityBits) {
+            return (AuthorityBits) authentication.getDetails();
+        }
+        return null;
+    }
+
+    @Override
+    public Authentication getAuthentication() {
+        return delegate.getAuthentication();
+    }
+
+    @Override
+    public boolean hasRole(String role) {
+        return delegate.hasRole(role);
+    }
+
+    @Override
+    public boolean hasAnyRole(String... roles) {
+        return delegate.hasAnyRole(roles);
+    }
+
+    @Override
+    public boolean permitAll() {
+        return delegate.permitAll();
+    }
+
+    @Override
+    public boolean denyAll() {
+        return delegate.denyAll();
+    }
+
+    @Override
+    public boolean isAnonymous() {
+        return delegate.isAnonymous();
+    }
+
+    @Override
+    public boolean isAuthenticated() {
+        return delegate.isAuthenticated();
+    }
+
+    @Override
+    public boolean isRememberMe() {
+        return delegate.isRememberMe();
+    }
+
+    @Override
+    public boolean isFullyAuthenticated() {
+        return delegate.isFullyAuthenticated();
+    }
+
+    @Override
+    public boolean hasPermission(Object target, Object permission) {
+        return delegate.hasPermission(target, permission);
+    }
+
+    @Override
+    public boolean hasPermission(Object targetId, String targetType, Object permission) {
+        return delegate.hasPermission(targetId, targetType, permission);
+    }
+
+    @Override
+    public void setFilterObject(Object filterObject) {
+        delegate.setFilterObject(filterObject);
+    }
+
+    @Override
+    public Object getFilterObject() {
+        return delegate.getFilterObject();
+    }
+
+    @Override
+    public void setReturnObject(Object returnObject) {
+        delegate.setReturnObject(returnObject);
+    }
+
+    @Override
+    public Object getReturnObject() {
+        return delegate.getReturnObject();
+    }
+
+    @Override
+    public Object getThis() {
+        return delegate.getThis();
+    }
+}
@@ -0,0 +1,198 @@
+package com.deyoch.security;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * 密码哈希专用执行器
+ * BCrypt是刻意设计的CPU密集型计算，登录高峰时直接在Tomcat工作线程上执行会耗尽CPU并拖慢所有接口
+ * 这里将matches/encode放到固定大小的线程池执行，并限制排队长度：
+ * 队列已满时立即拒绝（抛出RejectedExecutionException），由调用方返回"稍后重试"，而不是无限堆积
+ *
+ * @author deyoch-oa
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class PasswordHashExecutor {
+
+    private final PasswordEncoder passwordEncoder;
+
+    /**
+     * 哈希线程数，默认为CPU核数
+     */
+    @Value("${auth.hash.pool-size:0}")
+    private int poolSize;
+
+    /**
+     * 最大排队任务数，超出后快速拒绝
+     */
+    @Value("${auth.hash.queue-capacity:200}")
+    private int queueCapacity;
+
+    /**
+     * 同步调用的最长等待时间（毫秒）
+     */
+    @Value("${auth.hash.timeout:10000}")
+    private long timeout;
+
+    private ThreadPoolExecutor executor;
+
+    private final LongAdder completed = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder queueWaitNanos = new LongAdder();
+    private final LongAdder hashNanos = new LongAdder();
+    private final LongAccumulator maxQueueWaitNanos = new LongAccumulator(Math::max, 0);
+
+    @PostConstruct
+    public void init() {
+        int threads = poolSize > 0 ? poolSize : Runtime.getRuntime().availableProcessors();
+        AtomicInteger threadIndex = new AtomicInteger();
+        executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "password-hash-" + threadIndex.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+        log.info("密码哈希执行器已启动：线程数={}，队列容量={}", threads, queueCapacity);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+    }
+
+    /**
+     * 异步校验密码
+     * @param rawPassword 明文密码
+     * @param encodedPassword 密文密码
+     * @return 校验结果，队列已满时以RejectedExecutionException失败
+     */
+    public CompletableFuture<Boolean> matchesAsync(String rawPassword, String encodedPassword) {
+        return submit(() -> passwordEncoder.matches(rawPassword, encodedPassword));
+    }
+
+    /**
+     * 异步加密密码
+     * @param rawPassword 明文密码
+     * @return 密文密码，队列已满时以RejectedExecutionException失败
+     */
+    public CompletableFuture<String> encodeAsync(String rawPassword) {
+        return submit(() -> passwordEncoder.encode(rawPassword));
+    }
+
+    /**
+     * 校验密码并等待结果
+     * @param rawPassword 明文密码
+     * @param encodedPassword 密文密码
+     * @return 是否匹配
+     * @throws RejectedExecutionException 队列已满或等待超时
+     */
+    public boolean matches(String rawPassword, String encodedPassword) {
+        return await(matchesAsync(rawPassword, encodedPassword));
+    }
+
+    /**
+     * 加密密码并等待结果
+     * @param rawPassword 明文密码
+     * @return 密文密码
+     * @throws RejectedExecutionException 队列已满或等待超时
+     */
+    public String encode(String rawPassword) {
+        return await(encodeAsync(rawPassword));
+    }
+
+    /**
+     * 获取执行器统计
+     * @return 队列长度、拒绝次数、平均排队时间和平均哈希耗时等
+     */
+    public Map<String, Object> getStats() {
+        long completedCount = completed.sum();
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("poolSize", executor.getMaximumPoolSize());
+        stats.put("activeCount", executor.getActiveCount());
+        stats.put("queueSize", executor.getQueue().size());
+        stats.put("queueCapacity", queueCapacity);
+        stats.put("completed", completedCount);
+        stats.put("rejected", rejected.sum());
+        stats.put("avgQueueWaitMs", completedCount == 0 ? 0.0 : queueWaitNanos.sum() / 1e6 / completedCount);
+        stats.put("maxQueueWaitMs", maxQueueWaitNanos.get() / 1e6);
+        stats.put("avgHashMs", completedCount == 0 ? 0.0 : hashNanos.sum() / 1e6 / completedCount);
+        return stats;
+    }
+
+    private <T> CompletableFuture<T> submit(Supplier<T> task) {
+        long submittedAt = System.nanoTime();
+        try {
+            return CompletableFuture.supplyAsync(() -> {
+                long startedAt = System.nanoTime();
+                long waited = startedAt - submittedAt;
+                queueWaitNanos.add(waited);
+                maxQueueWaitNanos.accumulate(waited);
+                try {
+                    return task.get();
+                } finally {
+                    hashNanos.add(System.nanoTime() - startedAt);
+                    completed.increment();
+                }
+            }, executor);
+        } catch (RejectedExecutionException e) {
+            rejected.increment();
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    private <T> T await(CompletableFuture<T> future) {
+        try {
+            return future.get(timeout, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            future.cancel(false);
+            throw new RejectedExecutionException("密码哈希等待超时", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new IllegalStateException(e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RejectedExecutionException("密码哈希等待被中断", e);
+        }
+    }
+
+    /**
+     * 判断异常是否由执行器拒绝导致
+     * @param throwable 异常（可能被CompletionException包装）
+     * @return 是拒绝返回true
+     */
+    public static boolean isRejected(Throwable throwable) {
+        Throwable current = throwable;
+        while (current != null) {
+            if (current instanceof RejectedExecutionException) {
+                return true;
+            }
+            current = current.getCause();
+        }
+        return false;
+    }
+}
@@ -0,0 +1,252 @@
+package com.deyoch.security;
+
+import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
+import com.deyoch.entity.DeyochPermission;
+import com.deyoch.entity.DeyochRolePermission;
+import com.deyoch.mapper.DeyochPermissionMapper;
+import com.deyoch.mapper.DeyochRolePermissionMapper;
+import com.deyoch.utils.TransactionUtil;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 角色权限位图索引
+ * 为每个权限编码分配一个稠密的整数下标，并为每个角色预先计算权限位图
+ * hasAuthority判断只需一次哈希查找加一次位测试，不再线性扫描权限列表
+ * 首次使用时从数据库全量加载（两次查询），之后随角色授权、权限增删改增量维护
+ *
+ * @author deyoch-oa
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class PermissionBitsetIndex {
+
+    private final DeyochPermissionMapper deyochPermissionMapper;
+    private final DeyochRolePermissionMapper deyochRolePermissionMapper;
+
+    /**
+     * 不可变快照，修改时整体替换
+     */
+    private volatile Snapshot snapshot;
+
+    /**
+     * 判断位图是否包含指定权限
+     * @param bits 角色权限位图
+     * @param permCode 权限编码
+     * @return 包含返回true
+     */
+    public boolean hasAuthority(BitSet bits, String permCode) {
+        Integer bit = currentSnapshot().codeToBit.get(permCode);
+        return bit != null && bits.get(bit);
+    }
+
+    /**
+     * 判断位图是否包含指定权限ID
+     * @param bits 角色权限位图
+     * @param permId 权限ID
+     * @return 包含返回true
+     */
+    public boolean hasPermissionId(BitSet bits, Long permId) {
+        Integer bit = currentSnapshot().permIdToBit.get(permId);
+        return bit != null && bits.get(bit);
+    }
+
+    /**
+     * 获取角色的权限位图
+     * @param roleId 角色ID
+     * @return 权限位图（只读），索引加载失败返回null
+     */
+    public BitSet getRoleBits(Long roleId) {
+        try {
+            BitSet bits = currentSnapshot().roleBits.get(roleId);
+            return bits != null ? bits : new BitSet();
+        } catch (Exception e) {
+            log.warn("加载角色权限位图索引失败，回退到权限列表判断", e);
+            return null;
+        }
+    }
+
+    /**
+     * 角色的权限分配变更后更新该角色的位图
+     * @param roleId 角色ID
+     * @param permIds 新的权限ID列表
+     */
+    public void onRolePermissionsChanged(Long roleId, Collection<Long> permIds) {
+        afterCommit(() -> {
+            Snapshot current = snapshot;
+            if (current == null) {
+                return;
+            }
+            BitSet bits = new BitSet();
+            for (Long permId : permIds) {
+                Integer bit = current.permIdToBit.get(permId);
+                if (bit == null) {
+                    // 未知权限，说明索引已落后，丢弃快照等待下次全量加载
+                    snapshot = null;
+                    return;
+                }
+                bits.set(bit);
+            }
+            Map<Long, BitSet> roleBits = new HashMap<>(current.roleBits);
+            roleBits.put(roleId, bits);
+            snapshot = new Snapshot(current.codeToBit, current.permIdToBit, roleBits, current.nextBit);
+        });
+    }
+
+    /**
+     * 角色删除后移除其位图
+     * @param roleId 角色ID
+     */
+    public void onRoleRemoved(Long roleId) {
+        afterCommit(() -> {
+            Snapshot current = snapshot;
+            if (current == null) {
+                return;
+            }
+            Map<Long, BitSet> roleBits = new HashMap<>(current.roleBits);
+            roleBits.remove(roleId);
+            snapshot = new Snapshot(current.codeToBit, current.permIdToBit, roleBits, current.nextBit);
+        });
+    }
+
+    /**
+     * 权限新增或修改后更新权限编码与下标的映射
+     * 已有权限沿用原下标，因此角色位图无需变化
+     * @param permission 权限
+     */
+    public void onPermissionSaved(DeyochPermission permission) {
+        afterCommit(() -> {
+            Snapshot current = snapshot;
+            if (current == null) {
+                return;
+            }
+            Map<String, Integer> codeToBit = new HashMap<>(current.codeToBit);
+            Map<Long, Integer> permIdToBit = new HashMap<>(current.permIdToBit);
+            int nextBit = current.nextBit;
+            Integer bit = permIdToBit.get(permission.getId());
+            if (bit == null) {
+                bit = nextBit++;
+                permIdToBit.put(permission.getId(), bit);
+            }
+            if (permission.getPermCode() != null) {
+                final int permBit = bit;
+                codeToBit.values().removeIf(existing -> existing == permBit);
+                codeToBit.put(permission.getPermCode(), permBit);
+            }
+            snapshot = new Snapshot(codeToBit, permIdToBit, current.roleBits, nextBit);
+        });
+    }
+
+    /**
+     * 权限删除后移除映射并清除所有角色位图中的对应位
+     * @param permId 权限ID
+     */
+    public void onPermissionRemoved(Long permId) {
+        afterCommit(() -> {
+            Snapshot current = snapshot;
+            if (current == null) {
+                return;
+            }
+            Integer bit = current.permIdToBit.get(permId);
+            if (bit == null) {
+                return;
+            }
+            Map<String, Integer> codeToBit = new HashMap<>(current.codeToBit);
+            codeToBit.values().removeIf(existing -> existing.equals(bit));
+            Map<Long, Integer> permIdToBit = new HashMap<>(current.permIdToBit);
+            permIdToBit.remove(permId);
+            Map<Long, BitSet> roleBits = new HashMap<>(current.roleBits.size());
+            current.roleBits.forEach((roleId, bits) -> {
+                if (bits.get(bit)) {
+                    BitSet copy = (BitSet) bits.clone();
+                    copy.clear(bit);
+                    roleBits.put(roleId, copy);
+                } else {
+                    roleBits.put(roleId, bits);
+                }
+            });
+            snapshot = new Snapshot(codeToBit, permIdToBit, roleBits, current.nextBit);
+        });
+    }
+
+    /**
+     * 获取当前快照，未加载时全量加载
+     */
+    private Snapshot currentSnapshot() {
+        Snapshot current = snapshot;
+        if (current != null) {
+            return current;
+        }
+        synchronized (this) {
+            if (snapshot == null) {
+                snapshot = load();
+            }
+            return snapshot;
+        }
+    }
+
+    private Snapshot load() {
+        List<DeyochPermission> permList = deyochPermissionMapper.selectList(
+                new LambdaQueryWrapper<DeyochPermission>()
+                        .select(DeyochPermission::getId, DeyochPermission::getPermCode)
+                        .orderByAsc(DeyochPermission::getId));
+        Map<String, Integer> codeToBit = new HashMap<>();
+        Map<Long, Integer> permIdToBit = new HashMap<>();
+        int nextBit = 0;
+        for (DeyochPermission perm : permList) {
+            permIdToBit.put(perm.getId(), nextBit);
+            codeToBit.put(perm.getPermCode(), nextBit);
+            nextBit++;
+        }
+
+        Map<Long, BitSet> roleBits = new HashMap<>();
+        List<DeyochRolePermission> rolePermList = deyochRolePermissionMapper.selectList(null);
+        for (DeyochRolePermission rolePerm : rolePermList) {
+            Integer bit = permIdToBit.get(rolePerm.getPermId());
+            if (bit != null) {
+                roleBits.computeIfAbsent(rolePerm.getRoleId(), key -> new BitSet(permList.size())).set(bit);
+            }
+        }
+        log.info("角色权限位图索引加载完成：{}个权限，{}个角色", permList.size(), roleBits.size());
+        return new Snapshot(codeToBit, permIdToBit, roleBits, nextBit);
+    }
+
+    /**
+     * 在当前事务提交后执行，无事务时立即执行
+     * 避免事务回滚后索引与数据库不一致
+     */
+    private void afterCommit(Runnable action) {
+        Runnable synchronizedAction = () -> {
+            synchronized (this) {
+                action.run();
+            }
+        };
+        TransactionUtil.afterCommit(synchronizedAction);
+    }
+
+    /**
+     * 索引快照
+     */
+    private static class Snapshot {
+        private final Map<String, Integer> codeToBit;
+        private final Map<Long, Integer> permIdToBit;
+        private final Map<Long, BitSet> roleBits;
+        private final int nextBit;
+
+        private Snapshot(Map<String, Integer> codeToBit, Map<Long, Integer> permIdToBit,
+                         Map<Long, BitSet> roleBits, int nextBit) {
+            this.codeToBit = codeToBit;
+            this.permIdToBit = permIdToBit;
+            this.roleBits = roleBits;
+            this.nextBit = nextBit;
+        }
+    }
+}
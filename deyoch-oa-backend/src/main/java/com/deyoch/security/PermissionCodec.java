@@ -0,0 +1,124 @@
+package com.deyoch.security;
+
+import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
+import com.deyoch.entity.DeyochPermission;
+import com.deyoch.mapper.DeyochPermissionMapper;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 权限集合编解码器
+ * 将权限编码集合压缩为以权限ID为下标的位图，再进行Base64URL编码后签入Token
+ * 例如13个权限的集合编码后只有3个字符，远小于直接存放权限编码字符串
+ * 权限ID与编码的映射按权限定义的纪元缓存，权限新增、修改或删除后首次使用时重新加载
+ *
+ * @author deyoch-oa
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class PermissionCodec {
+
+    private final DeyochPermissionMapper deyochPermissionMapper;
+    private final PermissionEpoch permissionEpoch;
+
+    /**
+     * 当前权限定义纪元下的权限映射快照
+     */
+    private volatile Snapshot snapshot;
+
+    /**
+     * 将权限编码集合编码为紧凑字符串
+     * @param permCodes 权限编码集合
+     * @return 编码结果，存在无法识别的权限编码时返回null
+     */
+    public String encode(Collection<String> permCodes) {
+        Snapshot current = currentSnapshot();
+        BitSet bits = new BitSet();
+        for (String permCode : permCodes) {
+            Long permId = current.codeToId.get(permCode);
+            if (permId == null) {
+                log.warn("权限编码{}不在权限表中，无法签入Token", permCode);
+                return null;
+            }
+            bits.set(permId.intValue());
+        }
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(bits.toByteArray());
+    }
+
+    /**
+     * 将紧凑字符串解码为权限编码列表
+     * @param encoded 编码结果
+     * @return 权限编码列表，存在无法识别的权限ID时返回null
+     */
+    public List<String> decode(String encoded) {
+        Snapshot current = currentSnapshot();
+        BitSet bits = BitSet.valueOf(Base64.getUrlDecoder().decode(encoded));
+        List<String> permCodes = new ArrayList<>(bits.cardinality());
+        for (int permId = bits.nextSetBit(0); permId >= 0; permId = bits.nextSetBit(permId + 1)) {
+            String permCode = current.idToCode.get((long) permId);
+            if (permCode == null) {
+                return null;
+            }
+            permCodes.add(permCode);
+        }
+        return permCodes;
+    }
+
+    /**
+     * 获取当前权限定义纪元的权限映射，纪元变化后重新加载
+     */
+    private Snapshot currentSnapshot() {
+        long epoch = permissionEpoch.definitionEpoch();
+        Snapshot current = snapshot;
+        if (current != null && current.epoch == epoch) {
+            return current;
+        }
+        synchronized (this) {
+            current = snapshot;
+            if (current == null || current.epoch != epoch) {
+                current = load(epoch);
+                snapshot = current;
+            }
+            return current;
+        }
+    }
+
+    private Snapshot load(long epoch) {
+        List<DeyochPermission> permList = deyochPermissionMapper.selectList(
+                new LambdaQueryWrapper<DeyochPermission>()
+                        .select(DeyochPermission::getId, DeyochPermission::getPermCode));
+        Map<Long, String> idToCode = new HashMap<>();
+        Map<String, Long> codeToId = new HashMap<>();
+        for (DeyochPermission perm : permList) {
+            idToCode.put(perm.getId(), perm.getPermCode());
+            codeToId.put(perm.getPermCode(), perm.getId());
+        }
+        log.debug("加载权限编码映射，纪元{}，共{}个权限", epoch, permList.size());
+        return new Snapshot(epoch, idToCode, codeToId);
+    }
+
+    /**
+     * 权限映射快照
+     */
+    private static class Snapshot {
+        private final long epoch;
+        private final Map<Long, String> idToCode;
+        private final Map<String, Long> codeToId;
+
+        private Snapshot(long epoch, Map<Long, String> idToCode, Map<String, Long> codeToId) {
+            this.epoch = epoch;
+            this.idToCode = idToCode;
+            this.codeToId = codeToId;
+        }
+    }
+}
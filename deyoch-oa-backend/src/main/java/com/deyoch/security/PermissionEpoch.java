@@ -0,0 +1,243 @@
+package com.deyoch.security;
+
+import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
+import com.deyoch.entity.DeyochPermissionChange;
+import com.deyoch.mapper.DeyochPermissionChangeMapper;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 权限纪元（仅无状态授权模式使用）
+ * 每次权限变更在deyoch_permission_change中追加一条记录，范围为单个用户、单个角色或全部，自增主键即纪元；
+ * 主键由数据库分配，所有实例共享同一序列，登录时签入当前已知的最大纪元
+ * Token仍然可信的条件：签入的纪元不小于该用户、该角色以及全部范围上最近一次变更的纪元，
+ * 因此修改某个用户只让该用户的Token回退数据库校验，不影响其他用户
+ * 变更记录在事务提交后于独立事务中写入，先提交变更再分配纪元，签入纪元N的Token读取到的权限一定包含纪元不超过N的全部变更
+ * 其他实例的变更按同步间隔轮询读取，在此之前最多有一个同步间隔的延迟；服务重启后重新读取，之前签发的Token不受影响
+ *
+ * @author deyoch-oa
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class PermissionEpoch {
+
+    private static final String SCOPE_ALL = "all";
+
+    /**
+     * 每次同步回看的序号范围，补读并发插入时序号较小但提交较晚的记录
+     */
+    private static final long SYNC_OVERLAP = 100L;
+
+    /**
+     * 过期变更记录的清理间隔（毫秒）
+     */
+    private static final long CLEANUP_INTERVAL = 3600000L;
+
+    private final DeyochPermissionChangeMapper deyochPermissionChangeMapper;
+    private final PlatformTransactionManager transactionManager;
+
+    @Value("${auth.stateless.enabled:false}")
+    private boolean enabled;
+
+    /**
+     * 其他实例变更的同步间隔（毫秒）
+     */
+    @Value("${auth.stateless.epoch-sync-interval:5000}")
+    private long syncInterval = 5000L;
+
+    /**
+     * Token有效期（毫秒），超过该时长的变更记录不再影响任何Token
+     */
+    @Value("${jwt.expire:86400000}")
+    private long tokenTtl = 86400000L;
+
+    /**
+     * 各范围最近一次变更的纪元，清理时移除已被全部范围覆盖的用户、角色记录
+     */
+    private final Map<String, Long> latest = new ConcurrentHashMap<>();
+
+    /**
+     * 当前已知的最大纪元，包括本实例写入但尚未同步到的记录
+     */
+    private final AtomicLong current = new AtomicLong();
+
+    /**
+     * 已同步到的最大序号，只由同步推进
+     */
+    private long syncedId;
+    private long lastCleanup;
+    private volatile boolean loaded;
+
+    private ScheduledExecutorService syncer;
+
+    /**
+     * 应用启动完成后加载变更记录并开始定期同步
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        if (!enabled) {
+            return;
+        }
+        syncer = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "permission-epoch");
+            thread.setDaemon(true);
+            return thread;
+        });
+        syncer.scheduleWithFixedDelay(this::sync, 0, syncInterval, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (syncer != null) {
+            syncer.shutdownNow();
+        }
+    }
+
+    /**
+     * 获取当前纪元，登录时在读取权限之前调用并签入Token
+     * @return 当前已知的最大纪元
+     */
+    public long current() {
+        return current.get();
+    }
+
+    /**
+     * 判断Token中签入的纪元是否仍然有效
+     * @param epoch Token中的纪元
+     * @param userId 用户ID
+     * @param roleId 角色ID
+     * @return 用户、角色及全部范围在该纪元之后都没有变更时返回true，变更记录尚未加载时返回false
+     */
+    public boolean isCurrent(long epoch, Long userId, Long roleId) {
+        return loaded
+                && epoch >= latest(SCOPE_ALL)
+                && (userId == null || epoch >= latest(userScope(userId)))
+                && (roleId == null || epoch >= latest(roleScope(roleId)));
+    }
+
+    /**
+     * 获取全部范围（权限定义）最近一次变更的纪元
+     * @return 纪元，没有变更时返回0
+     */
+    public long definitionEpoch() {
+        return latest(SCOPE_ALL);
+    }
+
+    /**
+     * 记录用户的权限变更，使该用户已签发的Token回退数据库校验
+     * @param userId 用户ID
+     */
+    public void advanceUser(Long userId) {
+        record(userScope(userId));
+    }
+
+    /**
+     * 记录角色的权限变更，使该角色下所有用户已签发的Token回退数据库校验
+     * @param roleId 角色ID
+     */
+    public void advanceRole(Long roleId) {
+        record(roleScope(roleId));
+    }
+
+    /**
+     * 记录权限定义的变更，使所有已签发的Token回退数据库校验
+     */
+    public void advanceAll() {
+        record(SCOPE_ALL);
+    }
+
+    /**
+     * 读取其他实例写入的变更记录，并定期清理超过Token有效期的记录
+     */
+    synchronized void sync() {
+        try {
+            long now = System.currentTimeMillis();
+            boolean cleanup = now - lastCleanup >= CLEANUP_INTERVAL;
+            if (cleanup) {
+                deyochPermissionChangeMapper.delete(new LambdaQueryWrapper<DeyochPermissionChange>()
+                        .lt(DeyochPermissionChange::getCreatedAt, LocalDateTime.now().minus(Duration.ofMillis(tokenTtl))));
+                lastCleanup = now;
+            }
+            List<DeyochPermissionChange> changes = deyochPermissionChangeMapper.selectList(
+                    new LambdaQueryWrapper<DeyochPermissionChange>()
+                            .select(DeyochPermissionChange::getId, DeyochPermissionChange::getScope)
+                            .gt(DeyochPermissionChange::getId, Math.max(0, syncedId - SYNC_OVERLAP))
+                            .orderByAsc(DeyochPermissionChange::getId));
+            for (DeyochPermissionChange change : changes) {
+                apply(change.getId(), change.getScope());
+                syncedId = Math.max(syncedId, change.getId());
+            }
+            if (cleanup) {
+                pruneBelowGlobal();
+            }
+            if (!loaded) {
+                loaded = true;
+                log.info("权限纪元加载完成，当前纪元{}", current.get());
+            }
+        } catch (Exception e) {
+            log.warn("权限纪元同步失败", e);
+        }
+    }
+
+    private void record(String scope) {
+        if (!enabled) {
+            return;
+        }
+        try {
+            DeyochPermissionChange change = new DeyochPermissionChange(null, scope, LocalDateTime.now());
+            // 通常在提交后回调中执行，原事务的连接仍绑定在当前线程上，需开启新事务才能提交
+            TransactionTemplate template = new TransactionTemplate(transactionManager);
+            template.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+            template.executeWithoutResult(status -> deyochPermissionChangeMapper.insert(change));
+            apply(change.getId(), scope);
+        } catch (Exception e) {
+            log.error("权限变更记录写入失败，范围{}的已签发Token在其过期前仍按签入的权限授权", scope, e);
+        }
+    }
+
+    private void apply(long id, String scope) {
+        latest.merge(scope, id, Math::max);
+        current.accumulateAndGet(id, Math::max);
+    }
+
+    /**
+     * 移除纪元不超过全部范围的用户、角色记录
+     * 通过全部范围检查的Token纪元必然不小于这些记录，判断结果不变；
+     * 按值条件移除，不会删掉并发写入的更新纪元
+     */
+    private void pruneBelowGlobal() {
+        long floor = latest(SCOPE_ALL);
+        latest.entrySet().removeIf(entry -> !SCOPE_ALL.equals(entry.getKey()) && entry.getValue() <= floor);
+    }
+
+    private long latest(String scope) {
+        return latest.getOrDefault(scope, 0L);
+    }
+
+    private static String userScope(Long userId) {
+        return "u:" + userId;
+    }
+
+    private static String roleScope(Long roleId) {
+        return "r:" + roleId;
+    }
+}
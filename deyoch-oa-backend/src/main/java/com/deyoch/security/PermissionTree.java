@@ -0,0 +1,201 @@
+package com.deyoch.security;
+
+import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
+import com.deyoch.entity.DeyochPermission;
+import com.deyoch.mapper.DeyochPermissionMapper;
+import com.deyoch.utils.TransactionUtil;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.BeanUtils;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Predicate;
+
+/**
+ * 权限树快照
+ * 一次查询加载全部权限，单次遍历建立父子关系，结果作为不可变快照缓存
+ * 权限新增、修改、删除提交后整体丢弃快照，下次读取时重建，读取方始终看到完整一致的一棵树
+ * 快照带有加载前读取的版本号，丢弃快照时版本号加一；加载期间版本号变化说明查询结果可能已过期，不发布并重新加载
+ * 快照中的节点只读，调用方不得修改
+ *
+ * @author deyoch-oa
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class PermissionTree {
+
+    private final DeyochPermissionMapper deyochPermissionMapper;
+
+    /**
+     * 加载期间连续失效时的最大重新加载次数，超过后本次返回加载结果但不发布
+     */
+    private static final int MAX_RELOADS = 3;
+
+    private final AtomicLong version = new AtomicLong();
+
+    private volatile Snapshot snapshot;
+
+    /**
+     * 获取完整权限树
+     * @return 根节点列表（只读）
+     */
+    public List<DeyochPermission> getTree() {
+        return currentSnapshot().roots;
+    }
+
+    /**
+     * 获取裁剪后的权限树
+     * 只保留满足条件的节点，节点挂到最近的保留祖先下，没有保留祖先时作为根节点
+     * @param included 权限ID是否保留
+     * @return 根节点列表
+     */
+    public List<DeyochPermission> getPrunedTree(Predicate<Long> included) {
+        List<DeyochPermission> roots = new ArrayList<>();
+        for (DeyochPermission root : currentSnapshot().roots) {
+            prune(root, included, roots);
+        }
+        return roots;
+    }
+
+    /**
+     * 权限变更后丢弃快照
+     * 在当前事务提交后执行，无事务时立即执行
+     */
+    public void invalidate() {
+        TransactionUtil.afterCommit(this::discard);
+    }
+
+    private void discard() {
+        version.incrementAndGet();
+        snapshot = null;
+    }
+
+    private void prune(DeyochPermission node, Predicate<Long> included, List<DeyochPermission> target) {
+        List<DeyochPermission> childTarget = target;
+        if (included.test(node.getId())) {
+            DeyochPermission copy = copyOf(node);
+            copy.setChildren(new ArrayList<>());
+            target.add(copy);
+            childTarget = copy.getChildren();
+        }
+        for (DeyochPermission child : node.getChildren()) {
+            prune(child, included, childTarget);
+        }
+    }
+
+    private Snapshot currentSnapshot() {
+        Snapshot current = snapshot;
+        if (current != null && current.version == version.get()) {
+            return current;
+        }
+        synchronized (this) {
+            current = snapshot;
+            for (int attempt = 0; current == null || current.version != version.get(); attempt++) {
+                // 先读版本再查询，查询期间发生失效时版本号不一致，丢弃结果重新加载
+                long loadVersion = version.get();
+                current = load(loadVersion);
+                if (version.get() == loadVersion) {
+                    snapshot = current;
+                } else if (attempt >= MAX_RELOADS) {
+                    log.warn("权限树加载期间连续失效，本次结果不缓存");
+                    break;
+                }
+            }
+            return current;
+        }
+    }
+
+    private Snapshot load(long loadVersion) {
+        // 按排序号、ID排序后加载，子节点按遍历顺序追加即为有序
+        List<DeyochPermission> permList = deyochPermissionMapper.selectList(
+                new LambdaQueryWrapper<DeyochPermission>()
+                        .orderByAsc(DeyochPermission::getSort)
+                        .orderByAsc(DeyochPermission::getId));
+
+        Map<Long, DeyochPermission> nodeMap = new HashMap<>(permList.size() * 2);
+        List<DeyochPermission> nodes = new ArrayList<>(permList.size());
+        for (DeyochPermission perm : permList) {
+            DeyochPermission node = copyOf(perm);
+            node.setChildren(new ArrayList<>());
+            nodeMap.put(node.getId(), node);
+            nodes.add(node);
+        }
+
+        // 单次遍历挂接父子关系，父节点不存在的作为根节点
+        List<DeyochPermission> roots = new ArrayList<>();
+        for (DeyochPermission node : nodes) {
+            DeyochPermission parent = node.getParentId() != null ? nodeMap.get(node.getParentId()) : null;
+            if (parent != null) {
+                parent.getChildren().add(node);
+            } else {
+                roots.add(node);
+            }
+        }
+
+        // 父子关系成环的节点从根不可达，断开环上一条边后作为根节点，避免序列化死循环
+        Set<Long> visited = new HashSet<>(nodes.size() * 2);
+        for (DeyochPermission root : roots) {
+            markVisited(root, visited);
+        }
+        if (visited.size() < nodes.size()) {
+            for (DeyochPermission node : nodes) {
+                if (!visited.contains(node.getId())) {
+                    log.warn("权限父子关系存在环，已将权限{}作为根节点", node.getId());
+                    nodeMap.get(node.getParentId()).getChildren().remove(node);
+                    roots.add(node);
+                    markVisited(node, visited);
+                }
+            }
+        }
+
+        freeze(roots);
+        log.info("权限树快照加载完成：{}个权限，{}个根节点", nodes.size(), roots.size());
+        return new Snapshot(loadVersion, Collections.unmodifiableList(roots));
+    }
+
+    private void markVisited(DeyochPermission root, Set<Long> visited) {
+        List<DeyochPermission> stack = new ArrayList<>();
+        stack.add(root);
+        while (!stack.isEmpty()) {
+            DeyochPermission node = stack.remove(stack.size() - 1);
+            if (visited.add(node.getId())) {
+                stack.addAll(node.getChildren());
+            }
+        }
+    }
+
+    private void freeze(List<DeyochPermission> nodes) {
+        for (DeyochPermission node : nodes) {
+            freeze(node.getChildren());
+            node.setChildren(Collections.unmodifiableList(node.getChildren()));
+        }
+    }
+
+    private DeyochPermission copyOf(DeyochPermission perm) {
+        DeyochPermission copy = new DeyochPermission();
+        BeanUtils.copyProperties(perm, copy, "children");
+        return copy;
+    }
+
+    /**
+     * 权限树快照
+     */
+    private static class Snapshot {
+        private final long version;
+        private final List<DeyochPermission> roots;
+
+        private Snapshot(long version, List<DeyochPermission> roots) {
+            this.version = version;
+            this.roots = roots;
+        }
+    }
+}
@@ -0,0 +1,58 @@
+package com.deyoch.security;
+
+import io.jsonwebtoken.Claims;
+import jakarta.servlet.http.HttpServletRequest;
+import lombok.Getter;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+
+import java.util.Date;
+
+/**
+ * 请求级Token上下文
+ * JWT过滤器验证签名后将解析结果保存到请求属性中，同一请求内的后续读取无需再次验签
+ *
+ * @author deyoch-oa
+ */
+@Getter
+public class TokenContext {
+
+    /**
+     * 请求属性名
+     */
+    public static final String REQUEST_ATTRIBUTE = TokenContext.class.getName();
+
+    private final Long userId;
+    private final String username;
+    private final Date expiration;
+    private final Claims claims;
+
+    public TokenContext(Claims claims) {
+        this.userId = claims.get("userId", Long.class);
+        this.username = claims.getSubject();
+        this.expiration = claims.getExpiration();
+        this.claims = claims;
+    }
+
+    /**
+     * 将Token上下文绑定到请求
+     * @param request 当前请求
+     * @param context Token上下文
+     */
+    public static void bind(HttpServletRequest request, TokenContext context) {
+        request.setAttribute(REQUEST_ATTRIBUTE, context);
+    }
+
+    /**
+     * 获取当前请求的Token上下文
+     * @return Token上下文，非Web请求或Token未通过验证时返回null
+     */
+    public static TokenContext current() {
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        if (attributes == null) {
+            return null;
+        }
+        Object context = attributes.getAttribute(REQUEST_ATTRIBUTE, RequestAttributes.SCOPE_REQUEST);
+        return context instanceof TokenContext ? (TokenContext) context : null;
+    }
+}
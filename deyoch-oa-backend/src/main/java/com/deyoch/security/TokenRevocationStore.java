@@ -0,0 +1,281 @@
+package com.deyoch.security;
+
+import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
+import com.deyoch.entity.DeyochTokenRevocation;
+import com.deyoch.mapper.DeyochTokenRevocationMapper;
+import com.deyoch.utils.BloomFilter;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Token吊销存储
+ * 吊销记录以jti为主键持久化到deyoch_token_revocation，记录在Token过期后失去意义
+ * 前置一个内存布隆过滤器：绝大多数正常请求在布隆过滤器处即判定"未吊销"，
+ * 只有可能命中（真正吊销或误判）时才按主键做一次精确查询
+ * 启动时加载所有未过期的jti重建布隆过滤器，吊销在重启后依然有效
+ * 重建期间发生的吊销记入待补集合，新过滤器发布前补入，避免查询之后、替换之前吊销的jti从新过滤器中丢失
+ * 布隆过滤器是实例内存，后台线程按同步间隔读取吊销时间晚于水位的记录补入，多实例部署时其他实例的吊销在一个同步间隔内生效；
+ * 过滤器尚未加载或加载失败时同一线程负责重新加载，期间按主键精确查询
+ *
+ * @author deyoch-oa
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class TokenRevocationStore {
+
+    /**
+     * 每次同步回看的时长（毫秒），覆盖实例间的时钟偏差和提交较晚的记录
+     */
+    private static final long SYNC_OVERLAP = 60000L;
+
+    private final DeyochTokenRevocationMapper deyochTokenRevocationMapper;
+
+    /**
+     * 布隆过滤器预计容量，超过后按两倍容量重建
+     */
+    @Value("${auth.revocation.expected-insertions:100000}")
+    private long expectedInsertions;
+
+    /**
+     * 布隆过滤器期望误判率
+     */
+    @Value("${auth.revocation.false-positive-rate:0.01}")
+    private double falsePositiveRate;
+
+    /**
+     * 其他实例吊销记录的同步间隔（毫秒）
+     */
+    @Value("${auth.revocation.sync-interval:5000}")
+    private long syncInterval = 5000L;
+
+    private volatile BloomFilter bloomFilter;
+
+    /**
+     * 过滤器锁，吊销写入过滤器和重建发布新过滤器互斥，不覆盖重建中的数据库查询
+     */
+    private final Object filterLock = new Object();
+
+    /**
+     * 是否正在重建，由filterLock保护
+     */
+    private boolean rebuilding;
+
+    /**
+     * 重建开始后吊销的jti，发布新过滤器前补入，由filterLock保护
+     */
+    private final Set<String> revokedDuringRebuild = new HashSet<>();
+    private volatile boolean loaded;
+    private final AtomicLong insertions = new AtomicLong();
+
+    /**
+     * 已同步到的吊销时间水位，由同步和重建在this锁内更新
+     */
+    private LocalDateTime syncedUntil;
+
+    private ScheduledExecutorService syncer;
+
+    private final LongAdder bloomRejects = new LongAdder();
+    private final LongAdder exactLookups = new LongAdder();
+
+    /**
+     * 应用启动完成后重建布隆过滤器，之后定期同步其他实例的吊销
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        syncer = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "token-revocation");
+            thread.setDaemon(true);
+            return thread;
+        });
+        syncer.scheduleWithFixedDelay(this::sync, 0, syncInterval, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (syncer != null) {
+            syncer.shutdownNow();
+        }
+    }
+
+    /**
+     * 吊销Token
+     * @param jti Token唯一标识
+     * @param userId 用户ID
+     * @param expiration Token过期时间
+     */
+    public void revoke(String jti, Long userId, Date expiration) {
+        if (jti == null || expiration == null || expiration.before(new Date())) {
+            return;
+        }
+        LocalDateTime expireAt = LocalDateTime.ofInstant(expiration.toInstant(), ZoneId.systemDefault());
+        try {
+            deyochTokenRevocationMapper.insert(new DeyochTokenRevocation(jti, userId, expireAt, LocalDateTime.now()));
+        } catch (DuplicateKeyException e) {
+            // 同一Token并发登出，已由另一个请求写入
+            log.debug("Token已在吊销列表中：jti={}", jti);
+        }
+        BloomFilter filter;
+        synchronized (filterLock) {
+            filter = bloomFilter;
+            if (filter != null) {
+                filter.put(jti);
+            }
+            if (rebuilding) {
+                revokedDuringRebuild.add(jti);
+            }
+        }
+        if (filter != null) {
+            // 超出容量后由同步线程扩容重建，不在登出请求上全量加载
+            insertions.incrementAndGet();
+        }
+        log.info("Token已吊销：userId={}, jti={}", userId, jti);
+    }
+
+    /**
+     * 判断Token是否已吊销
+     * @param jti Token唯一标识
+     * @return 已吊销返回true
+     */
+    public boolean isRevoked(String jti) {
+        if (jti == null) {
+            return false;
+        }
+        BloomFilter filter = bloomFilter;
+        if (loaded && filter != null && !filter.mightContain(jti)) {
+            bloomRejects.increment();
+            return false;
+        }
+        // 可能命中或过滤器尚未就绪，按主键精确查询
+        exactLookups.increment();
+        DeyochTokenRevocation revocation = deyochTokenRevocationMapper.selectById(jti);
+        return revocation != null && revocation.getExpireAt().isAfter(LocalDateTime.now());
+    }
+
+    /**
+     * 获取布隆过滤器统计
+     * @return 统计信息：过滤器直接放行次数、精确查询次数、当前吊销数量
+     */
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("loaded", loaded);
+        stats.put("revoked", insertions.get());
+        stats.put("bloomRejects", bloomRejects.sum());
+        stats.put("exactLookups", exactLookups.sum());
+        return stats;
+    }
+
+    /**
+     * 重建布隆过滤器
+     * 先清理已过期的吊销记录，再加载未过期的jti
+     * @param capacity 预计容量
+     */
+    public synchronized void rebuild(long capacity) {
+        synchronized (filterLock) {
+            rebuilding = true;
+            revokedDuringRebuild.clear();
+        }
+        try {
+            LocalDateTime now = LocalDateTime.now();
+            // 查询开始之后吊销的记录由下一次同步补入
+            LocalDateTime watermark = now;
+            deyochTokenRevocationMapper.delete(new LambdaQueryWrapper<DeyochTokenRevocation>()
+                    .le(DeyochTokenRevocation::getExpireAt, now));
+            List<DeyochTokenRevocation> revocations = deyochTokenRevocationMapper.selectList(
+                    new LambdaQueryWrapper<DeyochTokenRevocation>()
+                            .select(DeyochTokenRevocation::getJti)
+                            .gt(DeyochTokenRevocation::getExpireAt, now));
+
+            long size = Math.max(capacity, revocations.size() * 2L);
+            BloomFilter filter = new BloomFilter(size, falsePositiveRate);
+            for (DeyochTokenRevocation revocation : revocations) {
+                filter.put(revocation.getJti());
+            }
+            int pending;
+            synchronized (filterLock) {
+                // 查询之后吊销的jti可能不在查询结果中，发布前补入
+                for (String jti : revokedDuringRebuild) {
+                    filter.put(jti);
+                }
+                pending = revokedDuringRebuild.size();
+                bloomFilter = filter;
+                rebuilding = false;
+                revokedDuringRebuild.clear();
+            }
+            insertions.set(revocations.size() + pending);
+            syncedUntil = watermark;
+            loaded = true;
+            log.info("Token吊销布隆过滤器重建完成，有效吊销记录{}条，容量{}", revocations.size(), size);
+        } catch (Exception e) {
+            log.warn("Token吊销布隆过滤器重建失败，将按主键精确查询吊销状态", e);
+        } finally {
+            synchronized (filterLock) {
+                rebuilding = false;
+                revokedDuringRebuild.clear();
+            }
+        }
+    }
+
+    /**
+     * 把其他实例吊销的jti补入布隆过滤器，过滤器尚未加载时重新加载
+     * 吊销数量超出容量时误判率会上升，按两倍容量重建（同时丢弃已过期记录）
+     */
+    synchronized void sync() {
+        if (!loaded) {
+            rebuild(expectedInsertions);
+            return;
+        }
+        long capacity = bloomFilter.getExpectedInsertions();
+        if (insertions.get() > capacity) {
+            rebuild(capacity * 2);
+            return;
+        }
+        try {
+            LocalDateTime now = LocalDateTime.now();
+            List<DeyochTokenRevocation> revocations = deyochTokenRevocationMapper.selectList(
+                    new LambdaQueryWrapper<DeyochTokenRevocation>()
+                            .select(DeyochTokenRevocation::getJti, DeyochTokenRevocation::getCreatedAt)
+                            .ge(DeyochTokenRevocation::getCreatedAt, syncedUntil.minus(Duration.ofMillis(SYNC_OVERLAP)))
+                            .gt(DeyochTokenRevocation::getExpireAt, now));
+            int added = 0;
+            synchronized (filterLock) {
+                for (DeyochTokenRevocation revocation : revocations) {
+                    if (!bloomFilter.mightContain(revocation.getJti())) {
+                        bloomFilter.put(revocation.getJti());
+                        added++;
+                    }
+                    if (revocation.getCreatedAt() != null && revocation.getCreatedAt().isAfter(syncedUntil)) {
+                        syncedUntil = revocation.getCreatedAt();
+                    }
+                }
+            }
+            if (added > 0) {
+                insertions.addAndGet(added);
+                log.debug("同步其他实例的Token吊销{}条", added);
+            }
+        } catch (Exception e) {
+            log.warn("Token吊销记录同步失败", e);
+        }
+    }
+}
@@ -0,0 +1,200 @@
+package com.deyoch.security;
+
+import com.deyoch.utils.LruCache;
+import com.deyoch.utils.TransactionUtil;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Predicate;
+
+/**
+ * 用户权限缓存
+ * 缓存用户名到已授权权限列表的映射，避免JWT过滤器在每个请求上重复查询用户和权限
+ * 采用LRU + TTL策略：超过容量淘汰最久未访问的条目，超过有效期的条目在读取时视为未命中
+ * 失效在事务提交后同时按相同范围推进权限纪元，使签入Token的权限一并过期
+ * 每次失效推进失效代数，加载前读取的代数已变化时不写入，避免失效之前读到的旧权限在失效之后写回缓存
+ *
+ * @author deyoch-oa
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class UserAuthorityCache {
+
+    private final PermissionEpoch permissionEpoch;
+
+    /**
+     * 缓存最大条目数
+     */
+    @Value("${auth.cache.max-size:10000}")
+    private int maxSize;
+
+    /**
+     * 缓存有效期（毫秒）
+     */
+    @Value("${auth.cache.ttl:300000}")
+    private long ttl;
+
+    private final LruCache<String, CachedAuthority> cache = new LruCache<>(() -> maxSize, () -> ttl);
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder invalidations = new LongAdder();
+    private final LongAdder staleLoads = new LongAdder();
+
+    /**
+     * 失效代数，每次失效时在缓存锁内递增
+     */
+    private final AtomicLong generation = new AtomicLong();
+
+    /**
+     * 获取用户的缓存权限
+     * @param username 用户名
+     * @return 缓存的权限信息，未命中或已过期返回null
+     */
+    public CachedAuthority get(String username) {
+        CachedAuthority cached = cache.get(username);
+        if (cached != null) {
+            hits.increment();
+        } else {
+            misses.increment();
+        }
+        return cached;
+    }
+
+    /**
+     * 获取当前失效代数，缓存未命中时在查询数据库之前读取
+     * @return 失效代数
+     */
+    public long generation() {
+        return generation.get();
+    }
+
+    /**
+     * 写入用户权限缓存
+     * 查询数据库之后发生过失效时不写入，查询结果只返回给本次请求
+     * @param username 用户名
+     * @param userId 用户ID
+     * @param roleId 角色ID
+     * @param authorities 权限列表
+     * @param loadedAt 查询数据库之前读取的失效代数
+     * @return 权限信息
+     */
+    public CachedAuthority put(String username, Long userId, Long roleId, List<GrantedAuthority> authorities,
+                               long loadedAt) {
+        CachedAuthority cached = new CachedAuthority(userId, roleId, List.copyOf(authorities));
+        synchronized (cache) {
+            if (generation.get() != loadedAt) {
+                staleLoads.increment();
+                return cached;
+            }
+            cache.put(username, cached);
+        }
+        return cached;
+    }
+
+    /**
+     * 使指定用户的缓存失效
+     * 用户信息（角色、状态等）变更后调用
+     * @param userId 用户ID
+     */
+    public void invalidateUser(Long userId) {
+        if (userId != null) {
+            invalidateAfterCommit(cached -> userId.equals(cached.getUserId()), () -> permissionEpoch.advanceUser(userId));
+        }
+    }
+
+    /**
+     * 使指定角色下所有用户的缓存失效
+     * 角色的权限分配变更后调用
+     * @param roleId 角色ID
+     */
+    public void invalidateRole(Long roleId) {
+        if (roleId != null) {
+            invalidateAfterCommit(cached -> roleId.equals(cached.getRoleId()), () -> permissionEpoch.advanceRole(roleId));
+        }
+    }
+
+    /**
+     * 清空全部缓存
+     * 权限定义本身（编码、删除）变更后调用
+     */
+    public void invalidateAll() {
+        invalidateAfterCommit(cached -> true, permissionEpoch::advanceAll);
+    }
+
+    /**
+     * 获取缓存统计信息
+     * @return 命中数、未命中数、命中率等统计数据
+     */
+    public Map<String, Object> getStats() {
+        long hitCount = hits.sum();
+        long missCount = misses.sum();
+        long total = hitCount + missCount;
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("size", cache.size());
+        stats.put("maxSize", maxSize);
+        stats.put("hits", hitCount);
+        stats.put("misses", missCount);
+        stats.put("hitRate", total == 0 ? 0.0 : (double) hitCount / total);
+        stats.put("evictions", cache.getEvictions());
+        stats.put("invalidations", invalidations.sum());
+        stats.put("staleLoads", staleLoads.sum());
+        return stats;
+    }
+
+    /**
+     * 立即失效匹配的条目，若处于事务中则在提交后再失效一次
+     * 防止事务提交前有并发请求把旧数据重新写回缓存
+     * 权限纪元只在提交后推进，保证纪元分配时变更已经可见
+     */
+    private void invalidateAfterCommit(Predicate<CachedAuthority> predicate, Runnable advanceEpoch) {
+        removeIf(predicate);
+        if (TransactionUtil.inTransaction()) {
+            TransactionUtil.afterCommit(() -> {
+                removeIf(predicate);
+                advanceEpoch.run();
+            });
+        } else {
+            advanceEpoch.run();
+        }
+    }
+
+    private void removeIf(Predicate<CachedAuthority> predicate) {
+        int removed;
+        synchronized (cache) {
+            generation.incrementAndGet();
+            removed = cache.removeIf(predicate);
+        }
+        if (removed > 0) {
+            invalidations.add(removed);
+            log.debug("用户权限缓存失效{}条", removed);
+        }
+    }
+
+    /**
+     * 缓存条目
+     * 保存用户ID、角色ID以便按用户或角色失效
+     */
+    @Getter
+    public static class CachedAuthority {
+        private final Long userId;
+        private final Long roleId;
+        private final List<GrantedAuthority> authorities;
+
+        public CachedAuthority(Long userId, Long roleId, List<GrantedAuthority> authorities) {
+            this.userId = userId;
+            this.roleId = roleId;
+            this.authorities = authorities;
+        }
+    }
+}
@@ -4,6 +4,8 @@ import com.deyoch.dto.LoginRequestDto;
 import com.deyoch.dto.LoginResponseDto;
 import com.deyoch.common.result.Result;
 
+import java.util.concurrent.CompletableFuture;
+
 /**
  * 认证服务接口
  * 提供用户登录、注销等认证相关功能
@@ -13,9 +15,10 @@ public interface AuthService {
     /**
      * 用户登录
      * @param loginRequestDto 登录请求参数
+     * 密码校验在专用线程池中异步执行，校验排队过长时返回TOO_MANY_REQUESTS
      * @return 登录结果，包含Token和用户信息
      */
-    Result<LoginResponseDto> login(LoginRequestDto loginRequestDto);
+    CompletableFuture<Result<LoginResponseDto>> login(LoginRequestDto loginRequestDto);
     
     /**
      * 用户登出
@@ -4,6 +4,7 @@ import com.deyoch.common.result.PageResult;
 import com.deyoch.common.result.Result;
 import com.deyoch.dto.ContactDto;
 import com.deyoch.dto.OrgTreeDto;
+import com.deyoch.dto.OrgTreeSnapshot;
 import org.springframework.web.multipart.MultipartFile;
 
 import jakarta.servlet.http.HttpServletResponse;
@@ -36,6 +37,33 @@ public interface ContactService {
      */
     Result<List<OrgTreeDto>> getOrganizationTree();
     
+    /**
+     * 获取组织架构树快照（带版本号，用于ETag协商）
+     * 
+     * @return 组织架构树快照
+     */
+    Result<OrgTreeSnapshot> getOrganizationTreeSnapshot();
+    
+    /**
+     * 使组织架构树快照失效
+     * 用户或部门变更后调用，在当前事务提交后生效
+     */
+    void invalidateOrganizationTree();
+    
+    /**
+     * 用户变更后刷新其搜索索引，在当前事务提交后生效
+     * 
+     * @param userId 用户ID
+     */
+    void refreshContact(Long userId);
+    
+    /**
+     * 部门变更后刷新部门下联系人的搜索索引，在当前事务提交后生效
+     * 
+     * @param deptId 部门ID
+     */
+    void refreshDeptContacts(Long deptId);
+    
     /**
      * 搜索联系人
      * 
@@ -59,4 +59,17 @@ public interface DeptService extends IService<DeyochDept> {
      * @return 更新结果
      */
     Result<Void> updateDeptStatus(Long id, Integer status);
-}
\ No newline at end of file
+
+    /**
+     * 获取部门及其所有子部门的ID（基于闭包表，一次索引查询）
+     * @param deptId 部门ID
+     * @return 部门ID列表，包含自身
+     */
+    List<Long> getSubDeptIds(Long deptId);
+
+    /**
+     * 根据parent_id全量重建部门闭包表
+     * @return 重建结果
+     */
+    Result<Void> rebuildDeptClosure();
+}
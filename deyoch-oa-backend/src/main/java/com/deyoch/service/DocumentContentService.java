@@ -0,0 +1,30 @@
+package com.deyoch.service;
+
+import com.deyoch.common.result.Result;
+
+import java.util.Map;
+
+/**
+ * 文档正文抽取服务接口
+ * 在后台从文档当前文件（有版本时为最新版本的文件）中抽取纯文本，压缩保存后送入全文索引，请求线程不做任何抽取
+ */
+public interface DocumentContentService {
+
+    /**
+     * 文档新建或文件变更后抽取正文，在当前事务提交后异步执行
+     * @param documentId 文档ID
+     */
+    void scheduleExtraction(Long documentId);
+
+    /**
+     * 补偿抽取：为尚未抽取或文件已变更的文档排队抽取，异步执行
+     * @return 提交结果
+     */
+    Result<Void> backfill();
+
+    /**
+     * 获取抽取统计
+     * @return 各结果计数和队列长度
+     */
+    Map<String, Object> getStats();
+}
@@ -26,6 +26,16 @@ public interface DocumentService extends IService<DeyochDocument> {
      */
     Result<PageResult<DeyochDocument>> getDocumentList(Integer page, Integer size, String keyword);
 
+    /**
+     * 游标分页获取文档列表
+     * 按创建时间、ID倒序，每页是一次索引范围扫描，不统计总数
+     * @param cursor 上一页返回的nextCursor，第一页传空字符串
+     * @param size 每页数量
+     * @param keyword 搜索关键词
+     * @return 文档列表及下一页游标
+     */
+    Result<PageResult<DeyochDocument>> getDocumentListByCursor(String cursor, Integer size, String keyword);
+
     /**
      * 根据ID获取文档详情
      * @param id 文档ID
@@ -36,9 +46,10 @@ public interface DocumentService extends IService<DeyochDocument> {
     /**
      * 根据部门ID获取文档列表
      * @param deptId 部门ID
+     * @param includeChildren 是否包含子部门
      * @return 文档列表
      */
-    Result<List<DeyochDocument>> getDocumentsByDeptId(Long deptId);
+    Result<List<DeyochDocument>> getDocumentsByDeptId(Long deptId, Boolean includeChildren);
 
     /**
      * 创建文档
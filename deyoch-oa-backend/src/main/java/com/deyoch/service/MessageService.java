@@ -3,6 +3,7 @@ package com.deyoch.service;
 import com.deyoch.common.result.PageResult;
 import com.deyoch.common.result.Result;
 import com.deyoch.dto.MessageDto;
+import com.deyoch.dto.TemplateMessageDto;
 import com.deyoch.entity.DeyochMessage;
 
 import java.util.List;
@@ -43,6 +44,16 @@ public interface MessageService {
      */
     Result<Void> sendMessageByTemplate(String templateType, Long receiverId, Map<String, Object> variables);
     
+    /**
+     * 根据模板批量发送消息
+     * 模板只查询一次，消息一次批量写入后逐个实时推送
+     * 
+     * @param templateType 模板类型
+     * @param messages 每个接收者的模板变量和关联业务
+     * @return 发送结果
+     */
+    Result<Void> sendBatchMessageByTemplate(String templateType, List<TemplateMessageDto> messages);
+    
     /**
      * 分页查询用户消息
      * 
@@ -56,6 +67,20 @@ public interface MessageService {
     Result<PageResult<MessageDto>> getUserMessages(Long userId, Integer page, Integer size, 
                                                   Integer type, Integer isRead);
     
+    /**
+     * 游标分页查询用户消息
+     * 按创建时间、ID倒序（不按优先级排序），每页是一次索引范围扫描，不统计总数
+     * 
+     * @param userId 用户ID
+     * @param cursor 上一页返回的nextCursor，第一页传空字符串
+     * @param size 每页大小
+     * @param type 消息类型
+     * @param isRead 是否已读
+     * @return 消息列表及下一页游标
+     */
+    Result<PageResult<MessageDto>> getUserMessagesByCursor(Long userId, String cursor, Integer size,
+                                                          Integer type, Integer isRead);
+    
     /**
      * 标记消息为已读
      * 
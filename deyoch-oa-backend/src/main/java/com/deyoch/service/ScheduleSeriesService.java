@@ -0,0 +1,51 @@
+package com.deyoch.service;
+
+import com.baomidou.mybatisplus.extension.service.IService;
+import com.deyoch.common.result.Result;
+import com.deyoch.entity.DeyochScheduleSeries;
+import com.deyoch.entity.DeyochScheduleSeriesException;
+
+import java.util.List;
+
+/**
+ * 重复日程服务接口
+ * 系列只保存重复规则，实例在日程查询时按窗口展开
+ */
+public interface ScheduleSeriesService extends IService<DeyochScheduleSeries> {
+
+    /**
+     * 获取当前用户的重复日程系列
+     * @return 系列列表
+     */
+    Result<List<DeyochScheduleSeries>> getMySeriesList();
+
+    /**
+     * 创建重复日程系列
+     * @param series 系列信息，开始和结束时间为首次实例的时间
+     * @return 创建结果
+     */
+    Result<DeyochScheduleSeries> createSeries(DeyochScheduleSeries series);
+
+    /**
+     * 更新重复日程系列
+     * 重复规则整体替换：星期、截止日期和重复次数未给出时视为清除；已有的单个实例修改按原定开始时间保留
+     * @param series 系列信息
+     * @return 更新结果
+     */
+    Result<DeyochScheduleSeries> updateSeries(DeyochScheduleSeries series);
+
+    /**
+     * 删除重复日程系列，单个实例的修改一并删除
+     * @param id 系列ID
+     * @return 删除结果
+     */
+    Result<Void> deleteSeries(Long id);
+
+    /**
+     * 修改或取消系列中的单个实例
+     * @param seriesId 系列ID
+     * @param exception 例外信息，originalStartTime标识实例，cancelled为1时取消该实例
+     * @return 保存结果
+     */
+    Result<Void> saveOccurrenceException(Long seriesId, DeyochScheduleSeriesException exception);
+}
@@ -1,6 +1,9 @@
 package com.deyoch.service;
 
 import com.baomidou.mybatisplus.extension.service.IService;
+import com.deyoch.dto.FreeSlotDto;
+import com.deyoch.dto.ScheduleConflictCheckDto;
+import com.deyoch.dto.ScheduleDayDto;
 import com.deyoch.entity.DeyochSchedule;
 import com.deyoch.common.result.Result;
 
@@ -34,17 +37,21 @@ public interface ScheduleService extends IService<DeyochSchedule> {
 
     /**
      * 创建日程
+     * 返回的日程中带有与之时间冲突的已有日程
      * @param schedule 日程信息
+     * @param rejectOnConflict 与已有日程冲突时是否拒绝创建
      * @return 创建结果
      */
-    Result<DeyochSchedule> createSchedule(DeyochSchedule schedule);
+    Result<DeyochSchedule> createSchedule(DeyochSchedule schedule, boolean rejectOnConflict);
 
     /**
      * 更新日程信息
+     * 返回的日程中带有与之时间冲突的其他日程
      * @param schedule 日程信息
+     * @param rejectOnConflict 与其他日程冲突时是否拒绝更新
      * @return 更新结果
      */
-    Result<DeyochSchedule> updateSchedule(DeyochSchedule schedule);
+    Result<DeyochSchedule> updateSchedule(DeyochSchedule schedule, boolean rejectOnConflict);
 
     /**
      * 删除日程
@@ -60,4 +67,46 @@ public interface ScheduleService extends IService<DeyochSchedule> {
      * @return 更新结果
      */
     Result<Void> updateScheduleStatus(Long id, Integer status);
-}
\ No newline at end of file
+
+    /**
+     * 获取当前用户的日历视图，日程按天分组，跨天日程展开到覆盖的每一天
+     * @param view 视图类型：month-月视图，week-周视图（周一至周日）
+     * @param date 视图内的任意日期，格式yyyy-MM-dd，为空时取今天
+     * @return 视图范围内每一天的日程
+     */
+    Result<List<ScheduleDayDto>> getCalendarView(String view, String date);
+
+    /**
+     * 获取分享给当前用户的日程
+     * @return 日程列表
+     */
+    Result<List<DeyochSchedule>> getSharedScheduleList();
+
+    /**
+     * 分享日程，分享列表整体替换，不在列表中的用户取消分享
+     * @param id 日程ID
+     * @param sharedUserIds 被分享用户ID列表，为空时取消全部分享
+     * @return 分享结果
+     */
+    Result<Void> shareSchedule(Long id, List<Long> sharedUserIds);
+
+    /**
+     * 查找多个用户在时间范围内的共同空闲时段
+     * @param userIds 用户ID列表
+     * @param startTime 范围开始，格式yyyy-MM-dd HH:mm:ss
+     * @param endTime 范围结束，格式yyyy-MM-dd HH:mm:ss
+     * @param duration 时段长度（分钟）
+     * @param limit 最多返回的时段数
+     * @return 按时间排序的空闲时段，每个空档返回一个
+     */
+    Result<List<FreeSlotDto>> findFreeSlots(List<Long> userIds, String startTime, String endTime,
+                                            Integer duration, Integer limit);
+
+    /**
+     * 批量检查待创建或修改的日程与已有日程的时间冲突，不写入数据
+     * 同时给出同一批次内同一用户的日程之间的冲突
+     * @param schedules 待检查的日程，未指定用户时按当前用户检查，带ID时不与自身比较
+     * @return 与请求列表一一对应的检查结果
+     */
+    Result<List<ScheduleConflictCheckDto>> checkConflicts(List<DeyochSchedule> schedules);
+}
@@ -0,0 +1,55 @@
+package com.deyoch.service;
+
+import com.deyoch.common.result.PageResult;
+import com.deyoch.common.result.Result;
+import com.deyoch.dto.SearchHitDto;
+import com.deyoch.service.index.SearchType;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 全文检索服务接口
+ * 为文档、任务、公告维护增量更新的倒排索引，提供统一检索以及列表页关键词过滤
+ */
+public interface SearchService {
+
+    /**
+     * 全文检索
+     * 拥有对应管理权限时检索该类型全部数据，否则只检索与自己相关或公开的数据
+     * @param keyword 关键词，多个词以空格分隔，须全部命中
+     * @param type 数据类型（document、task、announcement），为空时检索全部类型
+     * @param page 页码
+     * @param size 每页数量
+     * @return 按相关度排序的命中列表
+     */
+    Result<PageResult<SearchHitDto>> search(String keyword, String type, Integer page, Integer size);
+
+    /**
+     * 按子串匹配查找数据ID，供列表页关键词过滤使用，语义与LIKE '%keyword%'一致
+     * @param type 数据类型
+     * @param keyword 关键词
+     * @return 按列表默认顺序排列的ID，索引未就绪或关键词无法使用索引时返回null，由调用方回退到数据库查询
+     */
+    List<Long> matchIds(SearchType type, String keyword);
+
+    /**
+     * 数据变更后重新索引，在当前事务提交后异步执行
+     * @param type 数据类型
+     * @param id 数据ID（数据已删除时从索引中移除）
+     */
+    void refresh(SearchType type, Long id);
+
+    /**
+     * 从数据库全量重建索引，异步执行
+     * @param type 数据类型，为空时重建全部类型
+     * @return 提交结果
+     */
+    Result<Void> rebuild(String type);
+
+    /**
+     * 获取索引统计
+     * @return 各类型条目数、词元数以及检索次数
+     */
+    Map<String, Object> getStats();
+}
@@ -22,6 +22,16 @@ public interface TaskService extends IService<DeyochTask> {
      */
     Result<PageResult<DeyochTask>> getTaskList(Integer page, Integer size, String keyword);
 
+    /**
+     * 游标分页获取任务列表
+     * 按创建时间、ID倒序，每页是一次索引范围扫描，不统计总数
+     * @param cursor 上一页返回的nextCursor，第一页传空字符串
+     * @param size 每页数量
+     * @param keyword 搜索关键词
+     * @return 任务列表及下一页游标
+     */
+    Result<PageResult<DeyochTask>> getTaskListByCursor(String cursor, Integer size, String keyword);
+
     /**
      * 根据ID获取任务详情
      * @param id 任务ID
@@ -79,4 +89,11 @@ public interface TaskService extends IService<DeyochTask> {
      * @return 任务列表
      */
     Result<List<DeyochTask>> getTasksByPriority(Integer priority);
+
+    /**
+     * 获取部门及其所有子部门成员负责的任务
+     * @param deptId 部门ID
+     * @return 任务列表
+     */
+    Result<List<DeyochTask>> getTasksByDeptId(Long deptId);
 }
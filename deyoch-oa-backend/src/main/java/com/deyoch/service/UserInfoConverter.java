@@ -1,5 +1,7 @@
 package com.deyoch.service;
 
+import com.deyoch.dto.UserBriefDto;
+
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -9,6 +11,7 @@ import java.util.function.Function;
 /**
  * 用户信息转换器接口
  * 负责批量转换用户ID到用户名，优化数据库查询性能
+ * 用户简要信息带有读穿透缓存，用户修改或删除后需调用invalidateUser
  */
 public interface UserInfoConverter {
 
@@ -40,4 +43,24 @@ public interface UserInfoConverter {
     <T> void populateUserNames(T entity,
                               Function<T, Set<Long>> userIdExtractor,
                               BiConsumer<T, Map<Long, String>> userNameSetter);
+
+    /**
+     * 批量获取用户简要信息（用户名、昵称、头像）
+     * @param userIds 用户ID集合
+     * @return 用户ID到简要信息的映射，不存在的用户ID映射为用户名"未知用户"的条目
+     */
+    Map<Long, UserBriefDto> getUserBriefs(Set<Long> userIds);
+
+    /**
+     * 使指定用户的缓存失效
+     * 用户新增、修改或删除后调用，若处于事务中则在提交后再失效一次
+     * @param userId 用户ID
+     */
+    void invalidateUser(Long userId);
+
+    /**
+     * 获取用户信息缓存统计
+     * @return 命中数、未命中数、命中率、数据库查询次数等
+     */
+    Map<String, Object> getCacheStats();
 }
\ No newline at end of file
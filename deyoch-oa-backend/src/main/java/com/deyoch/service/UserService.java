@@ -5,6 +5,8 @@ import com.deyoch.entity.DeyochUser;
 import com.deyoch.common.result.PageResult;
 import com.deyoch.common.result.Result;
 
+import java.util.List;
+
 /**
  * 用户服务接口
  * 定义用户管理相关的业务逻辑方法
@@ -20,6 +22,16 @@ public interface UserService extends IService<DeyochUser> {
      */
     Result<PageResult<DeyochUser>> getUserList(Integer page, Integer size, String keyword);
 
+    /**
+     * 游标分页获取用户列表
+     * 按创建时间、ID倒序，每页是一次索引范围扫描，不统计总数
+     * @param cursor 上一页返回的nextCursor，第一页传空字符串
+     * @param size 每页数量
+     * @param keyword 搜索关键词
+     * @return 用户列表及下一页游标
+     */
+    Result<PageResult<DeyochUser>> getUserListByCursor(String cursor, Integer size, String keyword);
+
     /**
      * 根据ID获取用户详情
      * @param id 用户ID
@@ -83,4 +95,11 @@ public interface UserService extends IService<DeyochUser> {
      * @return 用户名
      */
     String getUsernameById(Long userId);
+
+    /**
+     * 获取部门及其所有子部门下的用户
+     * @param deptId 部门ID
+     * @return 用户列表
+     */
+    Result<List<DeyochUser>> getUsersByDeptId(Long deptId);
 }
\ No newline at end of file
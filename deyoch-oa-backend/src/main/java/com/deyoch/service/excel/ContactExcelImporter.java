@@ -0,0 +1,321 @@
+package com.deyoch.service.excel;
+
+import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
+import com.deyoch.dto.ContactDto;
+import com.deyoch.entity.DeyochDept;
+import com.deyoch.mapper.ContactMapper;
+import com.deyoch.mapper.DeyochDeptMapper;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.ibatis.executor.BatchResult;
+import org.apache.ibatis.session.ExecutorType;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.apache.poi.openxml4j.opc.OPCPackage;
+import org.apache.poi.openxml4j.opc.PackageAccess;
+import org.apache.poi.ss.usermodel.DataFormatter;
+import org.apache.poi.ss.util.CellReference;
+import org.apache.poi.util.XMLHelper;
+import org.apache.poi.xssf.eventusermodel.ReadOnlySharedStringsTable;
+import org.apache.poi.xssf.eventusermodel.XSSFReader;
+import org.apache.poi.xssf.eventusermodel.XSSFSheetXMLHandler;
+import org.apache.poi.xssf.model.StylesTable;
+import org.apache.poi.xssf.usermodel.XSSFComment;
+import org.mybatis.spring.SqlSessionTemplate;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.xml.sax.InputSource;
+import org.xml.sax.XMLReader;
+
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+/**
+ * 通讯录Excel流式导入
+ * 基于POI事件模型（SAX）逐行解析工作表，不构建整个工作簿的DOM，内存占用与行数无关
+ * 每行解析后立即校验，合法的行累积到批次，满batch-size后在独立的短事务中以JDBC批量方式按用户名更新联系信息
+ * 某个批次失败只回滚该批次，错误明细只保留前max-error-details条
+ * 列顺序与导出一致：姓名、用户名、工号、职位、部门、电话、邮箱、办公地点、分机号
+ *
+ * @author deyoch-oa
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class ContactExcelImporter {
+
+    private static final Pattern PHONE_PATTERN = Pattern.compile("^[0-9+\\-() ]{3,20}$");
+    private static final Pattern EMAIL_PATTERN = Pattern.compile("^[^@\\s]+@[^@\\s]+$");
+
+    private final SqlSessionFactory sqlSessionFactory;
+    private final PlatformTransactionManager transactionManager;
+    private final DeyochDeptMapper deyochDeptMapper;
+
+    /**
+     * 每批更新的行数，每批一个事务
+     */
+    @Value("${contact.import.batch-size:500}")
+    private int batchSize;
+
+    /**
+     * 最多保留的错误明细条数
+     */
+    @Value("${contact.import.max-error-details:100}")
+    private int maxErrorDetails;
+
+    /**
+     * 导入通讯录
+     * @param inputStream xlsx文件输入流
+     * @return 导入报告
+     * @throws Exception 文件无法解析时抛出
+     */
+    public ImportReport importContacts(InputStream inputStream) throws Exception {
+        // 先落盘再以文件方式打开，避免OPCPackage把整个压缩包读入内存
+        Path tempFile = Files.createTempFile("contact-import-", ".xlsx");
+        try {
+            Files.copy(inputStream, tempFile, StandardCopyOption.REPLACE_EXISTING);
+            ImportReport report = new ImportReport(maxErrorDetails);
+            RowHandler handler = new RowHandler(loadDeptIds(), report);
+            try (OPCPackage pkg = OPCPackage.open(tempFile.toFile(), PackageAccess.READ)) {
+                XSSFReader reader = new XSSFReader(pkg);
+                ReadOnlySharedStringsTable strings = new ReadOnlySharedStringsTable(pkg);
+                StylesTable styles = reader.getStylesTable();
+                XSSFReader.SheetIterator sheets = (XSSFReader.SheetIterator) reader.getSheetsData();
+                if (sheets.hasNext()) {
+                    try (InputStream sheet = sheets.next()) {
+                        XMLReader parser = XMLHelper.newXMLReader();
+                        parser.setContentHandler(new XSSFSheetXMLHandler(
+                                styles, null, strings, handler, new DataFormatter(), false));
+                        parser.parse(new InputSource(sheet));
+                    }
+                }
+            }
+            handler.flush();
+            log.info("通讯录导入完成：成功{}条，失败{}条", report.getSuccessCount(), report.getErrorCount());
+            return report;
+        } finally {
+            Files.deleteIfExists(tempFile);
+        }
+    }
+
+    /**
+     * 在独立事务中批量执行更新
+     * @param contacts 本批联系人
+     * @return 每行的更新行数，与contacts顺序一致
+     */
+    int[] writeBatch(List<ContactDto> contacts) {
+        SqlSessionTemplate batchTemplate = new SqlSessionTemplate(sqlSessionFactory, ExecutorType.BATCH);
+        List<BatchResult> results = new TransactionTemplate(transactionManager).execute(status -> {
+            ContactMapper mapper = batchTemplate.getMapper(ContactMapper.class);
+            for (ContactDto contact : contacts) {
+                mapper.updateContactByUsername(contact);
+            }
+            return batchTemplate.flushStatements();
+        });
+        int[] counts = new int[contacts.size()];
+        int index = 0;
+        for (BatchResult result : results) {
+            for (int count : result.getUpdateCounts()) {
+                if (index < counts.length) {
+                    counts[index++] = count;
+                }
+            }
+        }
+        return counts;
+    }
+
+    /**
+     * 加载部门名称到ID的映射，重名部门映射为null
+     */
+    private Map<String, Long> loadDeptIds() {
+        Map<String, Long> deptIds = new HashMap<>();
+        for (DeyochDept dept : deyochDeptMapper.selectList(new LambdaQueryWrapper<DeyochDept>()
+                .select(DeyochDept::getId, DeyochDept::getDeptName))) {
+            if (dept.getDeptName() != null) {
+                String name = dept.getDeptName().trim();
+                deptIds.put(name, deptIds.containsKey(name) ? null : dept.getId());
+            }
+        }
+        return deptIds;
+    }
+
+    /**
+     * 行处理器：收集一行的单元格，行结束时校验并加入批次
+     */
+    private class RowHandler implements XSSFSheetXMLHandler.SheetContentsHandler {
+
+        private final Map<String, Long> deptIds;
+        private final ImportReport report;
+        private final String[] values = new String[9];
+        private final List<ContactDto> batch = new ArrayList<>();
+        private final List<Integer> batchRows = new ArrayList<>();
+
+        private RowHandler(Map<String, Long> deptIds, ImportReport report) {
+            this.deptIds = deptIds;
+            this.report = report;
+        }
+
+        @Override
+        public void startRow(int rowNum) {
+            Arrays.fill(values, "");
+        }
+
+        @Override
+        public void cell(String cellReference, String formattedValue, XSSFComment comment) {
+            int column = new CellReference(cellReference).getCol();
+            if (column < values.length && formattedValue != null) {
+                values[column] = formattedValue.trim();
+            }
+        }
+
+        @Override
+        public void endRow(int rowNum) {
+            // 跳过标题行和空行
+            if (rowNum == 0 || isBlankRow()) {
+                return;
+            }
+            int displayRow = rowNum + 1;
+            String error = validate();
+            if (error != null) {
+                report.addError(displayRow, error);
+                return;
+            }
+            ContactDto contact = new ContactDto();
+            contact.setRealName(values[0]);
+            contact.setUsername(values[1]);
+            contact.setEmployeeId(values[2]);
+            contact.setPosition(values[3]);
+            contact.setPhone(values[5]);
+            contact.setEmail(values[6]);
+            contact.setOfficeLocation(values[7]);
+            contact.setExtension(values[8]);
+            if (!values[4].isEmpty()) {
+                contact.setDeptId(deptIds.get(values[4]));
+            }
+            batch.add(contact);
+            batchRows.add(displayRow);
+            if (batch.size() >= batchSize) {
+                flush();
+            }
+        }
+
+        private boolean isBlankRow() {
+            for (String value : values) {
+                if (!value.isEmpty()) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private String validate() {
+            if (values[0].isEmpty() || values[1].isEmpty()) {
+                return "姓名和用户名不能为空";
+            }
+            if (values[0].length() > 50 || values[3].length() > 50 || values[2].length() > 30
+                    || values[6].length() > 100 || values[7].length() > 100 || values[8].length() > 20) {
+                return "字段长度超出限制";
+            }
+            if (!values[5].isEmpty() && !PHONE_PATTERN.matcher(values[5]).matches()) {
+                return "电话格式不正确：" + values[5];
+            }
+            if (!values[6].isEmpty() && !EMAIL_PATTERN.matcher(values[6]).matches()) {
+                return "邮箱格式不正确：" + values[6];
+            }
+            if (!values[4].isEmpty()) {
+                if (!deptIds.containsKey(values[4])) {
+                    return "部门不存在：" + values[4];
+                }
+                if (deptIds.get(values[4]) == null) {
+                    return "部门名称不唯一：" + values[4];
+                }
+            }
+            return null;
+        }
+
+        private void flush() {
+            if (batch.isEmpty()) {
+                return;
+            }
+            try {
+                int[] counts = writeBatch(batch);
+                for (int i = 0; i < counts.length; i++) {
+                    if (counts[i] == 0) {
+                        report.addError(batchRows.get(i), "用户名不存在：" + batch.get(i).getUsername());
+                    } else if (counts[i] == Statement.EXECUTE_FAILED) {
+                        report.addError(batchRows.get(i), "更新失败");
+                    } else {
+                        report.addSuccess();
+                    }
+                }
+            } catch (Exception e) {
+                log.warn("通讯录导入第{}-{}行批量更新失败", batchRows.get(0), batchRows.get(batchRows.size() - 1), e);
+                for (Integer row : batchRows) {
+                    report.addError(row, "批量更新失败：" + e.getMessage());
+                }
+            } finally {
+                batch.clear();
+                batchRows.clear();
+            }
+        }
+    }
+
+    /**
+     * 导入报告
+     */
+    public static class ImportReport {
+
+        private final int maxErrorDetails;
+        private int successCount;
+        private int errorCount;
+        private final StringBuilder errorMessages = new StringBuilder();
+
+        ImportReport(int maxErrorDetails) {
+            this.maxErrorDetails = maxErrorDetails;
+        }
+
+        void addSuccess() {
+            successCount++;
+        }
+
+        void addError(int row, String message) {
+            errorCount++;
+            if (errorCount <= maxErrorDetails) {
+                errorMessages.append("第").append(row).append("行：").append(message).append("\n");
+            }
+        }
+
+        public int getSuccessCount() {
+            return successCount;
+        }
+
+        public int getErrorCount() {
+            return errorCount;
+        }
+
+        /**
+         * 生成导入结果描述
+         * @return 成功、失败条数及错误明细
+         */
+        public String getSummary() {
+            String summary = String.format("导入完成！成功：%d条，失败：%d条", successCount, errorCount);
+            if (errorCount > 0) {
+                summary += "\n错误详情：\n" + errorMessages;
+                if (errorCount > maxErrorDetails) {
+                    summary += "……其余" + (errorCount - maxErrorDetails) + "条错误未列出\n";
+                }
+            }
+            return summary;
+        }
+    }
+}
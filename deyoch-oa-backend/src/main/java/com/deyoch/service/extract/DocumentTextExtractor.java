@@ -0,0 +1,374 @@
+package com.deyoch.service.extract;
+
+import org.apache.poi.UnsupportedFileFormatException;
+import org.apache.poi.ooxml.POIXMLException;
+import org.apache.poi.openxml4j.exceptions.OpenXML4JException;
+import org.apache.poi.openxml4j.opc.OPCPackage;
+import org.apache.poi.openxml4j.opc.PackageAccess;
+import org.apache.poi.openxml4j.opc.PackagePart;
+import org.apache.poi.openxml4j.opc.PackageRelationship;
+import org.apache.poi.openxml4j.opc.PackageRelationshipTypes;
+import org.apache.poi.ss.usermodel.DataFormatter;
+import org.apache.poi.util.XMLHelper;
+import org.apache.poi.xslf.usermodel.XSLFRelation;
+import org.apache.poi.xssf.eventusermodel.ReadOnlySharedStringsTable;
+import org.apache.poi.xssf.eventusermodel.XSSFReader;
+import org.apache.poi.xssf.eventusermodel.XSSFSheetXMLHandler;
+import org.apache.poi.xssf.usermodel.XSSFComment;
+import org.xml.sax.Attributes;
+import org.xml.sax.ContentHandler;
+import org.xml.sax.InputSource;
+import org.xml.sax.SAXException;
+import org.xml.sax.XMLReader;
+import org.xml.sax.helpers.DefaultHandler;
+import org.xml.sax.helpers.XMLFilterImpl;
+
+import javax.xml.parsers.ParserConfigurationException;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.CharacterCodingException;
+import java.nio.charset.Charset;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * 文档正文抽取器
+ * 基于POI事件模型（SAX）流式读取docx、xlsx、pptx的XML部件，只收集文本节点，不构建文档对象模型；纯文本文件按UTF-8读取，
+ * 非UTF-8时按GB18030重读
+ * 抽取受字符数和耗时预算约束，超出时停止解析并返回已读取的部分，结果标记为已截断；
+ * 耗时在每个XML元素开始和每段文本时检查，大量不含文本的元素同样会在超时后中止
+ * 段落、单元格、幻灯片之间以空白分隔，避免检索时跨边界匹配
+ *
+ * @author deyoch-oa
+ */
+public class DocumentTextExtractor {
+
+    private static final String WORDPROCESSING_NS = "http://schemas.openxmlformats.org/wordprocessingml/2006/main";
+    private static final String DRAWING_NS = "http://schemas.openxmlformats.org/drawingml/2006/main";
+
+    private static final Set<String> PLAIN_TEXT_TYPES = Set.of("txt", "md", "csv", "log");
+    private static final Set<String> SUPPORTED_TYPES = Set.of("txt", "md", "csv", "log", "docx", "xlsx", "pptx");
+
+    private static final Pattern PART_NUMBER = Pattern.compile("(\\d+)\\.xml$");
+
+    private static final Charset FALLBACK_CHARSET = Charset.forName("GB18030");
+
+    private final int maxChars;
+    private final long timeoutMillis;
+
+    /**
+     * 创建抽取器
+     * @param maxChars 单个文件最多抽取的字符数
+     * @param timeoutMillis 单个文件的抽取耗时上限，单位毫秒
+     */
+    public DocumentTextExtractor(int maxChars, long timeoutMillis) {
+        this.maxChars = maxChars;
+        this.timeoutMillis = timeoutMillis;
+    }
+
+    /**
+     * 判断文件类型是否支持抽取
+     * @param fileType 文件扩展名
+     * @return 支持返回true
+     */
+    public static boolean supports(String fileType) {
+        return fileType != null && SUPPORTED_TYPES.contains(fileType.toLowerCase(Locale.ROOT));
+    }
+
+    /**
+     * 抽取文件正文
+     * @param file 文件
+     * @param fileType 文件扩展名
+     * @return 抽取结果
+     * @throws IOException 文件无法读取或格式错误时抛出
+     */
+    public ExtractedText extract(File file, String fileType) throws IOException {
+        String type = fileType != null ? fileType.toLowerCase(Locale.ROOT) : "";
+        if (!SUPPORTED_TYPES.contains(type)) {
+            throw new IllegalArgumentException("不支持的文件类型：" + fileType);
+        }
+        TextSink sink = new TextSink(maxChars, System.currentTimeMillis() + timeoutMillis);
+        try {
+            if (PLAIN_TEXT_TYPES.contains(type)) {
+                readPlainText(file, sink);
+            } else {
+                try (OPCPackage pkg = OPCPackage.open(file, PackageAccess.READ)) {
+                    switch (type) {
+                        case "docx" -> readWord(pkg, sink);
+                        case "xlsx" -> readSpreadsheet(pkg, sink);
+                        default -> readSlides(pkg, sink);
+                    }
+                }
+            }
+        } catch (BudgetExceededException e) {
+            // 预算用尽，保留已读取的部分
+        } catch (OpenXML4JException | SAXException | ParserConfigurationException | POIXMLException
+                 | UnsupportedFileFormatException e) {
+            // SAX解析器可能把处理器抛出的异常包装后再抛出
+            if (!sink.exhausted) {
+                throw new IOException("文件格式无法解析：" + e.getMessage(), e);
+            }
+        }
+        return new ExtractedText(sink.text.toString(), sink.exhausted);
+    }
+
+    private void readPlainText(File file, TextSink sink) throws IOException {
+        try {
+            readPlainText(file, StandardCharsets.UTF_8, sink);
+        } catch (CharacterCodingException e) {
+            sink.reset();
+            readPlainText(file, FALLBACK_CHARSET, sink);
+        }
+    }
+
+    private void readPlainText(File file, Charset charset, TextSink sink) throws IOException {
+        try (Reader reader = new InputStreamReader(Files.newInputStream(file.toPath()), charset.newDecoder()
+                .onMalformedInput(charset == StandardCharsets.UTF_8 ? CodingErrorAction.REPORT : CodingErrorAction.REPLACE)
+                .onUnmappableCharacter(CodingErrorAction.REPLACE))) {
+            char[] buffer = new char[8192];
+            int read;
+            while ((read = reader.read(buffer)) > 0) {
+                sink.append(buffer, 0, read);
+            }
+        }
+    }
+
+    private void readWord(OPCPackage pkg, TextSink sink)
+            throws IOException, SAXException, ParserConfigurationException {
+        PackagePart main = pkg.getPartsByRelationshipType(PackageRelationshipTypes.CORE_DOCUMENT).get(0);
+        try (InputStream in = main.getInputStream()) {
+            parse(in, new TextRunHandler(WORDPROCESSING_NS, sink), sink);
+        }
+    }
+
+    private void readSpreadsheet(OPCPackage pkg, TextSink sink)
+            throws IOException, OpenXML4JException, SAXException, ParserConfigurationException {
+        XSSFReader reader = new XSSFReader(pkg);
+        ReadOnlySharedStringsTable strings = new ReadOnlySharedStringsTable(pkg);
+        XSSFSheetXMLHandler.SheetContentsHandler cells = new XSSFSheetXMLHandler.SheetContentsHandler() {
+            @Override
+            public void startRow(int rowNum) {
+            }
+
+            @Override
+            public void endRow(int rowNum) {
+                sink.separate('\n');
+            }
+
+            @Override
+            public void cell(String cellReference, String formattedValue, XSSFComment comment) {
+                if (formattedValue != null && !formattedValue.isEmpty()) {
+                    sink.append(formattedValue);
+                    sink.separate('\t');
+                }
+            }
+        };
+        XSSFReader.SheetIterator sheets = (XSSFReader.SheetIterator) reader.getSheetsData();
+        while (sheets.hasNext()) {
+            try (InputStream sheet = sheets.next()) {
+                sink.separate('\n');
+                parse(sheet, new XSSFSheetXMLHandler(reader.getStylesTable(), null, strings, cells,
+                        new DataFormatter(), false), sink);
+            }
+        }
+    }
+
+    private void readSlides(OPCPackage pkg, TextSink sink)
+            throws IOException, OpenXML4JException, SAXException, ParserConfigurationException {
+        PackagePart presentation = pkg.getPartsByRelationshipType(PackageRelationshipTypes.CORE_DOCUMENT).get(0);
+        List<PackagePart> slides = new ArrayList<>();
+        for (PackageRelationship relationship : presentation.getRelationshipsByType(XSLFRelation.SLIDE.getRelation())) {
+            slides.add(presentation.getRelatedPart(relationship));
+        }
+        // 关系的顺序不代表放映顺序，按部件名中的编号排序
+        slides.sort(Comparator.comparingInt(part -> partNumber(part.getPartName().getName())));
+        for (PackagePart slide : slides) {
+            try (InputStream in = slide.getInputStream()) {
+                sink.separate('\n');
+                parse(in, new TextRunHandler(DRAWING_NS, sink), sink);
+            }
+        }
+    }
+
+    /**
+     * 解析XML部件，在处理器之前插入过滤器检查耗时预算
+     */
+    private static void parse(InputStream in, ContentHandler handler, TextSink sink)
+            throws IOException, SAXException, ParserConfigurationException {
+        XMLReader parser = XMLHelper.newXMLReader();
+        XMLFilterImpl deadlineFilter = new XMLFilterImpl(parser) {
+            @Override
+            public void startElement(String uri, String localName, String qName, Attributes atts) throws SAXException {
+                sink.checkDeadline();
+                super.startElement(uri, localName, qName, atts);
+            }
+
+            @Override
+            public void characters(char[] ch, int start, int length) throws SAXException {
+                sink.checkDeadline();
+                super.characters(ch, start, length);
+            }
+        };
+        deadlineFilter.setContentHandler(handler);
+        deadlineFilter.parse(new InputSource(in));
+    }
+
+    private static int partNumber(String partName) {
+        Matcher matcher = PART_NUMBER.matcher(partName);
+        return matcher.find() ? Integer.parseInt(matcher.group(1)) : Integer.MAX_VALUE;
+    }
+
+    /**
+     * 收集指定命名空间下t元素的文本，p元素结束时换行，tab、br元素转为空白
+     * Word正文为w:t、w:p，幻灯片为a:t、a:p；删除修订（w:delText）和域代码（w:instrText）不收集
+     */
+    private static class TextRunHandler extends DefaultHandler {
+
+        private final String namespace;
+        private final TextSink sink;
+        private boolean inText;
+
+        private TextRunHandler(String namespace, TextSink sink) {
+            this.namespace = namespace;
+            this.sink = sink;
+        }
+
+        @Override
+        public void startElement(String uri, String localName, String qName, Attributes attributes) {
+            if (!namespace.equals(uri)) {
+                return;
+            }
+            switch (localName) {
+                case "t" -> inText = true;
+                case "tab" -> sink.separate('\t');
+                case "br" -> sink.separate('\n');
+                default -> {
+                }
+            }
+        }
+
+        @Override
+        public void endElement(String uri, String localName, String qName) {
+            if (!namespace.equals(uri)) {
+                return;
+            }
+            if ("t".equals(localName)) {
+                inText = false;
+            } else if ("p".equals(localName)) {
+                sink.separate('\n');
+            }
+        }
+
+        @Override
+        public void characters(char[] ch, int start, int length) {
+            if (inText) {
+                sink.append(ch, start, length);
+            }
+        }
+    }
+
+    /**
+     * 受预算约束的文本缓冲区，字符数或耗时超出预算时抛出BudgetExceededException中止解析
+     */
+    private static class TextSink {
+
+        private final StringBuilder text = new StringBuilder();
+        private final int maxChars;
+        private final long deadline;
+        private boolean exhausted;
+
+        private TextSink(int maxChars, long deadline) {
+            this.maxChars = maxChars;
+            this.deadline = deadline;
+        }
+
+        void append(String value) {
+            append(value.toCharArray(), 0, value.length());
+        }
+
+        void append(char[] ch, int start, int length) {
+            checkDeadline();
+            int room = maxChars - text.length();
+            if (length > room) {
+                text.append(ch, start, Math.max(0, room));
+                exhaust();
+            }
+            text.append(ch, start, length);
+        }
+
+        /**
+         * 追加分隔符，开头或已有空白结尾时不重复追加
+         */
+        void separate(char separator) {
+            int length = text.length();
+            if (length > 0 && !Character.isWhitespace(text.charAt(length - 1))) {
+                append(new char[]{separator}, 0, 1);
+            }
+        }
+
+        void checkDeadline() {
+            if (System.currentTimeMillis() > deadline) {
+                exhaust();
+            }
+        }
+
+        void reset() {
+            text.setLength(0);
+            exhausted = false;
+        }
+
+        private void exhaust() {
+            exhausted = true;
+            throw BudgetExceededException.INSTANCE;
+        }
+    }
+
+    /**
+     * 预算用尽，用于中止解析，不记录堆栈
+     */
+    private static class BudgetExceededException extends RuntimeException {
+
+        private static final BudgetExceededException INSTANCE = new BudgetExceededException();
+
+        private BudgetExceededException() {
+            super("文本抽取预算已用尽", null, false, false);
+        }
+    }
+
+    /**
+     * 抽取结果
+     */
+    public static class ExtractedText {
+
+        private final String text;
+        private final boolean truncated;
+
+        ExtractedText(String text, boolean truncated) {
+            this.text = text;
+            this.truncated = truncated;
+        }
+
+        public String getText() {
+            return text;
+        }
+
+        /**
+         * 是否因字符数或耗时超出预算被截断
+         * @return 截断返回true
+         */
+        public boolean isTruncated() {
+            return truncated;
+        }
+    }
+}
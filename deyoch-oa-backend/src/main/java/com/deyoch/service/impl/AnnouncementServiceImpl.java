@@ -10,13 +10,17 @@ import com.deyoch.common.result.PageResult;
 import com.deyoch.common.result.Result;
 import com.deyoch.common.result.ResultCode;
 import com.deyoch.service.AnnouncementService;
+import com.deyoch.service.SearchService;
 import com.deyoch.service.UserInfoConverter;
+import com.deyoch.service.index.SearchType;
 import com.deyoch.utils.JwtUtil;
 import com.deyoch.utils.UserContextUtil;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.List;
 import java.util.Collections;
 
@@ -30,10 +34,42 @@ public class AnnouncementServiceImpl extends ServiceImpl<DeyochAnnouncementMappe
 
     private final JwtUtil jwtUtil;
     private final UserInfoConverter userInfoConverter;
+    private final SearchService searchService;
+
+    /**
+     * 使用UserInfoConverter填充发布者用户名
+     * @param announcementList 公告列表
+     */
+    private void populatePublisherNames(List<DeyochAnnouncement> announcementList) {
+        userInfoConverter.<DeyochAnnouncement>populateUserNames(
+            announcementList,
+            // 用户ID提取器：从公告中提取userId
+            announcement -> announcement.getUserId() != null ? 
+                Collections.singleton(announcement.getUserId()) : Collections.emptySet(),
+            // 用户名设置器：将用户名设置到publisherName字段
+            (announcement, userIdToNameMap) -> {
+                if (announcement.getUserId() != null) {
+                    String publisherName = userIdToNameMap.get(announcement.getUserId());
+                    announcement.setPublisherName(publisherName);
+                }
+            }
+        );
+    }
 
     @Override
     public Result<PageResult<DeyochAnnouncement>> getAnnouncementList(Integer page, Integer size, String keyword) {
         try {
+            // 有关键词时优先由全文索引过滤，避免LIKE全表扫描
+            List<Long> matchedIds = keyword != null && !keyword.isEmpty()
+                    ? searchService.matchIds(SearchType.ANNOUNCEMENT, keyword) : null;
+            if (matchedIds != null) {
+                List<Long> pageIds = PageResult.slice(matchedIds, page, size);
+                List<DeyochAnnouncement> announcementList = pageIds.isEmpty() ? new ArrayList<>() : new ArrayList<>(listByIds(pageIds));
+                announcementList.sort(Comparator.comparingInt(announcement -> pageIds.indexOf(announcement.getId())));
+                populatePublisherNames(announcementList);
+                return Result.success(PageResult.of((long) page, (long) size, (long) matchedIds.size(), announcementList));
+            }
+            
             // 构建查询条件
             LambdaQueryWrapper<DeyochAnnouncement> queryWrapper = new LambdaQueryWrapper<>();
             
@@ -57,19 +93,7 @@ public class AnnouncementServiceImpl extends ServiceImpl<DeyochAnnouncementMappe
             List<DeyochAnnouncement> announcementList = announcementPage.getRecords();
             
             // 使用UserInfoConverter填充发布者用户名
-            userInfoConverter.<DeyochAnnouncement>populateUserNames(
-                announcementList,
-                // 用户ID提取器：从公告中提取userId
-                announcement -> announcement.getUserId() != null ? 
-                    Collections.singleton(announcement.getUserId()) : Collections.emptySet(),
-                // 用户名设置器：将用户名设置到publisherName字段
-                (announcement, userIdToNameMap) -> {
-                    if (announcement.getUserId() != null) {
-                        String publisherName = userIdToNameMap.get(announcement.getUserId());
-                        announcement.setPublisherName(publisherName);
-                    }
-                }
-            );
+            populatePublisherNames(announcementList);
             
             // 构建分页结果
             PageResult<DeyochAnnouncement> pageResult = PageResult.of(
@@ -130,6 +154,7 @@ public class AnnouncementServiceImpl extends ServiceImpl<DeyochAnnouncementMappe
             }
             // 创建公告
             save(announcement);
+            searchService.refresh(SearchType.ANNOUNCEMENT, announcement.getId());
             return Result.success(announcement);
         } catch (Exception e) {
             return Result.error(ResultCode.SYSTEM_ERROR, "创建公告失败：" + e.getMessage());
@@ -148,6 +173,7 @@ public class AnnouncementServiceImpl extends ServiceImpl<DeyochAnnouncementMappe
             announcement.setUpdatedAt(LocalDateTime.now());
             // 更新公告
             updateById(announcement);
+            searchService.refresh(SearchType.ANNOUNCEMENT, announcement.getId());
             return Result.success(announcement);
         } catch (Exception e) {
             return Result.error(ResultCode.SYSTEM_ERROR, "更新公告失败：" + e.getMessage());
@@ -164,6 +190,7 @@ public class AnnouncementServiceImpl extends ServiceImpl<DeyochAnnouncementMappe
             }
             // 删除公告
             removeById(id);
+            searchService.refresh(SearchType.ANNOUNCEMENT, id);
             return Result.success();
         } catch (Exception e) {
             return Result.error(ResultCode.SYSTEM_ERROR, "删除公告失败：" + e.getMessage());
@@ -186,6 +213,7 @@ public class AnnouncementServiceImpl extends ServiceImpl<DeyochAnnouncementMappe
             announcement.setUpdatedAt(LocalDateTime.now());
             // 更新公告
             updateById(announcement);
+            searchService.refresh(SearchType.ANNOUNCEMENT, id);
             return Result.success();
         } catch (Exception e) {
             return Result.error(ResultCode.SYSTEM_ERROR, "发布公告失败：" + e.getMessage());
@@ -206,6 +234,7 @@ public class AnnouncementServiceImpl extends ServiceImpl<DeyochAnnouncementMappe
             announcement.setUpdatedAt(LocalDateTime.now());
             // 更新公告
             updateById(announcement);
+            searchService.refresh(SearchType.ANNOUNCEMENT, id);
             return Result.success();
         } catch (Exception e) {
             return Result.error(ResultCode.SYSTEM_ERROR, "撤销公告失败：" + e.getMessage());
@@ -7,6 +7,11 @@ import com.deyoch.entity.DeyochUser;
 import com.deyoch.mapper.DeyochUserMapper;
 import com.deyoch.common.result.Result;
 import com.deyoch.common.result.ResultCode;
+import com.deyoch.security.PermissionCodec;
+import com.deyoch.security.PasswordHashExecutor;
+import com.deyoch.security.PermissionEpoch;
+import com.deyoch.security.TokenContext;
+import com.deyoch.security.TokenRevocationStore;
 import com.deyoch.service.AuthService;
 import com.deyoch.service.PermissionService;
 import com.deyoch.utils.JwtUtil;
@@ -14,26 +19,44 @@ import java.util.List;
 import java.util.ArrayList;
 
 import lombok.RequiredArgsConstructor;
-import org.springframework.security.crypto.password.PasswordEncoder;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.AsyncTaskExecutor;
 import org.springframework.stereotype.Service;
 
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * 认证服务实现类
  */
 @Service
 @RequiredArgsConstructor
+@Slf4j
 public class AuthServiceImpl implements AuthService {
 
     private final DeyochUserMapper deyochUserMapper;
-    private final PasswordEncoder passwordEncoder;
+    private final PasswordHashExecutor passwordHashExecutor;
     private final JwtUtil jwtUtil;
     private final PermissionService permissionService;
+    private final PermissionCodec permissionCodec;
+    private final PermissionEpoch permissionEpoch;
+    private final TokenRevocationStore tokenRevocationStore;
+
+    /**
+     * Spring Boot默认的应用任务线程池，密码校验完成后在这里查询权限、签发Token，不占用密码哈希线程
+     */
+    private final AsyncTaskExecutor applicationTaskExecutor;
+
+    /**
+     * 是否启用无状态授权：将权限集合与权限纪元签入Token，过滤器直接据此授权
+     */
+    @Value("${auth.stateless.enabled:false}")
+    private boolean statelessEnabled;
 
     @Override
-    public Result<LoginResponseDto> login(LoginRequestDto loginRequestDto) {
+    public CompletableFuture<Result<LoginResponseDto>> login(LoginRequestDto loginRequestDto) {
         // 1. 检查用户名和密码 - 使用LambdaQueryWrapper链式调用
         DeyochUser user = deyochUserMapper.selectOne(
                 new LambdaQueryWrapper<DeyochUser>()
@@ -42,32 +65,60 @@ public class AuthServiceImpl implements AuthService {
 
         // 2. 验证用户是否存在
         if (user == null) {
-            return Result.error(ResultCode.USER_PASSWORD_ERROR, "用户名或密码错误");
+            return CompletableFuture.completedFuture(Result.error(ResultCode.USER_PASSWORD_ERROR, "用户名或密码错误"));
         }
 
-        // 3. 验证密码
-        if (!passwordEncoder.matches(loginRequestDto.getPassword(), user.getPassword())) {
-            return Result.error(ResultCode.USER_PASSWORD_ERROR, "用户名或密码错误");
-        }
+        // 3. 验证密码：在密码哈希专用线程池中执行，不占用请求线程；排队已满时快速拒绝
+        //    哈希线程只做BCrypt计算，后续的数据库查询和Token签发切换到应用任务线程池
+        return passwordHashExecutor.matchesAsync(loginRequestDto.getPassword(), user.getPassword())
+                .thenApplyAsync(matched -> matched
+                        ? buildLoginResponse(user)
+                        : Result.<LoginResponseDto>error(ResultCode.USER_PASSWORD_ERROR, "用户名或密码错误"),
+                        applicationTaskExecutor)
+                .exceptionally(e -> {
+                    if (PasswordHashExecutor.isRejected(e)) {
+                        log.warn("登录请求过多，密码校验队列已满：username={}", loginRequestDto.getUsername());
+                        return Result.error(ResultCode.TOO_MANY_REQUESTS, "登录人数过多，请稍后重试");
+                    }
+                    log.error("登录失败", e);
+                    return Result.error(ResultCode.SYSTEM_ERROR, "登录失败，请稍后重试");
+                });
+    }
 
+    /**
+     * 密码校验通过后构建登录响应
+     * @param user 用户
+     * @return 登录结果
+     */
+    private Result<LoginResponseDto> buildLoginResponse(DeyochUser user) {
         // 4. 检查用户状态
         if (user.getStatus() == 0) {
             return Result.error(ResultCode.USER_DISABLED, "用户已被禁用");
         }
 
-        // 5. 生成Token
-        Map<String, Object> claims = new HashMap<>();
-        claims.put("userId", user.getId());
-        claims.put("username", user.getUsername());
-        String token = jwtUtil.generateToken(claims);
-
-        // 6. 获取用户权限信息
+        // 5. 获取用户权限信息（先读取纪元，保证签入的纪元不晚于读取到的权限）
+        long epoch = permissionEpoch.current();
         Result<List<String>> permCodesResult = permissionService.getUserPermCodes(user.getId());
         List<String> permissions = new ArrayList<>();
         if (permCodesResult.getCode() == 200 && permCodesResult.getData() != null) {
             permissions = permCodesResult.getData();
         }
 
+        // 6. 生成Token
+        Map<String, Object> claims = new HashMap<>();
+        claims.put("userId", user.getId());
+        claims.put("username", user.getUsername());
+        if (statelessEnabled) {
+            // 无状态授权：签入紧凑的权限位图和权限纪元
+            String encodedPerms = permissionCodec.encode(permissions);
+            if (encodedPerms != null) {
+                claims.put(JwtUtil.CLAIM_PERMS, encodedPerms);
+                claims.put(JwtUtil.CLAIM_PERM_EPOCH, epoch);
+                claims.put(JwtUtil.CLAIM_ROLE_ID, user.getRoleId());
+            }
+        }
+        String token = jwtUtil.generateToken(claims);
+
         // 7. 构建角色列表（当前用户是一对一角色关系）
         List<String> roles = new ArrayList<>();
         // 可以根据roleId查询角色名称，这里简化处理
@@ -91,10 +142,19 @@ public class AuthServiceImpl implements AuthService {
 
     @Override
     public Result<Void> logout() {
-        // JWT是无状态的，登出主要在客户端完成
-        // 客户端需要删除本地存储的token和用户信息
-        // 这里返回成功响应即可
-        return Result.success();
+        // 客户端仍需删除本地存储的token和用户信息
+        // 服务端将当前Token加入吊销列表，之后携带该Token的请求不再通过认证
+        try {
+            TokenContext tokenContext = TokenContext.current();
+            if (tokenContext != null) {
+                tokenRevocationStore.revoke(tokenContext.getClaims().getId(),
+                        tokenContext.getUserId(), tokenContext.getExpiration());
+            }
+            return Result.success();
+        } catch (Exception e) {
+            log.error("登出时吊销Token失败", e);
+            return Result.error(ResultCode.INTERNAL_ERROR, "登出失败：" + e.getMessage());
+        }
     }
 
 }
\ No newline at end of file
@@ -7,26 +7,36 @@ import com.deyoch.common.result.Result;
 import com.deyoch.common.result.ResultCode;
 import com.deyoch.dto.ContactDto;
 import com.deyoch.dto.OrgTreeDto;
+import com.deyoch.dto.OrgTreeSnapshot;
 import com.deyoch.mapper.ContactMapper;
 import com.deyoch.service.ContactService;
+import com.deyoch.service.excel.ContactExcelImporter;
+import com.deyoch.service.index.ContactSearchIndex;
+import com.deyoch.utils.TransactionUtil;
 import lombok.extern.slf4j.Slf4j;
+import org.apache.ibatis.cursor.Cursor;
 import org.apache.poi.ss.usermodel.*;
-import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.apache.poi.xssf.streaming.SXSSFWorkbook;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 import org.springframework.util.StringUtils;
 import org.springframework.web.multipart.MultipartFile;
 
 import jakarta.servlet.http.HttpServletResponse;
 import java.io.IOException;
+import java.io.InputStream;
 import java.net.URLEncoder;
 import java.nio.charset.StandardCharsets;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * 通讯录服务实现类
@@ -38,9 +48,41 @@ import java.util.Map;
 @Service
 public class ContactServiceImpl implements ContactService {
     
+    /**
+     * 搜索联系人返回的最大条数
+     */
+    private static final int SEARCH_LIMIT = 50;
+    
     @Autowired
     private ContactMapper contactMapper;
     
+    @Autowired
+    private ContactSearchIndex contactSearchIndex;
+    
+    @Autowired
+    private ContactExcelImporter contactExcelImporter;
+    
+    /**
+     * 流式导出时内存中保留的行数
+     */
+    @Value("${contact.export.window-size:100}")
+    private int exportWindowSize;
+    
+    /**
+     * 用于估算列宽的样本行数
+     */
+    @Value("${contact.export.width-sample-rows:200}")
+    private int exportWidthSampleRows;
+    
+    /**
+     * 组织架构树版本号，以启动时间为初值，重启后ETag不会与旧版本冲突
+     */
+    private final AtomicLong orgTreeVersion = new AtomicLong(System.currentTimeMillis());
+    
+    private final Object orgTreeLock = new Object();
+    
+    private volatile OrgTreeSnapshot orgTreeSnapshot;
+    
     @Override
     public Result<PageResult<ContactDto>> getContactDirectory(Integer page, Integer size, 
                                                             String keyword, Long deptId) {
@@ -53,6 +95,17 @@ public class ContactServiceImpl implements ContactService {
                 size = 20;
             }
             
+            // 有关键词时优先走内存索引，避免多列LIKE全表扫描
+            if (StringUtils.hasText(keyword) && contactSearchIndex.isReady()) {
+                List<ContactDto> matched = contactSearchIndex.search(keyword, deptId);
+                if (matched != null) {
+                    int from = Math.min((page - 1) * size, matched.size());
+                    int to = Math.min(from + size, matched.size());
+                    return Result.success(PageResult.of((long) page, (long) size, (long) matched.size(),
+                            new ArrayList<>(matched.subList(from, to))));
+                }
+            }
+            
             // 创建分页对象
             Page<ContactDto> pageObj = new Page<>(page, size);
             
@@ -78,16 +131,18 @@ public class ContactServiceImpl implements ContactService {
     @Override
     public Result<List<OrgTreeDto>> getOrganizationTree() {
         try {
-            // 查询所有部门
-            List<OrgTreeDto> departments = contactMapper.selectDepartmentTree();
+            return Result.success(currentOrgTreeSnapshot().getTree());
             
-            // 构建部门树结构
-            List<OrgTreeDto> tree = buildTree(departments);
-            
-            // 为每个部门添加用户节点
-            addUsersToTree(tree);
-            
-            return Result.success(tree);
+        } catch (Exception e) {
+            log.error("获取组织架构树失败", e);
+            return Result.error(ResultCode.INTERNAL_ERROR, "获取组织架构树失败: " + e.getMessage());
+        }
+    }
+    
+    @Override
+    public Result<OrgTreeSnapshot> getOrganizationTreeSnapshot() {
+        try {
+            return Result.success(currentOrgTreeSnapshot());
             
         } catch (Exception e) {
             log.error("获取组织架构树失败", e);
@@ -95,6 +150,22 @@ public class ContactServiceImpl implements ContactService {
         }
     }
     
+    @Override
+    public void invalidateOrganizationTree() {
+        // 事务提交后再递增版本，避免在提交前重建出旧数据却标记为新版本
+        TransactionUtil.afterCommit(orgTreeVersion::incrementAndGet);
+    }
+    
+    @Override
+    public void refreshContact(Long userId) {
+        contactSearchIndex.refreshUser(userId);
+    }
+    
+    @Override
+    public void refreshDeptContacts(Long deptId) {
+        contactSearchIndex.refreshDept(deptId);
+    }
+    
     @Override
     public Result<List<ContactDto>> searchContacts(String keyword) {
         try {
@@ -102,6 +173,13 @@ public class ContactServiceImpl implements ContactService {
                 return Result.success(new ArrayList<>());
             }
             
+            if (contactSearchIndex.isReady()) {
+                List<ContactDto> matched = contactSearchIndex.search(keyword, null);
+                if (matched != null) {
+                    return Result.success(new ArrayList<>(matched.subList(0, Math.min(SEARCH_LIMIT, matched.size()))));
+                }
+            }
+            
             List<ContactDto> contacts = contactMapper.searchContacts(keyword.trim());
             return Result.success(contacts);
             
@@ -112,49 +190,53 @@ public class ContactServiceImpl implements ContactService {
     }
     
     @Override
+    @Transactional(readOnly = true)
     public void exportContacts(HttpServletResponse response) {
-        try {
-            // 查询所有通讯录数据
-            List<ContactDto> contacts = contactMapper.selectAllContacts();
-            
-            // 创建Excel工作簿
-            Workbook workbook = new XSSFWorkbook();
+        String[] headers = {"姓名", "用户名", "工号", "职位", "部门", "电话", "邮箱", "办公地点", "分机号"};
+        
+        // SXSSF只在内存中保留最近的window-size行，其余行压缩写入临时文件，内存占用与总行数无关
+        SXSSFWorkbook workbook = new SXSSFWorkbook(exportWindowSize);
+        workbook.setCompressTempFiles(true);
+        try (Cursor<ContactDto> cursor = contactMapper.selectAllContactsCursor()) {
             Sheet sheet = workbook.createSheet("通讯录");
             
             // 创建标题行
             Row headerRow = sheet.createRow(0);
-            String[] headers = {"姓名", "用户名", "工号", "职位", "部门", "电话", "邮箱", "办公地点", "分机号"};
-            
             CellStyle headerStyle = workbook.createCellStyle();
             Font headerFont = workbook.createFont();
             headerFont.setBold(true);
             headerStyle.setFont(headerFont);
             
+            int[] columnWidths = new int[headers.length];
             for (int i = 0; i < headers.length; i++) {
                 Cell cell = headerRow.createCell(i);
                 cell.setCellValue(headers[i]);
                 cell.setCellStyle(headerStyle);
+                columnWidths[i] = displayWidth(headers[i]);
             }
             
-            // 填充数据行
-            for (int i = 0; i < contacts.size(); i++) {
-                ContactDto contact = contacts.get(i);
-                Row row = sheet.createRow(i + 1);
-                
-                row.createCell(0).setCellValue(contact.getRealName());
-                row.createCell(1).setCellValue(contact.getUsername());
-                row.createCell(2).setCellValue(contact.getEmployeeId());
-                row.createCell(3).setCellValue(contact.getPosition());
-                row.createCell(4).setCellValue(contact.getDeptName());
-                row.createCell(5).setCellValue(contact.getPhone());
-                row.createCell(6).setCellValue(contact.getEmail());
-                row.createCell(7).setCellValue(contact.getOfficeLocation());
-                row.createCell(8).setCellValue(contact.getExtension());
+            // 逐行读取游标并写入，前width-sample-rows行用于估算列宽
+            int rowIndex = 1;
+            for (ContactDto contact : cursor) {
+                String[] values = {
+                        contact.getRealName(), contact.getUsername(), contact.getEmployeeId(),
+                        contact.getPosition(), contact.getDeptName(), contact.getPhone(),
+                        contact.getEmail(), contact.getOfficeLocation(), contact.getExtension()
+                };
+                Row row = sheet.createRow(rowIndex);
+                for (int i = 0; i < values.length; i++) {
+                    row.createCell(i).setCellValue(values[i]);
+                    if (rowIndex <= exportWidthSampleRows) {
+                        columnWidths[i] = Math.max(columnWidths[i], displayWidth(values[i]));
+                    }
+                }
+                if (rowIndex == exportWidthSampleRows) {
+                    applyColumnWidths(sheet, columnWidths);
+                }
+                rowIndex++;
             }
-            
-            // 自动调整列宽
-            for (int i = 0; i < headers.length; i++) {
-                sheet.autoSizeColumn(i);
+            if (rowIndex <= exportWidthSampleRows) {
+                applyColumnWidths(sheet, columnWidths);
             }
             
             // 设置响应头
@@ -164,11 +246,14 @@ public class ContactServiceImpl implements ContactService {
             
             // 写入响应流
             workbook.write(response.getOutputStream());
-            workbook.close();
+            log.info("导出通讯录完成，共{}条", rowIndex - 1);
             
         } catch (Exception e) {
             log.error("导出通讯录失败", e);
             throw new RuntimeException("导出通讯录失败: " + e.getMessage());
+        } finally {
+            // 删除临时文件
+            workbook.dispose();
         }
     }
     
@@ -185,56 +270,19 @@ public class ContactServiceImpl implements ContactService {
                 return Result.error(ResultCode.PARAM_ERROR, "请上传Excel文件(.xlsx格式)");
             }
             
-            // 读取Excel文件
-            Workbook workbook = new XSSFWorkbook(file.getInputStream());
-            Sheet sheet = workbook.getSheetAt(0);
-            
-            int successCount = 0;
-            int errorCount = 0;
-            StringBuilder errorMessages = new StringBuilder();
-            
-            // 跳过标题行，从第二行开始读取数据
-            for (int i = 1; i <= sheet.getLastRowNum(); i++) {
-                Row row = sheet.getRow(i);
-                if (row == null) continue;
-                
-                try {
-                    // 读取单元格数据
-                    String realName = getCellValue(row.getCell(0));
-                    String username = getCellValue(row.getCell(1));
-                    String employeeId = getCellValue(row.getCell(2));
-                    String position = getCellValue(row.getCell(3));
-                    String phone = getCellValue(row.getCell(5));
-                    String email = getCellValue(row.getCell(6));
-                    String officeLocation = getCellValue(row.getCell(7));
-                    String extension = getCellValue(row.getCell(8));
-                    
-                    // 数据验证
-                    if (!StringUtils.hasText(realName) || !StringUtils.hasText(username)) {
-                        errorMessages.append("第").append(i + 1).append("行：姓名和用户名不能为空\n");
-                        errorCount++;
-                        continue;
-                    }
-                    
-                    // TODO: 这里应该调用用户服务来更新用户信息
-                    // 由于这是通讯录导入，主要是更新用户的联系信息
-                    log.info("导入联系人: {} - {}", realName, username);
-                    successCount++;
-                    
-                } catch (Exception e) {
-                    errorMessages.append("第").append(i + 1).append("行：").append(e.getMessage()).append("\n");
-                    errorCount++;
-                }
+            // 流式解析并分批更新
+            ContactExcelImporter.ImportReport report;
+            try (InputStream inputStream = file.getInputStream()) {
+                report = contactExcelImporter.importContacts(inputStream);
             }
             
-            workbook.close();
-            
-            String result = String.format("导入完成！成功：%d条，失败：%d条", successCount, errorCount);
-            if (errorCount > 0) {
-                result += "\n错误详情：\n" + errorMessages.toString();
+            // 导入可能涉及大量用户，直接重建索引和组织架构树
+            if (report.getSuccessCount() > 0) {
+                contactSearchIndex.rebuild();
+                invalidateOrganizationTree();
             }
             
-            return Result.success(result);
+            return Result.success(report.getSummary());
             
         } catch (Exception e) {
             log.error("导入通讯录失败", e);
@@ -249,13 +297,7 @@ public class ContactServiceImpl implements ContactService {
                 return Result.error(ResultCode.PARAM_IS_NULL, "用户ID不能为空");
             }
             
-            // 通过搜索功能获取用户详情（复用现有查询）
-            List<ContactDto> contacts = contactMapper.searchContacts(userId.toString());
-            
-            ContactDto contact = contacts.stream()
-                    .filter(c -> c.getId().equals(userId))
-                    .findFirst()
-                    .orElse(null);
+            ContactDto contact = contactMapper.selectContactById(userId);
             
             if (contact == null) {
                 return Result.error(ResultCode.DATA_NOT_FOUND, "联系人不存在");
@@ -269,12 +311,68 @@ public class ContactServiceImpl implements ContactService {
         }
     }
     
+    /**
+     * 获取当前版本的组织架构树快照，版本已变化时重建
+     */
+    private OrgTreeSnapshot currentOrgTreeSnapshot() {
+        OrgTreeSnapshot snapshot = orgTreeSnapshot;
+        if (snapshot != null && snapshot.getVersion() == orgTreeVersion.get()) {
+            return snapshot;
+        }
+        synchronized (orgTreeLock) {
+            long version = orgTreeVersion.get();
+            snapshot = orgTreeSnapshot;
+            if (snapshot == null || snapshot.getVersion() != version) {
+                snapshot = new OrgTreeSnapshot(version, loadOrganizationTree());
+                orgTreeSnapshot = snapshot;
+            }
+            return snapshot;
+        }
+    }
+    
+    /**
+     * 加载组织架构树
+     * 两次集合查询（全部部门、全部启用用户），在内存中线性时间组装
+     */
+    private List<OrgTreeDto> loadOrganizationTree() {
+        // 查询所有部门
+        List<OrgTreeDto> departments = contactMapper.selectDepartmentTree();
+        
+        // 构建部门树结构
+        Map<Long, OrgTreeDto> deptMap = new HashMap<>(departments.size() * 2);
+        List<OrgTreeDto> tree = buildTree(departments, deptMap);
+        
+        // 一次查询全部用户，按dept_id挂到对应部门下（排在子部门之后）
+        List<OrgTreeDto> users = contactMapper.selectActiveUsersForTree();
+        for (OrgTreeDto user : users) {
+            OrgTreeDto dept = deptMap.get(user.getParentId());
+            if (dept != null) {
+                dept.getChildren().add(user);
+            }
+        }
+        
+        freezeTree(tree);
+        log.info("组织架构树快照已重建：{}个部门，{}个用户", departments.size(), users.size());
+        return Collections.unmodifiableList(tree);
+    }
+    
+    /**
+     * 将子节点列表设为只读，快照在多个请求间共享
+     */
+    private void freezeTree(List<OrgTreeDto> nodes) {
+        for (OrgTreeDto node : nodes) {
+            if (node.getChildren() != null) {
+                freezeTree(node.getChildren());
+                node.setChildren(Collections.unmodifiableList(node.getChildren()));
+            }
+        }
+    }
+    
     /**
      * 构建树形结构
      */
-    private List<OrgTreeDto> buildTree(List<OrgTreeDto> nodes) {
+    private List<OrgTreeDto> buildTree(List<OrgTreeDto> nodes, Map<Long, OrgTreeDto> nodeMap) {
         List<OrgTreeDto> tree = new ArrayList<>();
-        Map<Long, OrgTreeDto> nodeMap = new HashMap<>();
         
         // 将所有节点放入Map中
         for (OrgTreeDto node : nodes) {
@@ -300,41 +398,26 @@ public class ContactServiceImpl implements ContactService {
     }
     
     /**
-     * 为部门树添加用户节点
+     * 按估算的显示宽度设置列宽（中文等全角字符按两个字符计算）
      */
-    private void addUsersToTree(List<OrgTreeDto> tree) {
-        for (OrgTreeDto dept : tree) {
-            // 查询该部门下的用户
-            List<OrgTreeDto> users = contactMapper.selectUsersByDeptId(dept.getId());
-            dept.getChildren().addAll(users);
-            
-            // 递归处理子部门
-            if (!dept.getChildren().isEmpty()) {
-                List<OrgTreeDto> subDepts = dept.getChildren().stream()
-                        .filter(child -> "dept".equals(child.getType()))
-                        .toList();
-                addUsersToTree(subDepts);
-            }
+    private void applyColumnWidths(Sheet sheet, int[] columnWidths) {
+        for (int i = 0; i < columnWidths.length; i++) {
+            // 列宽单位为1/256字符，左右各留一个字符的边距，Excel最大列宽为255个字符
+            sheet.setColumnWidth(i, Math.min(columnWidths[i] + 2, 255) * 256);
         }
     }
     
     /**
-     * 获取单元格值
+     * 估算字符串的显示宽度
      */
-    private String getCellValue(Cell cell) {
-        if (cell == null) {
-            return "";
+    private int displayWidth(String value) {
+        if (value == null) {
+            return 0;
         }
-        
-        switch (cell.getCellType()) {
-            case STRING:
-                return cell.getStringCellValue().trim();
-            case NUMERIC:
-                return String.valueOf((long) cell.getNumericCellValue());
-            case BOOLEAN:
-                return String.valueOf(cell.getBooleanCellValue());
-            default:
-                return "";
+        int width = 0;
+        for (int i = 0; i < value.length(); i++) {
+            width += value.charAt(i) < 128 ? 1 : 2;
         }
+        return width;
     }
 }
\ No newline at end of file
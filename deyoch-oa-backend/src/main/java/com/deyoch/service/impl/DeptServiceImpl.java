@@ -3,17 +3,29 @@ package com.deyoch.service.impl;
 import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
 import com.baomidou.mybatisplus.extension.service.impl.ServiceImpl;
 import com.deyoch.entity.DeyochDept;
+import com.deyoch.entity.DeyochDeptClosure;
+import com.deyoch.mapper.DeyochDeptClosureMapper;
 import com.deyoch.mapper.DeyochDeptMapper;
 import com.deyoch.common.result.Result;
 import com.deyoch.common.result.ResultCode;
+import com.deyoch.service.ContactService;
 import com.deyoch.service.DeptService;
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.interceptor.TransactionAspectSupport;
 
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 /**
@@ -22,8 +34,22 @@ import java.util.stream.Collectors;
  */
 @Service
 @RequiredArgsConstructor
+@Slf4j
 public class DeptServiceImpl extends ServiceImpl<DeyochDeptMapper, DeyochDept> implements DeptService {
 
+    /**
+     * 重建闭包表时每条INSERT写入的记录数
+     */
+    private static final int CLOSURE_BATCH_SIZE = 1000;
+
+    private final DeyochDeptClosureMapper deyochDeptClosureMapper;
+    private final ContactService contactService;
+
+    /**
+     * 通过代理调用自身的事务方法
+     */
+    private final ObjectProvider<DeptService> deptServiceProvider;
+
     @Override
     public Result<List<DeyochDept>> getDeptList() {
         try {
@@ -40,11 +66,15 @@ public class DeptServiceImpl extends ServiceImpl<DeyochDeptMapper, DeyochDept> i
     @Override
     public Result<List<DeyochDept>> getDeptTree() {
         try {
-            // 查询所有部门
-            List<DeyochDept> deptList = list();
-            
+            // 查询所有部门（按排序字段）以及闭包表中的直接父子关系
+            List<DeyochDept> deptList = list(new LambdaQueryWrapper<DeyochDept>()
+                    .orderByAsc(DeyochDept::getSort)
+                    .orderByAsc(DeyochDept::getId));
+            List<DeyochDeptClosure> links = deyochDeptClosureMapper.selectList(
+                    new LambdaQueryWrapper<DeyochDeptClosure>().eq(DeyochDeptClosure::getDepth, 1));
+
             // 构建部门树
-            List<DeyochDept> deptTree = buildDeptTree(deptList);
+            List<DeyochDept> deptTree = buildDeptTree(deptList, links);
             
             return Result.success(deptTree);
         } catch (Exception e) {
@@ -66,6 +96,7 @@ public class DeptServiceImpl extends ServiceImpl<DeyochDeptMapper, DeyochDept> i
     }
 
     @Override
+    @Transactional
     public Result<DeyochDept> createDept(DeyochDept dept) {
         try {
             // 设置创建时间和更新时间
@@ -74,15 +105,23 @@ public class DeptServiceImpl extends ServiceImpl<DeyochDeptMapper, DeyochDept> i
             dept.setUpdatedAt(now);
             // 默认状态为启用
             dept.setStatus(1);
+            if (dept.getParentId() == null) {
+                dept.setParentId(0L);
+            }
             // 创建部门
             save(dept);
+            contactService.invalidateOrganizationTree();
+            // 写入闭包记录：父部门的所有祖先 + 自身
+            deyochDeptClosureMapper.insertNode(dept.getId(), dept.getParentId());
             return Result.success(dept);
         } catch (Exception e) {
+            TransactionAspectSupport.currentTransactionStatus().setRollbackOnly();
             return Result.error(ResultCode.SYSTEM_ERROR, "创建部门失败：" + e.getMessage());
         }
     }
 
     @Override
+    @Transactional
     public Result<DeyochDept> updateDept(DeyochDept dept) {
         try {
             // 检查部门是否存在
@@ -90,17 +129,32 @@ public class DeptServiceImpl extends ServiceImpl<DeyochDeptMapper, DeyochDept> i
             if (existingDept == null) {
                 return Result.error(ResultCode.DEPT_NOT_FOUND, "部门不存在");
             }
+            Long newParentId = dept.getParentId();
+            boolean moved = newParentId != null && !newParentId.equals(existingDept.getParentId());
+            // 不能移动到自身或自身的子部门下
+            if (moved && newParentId != 0L && isInSubtree(dept.getId(), newParentId)) {
+                return Result.error(ResultCode.PARAM_ERROR, "不能将部门移动到自身或其子部门下");
+            }
             // 设置更新时间
             dept.setUpdatedAt(LocalDateTime.now());
             // 更新部门
             updateById(dept);
+            contactService.invalidateOrganizationTree();
+            contactService.refreshDeptContacts(dept.getId());
+            if (moved) {
+                // 父部门变更：断开整棵子树与原祖先的关联，再挂到新父部门的祖先下
+                deyochDeptClosureMapper.detachSubtree(dept.getId());
+                deyochDeptClosureMapper.attachSubtree(dept.getId(), newParentId);
+            }
             return Result.success(dept);
         } catch (Exception e) {
+            TransactionAspectSupport.currentTransactionStatus().setRollbackOnly();
             return Result.error(ResultCode.SYSTEM_ERROR, "更新部门失败：" + e.getMessage());
         }
     }
 
     @Override
+    @Transactional
     public Result<Void> deleteDept(Long id) {
         try {
             // 检查部门是否存在
@@ -108,16 +162,22 @@ public class DeptServiceImpl extends ServiceImpl<DeyochDeptMapper, DeyochDept> i
             if (dept == null) {
                 return Result.error(ResultCode.DEPT_NOT_FOUND, "部门不存在");
             }
-            // 检查是否有子部门
-            LambdaQueryWrapper<DeyochDept> queryWrapper = new LambdaQueryWrapper<>();
-            queryWrapper.eq(DeyochDept::getParentId, id);
-            if (count(queryWrapper) > 0) {
+            // 检查是否有子部门（闭包表主键前缀查找，找到一条即停止）
+            if (!deyochDeptClosureMapper.selectList(new LambdaQueryWrapper<DeyochDeptClosure>()
+                    .eq(DeyochDeptClosure::getAncestorId, id)
+                    .eq(DeyochDeptClosure::getDepth, 1)
+                    .last("LIMIT 1")).isEmpty()) {
                 return Result.error(ResultCode.DEPT_HAS_CHILDREN, "该部门存在子部门，无法删除");
             }
-            // 删除部门
+            // 删除部门及其闭包记录（叶子部门只有指向自身和祖先的记录）
             removeById(id);
+            contactService.invalidateOrganizationTree();
+            contactService.refreshDeptContacts(id);
+            deyochDeptClosureMapper.delete(new LambdaQueryWrapper<DeyochDeptClosure>()
+                    .eq(DeyochDeptClosure::getDescendantId, id));
             return Result.success();
         } catch (Exception e) {
+            TransactionAspectSupport.currentTransactionStatus().setRollbackOnly();
             return Result.error(ResultCode.SYSTEM_ERROR, "删除部门失败：" + e.getMessage());
         }
     }
@@ -140,41 +200,113 @@ public class DeptServiceImpl extends ServiceImpl<DeyochDeptMapper, DeyochDept> i
             dept.setUpdatedAt(LocalDateTime.now());
             // 更新部门
             updateById(dept);
+            contactService.invalidateOrganizationTree();
             return Result.success();
         } catch (Exception e) {
             return Result.error(ResultCode.SYSTEM_ERROR, "更新部门状态失败：" + e.getMessage());
         }
     }
 
+    @Override
+    public List<Long> getSubDeptIds(Long deptId) {
+        return deyochDeptClosureMapper.selectList(new LambdaQueryWrapper<DeyochDeptClosure>()
+                        .select(DeyochDeptClosure::getDescendantId)
+                        .eq(DeyochDeptClosure::getAncestorId, deptId))
+                .stream()
+                .map(DeyochDeptClosure::getDescendantId)
+                .collect(Collectors.toList());
+    }
+
+    @Override
+    @Transactional
+    public Result<Void> rebuildDeptClosure() {
+        try {
+            List<DeyochDept> deptList = list(new LambdaQueryWrapper<DeyochDept>()
+                    .select(DeyochDept::getId, DeyochDept::getParentId));
+            deyochDeptClosureMapper.delete(null);
+
+            // 从每个部门沿父链向上，得到它的全部祖先；遇到环或不存在的父部门即停止
+            Map<Long, Long> parentMap = new HashMap<>();
+            for (DeyochDept dept : deptList) {
+                parentMap.put(dept.getId(), dept.getParentId());
+            }
+            List<DeyochDeptClosure> closures = new ArrayList<>();
+            for (DeyochDept dept : deptList) {
+                Set<Long> seen = new HashSet<>();
+                Long ancestorId = dept.getId();
+                int depth = 0;
+                while (ancestorId != null && parentMap.containsKey(ancestorId) && seen.add(ancestorId)) {
+                    closures.add(new DeyochDeptClosure(ancestorId, dept.getId(), depth++));
+                    ancestorId = parentMap.get(ancestorId);
+                }
+            }
+            // 按批写入，每批一条多值INSERT
+            for (int from = 0; from < closures.size(); from += CLOSURE_BATCH_SIZE) {
+                deyochDeptClosureMapper.insertBatch(
+                        closures.subList(from, Math.min(from + CLOSURE_BATCH_SIZE, closures.size())));
+            }
+            log.info("部门闭包表重建完成：{}个部门，{}条记录", deptList.size(), closures.size());
+            return Result.success();
+        } catch (Exception e) {
+            TransactionAspectSupport.currentTransactionStatus().setRollbackOnly();
+            log.error("重建部门闭包表失败", e);
+            return Result.error(ResultCode.SYSTEM_ERROR, "重建部门闭包表失败：" + e.getMessage());
+        }
+    }
+
+    /**
+     * 应用启动后检查闭包表，旧库升级后闭包表为空时自动重建
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void ensureDeptClosure() {
+        try {
+            if (deyochDeptClosureMapper.selectCount(null) == 0 && count() > 0) {
+                deptServiceProvider.getObject().rebuildDeptClosure();
+            }
+        } catch (Exception e) {
+            log.warn("检查部门闭包表失败", e);
+        }
+    }
+
+    /**
+     * 判断部门是否在另一部门的子树中（含自身）
+     * @param ancestorId 子树根部门ID
+     * @param deptId 待判断部门ID
+     * @return 在子树中返回true
+     */
+    private boolean isInSubtree(Long ancestorId, Long deptId) {
+        return deyochDeptClosureMapper.selectCount(new LambdaQueryWrapper<DeyochDeptClosure>()
+                .eq(DeyochDeptClosure::getAncestorId, ancestorId)
+                .eq(DeyochDeptClosure::getDescendantId, deptId)) > 0;
+    }
+
     /**
      * 构建部门树
-     * @param deptList 部门列表
+     * 依据闭包表中depth=1的直接父子关系单次遍历挂接，没有父部门的作为根部门
+     * @param deptList 部门列表（已排序）
+     * @param links 直接父子关系
      * @return 部门树
      */
-    private List<DeyochDept> buildDeptTree(List<DeyochDept> deptList) {
-        // 将部门列表转换为Map，便于根据ID查找
-        Map<Long, DeyochDept> deptMap = deptList.stream()
-                .collect(Collectors.toMap(DeyochDept::getId, dept -> dept));
+    private List<DeyochDept> buildDeptTree(List<DeyochDept> deptList, List<DeyochDeptClosure> links) {
+        Map<Long, DeyochDept> deptMap = new HashMap<>(deptList.size() * 2);
+        for (DeyochDept dept : deptList) {
+            dept.setChildren(new ArrayList<>());
+            deptMap.put(dept.getId(), dept);
+        }
+        Map<Long, Long> parentMap = new HashMap<>(links.size() * 2);
+        for (DeyochDeptClosure link : links) {
+            parentMap.put(link.getDescendantId(), link.getAncestorId());
+        }
 
-        // 创建部门树列表
         List<DeyochDept> deptTree = new ArrayList<>();
-
-        // 遍历部门列表，构建树结构
         for (DeyochDept dept : deptList) {
-            Long parentId = dept.getParentId();
-            if (parentId == null || parentId == 0L) {
-                // 根部门，直接添加到树中
-                deptTree.add(dept);
+            DeyochDept parent = deptMap.get(parentMap.get(dept.getId()));
+            if (parent != null) {
+                parent.getChildren().add(dept);
             } else {
-                // 子部门，添加到父部门的children中
-                // 注意：由于DeyochDept实体类中没有children字段，暂时不构建树形结构
-                // 后续可以扩展DeyochDept类，添加children字段
+                deptTree.add(dept);
             }
         }
-
-        // 暂时返回按排序字段升序排列的部门列表
-        return deptList.stream()
-                .sorted((d1, d2) -> Long.compare(d1.getSort(), d2.getSort()))
-                .collect(Collectors.toList());
+        return deptTree;
     }
-}
\ No newline at end of file
+}
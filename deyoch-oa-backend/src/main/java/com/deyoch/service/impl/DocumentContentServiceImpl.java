@@ -0,0 +1,319 @@
+package com.deyoch.service.impl;
+
+import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
+import com.deyoch.common.result.Result;
+import com.deyoch.common.result.ResultCode;
+import com.deyoch.entity.DeyochDocument;
+import com.deyoch.entity.DeyochDocumentContent;
+import com.deyoch.entity.DeyochDocumentVersion;
+import com.deyoch.mapper.DeyochDocumentContentMapper;
+import com.deyoch.mapper.DeyochDocumentMapper;
+import com.deyoch.mapper.DocumentVersionMapper;
+import com.deyoch.service.DocumentContentService;
+import com.deyoch.service.SearchService;
+import com.deyoch.service.extract.DocumentTextExtractor;
+import com.deyoch.service.index.SearchType;
+import com.deyoch.utils.GzipUtil;
+import com.deyoch.utils.TransactionUtil;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.io.File;
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 文档正文抽取服务实现类
+ * 抽取任务在有界线程池中执行，队列满时直接放弃，由补偿抽取按文件路径比对后重新排队；
+ * 补偿抽取在启动时执行一次，此后只在有任务被放弃或上次未排完时按重试间隔再次执行
+ * 同一文档的任务按分段锁串行执行，后提交的任务总是读取到最新的文件路径，不会被先提交的旧结果覆盖
+ * 抽取结果GZIP压缩后写入deyoch_document_content，随后刷新文档的全文索引
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class DocumentContentServiceImpl implements DocumentContentService {
+
+    private static final int STATUS_EXTRACTED = 1;
+    private static final int STATUS_FAILED = 2;
+    private static final int STATUS_SKIPPED = 3;
+
+    private static final int MAX_ERROR_LENGTH = 500;
+    private static final int LOCK_STRIPES = 64;
+
+    private final DeyochDocumentMapper deyochDocumentMapper;
+    private final DocumentVersionMapper documentVersionMapper;
+    private final DeyochDocumentContentMapper deyochDocumentContentMapper;
+    private final SearchService searchService;
+
+    /**
+     * 抽取线程数
+     */
+    @Value("${document.extract.pool-size:2}")
+    private int poolSize = 2;
+
+    /**
+     * 抽取任务队列容量
+     */
+    @Value("${document.extract.queue-capacity:1000}")
+    private int queueCapacity = 1000;
+
+    /**
+     * 参与抽取的最大文件大小（字节），超出的文件跳过
+     */
+    @Value("${document.extract.max-file-size:20971520}")
+    private long maxFileSize = 20971520L;
+
+    /**
+     * 单个文件最多抽取的字符数
+     */
+    @Value("${document.extract.max-chars:200000}")
+    private int maxChars = 200000;
+
+    /**
+     * 单个文件的抽取耗时上限（毫秒）
+     */
+    @Value("${document.extract.timeout:30000}")
+    private long timeout = 30000L;
+
+    /**
+     * 有任务被放弃后再次补偿抽取的间隔（毫秒）
+     */
+    @Value("${document.extract.retry-interval:60000}")
+    private long retryInterval = 60000L;
+
+    private final Object[] locks = new Object[LOCK_STRIPES];
+    private final Set<Long> queued = ConcurrentHashMap.newKeySet();
+
+    /**
+     * 有任务因队列已满被放弃、或补偿抽取未能一次排完时置位，下次重试时执行补偿抽取
+     */
+    private final AtomicBoolean retryPending = new AtomicBoolean();
+
+    private ThreadPoolExecutor workers;
+    private ScheduledExecutorService retrier;
+    private DocumentTextExtractor extractor;
+
+    private final LongAdder extracted = new LongAdder();
+    private final LongAdder truncated = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+    private final LongAdder skipped = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+
+    @PostConstruct
+    public void init() {
+        for (int i = 0; i < LOCK_STRIPES; i++) {
+            locks[i] = new Object();
+        }
+        extractor = new DocumentTextExtractor(maxChars, timeout);
+        AtomicInteger threadIndex = new AtomicInteger();
+        workers = new ThreadPoolExecutor(poolSize, poolSize, 60L, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "document-extract-" + threadIndex.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+        workers.allowCoreThreadTimeOut(true);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (retrier != null) {
+            retrier.shutdownNow();
+        }
+        workers.shutdownNow();
+    }
+
+    /**
+     * 应用启动完成后补偿抽取，并开始定期重试被放弃的任务
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        backfill();
+        retrier = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "document-extract-retry");
+            thread.setDaemon(true);
+            return thread;
+        });
+        retrier.scheduleWithFixedDelay(this::retryRejected, retryInterval, retryInterval, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public void scheduleExtraction(Long documentId) {
+        if (documentId == null) {
+            return;
+        }
+        TransactionUtil.afterCommit(() -> submit(documentId));
+    }
+
+    @Override
+    public Result<Void> backfill() {
+        try {
+            workers.execute(this::enqueuePending);
+            return Result.success();
+        } catch (RejectedExecutionException e) {
+            return Result.error(ResultCode.SERVICE_UNAVAILABLE, "正文抽取任务繁忙，请稍后重试");
+        }
+    }
+
+    @Override
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("extracted", extracted.sum());
+        stats.put("truncated", truncated.sum());
+        stats.put("failed", failed.sum());
+        stats.put("skipped", skipped.sum());
+        stats.put("rejected", rejected.sum());
+        stats.put("pendingTasks", workers.getQueue().size());
+        stats.put("activeWorkers", workers.getActiveCount());
+        return stats;
+    }
+
+    /**
+     * 有任务被放弃时重新执行补偿抽取，没有时不查询数据库
+     */
+    void retryRejected() {
+        if (retryPending.getAndSet(false)) {
+            enqueuePending();
+        }
+    }
+
+    private void enqueuePending() {
+        try {
+            int limit = workers.getQueue().remainingCapacity();
+            if (limit <= 0) {
+                retryPending.set(true);
+                return;
+            }
+            List<Long> documentIds = deyochDocumentContentMapper.selectPendingDocumentIds(limit);
+            for (Long documentId : documentIds) {
+                submit(documentId);
+            }
+            if (documentIds.size() >= limit) {
+                // 按队列剩余容量取出的一批已排满，可能还有待抽取的文档
+                retryPending.set(true);
+            }
+            if (!documentIds.isEmpty()) {
+                log.info("补偿抽取文档正文：{}个文档排队", documentIds.size());
+            }
+        } catch (Exception e) {
+            retryPending.set(true);
+            log.warn("查询待抽取正文的文档失败", e);
+        }
+    }
+
+    private void submit(Long documentId) {
+        // 已在队列中的任务执行时会读取最新文件，无需重复排队
+        if (!queued.add(documentId)) {
+            return;
+        }
+        try {
+            workers.execute(() -> {
+                queued.remove(documentId);
+                synchronized (locks[(int) Math.floorMod(documentId, (long) LOCK_STRIPES)]) {
+                    extract(documentId);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            queued.remove(documentId);
+            rejected.increment();
+            retryPending.set(true);
+            log.warn("正文抽取队列已满，文档{}将在{}毫秒后补偿抽取时处理", documentId, retryInterval);
+        }
+    }
+
+    private void extract(Long documentId) {
+        try {
+            DeyochDocument document = deyochDocumentMapper.selectById(documentId);
+            if (document == null) {
+                // 文档已删除，正文随外键级联删除
+                return;
+            }
+            DeyochDocumentVersion latestVersion = documentVersionMapper.selectOne(
+                    new LambdaQueryWrapper<DeyochDocumentVersion>()
+                            .select(DeyochDocumentVersion::getFileName, DeyochDocumentVersion::getFilePath)
+                            .eq(DeyochDocumentVersion::getDocumentId, documentId)
+                            .orderByDesc(DeyochDocumentVersion::getId)
+                            .last("LIMIT 1"));
+            String sourcePath = latestVersion != null ? latestVersion.getFilePath() : document.getFilePath();
+            String fileType = latestVersion != null ? extension(latestVersion.getFileName()) : document.getFileType();
+
+            DeyochDocumentContent content = new DeyochDocumentContent();
+            content.setDocumentId(documentId);
+            content.setSourcePath(sourcePath);
+            content.setTextLength(0);
+            content.setTruncated(0);
+            File file = sourcePath != null ? new File(sourcePath) : null;
+            if (!DocumentTextExtractor.supports(fileType)) {
+                content.setStatus(STATUS_SKIPPED);
+                content.setErrorMessage("不支持的文件类型：" + fileType);
+                skipped.increment();
+            } else if (file == null || !file.isFile()) {
+                content.setStatus(STATUS_FAILED);
+                content.setErrorMessage("文件不存在");
+                failed.increment();
+            } else if (file.length() > maxFileSize) {
+                content.setStatus(STATUS_SKIPPED);
+                content.setErrorMessage("文件超过抽取大小上限");
+                skipped.increment();
+            } else {
+                try {
+                    DocumentTextExtractor.ExtractedText text = extractor.extract(file, fileType);
+                    content.setStatus(STATUS_EXTRACTED);
+                    content.setContent(GzipUtil.compress(text.getText()));
+                    content.setTextLength(text.getText().length());
+                    content.setTruncated(text.isTruncated() ? 1 : 0);
+                    extracted.increment();
+                    if (text.isTruncated()) {
+                        truncated.increment();
+                    }
+                } catch (Exception e) {
+                    log.warn("文档{}正文抽取失败：{}", documentId, e.getMessage());
+                    content.setStatus(STATUS_FAILED);
+                    content.setErrorMessage(abbreviate(e.getMessage()));
+                    failed.increment();
+                }
+            }
+            content.setExtractedAt(LocalDateTime.now());
+            deyochDocumentContentMapper.upsert(content);
+            searchService.refresh(SearchType.DOCUMENT, documentId);
+        } catch (Exception e) {
+            log.warn("文档{}正文抽取任务执行失败", documentId, e);
+        }
+    }
+
+    private static String extension(String fileName) {
+        if (fileName == null || fileName.lastIndexOf('.') < 0) {
+            return null;
+        }
+        return fileName.substring(fileName.lastIndexOf('.') + 1);
+    }
+
+    private static String abbreviate(String message) {
+        if (message == null) {
+            return "抽取失败";
+        }
+        return message.length() > MAX_ERROR_LENGTH ? message.substring(0, MAX_ERROR_LENGTH) : message;
+    }
+}
@@ -6,13 +6,19 @@ import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
 import com.baomidou.mybatisplus.extension.service.impl.ServiceImpl;
 import com.deyoch.entity.DeyochDocument;
 import com.deyoch.dto.DocumentVersionDto;
+import com.deyoch.mapper.DeyochDeptClosureMapper;
 import com.deyoch.mapper.DeyochDocumentMapper;
+import com.deyoch.common.result.CountAwarePage;
+import com.deyoch.common.result.PageCursor;
 import com.deyoch.common.result.PageResult;
 import com.deyoch.common.result.Result;
 import com.deyoch.common.result.ResultCode;
+import com.deyoch.service.DocumentContentService;
 import com.deyoch.service.DocumentService;
 import com.deyoch.service.DocumentVersionService;
+import com.deyoch.service.SearchService;
 import com.deyoch.service.UserInfoConverter;
+import com.deyoch.service.index.SearchType;
 import com.deyoch.utils.JwtUtil;
 import com.deyoch.utils.UserContextUtil;
 import lombok.RequiredArgsConstructor;
@@ -31,7 +37,9 @@ import java.io.IOException;
 import java.net.URLEncoder;
 import java.nio.charset.StandardCharsets;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.Collections;
+import java.util.Comparator;
 import java.util.List;
 import java.util.UUID;
 
@@ -47,6 +55,8 @@ public class DocumentServiceImpl extends ServiceImpl<DeyochDocumentMapper, Deyoc
     private final JwtUtil jwtUtil;
     private final UserInfoConverter userInfoConverter;
     private final DocumentVersionService documentVersionService;
+    private final SearchService searchService;
+    private final DocumentContentService documentContentService;
 
     // 文档上传路径（从配置文件中获取）
     @Value("${file.upload.path}")
@@ -55,6 +65,17 @@ public class DocumentServiceImpl extends ServiceImpl<DeyochDocumentMapper, Deyoc
     @Override
     public Result<PageResult<DeyochDocument>> getDocumentList(Integer page, Integer size, String keyword) {
         try {
+            // 有关键词时优先由全文索引过滤，避免LIKE全表扫描
+            List<Long> matchedIds = keyword != null && !keyword.isEmpty()
+                    ? searchService.matchIds(SearchType.DOCUMENT, keyword) : null;
+            if (matchedIds != null) {
+                List<Long> pageIds = PageResult.slice(matchedIds, page, size);
+                List<DeyochDocument> documentList = pageIds.isEmpty() ? new ArrayList<>() : new ArrayList<>(listByIds(pageIds));
+                documentList.sort(Comparator.comparingInt(document -> pageIds.indexOf(document.getId())));
+                populateUploaderNames(documentList);
+                return Result.success(PageResult.of((long) page, (long) size, (long) matchedIds.size(), documentList));
+            }
+            
             // 构建查询条件
             LambdaQueryWrapper<DeyochDocument> queryWrapper = new LambdaQueryWrapper<>();
             
@@ -66,37 +87,70 @@ public class DocumentServiceImpl extends ServiceImpl<DeyochDocumentMapper, Deyoc
             // 按创建时间倒序排列
             queryWrapper.orderByDesc(DeyochDocument::getCreatedAt);
             
-            // 创建分页对象
-            Page<DeyochDocument> pageObj = new Page<>(page, size);
+            // 创建分页对象，无筛选条件时允许使用估算总数
+            Page<DeyochDocument> pageObj = new CountAwarePage<>(page, size, keyword == null || keyword.isEmpty());
             
             // 分页查询文档
             IPage<DeyochDocument> documentPage = page(pageObj, queryWrapper);
             List<DeyochDocument> documentList = documentPage.getRecords();
             
             // 使用UserInfoConverter填充上传者用户名
-            userInfoConverter.<DeyochDocument>populateUserNames(
-                documentList,
-                // 用户ID提取器：从文档中提取userId
-                document -> document.getUserId() != null ? 
-                    Collections.singleton(document.getUserId()) : Collections.emptySet(),
-                // 用户名设置器：将用户名设置到uploaderName字段
-                (document, userIdToNameMap) -> {
-                    if (document.getUserId() != null) {
-                        String uploaderName = userIdToNameMap.get(document.getUserId());
-                        document.setUploaderName(uploaderName);
-                    }
-                }
-            );
+            populateUploaderNames(documentList);
             
             // 构建分页结果
-            PageResult<DeyochDocument> pageResult = PageResult.of(
-                documentPage.getCurrent(),
-                documentPage.getSize(),
-                documentPage.getTotal(),
-                documentList
-            );
+            PageResult<DeyochDocument> pageResult = PageResult.of(documentPage, documentList);
+            
+            return Result.success(pageResult);
+        } catch (Exception e) {
+            return Result.error(ResultCode.SYSTEM_ERROR, "获取文档列表失败，请稍后重试");
+        }
+    }
+
+    /**
+     * 使用UserInfoConverter填充上传者用户名
+     * @param documents 文档列表
+     */
+    private void populateUploaderNames(List<DeyochDocument> documents) {
+        userInfoConverter.<DeyochDocument>populateUserNames(
+            documents,
+            // 用户ID提取器：从文档中提取userId
+            document -> document.getUserId() != null ? 
+                Collections.singleton(document.getUserId()) : Collections.emptySet(),
+            // 用户名设置器：将用户名设置到uploaderName字段
+            (document, userIdToNameMap) -> {
+                if (document.getUserId() != null) {
+                    String uploaderName = userIdToNameMap.get(document.getUserId());
+                    document.setUploaderName(uploaderName);
+                }
+            }
+        );
+    }
+
+    @Override
+    public Result<PageResult<DeyochDocument>> getDocumentListByCursor(String cursor, Integer size, String keyword) {
+        try {
+            if (size == null || size < 1 || size > 100) {
+                size = 10;
+            }
+            PageCursor pageCursor = PageCursor.decode(cursor);
+            
+            // 构建查询条件
+            LambdaQueryWrapper<DeyochDocument> queryWrapper = new LambdaQueryWrapper<>();
+            if (keyword != null && !keyword.isEmpty()) {
+                queryWrapper.like(DeyochDocument::getFileName, keyword);
+            }
+            PageCursor.apply(queryWrapper, DeyochDocument::getCreatedAt, DeyochDocument::getId, pageCursor, size);
+            
+            // 查询size + 1行，多出的一行用于判断是否有下一页
+            PageResult<DeyochDocument> pageResult = PageCursor.toPageResult(
+                list(queryWrapper), size, DeyochDocument::getCreatedAt, DeyochDocument::getId);
+            
+            // 使用UserInfoConverter填充上传者用户名
+            populateUploaderNames(pageResult.getRecords());
             
             return Result.success(pageResult);
+        } catch (IllegalArgumentException e) {
+            return Result.error(ResultCode.PARAM_ERROR, e.getMessage());
         } catch (Exception e) {
             return Result.error(ResultCode.SYSTEM_ERROR, "获取文档列表失败，请稍后重试");
         }
@@ -132,11 +186,19 @@ public class DocumentServiceImpl extends ServiceImpl<DeyochDocumentMapper, Deyoc
     }
 
     @Override
-    public Result<List<DeyochDocument>> getDocumentsByDeptId(Long deptId) {
+    public Result<List<DeyochDocument>> getDocumentsByDeptId(Long deptId, Boolean includeChildren) {
         try {
+            if (deptId == null) {
+                return Result.error(ResultCode.PARAM_IS_NULL, "部门ID不能为空");
+            }
             // 根据部门ID查询文档，按创建时间倒序排列
             LambdaQueryWrapper<DeyochDocument> queryWrapper = new LambdaQueryWrapper<>();
-            queryWrapper.eq(DeyochDocument::getDeptId, deptId);
+            if (Boolean.TRUE.equals(includeChildren)) {
+                // 包含子部门：与部门闭包表做一次索引连接
+                queryWrapper.inSql(DeyochDocument::getDeptId, DeyochDeptClosureMapper.subtreeSql(deptId));
+            } else {
+                queryWrapper.eq(DeyochDocument::getDeptId, deptId);
+            }
             queryWrapper.orderByDesc(DeyochDocument::getCreatedAt);
             List<DeyochDocument> documentList = list(queryWrapper);
             
@@ -180,6 +242,8 @@ public class DocumentServiceImpl extends ServiceImpl<DeyochDocumentMapper, Deyoc
             document.setStatus(1);
             // 创建文档
             save(document);
+            searchService.refresh(SearchType.DOCUMENT, document.getId());
+            documentContentService.scheduleExtraction(document.getId());
             return Result.success(document);
         } catch (Exception e) {
             return Result.error(ResultCode.SYSTEM_ERROR, "创建文档失败，请稍后重试");
@@ -198,6 +262,11 @@ public class DocumentServiceImpl extends ServiceImpl<DeyochDocumentMapper, Deyoc
             document.setUpdatedAt(LocalDateTime.now());
             // 更新文档
             updateById(document);
+            searchService.refresh(SearchType.DOCUMENT, document.getId());
+            // 文件变化时重新抽取正文
+            if (document.getFilePath() != null && !document.getFilePath().equals(existingDocument.getFilePath())) {
+                documentContentService.scheduleExtraction(document.getId());
+            }
             return Result.success(document);
         } catch (Exception e) {
             return Result.error(ResultCode.SYSTEM_ERROR, "更新文档失败，请稍后重试");
@@ -219,6 +288,7 @@ public class DocumentServiceImpl extends ServiceImpl<DeyochDocumentMapper, Deyoc
             }
             // 删除文档记录
             removeById(id);
+            searchService.refresh(SearchType.DOCUMENT, id);
             return Result.success();
         } catch (Exception e) {
             return Result.error(ResultCode.SYSTEM_ERROR, "删除文档失败，请稍后重试");
@@ -294,6 +364,8 @@ public class DocumentServiceImpl extends ServiceImpl<DeyochDocumentMapper, Deyoc
             
             // 保存文档记录
             save(document);
+            searchService.refresh(SearchType.DOCUMENT, document.getId());
+            documentContentService.scheduleExtraction(document.getId());
             
             return Result.success(document);
         } catch (IOException e) {
@@ -6,6 +6,7 @@ import com.deyoch.entity.DeyochDocumentVersion;
 import com.deyoch.mapper.DocumentVersionMapper;
 import com.deyoch.common.result.Result;
 import com.deyoch.common.result.ResultCode;
+import com.deyoch.service.DocumentContentService;
 import com.deyoch.service.DocumentVersionService;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -31,6 +32,9 @@ public class DocumentVersionServiceImpl extends ServiceImpl<DocumentVersionMappe
     @Autowired
     private DocumentVersionMapper documentVersionMapper;
     
+    @Autowired
+    private DocumentContentService documentContentService;
+    
     /**
      * 版本号正则表达式（支持 x.y.z 格式）
      */
@@ -79,6 +83,8 @@ public class DocumentVersionServiceImpl extends ServiceImpl<DocumentVersionMappe
             boolean success = save(versionEntity);
             if (success) {
                 log.info("创建文档版本成功 - 文档ID: {}, 版本: {}", documentId, version);
+                // 新版本文件成为检索正文的来源
+                documentContentService.scheduleExtraction(documentId);
                 return Result.success(versionEntity);
             } else {
                 return Result.error(ResultCode.DATABASE_ERROR, "创建文档版本失败");
@@ -2,10 +2,12 @@ package com.deyoch.service.impl;
 
 import com.baomidou.mybatisplus.core.metadata.IPage;
 import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
+import com.deyoch.common.result.PageCursor;
 import com.deyoch.common.result.PageResult;
 import com.deyoch.common.result.Result;
 import com.deyoch.common.result.ResultCode;
 import com.deyoch.dto.MessageDto;
+import com.deyoch.dto.TemplateMessageDto;
 import com.deyoch.entity.DeyochMessage;
 import com.deyoch.entity.DeyochMessageTemplate;
 import com.deyoch.mapper.MessageMapper;
@@ -20,6 +22,7 @@ import org.springframework.transaction.annotation.Transactional;
 import org.springframework.util.StringUtils;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -173,6 +176,67 @@ public class MessageServiceImpl implements MessageService {
         }
     }
     
+    @Override
+    @Transactional
+    public Result<Void> sendBatchMessageByTemplate(String templateType, List<TemplateMessageDto> messages) {
+        try {
+            if (messages == null || messages.isEmpty()) {
+                return Result.error(ResultCode.PARAM_IS_NULL, "消息列表不能为空");
+            }
+            
+            // 查询消息模板，整批只查询一次
+            DeyochMessageTemplate template = messageTemplateMapper.selectByType(templateType);
+            if (template == null) {
+                return Result.error(ResultCode.DATA_NOT_FOUND, "消息模板不存在: " + templateType);
+            }
+            
+            if (template.getStatus() != 1) {
+                return Result.error(ResultCode.DATA_NOT_FOUND, "消息模板已禁用: " + templateType);
+            }
+            
+            Integer type = getMessageTypeByTemplate(templateType);
+            LocalDateTime now = LocalDateTime.now();
+            List<DeyochMessage> entities = new ArrayList<>(messages.size());
+            for (TemplateMessageDto message : messages) {
+                if (message.getReceiverId() == null) {
+                    continue;
+                }
+                DeyochMessage entity = new DeyochMessage();
+                entity.setTitle(replaceTemplateVariables(template.getTitleTemplate(), message.getVariables()));
+                entity.setContent(replaceTemplateVariables(template.getContentTemplate(), message.getVariables()));
+                entity.setType(type);
+                entity.setPriority(1); // 默认普通优先级
+                entity.setReceiverId(message.getReceiverId());
+                entity.setIsRead(0);
+                entity.setRelatedType(message.getRelatedType());
+                entity.setRelatedId(message.getRelatedId());
+                entity.setCreatedAt(now);
+                entity.setUpdatedAt(now);
+                entities.add(entity);
+            }
+            if (entities.isEmpty()) {
+                return Result.error(ResultCode.PARAM_IS_NULL, "接收者ID不能为空");
+            }
+            
+            // 一条INSERT写入整批消息
+            messageMapper.insertBatch(entities);
+            
+            // 实时推送消息
+            for (DeyochMessage entity : entities) {
+                MessageDto message = new MessageDto();
+                BeanUtils.copyProperties(entity, message);
+                webSocketHandler.sendMessageToUser(entity.getReceiverId().toString(), message);
+            }
+            
+            log.info("按模板批量发送消息成功 - 模板: {}, 数量: {}", templateType, entities.size());
+            return Result.success();
+            
+        } catch (Exception e) {
+            log.error("按模板批量发送消息失败", e);
+            return Result.error(ResultCode.INTERNAL_ERROR, "按模板批量发送消息失败: " + e.getMessage());
+        }
+    }
+    
     @Override
     public Result<PageResult<MessageDto>> getUserMessages(Long userId, Integer page, Integer size, 
                                                          Integer type, Integer isRead) {
@@ -201,6 +265,7 @@ public class MessageServiceImpl implements MessageService {
             pageResult.setSize(result.getSize());
             pageResult.setCurrent(result.getCurrent());
             pageResult.setPages(result.getPages());
+            pageResult.setTotalExact(true);
             
             return Result.success(pageResult);
             
@@ -210,6 +275,35 @@ public class MessageServiceImpl implements MessageService {
         }
     }
     
+    @Override
+    public Result<PageResult<MessageDto>> getUserMessagesByCursor(Long userId, String cursor, Integer size,
+                                                                 Integer type, Integer isRead) {
+        try {
+            // 参数校验
+            if (userId == null) {
+                return Result.error(ResultCode.PARAM_IS_NULL, "用户ID不能为空");
+            }
+            if (size == null || size < 1 || size > 100) {
+                size = 20;
+            }
+            PageCursor pageCursor = PageCursor.decode(cursor);
+            
+            // 多查询一条用于判断是否有下一页
+            List<MessageDto> rows = messageMapper.selectUserMessagesAfter(userId, type, isRead,
+                    pageCursor != null ? pageCursor.getCreatedAt() : null,
+                    pageCursor != null ? pageCursor.getId() : null,
+                    size + 1);
+            
+            return Result.success(PageCursor.toPageResult(rows, size, MessageDto::getCreatedAt, MessageDto::getId));
+            
+        } catch (IllegalArgumentException e) {
+            return Result.error(ResultCode.PARAM_ERROR, e.getMessage());
+        } catch (Exception e) {
+            log.error("查询用户消息失败", e);
+            return Result.error(ResultCode.INTERNAL_ERROR, "查询用户消息失败: " + e.getMessage());
+        }
+    }
+    
     @Override
     @Transactional
     public Result<Void> markMessageAsRead(Long messageId, Long userId) {
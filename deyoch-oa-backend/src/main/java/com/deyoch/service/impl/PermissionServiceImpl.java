@@ -11,6 +11,9 @@ import com.deyoch.mapper.DeyochRolePermissionMapper;
 import com.deyoch.mapper.DeyochUserMapper;
 import com.deyoch.common.result.Result;
 import com.deyoch.common.result.ResultCode;
+import com.deyoch.security.PermissionBitsetIndex;
+import com.deyoch.security.PermissionTree;
+import com.deyoch.security.UserAuthorityCache;
 import com.deyoch.service.PermissionService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -18,9 +21,12 @@ import org.springframework.stereotype.Service;
 
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.BitSet;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.function.Predicate;
 import java.util.stream.Collectors;
 
 /**
@@ -34,17 +40,15 @@ public class PermissionServiceImpl extends ServiceImpl<DeyochPermissionMapper, D
 
     private final DeyochRolePermissionMapper deyochRolePermissionMapper;
     private final DeyochUserMapper deyochUserMapper;
+    private final UserAuthorityCache userAuthorityCache;
+    private final PermissionBitsetIndex permissionBitsetIndex;
+    private final PermissionTree permissionTree;
 
     @Override
     public Result<List<DeyochPermission>> getPermissionTree() {
         try {
-            // 获取所有权限列表
-            List<DeyochPermission> permList = list();
-            
-            // 构建权限树
-            List<DeyochPermission> permTree = buildPermissionTree(permList);
-            
-            return Result.success(permTree);
+            // 直接返回缓存的权限树快照，权限变更后才会重建
+            return Result.success(permissionTree.getTree());
         } catch (Exception e) {
             return Result.error(ResultCode.SYSTEM_ERROR, "获取权限树失败：" + e.getMessage());
         }
@@ -151,6 +155,8 @@ public class PermissionServiceImpl extends ServiceImpl<DeyochPermissionMapper, D
 
             // 创建权限
             save(permission);
+            permissionBitsetIndex.onPermissionSaved(permission);
+            permissionTree.invalidate();
             return Result.success(permission);
         } catch (Exception e) {
             // 记录详细日志
@@ -195,6 +201,11 @@ public class PermissionServiceImpl extends ServiceImpl<DeyochPermissionMapper, D
 
             // 更新权限
             updateById(permission);
+
+            // 权限编码可能已变更，清空用户权限缓存并更新位图索引中的编码映射
+            userAuthorityCache.invalidateAll();
+            permissionBitsetIndex.onPermissionSaved(permission);
+            permissionTree.invalidate();
             return Result.success(permission);
         } catch (Exception e) {
             return Result.error(ResultCode.SYSTEM_ERROR, "更新权限失败：" + e.getMessage());
@@ -224,6 +235,11 @@ public class PermissionServiceImpl extends ServiceImpl<DeyochPermissionMapper, D
 
             // 删除权限
             removeById(id);
+
+            // 清空用户权限缓存并从位图索引中移除该权限
+            userAuthorityCache.invalidateAll();
+            permissionBitsetIndex.onPermissionRemoved(id);
+            permissionTree.invalidate();
             return Result.success();
         } catch (Exception e) {
             return Result.error(ResultCode.SYSTEM_ERROR, "删除权限失败：" + e.getMessage());
@@ -239,25 +255,22 @@ public class PermissionServiceImpl extends ServiceImpl<DeyochPermissionMapper, D
                 return Result.error(ResultCode.USER_NOT_FOUND, "用户不存在");
             }
             
-            // 2. 根据角色ID获取角色拥有的权限ID列表
-            LambdaQueryWrapper<DeyochRolePermission> rolePermWrapper = new LambdaQueryWrapper<>();
-            rolePermWrapper.eq(DeyochRolePermission::getRoleId, user.getRoleId());
-            List<DeyochRolePermission> rolePermList = deyochRolePermissionMapper.selectList(rolePermWrapper);
-            
-            if (rolePermList.isEmpty()) {
-                return Result.success(new ArrayList<>());
+            // 2. 按角色权限位图裁剪权限树快照，无需查询权限表
+            BitSet roleBits = user.getRoleId() != null ? permissionBitsetIndex.getRoleBits(user.getRoleId()) : new BitSet();
+            Predicate<Long> included;
+            if (roleBits != null) {
+                included = permId -> permissionBitsetIndex.hasPermissionId(roleBits, permId);
+            } else {
+                // 位图索引不可用时回退到查询角色权限关联
+                Set<Long> permIds = deyochRolePermissionMapper.selectList(
+                                new LambdaQueryWrapper<DeyochRolePermission>()
+                                        .eq(DeyochRolePermission::getRoleId, user.getRoleId()))
+                        .stream()
+                        .map(DeyochRolePermission::getPermId)
+                        .collect(Collectors.toSet());
+                included = permIds::contains;
             }
-            
-            // 3. 提取权限ID列表
-            List<Long> permIds = rolePermList.stream()
-                    .map(DeyochRolePermission::getPermId)
-                    .collect(Collectors.toList());
-            
-            // 4. 根据权限ID列表获取权限详情
-            List<DeyochPermission> permList = listByIds(permIds);
-            
-            // 5. 构建权限树
-            List<DeyochPermission> permTree = buildPermissionTree(permList);
+            List<DeyochPermission> permTree = permissionTree.getPrunedTree(included);
             
             return Result.success(permTree);
         } catch (Exception e) {
@@ -274,15 +287,13 @@ public class PermissionServiceImpl extends ServiceImpl<DeyochPermissionMapper, D
                 return Result.error(ResultCode.USER_NOT_FOUND, "用户不存在");
             }
             
-            System.out.println("获取用户权限编码：userId=" + userId + ", roleId=" + user.getRoleId());
-            
+            log.debug("获取用户权限编码：userId={}, roleId={}", userId, user.getRoleId());
+
             // 2. 根据角色ID获取角色拥有的权限ID列表
             LambdaQueryWrapper<DeyochRolePermission> rolePermWrapper = new LambdaQueryWrapper<>();
             rolePermWrapper.eq(DeyochRolePermission::getRoleId, user.getRoleId());
             List<DeyochRolePermission> rolePermList = deyochRolePermissionMapper.selectList(rolePermWrapper);
-            
-            System.out.println("角色权限关联列表：" + rolePermList);
-            
+
             if (rolePermList.isEmpty()) {
                 return Result.success(new ArrayList<>());
             }
@@ -291,59 +302,21 @@ public class PermissionServiceImpl extends ServiceImpl<DeyochPermissionMapper, D
             List<Long> permIds = rolePermList.stream()
                     .map(DeyochRolePermission::getPermId)
                     .collect(Collectors.toList());
-            
-            System.out.println("权限ID列表：" + permIds);
-            
+
             // 4. 根据权限ID列表获取权限详情
             List<DeyochPermission> permList = listByIds(permIds);
-            
-            System.out.println("权限详情列表：" + permList);
-            
+
             // 5. 提取权限编码列表
             List<String> permCodes = permList.stream()
                     .map(DeyochPermission::getPermCode)
                     .collect(Collectors.toList());
-            
-            System.out.println("返回的权限编码列表：" + permCodes);
-            
+
+            log.debug("用户{}的权限编码：{}", userId, permCodes);
+
             return Result.success(permCodes);
         } catch (Exception e) {
-            System.out.println("获取用户权限编码失败：" + e.getMessage());
-            e.printStackTrace();
+            log.error("获取用户权限编码失败，userId={}", userId, e);
             return Result.error(ResultCode.SYSTEM_ERROR, "获取用户权限编码失败：" + e.getMessage());
         }
     }
-
-    /**
-     * 构建权限树
-     * @param permList 权限列表
-     * @return 权限树
-     */
-    private List<DeyochPermission> buildPermissionTree(List<DeyochPermission> permList) {
-        // 将权限列表转换为Map，便于根据ID查找
-        Map<Long, DeyochPermission> permMap = permList.stream()
-                .collect(Collectors.toMap(DeyochPermission::getId, perm -> perm));
-
-        // 创建权限树列表
-        List<DeyochPermission> permTree = new ArrayList<>();
-
-        // 遍历权限列表，构建树结构
-        for (DeyochPermission perm : permList) {
-            Long parentId = perm.getParentId();
-            if (parentId == null || parentId == 0L) {
-                // 根权限，直接添加到树中
-                permTree.add(perm);
-            } else {
-                // 子权限，添加到父权限的children中
-                DeyochPermission parentPerm = permMap.get(parentId);
-                if (parentPerm != null) {
-                    // 由于DeyochPermission实体类中没有children字段，暂时不构建树形结构
-                    // 后续可以扩展DeyochPermission类，添加children字段
-                }
-            }
-        }
-
-        // 暂时返回扁平列表，后续改为返回树形结构
-        return permList;
-    }
-}
\ No newline at end of file
+}
@@ -11,6 +11,8 @@ import com.deyoch.mapper.DeyochRolePermissionMapper;
 import com.deyoch.common.result.PageResult;
 import com.deyoch.common.result.Result;
 import com.deyoch.common.result.ResultCode;
+import com.deyoch.security.PermissionBitsetIndex;
+import com.deyoch.security.UserAuthorityCache;
 import com.deyoch.service.RoleService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
@@ -29,6 +31,8 @@ import java.util.List;
 public class RoleServiceImpl extends ServiceImpl<DeyochRoleMapper, DeyochRole> implements RoleService {
 
     private final DeyochRolePermissionMapper deyochRolePermissionMapper;
+    private final UserAuthorityCache userAuthorityCache;
+    private final PermissionBitsetIndex permissionBitsetIndex;
 
     @Override
     public Result<PageResult<DeyochRole>> getRoleList(Integer page, Integer size, String keyword) {
@@ -163,6 +167,10 @@ public class RoleServiceImpl extends ServiceImpl<DeyochRoleMapper, DeyochRole> i
 
             // 删除角色
             removeById(id);
+
+            // 该角色下用户的权限已变更
+            userAuthorityCache.invalidateRole(id);
+            permissionBitsetIndex.onRoleRemoved(id);
             return Result.success();
         } catch (Exception e) {
             return Result.error(ResultCode.SYSTEM_ERROR, "删除角色失败：" + e.getMessage());
@@ -194,6 +202,10 @@ public class RoleServiceImpl extends ServiceImpl<DeyochRoleMapper, DeyochRole> i
                 }
             }
 
+            // 该角色下用户的权限已变更（事务提交后再次失效）
+            userAuthorityCache.invalidateRole(roleId);
+            permissionBitsetIndex.onRolePermissionsChanged(roleId, permIds != null ? permIds : List.of());
+
             return Result.success();
         } catch (Exception e) {
             return Result.error(ResultCode.SYSTEM_ERROR, "分配权限失败：" + e.getMessage());
@@ -0,0 +1,256 @@
+package com.deyoch.service.impl;
+
+import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
+import com.baomidou.mybatisplus.extension.service.impl.ServiceImpl;
+import com.deyoch.common.result.Result;
+import com.deyoch.common.result.ResultCode;
+import com.deyoch.entity.DeyochScheduleSeries;
+import com.deyoch.entity.DeyochScheduleSeriesException;
+import com.deyoch.mapper.DeyochScheduleSeriesExceptionMapper;
+import com.deyoch.mapper.DeyochScheduleSeriesMapper;
+import com.deyoch.service.ScheduleSeriesService;
+import com.deyoch.service.notify.ScheduleReminderDispatcher;
+import com.deyoch.service.schedule.Recurrence;
+import com.deyoch.service.schedule.ScheduleOccurrenceExpander;
+import com.deyoch.utils.JwtUtil;
+import com.deyoch.utils.UserContextUtil;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * 重复日程服务实现类
+ * 系列只保存一条记录和规则，保存时计算最后一次开始时间作为查询上界，实例由ScheduleOccurrenceExpander按窗口展开
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class ScheduleSeriesServiceImpl extends ServiceImpl<DeyochScheduleSeriesMapper, DeyochScheduleSeries>
+        implements ScheduleSeriesService {
+
+    private final JwtUtil jwtUtil;
+    private final DeyochScheduleSeriesExceptionMapper deyochScheduleSeriesExceptionMapper;
+    private final ScheduleReminderDispatcher scheduleReminderDispatcher;
+
+    /**
+     * 重复次数上限，保存时按次数计算最后一次开始时间
+     */
+    private static final int MAX_OCCURRENCE_COUNT = 1000;
+
+    /**
+     * 单个日程的最大跨度（天），也是单个实例可以移动的最大距离
+     */
+    @Value("${schedule.max-span-days:31}")
+    private int maxSpanDays = 31;
+
+    @Override
+    public Result<List<DeyochScheduleSeries>> getMySeriesList() {
+        try {
+            Long userId = UserContextUtil.getUserIdFromToken(jwtUtil);
+            if (userId == null) {
+                return Result.error(ResultCode.UNAUTHORIZED, "未登录或无效的令牌");
+            }
+            LambdaQueryWrapper<DeyochScheduleSeries> queryWrapper = new LambdaQueryWrapper<>();
+            queryWrapper.eq(DeyochScheduleSeries::getUserId, userId);
+            queryWrapper.orderByAsc(DeyochScheduleSeries::getStartTime);
+            return Result.success(list(queryWrapper));
+        } catch (Exception e) {
+            return Result.error(ResultCode.SYSTEM_ERROR, "获取重复日程失败：" + e.getMessage());
+        }
+    }
+
+    @Override
+    public Result<DeyochScheduleSeries> createSeries(DeyochScheduleSeries series) {
+        try {
+            Long userId = UserContextUtil.getUserIdFromToken(jwtUtil);
+            if (userId == null) {
+                return Result.error(ResultCode.UNAUTHORIZED, "未登录或无效的令牌，无法创建日程");
+            }
+            Result<DeyochScheduleSeries> invalid = normalize(series);
+            if (invalid != null) {
+                return invalid;
+            }
+
+            LocalDateTime now = LocalDateTime.now();
+            series.setId(null);
+            series.setUserId(userId);
+            series.setCreatedAt(now);
+            series.setUpdatedAt(now);
+            save(series);
+            scheduleReminderDispatcher.refreshSeries(series.getId());
+            return Result.success(series);
+        } catch (Exception e) {
+            log.error("创建重复日程失败", e);
+            return Result.error(ResultCode.SYSTEM_ERROR, "创建重复日程失败，请稍后重试");
+        }
+    }
+
+    @Override
+    public Result<DeyochScheduleSeries> updateSeries(DeyochScheduleSeries series) {
+        try {
+            DeyochScheduleSeries existing = getById(series.getId());
+            Result<DeyochScheduleSeries> denied = checkOwner(existing);
+            if (denied != null) {
+                return denied;
+            }
+            // 未给出的基本信息沿用原值，重复规则整体替换
+            if (series.getTitle() == null) {
+                series.setTitle(existing.getTitle());
+            }
+            if (series.getContent() == null) {
+                series.setContent(existing.getContent());
+            }
+            if (series.getLocation() == null) {
+                series.setLocation(existing.getLocation());
+            }
+            if (series.getStartTime() == null) {
+                series.setStartTime(existing.getStartTime());
+            }
+            if (series.getEndTime() == null) {
+                series.setEndTime(existing.getEndTime());
+            }
+            if (series.getFrequency() == null) {
+                series.setFrequency(existing.getFrequency());
+            }
+            Result<DeyochScheduleSeries> invalid = normalize(series);
+            if (invalid != null) {
+                return invalid;
+            }
+
+            series.setUserId(existing.getUserId());
+            series.setCreatedAt(existing.getCreatedAt());
+            series.setUpdatedAt(LocalDateTime.now());
+            updateById(series);
+            scheduleReminderDispatcher.refreshSeries(series.getId());
+            return Result.success(series);
+        } catch (Exception e) {
+            return Result.error(ResultCode.SYSTEM_ERROR, "更新重复日程失败：" + e.getMessage());
+        }
+    }
+
+    @Override
+    public Result<Void> deleteSeries(Long id) {
+        try {
+            Result<Void> denied = checkOwner(getById(id));
+            if (denied != null) {
+                return denied;
+            }
+            // 单个实例的修改随外键级联删除
+            removeById(id);
+            scheduleReminderDispatcher.refreshSeries(id);
+            return Result.success();
+        } catch (Exception e) {
+            return Result.error(ResultCode.SYSTEM_ERROR, "删除重复日程失败：" + e.getMessage());
+        }
+    }
+
+    @Override
+    public Result<Void> saveOccurrenceException(Long seriesId, DeyochScheduleSeriesException exception) {
+        try {
+            DeyochScheduleSeries series = getById(seriesId);
+            Result<Void> denied = checkOwner(series);
+            if (denied != null) {
+                return denied;
+            }
+            LocalDateTime originalStart = exception.getOriginalStartTime();
+            if (originalStart == null || !ScheduleOccurrenceExpander.recurrenceOf(series).isOccurrence(originalStart)) {
+                return Result.error(ResultCode.PARAM_ERROR, "原定开始时间不是该系列的实例");
+            }
+
+            exception.setSeriesId(seriesId);
+            boolean cancelled = Integer.valueOf(1).equals(exception.getCancelled());
+            exception.setCancelled(cancelled ? 1 : 0);
+            if (!cancelled) {
+                // 修改后的时间：未给出开始时间时沿用原定时间，未给出结束时间时沿用系列时长
+                Duration duration = Duration.between(series.getStartTime(), series.getEndTime());
+                LocalDateTime startTime = exception.getStartTime() != null ? exception.getStartTime() : originalStart;
+                LocalDateTime endTime = exception.getEndTime() != null ? exception.getEndTime() : startTime.plus(duration);
+                String timeError = validateTime(startTime, endTime);
+                if (timeError != null) {
+                    return Result.error(ResultCode.SCHEDULE_TIME_INVALID, timeError);
+                }
+                // 查询按原定时间放宽最大跨度来查找移入窗口的实例，移动距离不能超过该范围
+                if (startTime.isBefore(originalStart.minusDays(maxSpanDays))
+                        || startTime.isAfter(originalStart.plusDays(maxSpanDays))) {
+                    return Result.error(ResultCode.SCHEDULE_TIME_INVALID, "单个实例移动不能超过" + maxSpanDays + "天");
+                }
+            }
+            deyochScheduleSeriesExceptionMapper.upsert(exception);
+            scheduleReminderDispatcher.refreshSeries(seriesId);
+            return Result.success();
+        } catch (Exception e) {
+            log.error("修改重复日程实例失败", e);
+            return Result.error(ResultCode.SYSTEM_ERROR, "修改重复日程实例失败：" + e.getMessage());
+        }
+    }
+
+    /**
+     * 校验时间和重复规则，补全默认值并计算最后一次开始时间
+     * @return 校验失败时的结果，通过时返回null
+     */
+    private <T> Result<T> normalize(DeyochScheduleSeries series) {
+        String timeError = validateTime(series.getStartTime(), series.getEndTime());
+        if (timeError != null) {
+            return Result.error(ResultCode.SCHEDULE_TIME_INVALID, timeError);
+        }
+        if (series.getOccurrenceCount() != null && series.getOccurrenceCount() > MAX_OCCURRENCE_COUNT) {
+            return Result.error(ResultCode.PARAM_ERROR, "重复次数不能超过" + MAX_OCCURRENCE_COUNT);
+        }
+        Recurrence recurrence;
+        try {
+            recurrence = ScheduleOccurrenceExpander.recurrenceOf(series);
+        } catch (IllegalArgumentException e) {
+            return Result.error(ResultCode.PARAM_ERROR, e.getMessage());
+        }
+        if (series.getRepeatInterval() == null) {
+            series.setRepeatInterval(1);
+        }
+        if (!Recurrence.Frequency.WEEKLY.name().equals(series.getFrequency())) {
+            series.setWeekdays(null);
+        } else if (series.getWeekdays() == null) {
+            series.setWeekdays(1 << (series.getStartTime().getDayOfWeek().getValue() - 1));
+        }
+        series.setLastStartTime(recurrence.lastStart());
+        return null;
+    }
+
+    /**
+     * 检查系列存在且属于当前用户
+     * @return 检查失败时的结果，通过时返回null
+     */
+    private <T> Result<T> checkOwner(DeyochScheduleSeries series) {
+        if (series == null) {
+            return Result.error(ResultCode.SCHEDULE_NOT_FOUND, "重复日程不存在");
+        }
+        Long userId = UserContextUtil.getUserIdFromToken(jwtUtil);
+        if (userId == null) {
+            return Result.error(ResultCode.UNAUTHORIZED, "未登录或无效的令牌");
+        }
+        if (!userId.equals(series.getUserId())) {
+            return Result.error(ResultCode.FORBIDDEN, "只有日程创建者可以修改重复日程");
+        }
+        return null;
+    }
+
+    /**
+     * 校验日程时间，规则与普通日程相同
+     * @return 错误信息，合法时返回null
+     */
+    private String validateTime(LocalDateTime startTime, LocalDateTime endTime) {
+        if (startTime == null || endTime == null) {
+            return "开始时间和结束时间不能为空";
+        }
+        if (endTime.isBefore(startTime)) {
+            return "结束时间不能早于开始时间";
+        }
+        if (endTime.isAfter(startTime.plusDays(maxSpanDays))) {
+            return "日程跨度不能超过" + maxSpanDays + "天";
+        }
+        return null;
+    }
+}
@@ -2,21 +2,46 @@ package com.deyoch.service.impl;
 
 import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
 import com.baomidou.mybatisplus.extension.service.impl.ServiceImpl;
+import com.deyoch.dto.FreeSlotDto;
+import com.deyoch.dto.ScheduleConflictCheckDto;
+import com.deyoch.dto.ScheduleConflictDto;
+import com.deyoch.dto.ScheduleDayDto;
 import com.deyoch.entity.DeyochSchedule;
+import com.deyoch.entity.DeyochScheduleShare;
 import com.deyoch.mapper.DeyochScheduleMapper;
+import com.deyoch.mapper.DeyochScheduleShareMapper;
 import com.deyoch.common.result.Result;
 import com.deyoch.common.result.ResultCode;
 import com.deyoch.service.ScheduleService;
 import com.deyoch.service.UserInfoConverter;
+import com.deyoch.service.notify.ScheduleReminderDispatcher;
+import com.deyoch.service.schedule.FreeBusyIndex;
+import com.deyoch.service.schedule.IntervalSet;
+import com.deyoch.service.schedule.ScheduleCalendar;
+import com.deyoch.service.schedule.ScheduleOccurrenceExpander;
 import com.deyoch.utils.JwtUtil;
 import com.deyoch.utils.UserContextUtil;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.stream.IntStream;
 
 /**
  * 日程管理服务实现类
@@ -29,6 +54,43 @@ public class ScheduleServiceImpl extends ServiceImpl<DeyochScheduleMapper, Deyoc
 
     private final JwtUtil jwtUtil;
     private final UserInfoConverter userInfoConverter;
+    private final DeyochScheduleShareMapper deyochScheduleShareMapper;
+    private final FreeBusyIndex freeBusyIndex;
+    private final ScheduleOccurrenceExpander occurrenceExpander;
+    private final ScheduleReminderDispatcher scheduleReminderDispatcher;
+
+    private static final DateTimeFormatter DATE_TIME_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+
+    /**
+     * 单次批量冲突检查的最大日程数
+     */
+    private static final int MAX_CONFLICT_CHECKS = 500;
+
+    private static final int CONFLICT_LOCK_STRIPES = 64;
+
+    /**
+     * 按用户分段的冲突检查锁，同一用户的检查与写入串行执行（单实例内有效）
+     */
+    private final Object[] conflictLocks = IntStream.range(0, CONFLICT_LOCK_STRIPES)
+            .mapToObj(i -> new Object()).toArray();
+
+    /**
+     * 常规日程的跨度上限（天），范围查询据此限定开始时间的下界，使查询能够使用(user_id, start_time)索引；
+     * 跨度更长的日程不受限制，由按(user_id, end_time)索引的第二次查询取出
+     */
+    @Value("${schedule.max-span-days:31}")
+    private int maxSpanDays = 31;
+
+    /**
+     * 查找共同空闲时段时最多参与的用户数
+     */
+    @Value("${schedule.free-busy.max-query-users:200}")
+    private int maxQueryUsers = 200;
+
+    /**
+     * 查找共同空闲时段时最多返回的时段数
+     */
+    private static final int MAX_FREE_SLOTS = 50;
 
     @Override
     public Result<List<DeyochSchedule>> getScheduleList() {
@@ -119,7 +181,7 @@ public class ScheduleServiceImpl extends ServiceImpl<DeyochScheduleMapper, Deyoc
     }
 
     @Override
-    public Result<DeyochSchedule> createSchedule(DeyochSchedule schedule) {
+    public Result<DeyochSchedule> createSchedule(DeyochSchedule schedule, boolean rejectOnConflict) {
         try {
             // 获取当前用户信息，优先从Token中获取，其次从SecurityContext获取
             UserContextUtil.UserInfo userInfo = UserContextUtil.getCurrentUserInfo(jwtUtil);
@@ -134,6 +196,11 @@ public class ScheduleServiceImpl extends ServiceImpl<DeyochScheduleMapper, Deyoc
                 return Result.error(ResultCode.UNAUTHORIZED, "用户信息不完整，无法创建日程");
             }
             
+            String timeError = validateTime(schedule.getStartTime(), schedule.getEndTime());
+            if (timeError != null) {
+                return Result.error(ResultCode.SCHEDULE_TIME_INVALID, timeError);
+            }
+            
             // 设置创建时间和更新时间
             LocalDateTime now = LocalDateTime.now();
             schedule.setCreatedAt(now);
@@ -142,8 +209,19 @@ public class ScheduleServiceImpl extends ServiceImpl<DeyochScheduleMapper, Deyoc
             schedule.setUserId(userId);
             // 默认状态为待开始
             schedule.setStatus(0);
-            // 创建日程
-            save(schedule);
+            // 同一用户的冲突检查与写入串行执行，拒绝冲突模式下并发创建不会同时通过检查
+            List<ScheduleConflictDto> conflicts;
+            synchronized (conflictLock(userId)) {
+                conflicts = findConflicts(userId, null, schedule.getStartTime(), schedule.getEndTime());
+                if (rejectOnConflict && !conflicts.isEmpty()) {
+                    return Result.error(ResultCode.SCHEDULE_CONFLICT, conflictMessage(conflicts));
+                }
+                // 创建日程
+                save(schedule);
+                freeBusyIndex.refreshSchedule(schedule.getId(), null);
+                scheduleReminderDispatcher.refreshSchedule(schedule.getId());
+            }
+            schedule.setConflicts(conflicts);
             return Result.success(schedule);
         } catch (Exception e) {
             log.error("创建日程失败：", e);
@@ -153,17 +231,36 @@ public class ScheduleServiceImpl extends ServiceImpl<DeyochScheduleMapper, Deyoc
     }
 
     @Override
-    public Result<DeyochSchedule> updateSchedule(DeyochSchedule schedule) {
+    public Result<DeyochSchedule> updateSchedule(DeyochSchedule schedule, boolean rejectOnConflict) {
         try {
             // 检查日程是否存在
             DeyochSchedule existingSchedule = getById(schedule.getId());
             if (existingSchedule == null) {
                 return Result.error(ResultCode.SCHEDULE_NOT_FOUND, "日程不存在");
             }
+            // 未修改的时间和用户沿用原值
+            LocalDateTime startTime = schedule.getStartTime() != null ? schedule.getStartTime() : existingSchedule.getStartTime();
+            LocalDateTime endTime = schedule.getEndTime() != null ? schedule.getEndTime() : existingSchedule.getEndTime();
+            Long userId = schedule.getUserId() != null ? schedule.getUserId() : existingSchedule.getUserId();
+            String timeError = validateTime(startTime, endTime);
+            if (timeError != null) {
+                return Result.error(ResultCode.SCHEDULE_TIME_INVALID, timeError);
+            }
             // 设置更新时间
             schedule.setUpdatedAt(LocalDateTime.now());
-            // 更新日程
-            updateById(schedule);
+            List<ScheduleConflictDto> conflicts;
+            synchronized (conflictLock(userId)) {
+                // 与自身不算冲突
+                conflicts = findConflicts(userId, schedule.getId(), startTime, endTime);
+                if (rejectOnConflict && !conflicts.isEmpty()) {
+                    return Result.error(ResultCode.SCHEDULE_CONFLICT, conflictMessage(conflicts));
+                }
+                // 更新日程
+                updateById(schedule);
+                freeBusyIndex.refreshSchedule(schedule.getId(), existingSchedule.getUserId());
+                scheduleReminderDispatcher.refreshSchedule(schedule.getId());
+            }
+            schedule.setConflicts(conflicts);
             return Result.success(schedule);
         } catch (Exception e) {
             return Result.error(ResultCode.SYSTEM_ERROR, "更新日程失败：" + e.getMessage());
@@ -178,8 +275,10 @@ public class ScheduleServiceImpl extends ServiceImpl<DeyochScheduleMapper, Deyoc
             if (schedule == null) {
                 return Result.error(ResultCode.SCHEDULE_NOT_FOUND, "日程不存在");
             }
-            // 删除日程
+            // 删除日程，分享记录随外键级联删除
             removeById(id);
+            freeBusyIndex.refreshSchedule(id, schedule.getUserId());
+            scheduleReminderDispatcher.refreshSchedule(id);
             return Result.success();
         } catch (Exception e) {
             return Result.error(ResultCode.SYSTEM_ERROR, "删除日程失败：" + e.getMessage());
@@ -220,29 +319,25 @@ public class ScheduleServiceImpl extends ServiceImpl<DeyochScheduleMapper, Deyoc
                 return Result.error(ResultCode.UNAUTHORIZED, "未登录或无效的令牌");
             }
 
-            // 构建查询条件：指定日期的日程
+            LocalDate day = LocalDate.parse(date);
+
+            // 构建查询条件：指定日期开始的日程
+            // 使用半开区间[当天零点, 次日零点)比较开始时间，不对列做函数运算，可以使用(user_id, start_time)索引
             LambdaQueryWrapper<DeyochSchedule> queryWrapper = new LambdaQueryWrapper<>();
             queryWrapper.eq(DeyochSchedule::getUserId, userId);
-            // 使用DATE函数匹配日期部分
-            queryWrapper.apply("DATE(start_time) = {0}", date);
+            queryWrapper.ge(DeyochSchedule::getStartTime, day.atStartOfDay());
+            queryWrapper.lt(DeyochSchedule::getStartTime, day.plusDays(1).atStartOfDay());
             queryWrapper.orderByAsc(DeyochSchedule::getStartTime);
             
-            List<DeyochSchedule> scheduleList = list(queryWrapper);
+            List<DeyochSchedule> scheduleList = withOccurrences(list(queryWrapper), userId,
+                    day.atStartOfDay(), day.plusDays(1).atStartOfDay(), false);
             
             // 填充用户名信息
-            userInfoConverter.<DeyochSchedule>populateUserNames(
-                scheduleList,
-                schedule -> schedule.getUserId() != null ? 
-                    Collections.singleton(schedule.getUserId()) : Collections.emptySet(),
-                (schedule, userIdToNameMap) -> {
-                    if (schedule.getUserId() != null) {
-                        String creatorName = userIdToNameMap.get(schedule.getUserId());
-                        schedule.setCreatorName(creatorName);
-                    }
-                }
-            );
+            populateCreatorNames(scheduleList);
             
             return Result.success(scheduleList);
+        } catch (DateTimeParseException e) {
+            return Result.error(ResultCode.PARAM_ERROR, "日期格式错误，应为yyyy-MM-dd");
         } catch (Exception e) {
             return Result.error(ResultCode.SYSTEM_ERROR, "获取指定日期日程失败：" + e.getMessage());
         }
@@ -256,35 +351,84 @@ public class ScheduleServiceImpl extends ServiceImpl<DeyochScheduleMapper, Deyoc
                 return Result.error(ResultCode.UNAUTHORIZED, "未登录或无效的令牌");
             }
 
-            // 构建查询条件：日期范围内的日程
+            LocalDate firstDay = LocalDate.parse(startDate);
+            LocalDate lastDay = LocalDate.parse(endDate);
+
+            // 构建查询条件：日期范围内开始的日程，结束日期包含在内
             LambdaQueryWrapper<DeyochSchedule> queryWrapper = new LambdaQueryWrapper<>();
             queryWrapper.eq(DeyochSchedule::getUserId, userId);
-            // 使用DATE函数匹配日期范围
-            queryWrapper.apply("DATE(start_time) >= {0}", startDate);
-            queryWrapper.apply("DATE(start_time) <= {0}", endDate);
+            queryWrapper.ge(DeyochSchedule::getStartTime, firstDay.atStartOfDay());
+            queryWrapper.lt(DeyochSchedule::getStartTime, lastDay.plusDays(1).atStartOfDay());
             queryWrapper.orderByAsc(DeyochSchedule::getStartTime);
             
-            List<DeyochSchedule> scheduleList = list(queryWrapper);
+            // 重复日程只展开范围内的实例
+            List<DeyochSchedule> scheduleList = withOccurrences(list(queryWrapper), userId,
+                    firstDay.atStartOfDay(), lastDay.plusDays(1).atStartOfDay(), false);
             
             // 填充用户名信息
-            userInfoConverter.<DeyochSchedule>populateUserNames(
-                scheduleList,
-                schedule -> schedule.getUserId() != null ? 
-                    Collections.singleton(schedule.getUserId()) : Collections.emptySet(),
-                (schedule, userIdToNameMap) -> {
-                    if (schedule.getUserId() != null) {
-                        String creatorName = userIdToNameMap.get(schedule.getUserId());
-                        schedule.setCreatorName(creatorName);
-                    }
-                }
-            );
+            populateCreatorNames(scheduleList);
             
             return Result.success(scheduleList);
+        } catch (DateTimeParseException e) {
+            return Result.error(ResultCode.PARAM_ERROR, "日期格式错误，应为yyyy-MM-dd");
         } catch (Exception e) {
             return Result.error(ResultCode.SYSTEM_ERROR, "获取日期范围日程失败：" + e.getMessage());
         }
     }
 
+    @Override
+    public Result<List<ScheduleDayDto>> getCalendarView(String view, String date) {
+        try {
+            // 获取当前用户ID
+            Long userId = UserContextUtil.getUserIdFromToken(jwtUtil);
+            if (userId == null) {
+                return Result.error(ResultCode.UNAUTHORIZED, "未登录或无效的令牌");
+            }
+
+            LocalDate anchor = date != null && !date.isEmpty() ? LocalDate.parse(date) : LocalDate.now();
+            LocalDate[] range = ScheduleCalendar.viewRange(view, anchor);
+            LocalDateTime rangeStart = range[0].atStartOfDay();
+            LocalDateTime rangeEnd = range[1].plusDays(1).atStartOfDay();
+
+            // 取出与视图范围相交的日程：开始时间早于范围结束，且结束时间晚于范围开始（或开始于范围内）
+            // 跨度不超过maxSpanDays的日程开始时间不早于下界，查询在(user_id, start_time)索引上按范围扫描
+            LambdaQueryWrapper<DeyochSchedule> queryWrapper = new LambdaQueryWrapper<>();
+            queryWrapper.eq(DeyochSchedule::getUserId, userId);
+            queryWrapper.ge(DeyochSchedule::getStartTime, rangeStart.minusDays(maxSpanDays));
+            queryWrapper.lt(DeyochSchedule::getStartTime, rangeEnd);
+            queryWrapper.and(wrapper -> wrapper
+                    .gt(DeyochSchedule::getEndTime, rangeStart)
+                    .or()
+                    .ge(DeyochSchedule::getStartTime, rangeStart));
+            queryWrapper.orderByAsc(DeyochSchedule::getStartTime);
+            List<DeyochSchedule> schedules = list(queryWrapper);
+
+            // 开始于下界之前仍未结束的长日程，在(user_id, end_time)索引上只扫描范围开始之后才结束的日程
+            LambdaQueryWrapper<DeyochSchedule> longWrapper = new LambdaQueryWrapper<>();
+            longWrapper.eq(DeyochSchedule::getUserId, userId);
+            longWrapper.gt(DeyochSchedule::getEndTime, rangeStart);
+            longWrapper.lt(DeyochSchedule::getStartTime, rangeStart.minusDays(maxSpanDays));
+            List<DeyochSchedule> longSchedules = list(longWrapper);
+            if (!longSchedules.isEmpty()) {
+                schedules = new ArrayList<>(schedules);
+                schedules.addAll(longSchedules);
+                schedules.sort(Comparator.comparing(DeyochSchedule::getStartTime));
+            }
+
+            List<DeyochSchedule> scheduleList = withOccurrences(schedules, userId, rangeStart, rangeEnd, true);
+            populateCreatorNames(scheduleList);
+
+            return Result.success(ScheduleCalendar.bucketByDay(scheduleList, range[0], range[1]));
+        } catch (DateTimeParseException e) {
+            return Result.error(ResultCode.PARAM_ERROR, "日期格式错误，应为yyyy-MM-dd");
+        } catch (IllegalArgumentException e) {
+            return Result.error(ResultCode.PARAM_ERROR, e.getMessage());
+        } catch (Exception e) {
+            log.error("获取日历视图失败", e);
+            return Result.error(ResultCode.SYSTEM_ERROR, "获取日历视图失败：" + e.getMessage());
+        }
+    }
+
     public Result<List<DeyochSchedule>> getUpcomingSchedules(Integer days) {
         try {
             // 获取当前用户ID
@@ -304,7 +448,9 @@ public class ScheduleServiceImpl extends ServiceImpl<DeyochScheduleMapper, Deyoc
             queryWrapper.le(DeyochSchedule::getStartTime, futureDate);
             queryWrapper.orderByAsc(DeyochSchedule::getStartTime);
             
-            List<DeyochSchedule> scheduleList = list(queryWrapper);
+            // 重复日程只展开未来几天内的实例
+            List<DeyochSchedule> scheduleList = withOccurrences(list(queryWrapper), userId,
+                    now, futureDate.plusSeconds(1), false);
             
             // 填充用户名信息
             userInfoConverter.<DeyochSchedule>populateUserNames(
@@ -325,6 +471,7 @@ public class ScheduleServiceImpl extends ServiceImpl<DeyochScheduleMapper, Deyoc
         }
     }
 
+    @Override
     public Result<List<DeyochSchedule>> getSharedScheduleList() {
         try {
             // 获取当前用户ID
@@ -333,17 +480,23 @@ public class ScheduleServiceImpl extends ServiceImpl<DeyochScheduleMapper, Deyoc
                 return Result.error(ResultCode.UNAUTHORIZED, "未登录或无效的令牌");
             }
 
-            // 这里需要根据实际的分享机制来实现
-            // 假设有一个分享表或者在schedule表中有shared_users字段
-            // 目前先返回空列表，后续可以根据具体需求实现
-            List<DeyochSchedule> sharedSchedules = Collections.emptyList();
-            
+            // 查询分享给当前用户的日程，按开始时间升序排列
+            LambdaQueryWrapper<DeyochSchedule> queryWrapper = new LambdaQueryWrapper<>();
+            queryWrapper.inSql(DeyochSchedule::getId, DeyochScheduleShareMapper.sharedWithSql(userId));
+            queryWrapper.orderByAsc(DeyochSchedule::getStartTime);
+            List<DeyochSchedule> sharedSchedules = list(queryWrapper);
+
+            // 填充用户名信息
+            populateCreatorNames(sharedSchedules);
+
             return Result.success(sharedSchedules);
         } catch (Exception e) {
             return Result.error(ResultCode.SYSTEM_ERROR, "获取分享日程失败：" + e.getMessage());
         }
     }
 
+    @Override
+    @Transactional(rollbackFor = Exception.class)
     public Result<Void> shareSchedule(Long id, List<Long> sharedUserIds) {
         try {
             // 检查日程是否存在
@@ -363,14 +516,324 @@ public class ScheduleServiceImpl extends ServiceImpl<DeyochScheduleMapper, Deyoc
                 return Result.error(ResultCode.FORBIDDEN, "只有日程创建者可以分享日程");
             }
 
-            // 这里需要根据实际的分享机制来实现
-            // 可能需要创建一个分享表来记录分享关系
-            // 目前先简单返回成功，后续可以根据具体需求实现
-            log.info("用户 {} 分享日程 {} 给用户 {}", userId, id, sharedUserIds);
-            
+            // 分享列表整体替换：不在新列表中的用户取消分享，创建者自己不需要分享
+            List<Long> userIds = new ArrayList<>(new LinkedHashSet<>(
+                    sharedUserIds != null ? sharedUserIds : Collections.<Long>emptyList()));
+            userIds.removeIf(sharedUserId -> sharedUserId == null || sharedUserId.equals(userId));
+
+            LambdaQueryWrapper<DeyochScheduleShare> removed = new LambdaQueryWrapper<DeyochScheduleShare>()
+                    .eq(DeyochScheduleShare::getScheduleId, id)
+                    .notIn(!userIds.isEmpty(), DeyochScheduleShare::getUserId, userIds);
+            deyochScheduleShareMapper.delete(removed);
+            if (!userIds.isEmpty()) {
+                deyochScheduleShareMapper.insertBatch(id, userIds, userId);
+            }
+
+            log.info("用户 {} 分享日程 {} 给用户 {}", userId, id, userIds);
             return Result.success();
         } catch (Exception e) {
+            log.error("分享日程失败", e);
             return Result.error(ResultCode.SYSTEM_ERROR, "分享日程失败：" + e.getMessage());
         }
     }
-}
\ No newline at end of file
+
+    @Override
+    public Result<List<FreeSlotDto>> findFreeSlots(List<Long> userIds, String startTime, String endTime,
+                                                   Integer duration, Integer limit) {
+        try {
+            if (userIds == null || userIds.isEmpty()) {
+                return Result.error(ResultCode.PARAM_ERROR, "用户列表不能为空");
+            }
+            List<Long> distinctUserIds = new ArrayList<>(new LinkedHashSet<>(userIds));
+            distinctUserIds.removeIf(Objects::isNull);
+            if (distinctUserIds.isEmpty() || distinctUserIds.size() > maxQueryUsers) {
+                return Result.error(ResultCode.PARAM_ERROR, "用户数量应在1到" + maxQueryUsers + "之间");
+            }
+            if (duration == null || duration <= 0) {
+                return Result.error(ResultCode.PARAM_ERROR, "时长必须大于0分钟");
+            }
+            int slotLimit = limit == null || limit <= 0 ? 5 : Math.min(limit, MAX_FREE_SLOTS);
+
+            LocalDateTime from = LocalDateTime.parse(startTime, DATE_TIME_FORMAT);
+            LocalDateTime to = LocalDateTime.parse(endTime, DATE_TIME_FORMAT);
+            if (!to.isAfter(from)) {
+                return Result.error(ResultCode.PARAM_ERROR, "结束时间必须晚于开始时间");
+            }
+
+            // 各用户的忙碌区间来自内存索引，加上窗口内展开的重复日程实例，k路归并一次扫描找出共同空档
+            List<IntervalSet> busy = new ArrayList<>(freeBusyIndex.getAll(distinctUserIds).values());
+            busy.addAll(occurrenceSets(occurrenceExpander.expandAll(distinctUserIds, from, to, true)).values());
+            List<long[]> slots = IntervalSet.commonFreeSlots(busy,
+                    FreeBusyIndex.toKey(from), FreeBusyIndex.toKey(to), duration * 60L, slotLimit);
+
+            List<FreeSlotDto> result = new ArrayList<>(slots.size());
+            for (long[] slot : slots) {
+                FreeSlotDto dto = new FreeSlotDto();
+                dto.setStartTime(FreeBusyIndex.fromKey(slot[0]));
+                dto.setEndTime(FreeBusyIndex.fromKey(slot[1]));
+                dto.setFreeUntil(FreeBusyIndex.fromKey(slot[2]));
+                result.add(dto);
+            }
+            return Result.success(result);
+        } catch (DateTimeParseException e) {
+            return Result.error(ResultCode.PARAM_ERROR, "时间格式错误，应为yyyy-MM-dd HH:mm:ss");
+        } catch (Exception e) {
+            log.error("查找共同空闲时段失败", e);
+            return Result.error(ResultCode.SYSTEM_ERROR, "查找共同空闲时段失败：" + e.getMessage());
+        }
+    }
+
+    @Override
+    public Result<List<ScheduleConflictCheckDto>> checkConflicts(List<DeyochSchedule> schedules) {
+        try {
+            Long currentUserId = UserContextUtil.getUserIdFromToken(jwtUtil);
+            if (currentUserId == null) {
+                return Result.error(ResultCode.UNAUTHORIZED, "未登录或无效的令牌");
+            }
+            if (schedules == null || schedules.isEmpty()) {
+                return Result.error(ResultCode.PARAM_ERROR, "待检查的日程不能为空");
+            }
+            if (schedules.size() > MAX_CONFLICT_CHECKS) {
+                return Result.error(ResultCode.PARAM_ERROR, "单次最多检查" + MAX_CONFLICT_CHECKS + "个日程");
+            }
+
+            // 未指定用户的日程按当前用户检查
+            List<Long> userIds = new ArrayList<>(schedules.size());
+            for (int i = 0; i < schedules.size(); i++) {
+                DeyochSchedule schedule = schedules.get(i);
+                String timeError = validateTime(schedule.getStartTime(), schedule.getEndTime());
+                if (timeError != null) {
+                    return Result.error(ResultCode.SCHEDULE_TIME_INVALID, "第" + (i + 1) + "个日程：" + timeError);
+                }
+                userIds.add(schedule.getUserId() != null ? schedule.getUserId() : currentUserId);
+            }
+
+            // 涉及的用户一次取出区间集合，每个日程在所属用户的区间树上查询
+            Map<Long, IntervalSet> sets = freeBusyIndex.getAll(userIds);
+            // 重复日程实例按整批的时间范围一次展开，每个用户的实例另建区间集合，区间ID为实例下标
+            LocalDateTime batchFrom = schedules.stream().map(DeyochSchedule::getStartTime)
+                    .min(Comparator.naturalOrder()).orElseThrow();
+            LocalDateTime batchTo = schedules.stream().map(DeyochSchedule::getEndTime)
+                    .max(Comparator.naturalOrder()).orElseThrow();
+            Map<Long, List<DeyochSchedule>> occurrences =
+                    occurrenceExpander.expandAll(new LinkedHashSet<>(userIds), batchFrom, batchTo, true);
+            Map<Long, IntervalSet> occurrenceSets = occurrenceSets(occurrences);
+            List<ScheduleConflictCheckDto> results = new ArrayList<>(schedules.size());
+            Set<Long> allConflictIds = new LinkedHashSet<>();
+            List<List<Long>> conflictIdsByIndex = new ArrayList<>(schedules.size());
+            for (int i = 0; i < schedules.size(); i++) {
+                DeyochSchedule schedule = schedules.get(i);
+                List<Long> conflictIds = sets.get(userIds.get(i)).overlapping(
+                        FreeBusyIndex.toKey(schedule.getStartTime()), FreeBusyIndex.toKey(schedule.getEndTime()));
+                if (schedule.getId() != null) {
+                    conflictIds.remove(schedule.getId());
+                }
+                conflictIdsByIndex.add(conflictIds);
+                allConflictIds.addAll(conflictIds);
+                ScheduleConflictCheckDto result = new ScheduleConflictCheckDto();
+                result.setIndex(i);
+                results.add(result);
+            }
+
+            // 已有日程的标题一次查询取出
+            Map<Long, ScheduleConflictDto> conflicts = new HashMap<>();
+            for (ScheduleConflictDto conflict : toConflicts(allConflictIds)) {
+                conflicts.put(conflict.getScheduleId(), conflict);
+            }
+            for (int i = 0; i < schedules.size(); i++) {
+                List<ScheduleConflictDto> scheduleConflicts = results.get(i).getConflicts();
+                for (Long conflictId : conflictIdsByIndex.get(i)) {
+                    ScheduleConflictDto conflict = conflicts.get(conflictId);
+                    if (conflict != null) {
+                        scheduleConflicts.add(conflict);
+                    }
+                }
+                DeyochSchedule schedule = schedules.get(i);
+                List<DeyochSchedule> userOccurrences = occurrences.get(userIds.get(i));
+                for (Long index : occurrenceSets.get(userIds.get(i)).overlapping(
+                        FreeBusyIndex.toKey(schedule.getStartTime()), FreeBusyIndex.toKey(schedule.getEndTime()))) {
+                    scheduleConflicts.add(toConflict(userOccurrences.get(index.intValue())));
+                }
+                scheduleConflicts.sort(Comparator.comparing(ScheduleConflictDto::getStartTime));
+            }
+
+            // 批次内部的冲突：按用户和开始时间排序后，每个日程只需向后比较到开始时间不早于其结束时间为止
+            List<Integer> order = new ArrayList<>(schedules.size());
+            for (int i = 0; i < schedules.size(); i++) {
+                order.add(i);
+            }
+            order.sort(Comparator.<Integer, Long>comparing(userIds::get)
+                    .thenComparing(i -> schedules.get(i).getStartTime()));
+            for (int a = 0; a < order.size(); a++) {
+                int i = order.get(a);
+                DeyochSchedule current = schedules.get(i);
+                if (!current.getEndTime().isAfter(current.getStartTime())) {
+                    continue;
+                }
+                for (int b = a + 1; b < order.size(); b++) {
+                    int j = order.get(b);
+                    DeyochSchedule next = schedules.get(j);
+                    if (!userIds.get(j).equals(userIds.get(i)) || !next.getStartTime().isBefore(current.getEndTime())) {
+                        break;
+                    }
+                    if (next.getEndTime().isAfter(next.getStartTime())) {
+                        results.get(i).getOverlapsWith().add(j);
+                        results.get(j).getOverlapsWith().add(i);
+                    }
+                }
+            }
+            for (ScheduleConflictCheckDto result : results) {
+                result.getOverlapsWith().sort(null);
+            }
+            return Result.success(results);
+        } catch (Exception e) {
+            log.error("批量检查日程冲突失败", e);
+            return Result.error(ResultCode.SYSTEM_ERROR, "批量检查日程冲突失败：" + e.getMessage());
+        }
+    }
+
+    /**
+     * 合并窗口内展开的重复日程实例，按开始时间排序
+     * @param schedules 窗口内的普通日程，已按开始时间排序
+     * @param overlapping true时合并与窗口相交的实例，false时合并开始时间在窗口内的实例
+     * @return 合并后的日程
+     */
+    private List<DeyochSchedule> withOccurrences(List<DeyochSchedule> schedules, Long userId,
+                                                 LocalDateTime from, LocalDateTime to, boolean overlapping) {
+        List<DeyochSchedule> occurrences = occurrenceExpander.expand(userId, from, to, overlapping);
+        if (occurrences.isEmpty()) {
+            return schedules;
+        }
+        List<DeyochSchedule> merged = new ArrayList<>(schedules.size() + occurrences.size());
+        merged.addAll(schedules);
+        merged.addAll(occurrences);
+        merged.sort(Comparator.comparing(DeyochSchedule::getStartTime));
+        return merged;
+    }
+
+    /**
+     * 查询用户在[startTime, endTime)内已有的日程，普通日程在内存区间树上查询，重复日程只展开该时间段内的实例
+     * @param excludeId 排除的日程ID（更新时为自身）
+     * @return 冲突的日程，按开始时间排序
+     */
+    private List<ScheduleConflictDto> findConflicts(Long userId, Long excludeId,
+                                                    LocalDateTime startTime, LocalDateTime endTime) {
+        List<Long> conflictIds = freeBusyIndex.get(userId).overlapping(
+                FreeBusyIndex.toKey(startTime), FreeBusyIndex.toKey(endTime));
+        if (excludeId != null) {
+            conflictIds.remove(excludeId);
+        }
+        List<ScheduleConflictDto> conflicts = toConflicts(conflictIds);
+        if (!endTime.isAfter(startTime)) {
+            return conflicts;
+        }
+        for (DeyochSchedule occurrence : occurrenceExpander.expand(userId, startTime, endTime, true)) {
+            // 与区间树一致，零时长的实例不占用时间
+            if (occurrence.getEndTime().isAfter(occurrence.getStartTime())) {
+                conflicts.add(toConflict(occurrence));
+            }
+        }
+        conflicts.sort(Comparator.comparing(ScheduleConflictDto::getStartTime));
+        return conflicts;
+    }
+
+    /**
+     * 将展开的实例构建为区间集合，区间ID为实例在列表中的下标
+     */
+    private static Map<Long, IntervalSet> occurrenceSets(Map<Long, List<DeyochSchedule>> occurrences) {
+        Map<Long, IntervalSet> sets = new HashMap<>();
+        occurrences.forEach((userId, userOccurrences) -> {
+            List<long[]> intervals = new ArrayList<>(userOccurrences.size());
+            for (int i = 0; i < userOccurrences.size(); i++) {
+                DeyochSchedule occurrence = userOccurrences.get(i);
+                intervals.add(new long[]{i, FreeBusyIndex.toKey(occurrence.getStartTime()),
+                        FreeBusyIndex.toKey(occurrence.getEndTime())});
+            }
+            sets.put(userId, IntervalSet.of(intervals));
+        });
+        return sets;
+    }
+
+    /**
+     * 查询冲突日程的标题和时间，没有冲突时不查询
+     * @return 按开始时间升序排列的冲突日程
+     */
+    private List<ScheduleConflictDto> toConflicts(Collection<Long> conflictIds) {
+        if (conflictIds.isEmpty()) {
+            return new ArrayList<>();
+        }
+        List<DeyochSchedule> schedules = listByIds(conflictIds);
+        schedules.sort(Comparator.comparing(DeyochSchedule::getStartTime));
+        List<ScheduleConflictDto> conflicts = new ArrayList<>(schedules.size());
+        for (DeyochSchedule schedule : schedules) {
+            conflicts.add(toConflict(schedule));
+        }
+        return conflicts;
+    }
+
+    /**
+     * 重复日程的实例没有日程ID，以系列ID和原定开始时间标识
+     */
+    private static ScheduleConflictDto toConflict(DeyochSchedule schedule) {
+        ScheduleConflictDto conflict = new ScheduleConflictDto();
+        conflict.setScheduleId(schedule.getId());
+        conflict.setSeriesId(schedule.getSeriesId());
+        conflict.setOriginalStartTime(schedule.getOriginalStartTime());
+        conflict.setTitle(schedule.getTitle());
+        conflict.setStartTime(schedule.getStartTime());
+        conflict.setEndTime(schedule.getEndTime());
+        return conflict;
+    }
+
+    private static String conflictMessage(List<ScheduleConflictDto> conflicts) {
+        StringBuilder message = new StringBuilder("与已有日程时间冲突：");
+        for (int i = 0; i < conflicts.size() && i < 3; i++) {
+            ScheduleConflictDto conflict = conflicts.get(i);
+            if (i > 0) {
+                message.append("、");
+            }
+            message.append(conflict.getTitle()).append("（")
+                    .append(conflict.getStartTime().format(DATE_TIME_FORMAT)).append(" ~ ")
+                    .append(conflict.getEndTime().format(DATE_TIME_FORMAT)).append("）");
+        }
+        if (conflicts.size() > 3) {
+            message.append("等").append(conflicts.size()).append("个日程");
+        }
+        return message.toString();
+    }
+
+    private Object conflictLock(Long userId) {
+        return conflictLocks[(int) Math.floorMod(userId, (long) CONFLICT_LOCK_STRIPES)];
+    }
+
+    /**
+     * 校验日程时间：开始和结束时间必填，结束时间不早于开始时间
+     * @return 错误信息，校验通过时返回null
+     */
+    private String validateTime(LocalDateTime startTime, LocalDateTime endTime) {
+        if (startTime == null || endTime == null) {
+            return "开始时间和结束时间不能为空";
+        }
+        if (endTime.isBefore(startTime)) {
+            return "结束时间不能早于开始时间";
+        }
+        return null;
+    }
+
+    /**
+     * 填充日程创建者用户名
+     */
+    private void populateCreatorNames(List<DeyochSchedule> scheduleList) {
+        userInfoConverter.<DeyochSchedule>populateUserNames(
+            scheduleList,
+            schedule -> schedule.getUserId() != null ? 
+                Collections.singleton(schedule.getUserId()) : Collections.emptySet(),
+            (schedule, userIdToNameMap) -> {
+                if (schedule.getUserId() != null) {
+                    String creatorName = userIdToNameMap.get(schedule.getUserId());
+                    schedule.setCreatorName(creatorName);
+                }
+            }
+        );
+    }
+}
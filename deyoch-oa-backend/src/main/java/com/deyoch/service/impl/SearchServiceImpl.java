@@ -0,0 +1,490 @@
+package com.deyoch.service.impl;
+
+import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
+import com.deyoch.common.result.PageResult;
+import com.deyoch.common.result.Result;
+import com.deyoch.common.result.ResultCode;
+import com.deyoch.dto.SearchHitDto;
+import com.deyoch.entity.DeyochAnnouncement;
+import com.deyoch.entity.DeyochDocument;
+import com.deyoch.entity.DeyochDocumentContent;
+import com.deyoch.entity.DeyochTask;
+import com.deyoch.mapper.DeyochAnnouncementMapper;
+import com.deyoch.mapper.DeyochDocumentContentMapper;
+import com.deyoch.mapper.DeyochDocumentMapper;
+import com.deyoch.mapper.DeyochTaskMapper;
+import com.deyoch.service.SearchService;
+import com.deyoch.service.index.FullTextIndex;
+import com.deyoch.service.index.SearchType;
+import com.deyoch.utils.GzipUtil;
+import com.deyoch.utils.JwtUtil;
+import com.deyoch.utils.ReloadThrottle;
+import com.deyoch.utils.TransactionUtil;
+import com.deyoch.utils.UserContextUtil;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Service;
+import org.springframework.util.StringUtils;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 全文检索服务实现类
+ * 每种数据类型一份内存倒排索引，启动后按ID分批异步全量构建；文档的正文来自后台抽取的deyoch_document_content
+ * 索引不保存正文，无法由标题和词元判定的候选以及当前页命中的高亮片段按需从数据库读取正文
+ * 所有索引写入（增量更新和全量重建）都在同一个单线程执行器上按提交顺序执行：
+ * 事务提交后才提交增量任务，排在重建任务之后的增量会作用到新索引上，不会丢失
+ * 增量更新失败或队列已满时丢弃对应索引，列表页回退到数据库查询，并在重试间隔后重新构建
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class SearchServiceImpl implements SearchService {
+
+    /**
+     * 公告已发布状态，已发布的公告所有人可检索
+     */
+    private static final int ANNOUNCEMENT_PUBLISHED = 1;
+
+    /**
+     * 文档正文抽取成功状态
+     */
+    private static final int CONTENT_EXTRACTED = 1;
+
+    private final DeyochDocumentMapper deyochDocumentMapper;
+    private final DeyochDocumentContentMapper deyochDocumentContentMapper;
+    private final DeyochTaskMapper deyochTaskMapper;
+    private final DeyochAnnouncementMapper deyochAnnouncementMapper;
+    private final JwtUtil jwtUtil;
+
+    /**
+     * 索引任务队列容量
+     */
+    @Value("${search.queue-capacity:10000}")
+    private int queueCapacity = 10000;
+
+    /**
+     * 全量构建时每批读取的记录数
+     */
+    @Value("${search.rebuild-batch-size:500}")
+    private int rebuildBatchSize = 500;
+
+    private final Map<SearchType, FullTextIndex> indexes = new ConcurrentHashMap<>();
+    private final Map<SearchType, ReloadThrottle> reloadThrottles = new ConcurrentHashMap<>();
+
+    private ThreadPoolExecutor indexer;
+
+    private final LongAdder searches = new LongAdder();
+    private final LongAdder matches = new LongAdder();
+    private final LongAdder updates = new LongAdder();
+
+    @PostConstruct
+    public void init() {
+        indexer = new ThreadPoolExecutor(1, 1, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "search-indexer");
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        indexer.shutdownNow();
+    }
+
+    /**
+     * 应用启动完成后异步全量构建索引
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        for (SearchType type : SearchType.values()) {
+            scheduleRebuild(type);
+        }
+    }
+
+    @Override
+    public Result<PageResult<SearchHitDto>> search(String keyword, String type, Integer page, Integer size) {
+        try {
+            if (!StringUtils.hasText(keyword)) {
+                return Result.error(ResultCode.PARAM_IS_NULL, "搜索关键词不能为空");
+            }
+            if (page == null || page < 1) {
+                page = 1;
+            }
+            if (size == null || size < 1 || size > 100) {
+                size = 10;
+            }
+            List<SearchType> types = new ArrayList<>();
+            if (StringUtils.hasText(type)) {
+                SearchType searchType = SearchType.fromCode(type);
+                if (searchType == null) {
+                    return Result.error(ResultCode.PARAM_ERROR, "不支持的检索类型：" + type);
+                }
+                types.add(searchType);
+            } else {
+                Collections.addAll(types, SearchType.values());
+            }
+            searches.increment();
+
+            Long userId = UserContextUtil.getUserIdFromToken(jwtUtil);
+            Set<String> authorities = currentAuthorities();
+            List<TypedHit> hits = new ArrayList<>();
+            for (SearchType searchType : types) {
+                FullTextIndex index = readyIndex(searchType);
+                if (index == null) {
+                    return Result.error(ResultCode.SERVICE_UNAVAILABLE, "搜索索引正在构建，请稍后重试");
+                }
+                boolean manager = authorities.contains(searchType.getManageAuthority());
+                for (FullTextIndex.Hit hit : index.search(keyword,
+                        entry -> manager || entry.isPublicVisible() || entry.isOwnedBy(userId))) {
+                    hits.add(new TypedHit(searchType, hit));
+                }
+            }
+            hits.sort(TypedHit.ORDER);
+
+            int from = (int) Math.min((long) (page - 1) * size, hits.size());
+            int to = Math.min(from + size, hits.size());
+            List<TypedHit> pageHits = hits.subList(from, to);
+            Map<SearchType, List<Long>> pageIds = new HashMap<>();
+            for (TypedHit typedHit : pageHits) {
+                pageIds.computeIfAbsent(typedHit.type, key -> new ArrayList<>()).add(typedHit.hit.getEntry().getId());
+            }
+            Map<SearchType, Map<Long, String>> bodies = new HashMap<>();
+            for (Map.Entry<SearchType, List<Long>> entry : pageIds.entrySet()) {
+                bodies.put(entry.getKey(), loadBodies(entry.getKey(), entry.getValue()));
+            }
+            List<SearchHitDto> records = new ArrayList<>(pageHits.size());
+            for (TypedHit typedHit : pageHits) {
+                FullTextIndex.Hit hit = typedHit.hit;
+                String body = bodies.get(typedHit.type).get(hit.getEntry().getId());
+                records.add(new SearchHitDto(typedHit.type.getCode(), hit.getEntry().getId(),
+                        hit.highlightTitle(), hit.highlightSnippet(body), hit.getScore(), hit.getEntry().getSortTime()));
+            }
+            return Result.success(PageResult.of((long) page, (long) size, (long) hits.size(), records));
+        } catch (Exception e) {
+            log.error("全文检索失败", e);
+            return Result.error(ResultCode.SYSTEM_ERROR, "检索失败，请稍后重试");
+        }
+    }
+
+    @Override
+    public List<Long> matchIds(SearchType type, String keyword) {
+        FullTextIndex index = readyIndex(type);
+        if (index == null) {
+            return null;
+        }
+        matches.increment();
+        // 文档列表只按文件名过滤，抽取的正文仅用于全文检索
+        return index.match(keyword, type != SearchType.DOCUMENT);
+    }
+
+    @Override
+    public void refresh(SearchType type, Long id) {
+        if (id == null) {
+            return;
+        }
+        TransactionUtil.afterCommit(() -> submit(() -> apply(type, id)));
+    }
+
+    @Override
+    public Result<Void> rebuild(String type) {
+        if (StringUtils.hasText(type)) {
+            SearchType searchType = SearchType.fromCode(type);
+            if (searchType == null) {
+                return Result.error(ResultCode.PARAM_ERROR, "不支持的检索类型：" + type);
+            }
+            scheduleRebuild(searchType);
+        } else {
+            for (SearchType searchType : SearchType.values()) {
+                scheduleRebuild(searchType);
+            }
+        }
+        return Result.success();
+    }
+
+    @Override
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        for (SearchType type : SearchType.values()) {
+            FullTextIndex index = indexes.get(type);
+            Map<String, Object> typeStats = new LinkedHashMap<>();
+            typeStats.put("loaded", index != null);
+            typeStats.put("entries", index != null ? index.size() : 0);
+            typeStats.put("terms", index != null ? index.termCount() : 0);
+            stats.put(type.getCode(), typeStats);
+        }
+        stats.put("searches", searches.sum());
+        stats.put("matches", matches.sum());
+        stats.put("updates", updates.sum());
+        stats.put("pendingTasks", indexer.getQueue().size());
+        return stats;
+    }
+
+    /**
+     * 获取可用索引，未加载且超过重试间隔时提交重建
+     */
+    private FullTextIndex readyIndex(SearchType type) {
+        FullTextIndex index = indexes.get(type);
+        if (index == null && reloadThrottle(type).isDue()) {
+            scheduleRebuild(type);
+        }
+        return index;
+    }
+
+    private ReloadThrottle reloadThrottle(SearchType type) {
+        return reloadThrottles.computeIfAbsent(type, t -> new ReloadThrottle());
+    }
+
+    private void scheduleRebuild(SearchType type) {
+        reloadThrottle(type).attempted();
+        submit(() -> rebuildNow(type));
+    }
+
+    private void rebuildNow(SearchType type) {
+        reloadThrottle(type).attempted();
+        try {
+            FullTextIndex rebuilt = new FullTextIndex(ids -> loadBodies(type, ids));
+            long lastId = 0L;
+            List<FullTextIndex.Entry> batch;
+            do {
+                batch = loadBatch(type, lastId);
+                for (FullTextIndex.Entry entry : batch) {
+                    rebuilt.put(entry);
+                    lastId = entry.getId();
+                }
+            } while (batch.size() >= rebuildBatchSize);
+            indexes.put(type, rebuilt);
+            log.info("{}全文索引构建完成：{}条数据，{}个词元", type.getCode(), rebuilt.size(), rebuilt.termCount());
+        } catch (Exception e) {
+            log.warn("{}全文索引构建失败，列表搜索将回退到数据库查询", type.getCode(), e);
+        }
+    }
+
+    /**
+     * 重新索引单条数据，索引未就绪时跳过（之后的全量重建会读到已提交的数据）
+     */
+    private void apply(SearchType type, Long id) {
+        FullTextIndex index = indexes.get(type);
+        if (index == null) {
+            return;
+        }
+        try {
+            FullTextIndex.Entry entry = loadOne(type, id);
+            if (entry == null) {
+                index.remove(id);
+            } else {
+                index.put(entry);
+            }
+            updates.increment();
+        } catch (Exception e) {
+            log.warn("{}全文索引增量更新失败，索引将重新构建", type.getCode(), e);
+            indexes.remove(type, index);
+            reloadThrottle(type).reset();
+        }
+    }
+
+    private void submit(Runnable task) {
+        try {
+            indexer.execute(task);
+        } catch (RejectedExecutionException e) {
+            // 丢弃增量任务会使索引过期，只能整体丢弃，等待重试间隔后重建
+            log.warn("全文索引任务队列已满，丢弃全部索引等待重建");
+            indexes.clear();
+            reloadThrottles.clear();
+        }
+    }
+
+    /**
+     * 按ID顺序读取一批数据，只保留当前批次的正文，避免全量读取时占用过多内存
+     * @param lastId 上一批最后一条的ID
+     * @return 本批条目，数量小于批大小时表示已读完
+     */
+    private List<FullTextIndex.Entry> loadBatch(SearchType type, Long lastId) {
+        List<FullTextIndex.Entry> entries = new ArrayList<>();
+        String limit = "LIMIT " + rebuildBatchSize;
+        switch (type) {
+            case DOCUMENT -> {
+                List<DeyochDocument> documents = deyochDocumentMapper.selectList(new LambdaQueryWrapper<DeyochDocument>()
+                        .select(DeyochDocument::getId, DeyochDocument::getFileName,
+                                DeyochDocument::getUserId, DeyochDocument::getCreatedAt)
+                        .gt(DeyochDocument::getId, lastId)
+                        .orderByAsc(DeyochDocument::getId)
+                        .last(limit));
+                List<Long> ids = new ArrayList<>(documents.size());
+                for (DeyochDocument document : documents) {
+                    ids.add(document.getId());
+                }
+                Map<Long, String> contents = loadBodies(SearchType.DOCUMENT, ids);
+                for (DeyochDocument document : documents) {
+                    entries.add(toEntry(document, contents.get(document.getId())));
+                }
+            }
+            case TASK -> {
+                for (DeyochTask task : deyochTaskMapper.selectList(new LambdaQueryWrapper<DeyochTask>()
+                        .select(DeyochTask::getId, DeyochTask::getTitle, DeyochTask::getContent,
+                                DeyochTask::getCreatorId, DeyochTask::getAssigneeId, DeyochTask::getCreatedAt)
+                        .gt(DeyochTask::getId, lastId)
+                        .orderByAsc(DeyochTask::getId)
+                        .last(limit))) {
+                    entries.add(toEntry(task));
+                }
+            }
+            case ANNOUNCEMENT -> {
+                for (DeyochAnnouncement announcement : deyochAnnouncementMapper.selectList(
+                        new LambdaQueryWrapper<DeyochAnnouncement>()
+                                .select(DeyochAnnouncement::getId, DeyochAnnouncement::getTitle,
+                                        DeyochAnnouncement::getContent, DeyochAnnouncement::getUserId,
+                                        DeyochAnnouncement::getPublishTime, DeyochAnnouncement::getStatus)
+                                .gt(DeyochAnnouncement::getId, lastId)
+                                .orderByAsc(DeyochAnnouncement::getId)
+                                .last(limit))) {
+                    entries.add(toEntry(announcement));
+                }
+            }
+        }
+        return entries;
+    }
+
+    /**
+     * 批量读取正文原文，文档只读取抽取成功的正文
+     * @return ID到正文的映射，没有正文的不包含
+     */
+    private Map<Long, String> loadBodies(SearchType type, List<Long> ids) {
+        Map<Long, String> bodies = new HashMap<>();
+        if (ids.isEmpty()) {
+            return bodies;
+        }
+        switch (type) {
+            case DOCUMENT -> {
+                for (DeyochDocumentContent content : deyochDocumentContentMapper.selectList(
+                        new LambdaQueryWrapper<DeyochDocumentContent>()
+                                .select(DeyochDocumentContent::getDocumentId, DeyochDocumentContent::getContent)
+                                .in(DeyochDocumentContent::getDocumentId, ids)
+                                .eq(DeyochDocumentContent::getStatus, CONTENT_EXTRACTED))) {
+                    bodies.put(content.getDocumentId(), GzipUtil.decompress(content.getContent()));
+                }
+            }
+            case TASK -> {
+                for (DeyochTask task : deyochTaskMapper.selectList(new LambdaQueryWrapper<DeyochTask>()
+                        .select(DeyochTask::getId, DeyochTask::getContent)
+                        .in(DeyochTask::getId, ids))) {
+                    bodies.put(task.getId(), task.getContent());
+                }
+            }
+            case ANNOUNCEMENT -> {
+                for (DeyochAnnouncement announcement : deyochAnnouncementMapper.selectList(
+                        new LambdaQueryWrapper<DeyochAnnouncement>()
+                                .select(DeyochAnnouncement::getId, DeyochAnnouncement::getContent)
+                                .in(DeyochAnnouncement::getId, ids))) {
+                    bodies.put(announcement.getId(), announcement.getContent());
+                }
+            }
+        }
+        return bodies;
+    }
+
+    private FullTextIndex.Entry loadOne(SearchType type, Long id) {
+        return switch (type) {
+            case DOCUMENT -> {
+                DeyochDocument document = deyochDocumentMapper.selectById(id);
+                if (document == null) {
+                    yield null;
+                }
+                DeyochDocumentContent content = deyochDocumentContentMapper.selectById(id);
+                boolean extracted = content != null && content.getStatus() != null
+                        && content.getStatus() == CONTENT_EXTRACTED;
+                yield toEntry(document, extracted ? GzipUtil.decompress(content.getContent()) : null);
+            }
+            case TASK -> {
+                DeyochTask task = deyochTaskMapper.selectById(id);
+                yield task != null ? toEntry(task) : null;
+            }
+            case ANNOUNCEMENT -> {
+                DeyochAnnouncement announcement = deyochAnnouncementMapper.selectById(id);
+                yield announcement != null ? toEntry(announcement) : null;
+            }
+        };
+    }
+
+    private static FullTextIndex.Entry toEntry(DeyochDocument document, String content) {
+        return new FullTextIndex.Entry(document.getId(), document.getFileName(), content,
+                document.getCreatedAt(), owners(document.getUserId()), false);
+    }
+
+    private static FullTextIndex.Entry toEntry(DeyochTask task) {
+        return new FullTextIndex.Entry(task.getId(), task.getTitle(), task.getContent(),
+                task.getCreatedAt(), owners(task.getCreatorId(), task.getAssigneeId()), false);
+    }
+
+    private static FullTextIndex.Entry toEntry(DeyochAnnouncement announcement) {
+        return new FullTextIndex.Entry(announcement.getId(), announcement.getTitle(), announcement.getContent(),
+                announcement.getPublishTime(), owners(announcement.getUserId()),
+                announcement.getStatus() != null && announcement.getStatus() == ANNOUNCEMENT_PUBLISHED);
+    }
+
+    private static Set<Long> owners(Long... userIds) {
+        Set<Long> owners = new HashSet<>();
+        for (Long userId : userIds) {
+            if (userId != null) {
+                owners.add(userId);
+            }
+        }
+        return owners;
+    }
+
+    private static Set<String> currentAuthorities() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication == null) {
+            return Collections.emptySet();
+        }
+        Set<String> authorities = new HashSet<>();
+        for (GrantedAuthority authority : authentication.getAuthorities()) {
+            authorities.add(authority.getAuthority());
+        }
+        return authorities;
+    }
+
+    /**
+     * 带类型的检索命中，跨类型按得分合并排序
+     */
+    private static class TypedHit {
+
+        private static final Comparator<TypedHit> ORDER = Comparator
+                .comparingDouble((TypedHit typedHit) -> -typedHit.hit.getScore())
+                .thenComparing(typedHit -> typedHit.hit.getEntry().getSortTime(),
+                        Comparator.nullsLast(Comparator.reverseOrder()));
+
+        private final SearchType type;
+        private final FullTextIndex.Hit hit;
+
+        private TypedHit(SearchType type, FullTextIndex.Hit hit) {
+            this.type = type;
+            this.hit = hit;
+        }
+    }
+}
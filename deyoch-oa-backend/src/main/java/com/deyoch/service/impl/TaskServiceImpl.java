@@ -4,19 +4,29 @@ import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
 import com.baomidou.mybatisplus.core.metadata.IPage;
 import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
 import com.baomidou.mybatisplus.extension.service.impl.ServiceImpl;
+import com.deyoch.dto.TaskStatsDto;
 import com.deyoch.entity.DeyochTask;
+import com.deyoch.mapper.DeyochDeptClosureMapper;
 import com.deyoch.mapper.DeyochTaskMapper;
+import com.deyoch.common.result.CountAwarePage;
+import com.deyoch.common.result.PageCursor;
 import com.deyoch.common.result.PageResult;
 import com.deyoch.common.result.Result;
 import com.deyoch.common.result.ResultCode;
+import com.deyoch.service.SearchService;
 import com.deyoch.service.TaskService;
 import com.deyoch.service.UserInfoConverter;
+import com.deyoch.service.index.SearchType;
+import com.deyoch.service.index.TaskStatsIndex;
+import com.deyoch.service.notify.TaskDeadlineNotifier;
 import com.deyoch.utils.JwtUtil;
 import com.deyoch.utils.UserContextUtil;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
@@ -31,6 +41,9 @@ public class TaskServiceImpl extends ServiceImpl<DeyochTaskMapper, DeyochTask> i
 
     private final JwtUtil jwtUtil;
     private final UserInfoConverter userInfoConverter;
+    private final SearchService searchService;
+    private final TaskStatsIndex taskStatsIndex;
+    private final TaskDeadlineNotifier taskDeadlineNotifier;
 
     /**
      * 为任务列表填充用户名信息的通用方法
@@ -67,6 +80,17 @@ public class TaskServiceImpl extends ServiceImpl<DeyochTaskMapper, DeyochTask> i
     @Override
     public Result<PageResult<DeyochTask>> getTaskList(Integer page, Integer size, String keyword) {
         try {
+            // 有关键词时优先由全文索引过滤，避免LIKE全表扫描
+            List<Long> matchedIds = keyword != null && !keyword.isEmpty()
+                    ? searchService.matchIds(SearchType.TASK, keyword) : null;
+            if (matchedIds != null) {
+                List<Long> pageIds = PageResult.slice(matchedIds, page, size);
+                List<DeyochTask> taskList = pageIds.isEmpty() ? new ArrayList<>() : new ArrayList<>(listByIds(pageIds));
+                taskList.sort(Comparator.comparingInt(task -> pageIds.indexOf(task.getId())));
+                populateTaskUserNames(taskList);
+                return Result.success(PageResult.of((long) page, (long) size, (long) matchedIds.size(), taskList));
+            }
+            
             // 构建查询条件
             LambdaQueryWrapper<DeyochTask> queryWrapper = new LambdaQueryWrapper<>();
             
@@ -82,8 +106,8 @@ public class TaskServiceImpl extends ServiceImpl<DeyochTaskMapper, DeyochTask> i
             // 按创建时间倒序排列
             queryWrapper.orderByDesc(DeyochTask::getCreatedAt);
             
-            // 创建分页对象
-            Page<DeyochTask> pageObj = new Page<>(page, size);
+            // 创建分页对象，无筛选条件时允许使用估算总数
+            Page<DeyochTask> pageObj = new CountAwarePage<>(page, size, keyword == null || keyword.isEmpty());
             
             // 分页查询任务
             IPage<DeyochTask> taskPage = page(pageObj, queryWrapper);
@@ -93,14 +117,43 @@ public class TaskServiceImpl extends ServiceImpl<DeyochTaskMapper, DeyochTask> i
             populateTaskUserNames(taskList);
             
             // 构建分页结果
-            PageResult<DeyochTask> pageResult = PageResult.of(
-                taskPage.getCurrent(),
-                taskPage.getSize(),
-                taskPage.getTotal(),
-                taskList
-            );
+            PageResult<DeyochTask> pageResult = PageResult.of(taskPage, taskList);
+            
+            return Result.success(pageResult);
+        } catch (Exception e) {
+            return Result.error(ResultCode.SYSTEM_ERROR, "获取任务列表失败，请稍后重试");
+        }
+    }
+
+    @Override
+    public Result<PageResult<DeyochTask>> getTaskListByCursor(String cursor, Integer size, String keyword) {
+        try {
+            if (size == null || size < 1 || size > 100) {
+                size = 10;
+            }
+            PageCursor pageCursor = PageCursor.decode(cursor);
+            
+            // 构建查询条件
+            LambdaQueryWrapper<DeyochTask> queryWrapper = new LambdaQueryWrapper<>();
+            if (keyword != null && !keyword.isEmpty()) {
+                queryWrapper.and(wrapper -> wrapper
+                    .like(DeyochTask::getTitle, keyword)
+                    .or()
+                    .like(DeyochTask::getContent, keyword)
+                );
+            }
+            PageCursor.apply(queryWrapper, DeyochTask::getCreatedAt, DeyochTask::getId, pageCursor, size);
+            
+            // 查询size + 1行，多出的一行用于判断是否有下一页
+            PageResult<DeyochTask> pageResult = PageCursor.toPageResult(
+                list(queryWrapper), size, DeyochTask::getCreatedAt, DeyochTask::getId);
+            
+            // 填充用户名信息
+            populateTaskUserNames(pageResult.getRecords());
             
             return Result.success(pageResult);
+        } catch (IllegalArgumentException e) {
+            return Result.error(ResultCode.PARAM_ERROR, e.getMessage());
         } catch (Exception e) {
             return Result.error(ResultCode.SYSTEM_ERROR, "获取任务列表失败，请稍后重试");
         }
@@ -138,6 +191,9 @@ public class TaskServiceImpl extends ServiceImpl<DeyochTaskMapper, DeyochTask> i
             task.setStatus(0);
             // 创建任务
             save(task);
+            searchService.refresh(SearchType.TASK, task.getId());
+            taskStatsIndex.refreshTask(task.getId());
+            taskDeadlineNotifier.refreshTask(task.getId());
             return Result.success(task);
         } catch (Exception e) {
             return Result.error(ResultCode.SYSTEM_ERROR, "创建任务失败：" + e.getMessage());
@@ -156,6 +212,9 @@ public class TaskServiceImpl extends ServiceImpl<DeyochTaskMapper, DeyochTask> i
             task.setUpdatedAt(LocalDateTime.now());
             // 更新任务
             updateById(task);
+            searchService.refresh(SearchType.TASK, task.getId());
+            taskStatsIndex.refreshTask(task.getId());
+            taskDeadlineNotifier.refreshTask(task.getId());
             return Result.success(task);
         } catch (Exception e) {
             return Result.error(ResultCode.SYSTEM_ERROR, "更新任务失败：" + e.getMessage());
@@ -172,6 +231,9 @@ public class TaskServiceImpl extends ServiceImpl<DeyochTaskMapper, DeyochTask> i
             }
             // 删除任务
             removeById(id);
+            searchService.refresh(SearchType.TASK, id);
+            taskStatsIndex.refreshTask(id);
+            taskDeadlineNotifier.refreshTask(id);
             return Result.success();
         } catch (Exception e) {
             return Result.error(ResultCode.SYSTEM_ERROR, "删除任务失败：" + e.getMessage());
@@ -194,6 +256,10 @@ public class TaskServiceImpl extends ServiceImpl<DeyochTaskMapper, DeyochTask> i
             task.setUpdatedAt(LocalDateTime.now());
             // 更新任务
             updateById(task);
+            // 被分配人变化影响检索可见范围
+            searchService.refresh(SearchType.TASK, id);
+            taskStatsIndex.refreshTask(id);
+            taskDeadlineNotifier.refreshTask(id);
             return Result.success();
         } catch (Exception e) {
             return Result.error(ResultCode.SYSTEM_ERROR, "分配任务失败：" + e.getMessage());
@@ -218,6 +284,8 @@ public class TaskServiceImpl extends ServiceImpl<DeyochTaskMapper, DeyochTask> i
             task.setUpdatedAt(LocalDateTime.now());
             // 更新任务
             updateById(task);
+            taskStatsIndex.refreshTask(id);
+            taskDeadlineNotifier.refreshTask(id);
             return Result.success();
         } catch (Exception e) {
             return Result.error(ResultCode.SYSTEM_ERROR, "更新任务状态失败：" + e.getMessage());
@@ -260,6 +328,27 @@ public class TaskServiceImpl extends ServiceImpl<DeyochTaskMapper, DeyochTask> i
         }
     }
 
+    @Override
+    public Result<List<DeyochTask>> getTasksByDeptId(Long deptId) {
+        try {
+            if (deptId == null) {
+                return Result.error(ResultCode.PARAM_IS_NULL, "部门ID不能为空");
+            }
+            // 负责人属于该部门子树：用户表与部门闭包表一次索引连接
+            LambdaQueryWrapper<DeyochTask> queryWrapper = new LambdaQueryWrapper<>();
+            queryWrapper.inSql(DeyochTask::getAssigneeId, DeyochDeptClosureMapper.subtreeUserSql(deptId));
+            queryWrapper.orderByDesc(DeyochTask::getCreatedAt);
+            List<DeyochTask> taskList = list(queryWrapper);
+            
+            // 填充用户名信息
+            populateTaskUserNames(taskList);
+            
+            return Result.success(taskList);
+        } catch (Exception e) {
+            return Result.error(ResultCode.SYSTEM_ERROR, "获取部门任务列表失败：" + e.getMessage());
+        }
+    }
+
     // ==================== 工作台专用方法实现 ====================
 
     public Result<List<DeyochTask>> getDashboardTasks(Integer limit) {
@@ -358,42 +447,19 @@ public class TaskServiceImpl extends ServiceImpl<DeyochTaskMapper, DeyochTask> i
                 return Result.error(ResultCode.UNAUTHORIZED, "未登录或无效的令牌");
             }
 
-            // 统计各状态任务数量
-            LambdaQueryWrapper<DeyochTask> baseWrapper = new LambdaQueryWrapper<>();
-            baseWrapper.and(wrapper -> wrapper
-                .eq(DeyochTask::getCreatorId, userId)
-                .or()
-                .eq(DeyochTask::getAssigneeId, userId)
-            );
-
-            // 待办任务数量（状态0,1）
-            LambdaQueryWrapper<DeyochTask> pendingWrapper = baseWrapper.clone();
-            pendingWrapper.in(DeyochTask::getStatus, 0, 1);
-            long pendingCount = count(pendingWrapper);
-
-            // 待阅任务数量（状态2）
-            LambdaQueryWrapper<DeyochTask> reviewWrapper = baseWrapper.clone();
-            reviewWrapper.eq(DeyochTask::getStatus, 2);
-            long reviewCount = count(reviewWrapper);
-
-            // 已完成任务数量（状态3）
-            LambdaQueryWrapper<DeyochTask> completedWrapper = baseWrapper.clone();
-            completedWrapper.eq(DeyochTask::getStatus, 3);
-            long completedCount = count(completedWrapper);
-
-            // 逾期任务数量（截止时间小于当前时间且未完成）
-            LambdaQueryWrapper<DeyochTask> overdueWrapper = baseWrapper.clone();
-            overdueWrapper.lt(DeyochTask::getEndTime, LocalDateTime.now());
-            overdueWrapper.ne(DeyochTask::getStatus, 3);
-            long overdueCount = count(overdueWrapper);
+            // 优先读取按用户维护的计数器，索引未就绪时用一次分组聚合查询统计
+            TaskStatsDto taskStats = taskStatsIndex.get(userId);
+            if (taskStats == null) {
+                taskStats = baseMapper.selectTaskStats(userId, LocalDateTime.now());
+            }
 
             // 构建统计结果
             java.util.Map<String, Object> stats = new java.util.HashMap<>();
-            stats.put("pending", pendingCount);
-            stats.put("pendingReview", reviewCount);
-            stats.put("completed", completedCount);
-            stats.put("overdue", overdueCount);
-            stats.put("total", pendingCount + reviewCount + completedCount);
+            stats.put("pending", taskStats.getPending());
+            stats.put("pendingReview", taskStats.getPendingReview());
+            stats.put("completed", taskStats.getCompleted());
+            stats.put("overdue", taskStats.getOverdue());
+            stats.put("total", taskStats.getPending() + taskStats.getPendingReview() + taskStats.getCompleted());
 
             return Result.success(stats);
         } catch (Exception e) {
@@ -1,14 +1,20 @@
 package com.deyoch.service.impl;
 
-import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
+import com.deyoch.dto.UserBriefDto;
 import com.deyoch.entity.DeyochUser;
 import com.deyoch.mapper.DeyochUserMapper;
 import com.deyoch.service.UserInfoConverter;
+import com.deyoch.utils.BatchLoader;
+import com.deyoch.utils.LruCache;
+import com.deyoch.utils.TransactionUtil;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
 import java.util.*;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
 import java.util.function.BiConsumer;
 import java.util.function.Function;
 import java.util.stream.Collectors;
@@ -16,6 +22,10 @@ import java.util.stream.Collectors;
 /**
  * 用户信息转换器实现类
  * 实现批量用户ID到用户名转换，优化数据库查询性能
+ * 用户ID到简要信息（用户名、昵称、头像）采用LRU + TTL读穿透缓存：
+ * 先查缓存，只对未命中的ID做一次批量查询，不存在的用户同样缓存，列表页在缓存命中时不产生任何用户查询
+ * 用户新增、修改、删除后由UserServiceImpl调用invalidateUser失效
+ * 未命中的ID经BatchLoader微批量加载：并发请求在短窗口内的未命中合并为一次IN查询，同一用户的进行中查询不会重复发起
  */
 @Service
 @RequiredArgsConstructor
@@ -29,61 +39,197 @@ public class UserInfoConverterImpl implements UserInfoConverter {
      */
     private static final String UNKNOWN_USER = "未知用户";
 
+    /**
+     * 缓存最大条目数
+     */
+    @Value("${user.info-cache.max-size:10000}")
+    private int maxSize = 10000;
+
+    /**
+     * 缓存有效期（毫秒）
+     */
+    @Value("${user.info-cache.ttl:600000}")
+    private long ttl = 600000L;
+
+    private final LruCache<Long, UserBriefDto> cache = new LruCache<>(() -> maxSize, () -> ttl);
+
+    /**
+     * 批量加载窗口（毫秒），窗口内并发请求的未命中用户合并为一次查询
+     */
+    @Value("${user.info-cache.batch-window:2}")
+    private long batchWindow = 2L;
+
+    /**
+     * 单次批量查询的最大用户数，达到后不再等待窗口结束
+     */
+    @Value("${user.info-cache.max-batch-size:500}")
+    private int maxBatchSize = 500;
+
+    /**
+     * 等待批量查询结果的最长时间（毫秒）
+     */
+    @Value("${user.info-cache.batch-timeout:5000}")
+    private long batchTimeout = 5000L;
+
+    private volatile BatchLoader<Long, UserBriefDto> batchLoader;
+
+    /**
+     * 失效纪元，每次失效递增
+     * 查询开始后发生过失效时不回写缓存，避免把失效前读到的旧数据写回
+     */
+    private final AtomicLong invalidationEpoch = new AtomicLong();
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder loads = new LongAdder();
+    private final LongAdder invalidations = new LongAdder();
+
     @Override
     public Map<Long, String> convertUserIdsToNames(Set<Long> userIds) {
         if (userIds == null || userIds.isEmpty()) {
             return new HashMap<>();
         }
 
-        try {
-            // 过滤掉null值
-            Set<Long> validUserIds = userIds.stream()
-                .filter(Objects::nonNull)
-                .collect(Collectors.toSet());
+        Map<Long, UserBriefDto> briefs = getUserBriefs(userIds);
+        Map<Long, String> userIdToNameMap = new HashMap<>(briefs.size() * 2);
+        briefs.forEach((userId, brief) -> userIdToNameMap.put(userId, brief.getUsername()));
+        return userIdToNameMap;
+    }
 
-            if (validUserIds.isEmpty()) {
-                return new HashMap<>();
-            }
+    @Override
+    public Map<Long, UserBriefDto> getUserBriefs(Set<Long> userIds) {
+        if (userIds == null || userIds.isEmpty()) {
+            return new HashMap<>();
+        }
 
-            log.debug("开始转换用户ID到用户名，用户ID列表: {}", validUserIds);
+        // 过滤掉null值
+        Set<Long> validUserIds = userIds.stream()
+            .filter(Objects::nonNull)
+            .collect(Collectors.toSet());
 
-            // 批量查询用户信息 - 使用LambdaQueryWrapper替代过时的selectBatchIds
-            List<DeyochUser> users = deyochUserMapper.selectList(
-                new LambdaQueryWrapper<DeyochUser>()
-                    .in(DeyochUser::getId, validUserIds)
-            );
-            
-            log.debug("从数据库查询到{}个用户，原始用户ID数量: {}", users.size(), validUserIds.size());
-            
-            // 构建用户ID到用户名的映射
-            Map<Long, String> userIdToNameMap = users.stream()
-                .collect(Collectors.toMap(
-                    DeyochUser::getId,
-                    user -> user.getUsername() != null ? user.getUsername() : UNKNOWN_USER,
-                    (existing, replacement) -> existing // 处理重复键的情况
-                ));
-
-            // 为不存在的用户ID添加默认值
+        if (validUserIds.isEmpty()) {
+            return new HashMap<>();
+        }
+
+        // 先查缓存，收集未命中的ID
+        Map<Long, UserBriefDto> result = new HashMap<>(validUserIds.size() * 2);
+        Set<Long> missingIds = new HashSet<>();
+        synchronized (cache) {
             for (Long userId : validUserIds) {
-                if (!userIdToNameMap.containsKey(userId)) {
-                    log.warn("用户ID {} 在数据库中不存在，设置为未知用户", userId);
-                    userIdToNameMap.put(userId, UNKNOWN_USER);
+                UserBriefDto cached = cache.get(userId);
+                if (cached != null) {
+                    result.put(userId, cached);
+                } else {
+                    missingIds.add(userId);
                 }
             }
+        }
+        hits.add(result.size());
+        misses.add(missingIds.size());
 
-            log.debug("转换完成，最终映射: {}", userIdToNameMap);
+        if (missingIds.isEmpty()) {
+            return result;
+        }
 
-            return userIdToNameMap;
+        try {
+            // 未命中的ID交给批量加载器，与并发请求的未命中合并为一次查询
+            result.putAll(loader().loadAll(missingIds));
+            return result;
         } catch (Exception e) {
-            log.error("批量转换用户ID到用户名时发生错误，用户ID列表: {}", userIds, e);
-            // 发生异常时，返回所有用户ID都映射为未知用户的Map
-            return userIds.stream()
-                .filter(Objects::nonNull)
-                .collect(Collectors.toMap(
-                    userId -> userId,
-                    userId -> UNKNOWN_USER
-                ));
+            log.error("批量查询用户信息时发生错误，用户ID列表: {}", missingIds, e);
+            // 发生异常时，未命中的用户ID都映射为未知用户（不写入缓存）
+            for (Long userId : missingIds) {
+                result.put(userId, new UserBriefDto(userId, UNKNOWN_USER, null, null));
+            }
+            return result;
+        }
+    }
+
+    @Override
+    public void invalidateUser(Long userId) {
+        if (userId == null) {
+            return;
+        }
+        remove(userId);
+        if (TransactionUtil.inTransaction()) {
+            TransactionUtil.afterCommit(() -> remove(userId));
+        }
+    }
+
+    @Override
+    public Map<String, Object> getCacheStats() {
+        long hitCount = hits.sum();
+        long missCount = misses.sum();
+        long total = hitCount + missCount;
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("size", cache.size());
+        stats.put("maxSize", maxSize);
+        stats.put("hits", hitCount);
+        stats.put("misses", missCount);
+        stats.put("hitRate", total == 0 ? 0.0 : (double) hitCount / total);
+        stats.put("loads", loads.sum());
+        stats.put("evictions", cache.getEvictions());
+        stats.put("invalidations", invalidations.sum());
+        stats.putAll(loader().getStats());
+        return stats;
+    }
+
+    /**
+     * 获取批量加载器，首次使用时按配置创建
+     */
+    private BatchLoader<Long, UserBriefDto> loader() {
+        BatchLoader<Long, UserBriefDto> current = batchLoader;
+        if (current == null) {
+            synchronized (this) {
+                if (batchLoader == null) {
+                    batchLoader = new BatchLoader<>(this::loadUsers, batchWindow, maxBatchSize, batchTimeout);
+                }
+                current = batchLoader;
+            }
+        }
+        return current;
+    }
+
+    /**
+     * 批量查询用户并写入缓存，由批量加载器在一个批次内调用一次
+     */
+    private Map<Long, UserBriefDto> loadUsers(Set<Long> userIds) {
+        log.debug("用户信息缓存未命中，批量查询用户ID: {}", userIds);
+        long epoch = invalidationEpoch.get();
+
+        List<DeyochUser> users = deyochUserMapper.selectByIds(userIds);
+        loads.increment();
+
+        Map<Long, UserBriefDto> loaded = new HashMap<>(userIds.size() * 2);
+        for (DeyochUser user : users) {
+            loaded.put(user.getId(), new UserBriefDto(user.getId(),
+                user.getUsername() != null ? user.getUsername() : UNKNOWN_USER,
+                user.getNickname(), user.getAvatar()));
+        }
+
+        // 为不存在的用户ID添加默认值
+        for (Long userId : userIds) {
+            if (!loaded.containsKey(userId)) {
+                log.warn("用户ID {} 在数据库中不存在，设置为未知用户", userId);
+                loaded.put(userId, new UserBriefDto(userId, UNKNOWN_USER, null, null));
+            }
+        }
+
+        // 写入缓存后再唤醒等待方，之后的请求可以直接命中缓存
+        synchronized (cache) {
+            if (invalidationEpoch.get() == epoch) {
+                cache.putAll(loaded);
+            }
+        }
+        return loaded;
+    }
+
+    private void remove(Long userId) {
+        synchronized (cache) {
+            invalidationEpoch.incrementAndGet();
+            cache.remove(userId);
         }
+        invalidations.increment();
     }
 
     @Override
@@ -168,4 +314,4 @@ public class UserInfoConverterImpl implements UserInfoConverter {
             }
         }
     }
-}
\ No newline at end of file
+}
@@ -6,19 +6,26 @@ import com.baomidou.mybatisplus.core.metadata.IPage;
 import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
 import com.deyoch.entity.DeyochUser;
 import com.deyoch.entity.DeyochRole;
+import com.deyoch.mapper.DeyochDeptClosureMapper;
 import com.deyoch.mapper.DeyochUserMapper;
 import com.deyoch.mapper.DeyochRoleMapper;
+import com.deyoch.common.result.CountAwarePage;
+import com.deyoch.common.result.PageCursor;
 import com.deyoch.common.result.PageResult;
 import com.deyoch.common.result.Result;
 import com.deyoch.common.result.ResultCode;
+import com.deyoch.security.PasswordHashExecutor;
+import com.deyoch.security.UserAuthorityCache;
+import com.deyoch.service.ContactService;
+import com.deyoch.service.UserInfoConverter;
 import com.deyoch.service.UserService;
 import com.deyoch.utils.UserContextUtil;
 import lombok.RequiredArgsConstructor;
-import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.concurrent.RejectedExecutionException;
 
 /**
  * 用户服务实现类
@@ -28,8 +35,11 @@ import java.util.List;
 @RequiredArgsConstructor
 public class UserServiceImpl extends ServiceImpl<DeyochUserMapper, DeyochUser> implements UserService {
 
-    private final PasswordEncoder passwordEncoder;
+    private final PasswordHashExecutor passwordHashExecutor;
     private final DeyochRoleMapper deyochRoleMapper;
+    private final UserAuthorityCache userAuthorityCache;
+    private final ContactService contactService;
+    private final UserInfoConverter userInfoConverter;
 
     /**
      * 为用户填充角色名称
@@ -67,8 +77,8 @@ public class UserServiceImpl extends ServiceImpl<DeyochUserMapper, DeyochUser> i
             // 按创建时间倒序排列
             queryWrapper.orderByDesc(DeyochUser::getCreatedAt);
             
-            // 创建分页对象
-            Page<DeyochUser> pageObj = new Page<>(page, size);
+            // 创建分页对象，无筛选条件时允许使用估算总数
+            Page<DeyochUser> pageObj = new CountAwarePage<>(page, size, keyword == null || keyword.isEmpty());
             
             // 分页查询用户
             IPage<DeyochUser> userPage = page(pageObj, queryWrapper);
@@ -81,12 +91,7 @@ public class UserServiceImpl extends ServiceImpl<DeyochUserMapper, DeyochUser> i
             }
             
             // 构建分页结果
-            PageResult<DeyochUser> pageResult = PageResult.of(
-                userPage.getCurrent(),
-                userPage.getSize(),
-                userPage.getTotal(),
-                userList
-            );
+            PageResult<DeyochUser> pageResult = PageResult.of(userPage, userList);
             
             return Result.success(pageResult);
         } catch (Exception e) {
@@ -94,6 +99,43 @@ public class UserServiceImpl extends ServiceImpl<DeyochUserMapper, DeyochUser> i
         }
     }
 
+    @Override
+    public Result<PageResult<DeyochUser>> getUserListByCursor(String cursor, Integer size, String keyword) {
+        try {
+            if (size == null || size < 1 || size > 100) {
+                size = 10;
+            }
+            PageCursor pageCursor = PageCursor.decode(cursor);
+            
+            // 构建查询条件
+            LambdaQueryWrapper<DeyochUser> queryWrapper = new LambdaQueryWrapper<>();
+            if (keyword != null && !keyword.isEmpty()) {
+                queryWrapper.and(wrapper -> wrapper
+                    .like(DeyochUser::getUsername, keyword)
+                    .or()
+                    .like(DeyochUser::getNickname, keyword)
+                );
+            }
+            PageCursor.apply(queryWrapper, DeyochUser::getCreatedAt, DeyochUser::getId, pageCursor, size);
+            
+            // 查询size + 1行，多出的一行用于判断是否有下一页
+            PageResult<DeyochUser> pageResult = PageCursor.toPageResult(
+                list(queryWrapper), size, DeyochUser::getCreatedAt, DeyochUser::getId);
+            
+            // 为每个用户填充角色名称并隐藏密码
+            for (DeyochUser user : pageResult.getRecords()) {
+                populateRoleName(user);
+                user.setPassword(null);
+            }
+            
+            return Result.success(pageResult);
+        } catch (IllegalArgumentException e) {
+            return Result.error(ResultCode.PARAM_ERROR, e.getMessage());
+        } catch (Exception e) {
+            return Result.error(ResultCode.SYSTEM_ERROR, "获取用户列表失败，请稍后重试");
+        }
+    }
+
     @Override
     public Result<DeyochUser> getUserById(Long id) {
         try {
@@ -125,7 +167,7 @@ public class UserServiceImpl extends ServiceImpl<DeyochUserMapper, DeyochUser> i
             }
 
             // 密码加密
-            user.setPassword(passwordEncoder.encode(user.getPassword()));
+            user.setPassword(passwordHashExecutor.encode(user.getPassword()));
             
             // 设置创建时间和更新时间
             user.setCreatedAt(LocalDateTime.now());
@@ -138,11 +180,16 @@ public class UserServiceImpl extends ServiceImpl<DeyochUserMapper, DeyochUser> i
 
             // 创建用户
             save(user);
+            contactService.invalidateOrganizationTree();
+            contactService.refreshContact(user.getId());
+            userInfoConverter.invalidateUser(user.getId());
             
             // 隐藏密码
             user.setPassword(null);
             
             return Result.success(user);
+        } catch (RejectedExecutionException e) {
+            return Result.error(ResultCode.TOO_MANY_REQUESTS, "系统繁忙，请稍后重试");
         } catch (Exception e) {
             return Result.error(ResultCode.SYSTEM_ERROR, "创建用户失败：" + e.getMessage());
         }
@@ -169,7 +216,7 @@ public class UserServiceImpl extends ServiceImpl<DeyochUserMapper, DeyochUser> i
 
             // 如果更新了密码，进行加密
             if (user.getPassword() != null && !user.getPassword().equals(existingUser.getPassword())) {
-                user.setPassword(passwordEncoder.encode(user.getPassword()));
+                user.setPassword(passwordHashExecutor.encode(user.getPassword()));
             } else {
                 // 密码未变更，使用原密码
                 user.setPassword(existingUser.getPassword());
@@ -180,11 +227,19 @@ public class UserServiceImpl extends ServiceImpl<DeyochUserMapper, DeyochUser> i
 
             // 更新用户
             updateById(user);
+            contactService.invalidateOrganizationTree();
+            contactService.refreshContact(user.getId());
+            userInfoConverter.invalidateUser(user.getId());
+
+            // 用户名、角色可能已变更，使权限缓存失效
+            userAuthorityCache.invalidateUser(user.getId());
             
             // 隐藏密码
             user.setPassword(null);
             
             return Result.success(user);
+        } catch (RejectedExecutionException e) {
+            return Result.error(ResultCode.TOO_MANY_REQUESTS, "系统繁忙，请稍后重试");
         } catch (Exception e) {
             return Result.error(ResultCode.SYSTEM_ERROR, "更新用户失败：" + e.getMessage());
         }
@@ -207,6 +262,10 @@ public class UserServiceImpl extends ServiceImpl<DeyochUserMapper, DeyochUser> i
 
             // 删除用户
             removeById(id);
+            contactService.invalidateOrganizationTree();
+            contactService.refreshContact(id);
+            userInfoConverter.invalidateUser(id);
+            userAuthorityCache.invalidateUser(id);
             return Result.success();
         } catch (Exception e) {
             return Result.error(ResultCode.SYSTEM_ERROR, "删除用户失败：" + e.getMessage());
@@ -239,6 +298,9 @@ public class UserServiceImpl extends ServiceImpl<DeyochUserMapper, DeyochUser> i
             user.setStatus(status);
             user.setUpdatedAt(LocalDateTime.now());
             updateById(user);
+            contactService.invalidateOrganizationTree();
+            contactService.refreshContact(id);
+            userAuthorityCache.invalidateUser(id);
             return Result.success();
         } catch (Exception e) {
             return Result.error(ResultCode.SYSTEM_ERROR, "更新用户状态失败：" + e.getMessage());
@@ -300,6 +362,9 @@ public class UserServiceImpl extends ServiceImpl<DeyochUserMapper, DeyochUser> i
 
             // 更新用户信息
             updateById(currentUser);
+            contactService.invalidateOrganizationTree();
+            contactService.refreshContact(currentUser.getId());
+            userInfoConverter.invalidateUser(currentUser.getId());
             
             // 填充角色名称
             populateRoleName(currentUser);
@@ -332,16 +397,18 @@ public class UserServiceImpl extends ServiceImpl<DeyochUserMapper, DeyochUser> i
             }
 
             // 验证当前密码
-            if (!passwordEncoder.matches(currentPassword, currentUser.getPassword())) {
+            if (!passwordHashExecutor.matches(currentPassword, currentUser.getPassword())) {
                 return Result.error(ResultCode.PARAM_ERROR, "当前密码错误");
             }
 
             // 更新密码
-            currentUser.setPassword(passwordEncoder.encode(newPassword));
+            currentUser.setPassword(passwordHashExecutor.encode(newPassword));
             currentUser.setUpdatedAt(LocalDateTime.now());
             updateById(currentUser);
 
             return Result.success();
+        } catch (RejectedExecutionException e) {
+            return Result.error(ResultCode.TOO_MANY_REQUESTS, "系统繁忙，请稍后重试");
         } catch (Exception e) {
             return Result.error(ResultCode.SYSTEM_ERROR, "修改密码失败：" + e.getMessage());
         }
@@ -359,4 +426,27 @@ public class UserServiceImpl extends ServiceImpl<DeyochUserMapper, DeyochUser> i
             return "未知用户";
         }
     }
+
+    @Override
+    public Result<List<DeyochUser>> getUsersByDeptId(Long deptId) {
+        try {
+            if (deptId == null) {
+                return Result.error(ResultCode.PARAM_IS_NULL, "部门ID不能为空");
+            }
+            // 部门子树内的用户：与部门闭包表一次索引连接
+            LambdaQueryWrapper<DeyochUser> queryWrapper = new LambdaQueryWrapper<>();
+            queryWrapper.inSql(DeyochUser::getDeptId, DeyochDeptClosureMapper.subtreeSql(deptId));
+            queryWrapper.orderByAsc(DeyochUser::getDeptId).orderByAsc(DeyochUser::getId);
+            List<DeyochUser> userList = list(queryWrapper);
+            
+            // 为每个用户填充角色名称并隐藏密码
+            for (DeyochUser user : userList) {
+                populateRoleName(user);
+                user.setPassword(null);
+            }
+            return Result.success(userList);
+        } catch (Exception e) {
+            return Result.error(ResultCode.SYSTEM_ERROR, "获取部门用户失败：" + e.getMessage());
+        }
+    }
 }
\ No newline at end of file
@@ -0,0 +1,362 @@
+package com.deyoch.service.index;
+
+import com.deyoch.dto.ContactDto;
+import com.deyoch.mapper.ContactMapper;
+import com.deyoch.utils.PinyinUtil;
+import com.deyoch.utils.ReloadThrottle;
+import com.deyoch.utils.TransactionUtil;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 通讯录搜索索引
+ * 对联系人的姓名、用户名、工号、电话、邮箱、职位、部门名称以及姓名拼音首字母建立字符n-gram倒排索引（一元和二元）
+ * 查询时取关键词各二元组倒排列表的交集作为候选，再逐个校验字段包含关系，结果与原LIKE '%keyword%'语义一致
+ * 启动时全量构建，用户、部门变更提交后按用户或部门增量更新
+ * 索引未就绪或增量更新失败时由调用方回退到数据库查询，并在重试间隔后重新全量构建
+ *
+ * @author deyoch-oa
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class ContactSearchIndex {
+
+    /**
+     * 排序时未出现的字段排名
+     */
+    private static final int NO_MATCH = -1;
+
+    private final ContactMapper contactMapper;
+
+    private volatile Index index;
+    private final ReloadThrottle reloadThrottle = new ReloadThrottle();
+
+    private final LongAdder queries = new LongAdder();
+    private final LongAdder candidates = new LongAdder();
+
+    /**
+     * 应用启动完成后全量构建索引
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        rebuild();
+    }
+
+    /**
+     * 判断索引是否可用，未加载且超过重试间隔时尝试重新构建
+     * @return 可用返回true
+     */
+    public boolean isReady() {
+        if (index == null && reloadThrottle.isDue()) {
+            rebuild();
+        }
+        return index != null;
+    }
+
+    /**
+     * 搜索联系人
+     * @param keyword 关键词（不区分大小写）
+     * @param deptId 部门ID，为null时不限部门
+     * @return 按相关度排序的联系人列表（只读），索引不可用时返回null
+     */
+    public List<ContactDto> search(String keyword, Long deptId) {
+        Index current = index;
+        if (current == null) {
+            return null;
+        }
+        String query = normalize(keyword);
+        if (query.isEmpty()) {
+            return Collections.emptyList();
+        }
+        queries.increment();
+
+        List<Hit> hits = new ArrayList<>();
+        for (Long userId : current.candidates(query)) {
+            Entry entry = current.entries.get(userId);
+            if (entry == null || (deptId != null && !deptId.equals(entry.contact.getDeptId()))) {
+                continue;
+            }
+            candidates.increment();
+            int rank = entry.rank(query);
+            if (rank != NO_MATCH) {
+                hits.add(new Hit(entry.contact, rank));
+            }
+        }
+        hits.sort(Hit.ORDER);
+
+        List<ContactDto> result = new ArrayList<>(hits.size());
+        for (Hit hit : hits) {
+            result.add(hit.contact);
+        }
+        return result;
+    }
+
+    /**
+     * 用户变更后重新索引该用户，在当前事务提交后执行
+     * @param userId 用户ID
+     */
+    public void refreshUser(Long userId) {
+        if (userId == null) {
+            return;
+        }
+        TransactionUtil.afterCommit(() -> {
+            // 读取与写入在同一把锁内，并发刷新同一用户时后读到的数据一定后写入索引
+            synchronized (this) {
+                Index current = index;
+                if (current == null) {
+                    return;
+                }
+                ContactDto contact = contactMapper.selectContactById(userId);
+                current.remove(userId);
+                if (contact != null) {
+                    current.add(contact);
+                }
+            }
+        }, this::discard);
+    }
+
+    /**
+     * 部门变更后重新索引该部门下的用户（部门名称参与搜索），在当前事务提交后执行
+     * @param deptId 部门ID
+     */
+    public void refreshDept(Long deptId) {
+        if (deptId == null) {
+            return;
+        }
+        TransactionUtil.afterCommit(() -> {
+            synchronized (this) {
+                Index current = index;
+                if (current == null) {
+                    return;
+                }
+                for (ContactDto contact : contactMapper.selectContactsByDeptId(deptId)) {
+                    current.remove(contact.getId());
+                    current.add(contact);
+                }
+            }
+        }, this::discard);
+    }
+
+    /**
+     * 全量重建索引
+     */
+    public synchronized void rebuild() {
+        reloadThrottle.attempted();
+        try {
+            List<ContactDto> contacts = contactMapper.selectAllContacts();
+            Index rebuilt = new Index();
+            for (ContactDto contact : contacts) {
+                rebuilt.add(contact);
+            }
+            index = rebuilt;
+            log.info("通讯录搜索索引构建完成：{}个联系人，{}个词元", contacts.size(), rebuilt.postings.size());
+        } catch (Exception e) {
+            log.warn("通讯录搜索索引构建失败，搜索将回退到数据库查询", e);
+        }
+    }
+
+    /**
+     * 获取索引统计
+     * @return 联系人数、词元数、查询次数、平均候选数
+     */
+    public Map<String, Object> getStats() {
+        Index current = index;
+        long queryCount = queries.sum();
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("loaded", current != null);
+        stats.put("contacts", current != null ? current.entries.size() : 0);
+        stats.put("grams", current != null ? current.postings.size() : 0);
+        stats.put("queries", queryCount);
+        stats.put("avgCandidates", queryCount == 0 ? 0.0 : (double) candidates.sum() / queryCount);
+        return stats;
+    }
+
+    /**
+     * 增量更新失败后丢弃索引，避免返回过期结果，下次访问时全量重建
+     */
+    private void discard(Exception e) {
+        log.warn("通讯录搜索索引增量更新失败，索引将重新构建", e);
+        index = null;
+        reloadThrottle.reset();
+    }
+
+    private static String normalize(String value) {
+        return value == null ? "" : value.trim().toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * 倒排索引
+     * 读取无锁，写入由外部同步；写入过程中读取方可能看到部分更新，但候选结果都会按条目当前字段重新校验
+     */
+    private static class Index {
+        private final Map<Long, Entry> entries = new ConcurrentHashMap<>();
+        private final Map<String, Set<Long>> postings = new ConcurrentHashMap<>();
+
+        private void add(ContactDto contact) {
+            Entry entry = new Entry(contact);
+            entries.put(contact.getId(), entry);
+            for (String gram : entry.grams()) {
+                postings.computeIfAbsent(gram, key -> ConcurrentHashMap.newKeySet()).add(contact.getId());
+            }
+        }
+
+        private void remove(Long userId) {
+            Entry entry = entries.remove(userId);
+            if (entry == null) {
+                return;
+            }
+            for (String gram : entry.grams()) {
+                postings.computeIfPresent(gram, (key, ids) -> {
+                    ids.remove(userId);
+                    return ids.isEmpty() ? null : ids;
+                });
+            }
+        }
+
+        /**
+         * 获取候选用户：单字符直接取一元组，多字符取各二元组倒排列表的交集（从最短列表开始）
+         */
+        private Set<Long> candidates(String query) {
+            if (query.length() == 1) {
+                return postings.getOrDefault(query, Collections.emptySet());
+            }
+            List<Set<Long>> lists = new ArrayList<>(query.length() - 1);
+            for (int i = 0; i + 2 <= query.length(); i++) {
+                Set<Long> ids = postings.get(query.substring(i, i + 2));
+                if (ids == null) {
+                    return Collections.emptySet();
+                }
+                lists.add(ids);
+            }
+            lists.sort(Comparator.comparingInt(Set::size));
+            Set<Long> result = new HashSet<>(lists.get(0));
+            for (int i = 1; i < lists.size() && !result.isEmpty(); i++) {
+                result.retainAll(lists.get(i));
+            }
+            return result;
+        }
+    }
+
+    /**
+     * 索引条目，保存归一化后的字段值
+     */
+    private static class Entry {
+        private final ContactDto contact;
+        private final String realName;
+        private final String initials;
+        private final String[] identifiers;
+        private final String[] others;
+
+        private Entry(ContactDto contact) {
+            this.contact = contact;
+            this.realName = normalize(contact.getRealName());
+            this.initials = PinyinUtil.getInitials(contact.getRealName());
+            this.identifiers = new String[]{
+                    normalize(contact.getUsername()),
+                    normalize(contact.getEmployeeId()),
+                    normalize(contact.getPhone())
+            };
+            this.others = new String[]{
+                    normalize(contact.getEmail()),
+                    normalize(contact.getPosition()),
+                    normalize(contact.getDeptName())
+            };
+        }
+
+        private Set<String> grams() {
+            Set<String> grams = new HashSet<>();
+            addGrams(realName, grams);
+            addGrams(initials, grams);
+            for (String value : identifiers) {
+                addGrams(value, grams);
+            }
+            for (String value : others) {
+                addGrams(value, grams);
+            }
+            return grams;
+        }
+
+        private static void addGrams(String value, Set<String> grams) {
+            for (int i = 0; i < value.length(); i++) {
+                grams.add(value.substring(i, i + 1));
+                if (i + 2 <= value.length()) {
+                    grams.add(value.substring(i, i + 2));
+                }
+            }
+        }
+
+        /**
+         * 计算相关度排名，越小越靠前：
+         * 0 姓名完全匹配，1 姓名前缀，2 拼音首字母前缀，3 姓名包含，
+         * 4 用户名/工号/电话前缀，5 其他字段包含，未匹配返回NO_MATCH
+         */
+        private int rank(String query) {
+            if (realName.equals(query)) {
+                return 0;
+            }
+            if (realName.startsWith(query)) {
+                return 1;
+            }
+            if (initials.startsWith(query)) {
+                return 2;
+            }
+            if (realName.contains(query)) {
+                return 3;
+            }
+            for (String value : identifiers) {
+                if (value.startsWith(query)) {
+                    return 4;
+                }
+            }
+            for (String value : identifiers) {
+                if (value.contains(query)) {
+                    return 5;
+                }
+            }
+            for (String value : others) {
+                if (value.contains(query)) {
+                    return 5;
+                }
+            }
+            if (initials.contains(query)) {
+                return 5;
+            }
+            return NO_MATCH;
+        }
+    }
+
+    /**
+     * 搜索命中，按排名、创建时间倒序、ID排序
+     */
+    private static class Hit {
+        private static final Comparator<Hit> ORDER = Comparator.<Hit>comparingInt(hit -> hit.rank)
+                .thenComparing(hit -> hit.contact.getCreatedAt(),
+                        Comparator.nullsLast(Comparator.<LocalDateTime>reverseOrder()))
+                .thenComparing(hit -> hit.contact.getId());
+
+        private final ContactDto contact;
+        private final int rank;
+
+        private Hit(ContactDto contact, int rank) {
+            this.contact = contact;
+            this.rank = rank;
+        }
+    }
+}
@@ -0,0 +1,549 @@
+package com.deyoch.service.index;
+
+import org.springframework.web.util.HtmlUtils;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+/**
+ * 全文倒排索引
+ * 对标题和正文按字符建立一元、二元词元（CJK文本按二元切分，其他文字同样按字符切分以保持与LIKE一致的子串语义），
+ * 跨空白的词元不入索引。倒排列表中记录每个条目的词频（标题加权），BM25得分只由倒排列表计算
+ * 条目不保存正文，只保存标题和所含词元：查询时取各词元倒排列表的交集作为候选，
+ * 标题包含短语、或短语本身就是一个词元时直接判定命中，其余候选按批从数据库读取正文校验包含关系
+ * 高亮片段由调用方对当前页的命中从数据库读取原文后生成并做HTML转义
+ * 读取无锁，写入由外部单线程串行执行；写入过程中读取方可能看到部分更新，但正文校验读取的是已提交的数据
+ *
+ * @author deyoch-oa
+ */
+public class FullTextIndex {
+
+    private static final double K1 = 1.2;
+    private static final double B = 0.75;
+
+    /**
+     * 标题词频权重
+     */
+    private static final int TITLE_WEIGHT = 3;
+
+    /**
+     * 高亮片段在命中位置前后保留的字符数
+     */
+    private static final int SNIPPET_CONTEXT = 40;
+
+    /**
+     * 校验候选时每批读取的正文数
+     */
+    private static final int VERIFY_BATCH_SIZE = 200;
+
+    private final Map<Long, Entry> entries = new ConcurrentHashMap<>();
+
+    /**
+     * 词元到条目ID及加权词频的倒排列表
+     */
+    private final Map<String, Map<Long, Integer>> postings = new ConcurrentHashMap<>();
+    private final AtomicLong totalLength = new AtomicLong();
+
+    /**
+     * 按ID批量读取正文原文，没有正文的不包含在结果中
+     */
+    private final Function<List<Long>, Map<Long, String>> bodyLoader;
+
+    /**
+     * 创建索引
+     * @param bodyLoader 按ID批量读取正文原文，用于校验无法由标题和词元判定的候选
+     */
+    public FullTextIndex(Function<List<Long>, Map<Long, String>> bodyLoader) {
+        this.bodyLoader = bodyLoader;
+    }
+
+    /**
+     * 添加或替换条目，写入后条目不再保留正文的词频
+     * @param entry 条目
+     */
+    public void put(Entry entry) {
+        Map<String, Integer> termFrequencies = entry.termFrequencies;
+        if (termFrequencies == null) {
+            throw new IllegalStateException("条目已写入索引：" + entry.id);
+        }
+        remove(entry.id);
+        entries.put(entry.id, entry);
+        totalLength.addAndGet(entry.length);
+        termFrequencies.forEach((gram, frequency) ->
+                postings.computeIfAbsent(gram, key -> new ConcurrentHashMap<>()).put(entry.id, frequency));
+        entry.termFrequencies = null;
+    }
+
+    /**
+     * 移除条目
+     * @param id 条目ID
+     */
+    public void remove(Long id) {
+        Entry entry = entries.remove(id);
+        if (entry == null) {
+            return;
+        }
+        totalLength.addAndGet(-entry.length);
+        for (String gram : entry.grams()) {
+            postings.computeIfPresent(gram, (key, ids) -> {
+                ids.remove(id);
+                return ids.isEmpty() ? null : ids;
+            });
+        }
+    }
+
+    /**
+     * 按子串匹配查找条目，语义与 title LIKE '%keyword%' OR body LIKE '%keyword%' 一致
+     * @param keyword 关键词（不区分大小写）
+     * @return 按排序时间倒序、ID倒序排列的条目ID；关键词不含可索引字符时返回null
+     */
+    public List<Long> match(String keyword) {
+        return match(keyword, true);
+    }
+
+    /**
+     * 按子串匹配查找条目
+     * @param keyword 关键词（不区分大小写）
+     * @param includeBody 是否匹配正文，为false时语义与 title LIKE '%keyword%' 一致
+     * @return 按排序时间倒序、ID倒序排列的条目ID；关键词不含可索引字符时返回null
+     */
+    public List<Long> match(String keyword, boolean includeBody) {
+        String query = normalize(keyword);
+        Set<Long> candidates = candidates(Collections.singletonList(query));
+        if (candidates == null) {
+            return null;
+        }
+        List<Entry> matched = new ArrayList<>();
+        for (Long id : candidates) {
+            Entry entry = entries.get(id);
+            if (entry != null && (includeBody || entry.normalizedTitle.contains(query))) {
+                matched.add(entry);
+            }
+        }
+        if (includeBody) {
+            matched = verify(matched, Collections.singletonList(query));
+        }
+        matched.sort(Entry.RECENT_FIRST);
+        List<Long> ids = new ArrayList<>(matched.size());
+        for (Entry entry : matched) {
+            ids.add(entry.id);
+        }
+        return ids;
+    }
+
+    /**
+     * 全文检索
+     * 查询按空白拆分为多个短语，条目须在标题或正文中包含全部短语
+     * @param query 查询语句
+     * @param visible 可见性过滤
+     * @return 按得分倒序排列的命中
+     */
+    public List<Hit> search(String query, Predicate<Entry> visible) {
+        List<String> phrases = phrases(query);
+        Set<Long> candidates = phrases.isEmpty() ? null : candidates(phrases);
+        if (candidates == null || candidates.isEmpty()) {
+            return Collections.emptyList();
+        }
+
+        Set<String> terms = new LinkedHashSet<>();
+        for (String phrase : phrases) {
+            terms.addAll(queryGrams(phrase));
+        }
+        int documentCount = Math.max(1, entries.size());
+        double avgLength = Math.max(1.0, (double) totalLength.get() / documentCount);
+
+        List<Entry> visibleEntries = new ArrayList<>();
+        for (Long id : candidates) {
+            Entry entry = entries.get(id);
+            if (entry != null && visible.test(entry)) {
+                visibleEntries.add(entry);
+            }
+        }
+        List<Hit> hits = new ArrayList<>();
+        for (Entry entry : verify(visibleEntries, phrases)) {
+            double norm = K1 * (1 - B + B * entry.length / avgLength);
+            double score = 0;
+            for (String term : terms) {
+                Map<Long, Integer> ids = postings.get(term);
+                int df = ids != null ? ids.size() : 0;
+                double idf = Math.log(1 + (documentCount - df + 0.5) / (df + 0.5));
+                int tf = ids != null ? ids.getOrDefault(entry.id, 0) : 0;
+                score += idf * tf * (K1 + 1) / (tf + norm);
+            }
+            // 标题完整包含短语时额外加分
+            for (String phrase : phrases) {
+                if (entry.normalizedTitle.contains(phrase)) {
+                    score += 1.0;
+                }
+            }
+            hits.add(new Hit(entry, score, phrases));
+        }
+        hits.sort(Hit.ORDER);
+        return hits;
+    }
+
+    /**
+     * 获取条目数量
+     * @return 条目数量
+     */
+    public int size() {
+        return entries.size();
+    }
+
+    /**
+     * 获取词元数量
+     * @return 词元数量
+     */
+    public int termCount() {
+        return postings.size();
+    }
+
+    /**
+     * 获取候选条目：单字符短语取一元组，多字符短语取各二元组，所有列表求交集（从最短列表开始）
+     * @return 候选ID，短语都不含可索引字符时返回null
+     */
+    private Set<Long> candidates(List<String> phrases) {
+        List<Set<Long>> lists = new ArrayList<>();
+        for (String phrase : phrases) {
+            for (String gram : queryGrams(phrase)) {
+                Map<Long, Integer> ids = postings.get(gram);
+                if (ids == null) {
+                    return Collections.emptySet();
+                }
+                lists.add(ids.keySet());
+            }
+        }
+        if (lists.isEmpty()) {
+            return null;
+        }
+        lists.sort(Comparator.comparingInt(Set::size));
+        Set<Long> result = new HashSet<>(lists.get(0));
+        for (int i = 1; i < lists.size() && !result.isEmpty(); i++) {
+            result.retainAll(lists.get(i));
+        }
+        return result;
+    }
+
+    /**
+     * 校验候选是否包含全部短语
+     * 标题包含短语，或短语本身就是一个词元（候选已包含该词元）时直接判定，其余候选按批读取正文校验
+     * @return 包含全部短语的条目，保持候选的顺序
+     */
+    private List<Entry> verify(List<Entry> candidates, List<String> phrases) {
+        Map<Long, List<String>> undecided = new LinkedHashMap<>();
+        for (Entry entry : candidates) {
+            List<String> pending = new ArrayList<>();
+            for (String phrase : phrases) {
+                if (!isGram(phrase) && !entry.normalizedTitle.contains(phrase)) {
+                    pending.add(phrase);
+                }
+            }
+            if (!pending.isEmpty()) {
+                undecided.put(entry.id, pending);
+            }
+        }
+        if (undecided.isEmpty()) {
+            return candidates;
+        }
+
+        Set<Long> bodyMatched = new HashSet<>();
+        List<Long> ids = new ArrayList<>(undecided.keySet());
+        for (int from = 0; from < ids.size(); from += VERIFY_BATCH_SIZE) {
+            List<Long> batch = ids.subList(from, Math.min(from + VERIFY_BATCH_SIZE, ids.size()));
+            Map<Long, String> bodies = bodyLoader.apply(batch);
+            for (Long id : batch) {
+                String body = bodies.get(id);
+                if (body != null && containsAll(normalize(body), undecided.get(id))) {
+                    bodyMatched.add(id);
+                }
+            }
+        }
+        // 直接判定的和正文校验通过的按候选原顺序合并
+        List<Entry> result = new ArrayList<>(candidates.size() - undecided.size() + bodyMatched.size());
+        for (Entry entry : candidates) {
+            if (!undecided.containsKey(entry.id) || bodyMatched.contains(entry.id)) {
+                result.add(entry);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * 短语是否恰好是一个可索引的词元，此时倒排列表即可判定包含关系
+     */
+    private static boolean isGram(String phrase) {
+        return phrase.length() == 1 && !Character.isWhitespace(phrase.charAt(0))
+                || phrase.length() == 2 && !Character.isWhitespace(phrase.charAt(0))
+                && !Character.isWhitespace(phrase.charAt(1));
+    }
+
+    private static boolean containsAll(String text, List<String> phrases) {
+        for (String phrase : phrases) {
+            if (!text.contains(phrase)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static Collection<String> queryGrams(String phrase) {
+        Set<String> grams = new LinkedHashSet<>();
+        if (phrase.length() == 1) {
+            if (!Character.isWhitespace(phrase.charAt(0))) {
+                grams.add(phrase);
+            }
+            return grams;
+        }
+        for (int i = 0; i + 2 <= phrase.length(); i++) {
+            if (!Character.isWhitespace(phrase.charAt(i)) && !Character.isWhitespace(phrase.charAt(i + 1))) {
+                grams.add(phrase.substring(i, i + 2));
+            }
+        }
+        return grams;
+    }
+
+    private static List<String> phrases(String query) {
+        List<String> phrases = new ArrayList<>();
+        for (String phrase : normalize(query).split("\\s+")) {
+            if (!phrase.isEmpty() && !phrases.contains(phrase)) {
+                phrases.add(phrase);
+            }
+        }
+        return phrases;
+    }
+
+    static String normalize(String value) {
+        return value == null ? "" : value.toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * 索引条目
+     */
+    public static class Entry {
+
+        /**
+         * 排序时间倒序、ID倒序，排序时间为空的排在最后（与MySQL的ORDER BY ... DESC一致）
+         */
+        private static final Comparator<Entry> RECENT_FIRST = Comparator
+                .comparing((Entry entry) -> entry.sortTime, Comparator.nullsLast(Comparator.reverseOrder()))
+                .thenComparing(entry -> entry.id, Comparator.reverseOrder());
+
+        private final Long id;
+        private final String title;
+        private final String normalizedTitle;
+        private final LocalDateTime sortTime;
+        private final Set<Long> ownerIds;
+        private final boolean publicVisible;
+
+        /**
+         * 标题和正文归一化后的总长度
+         */
+        private final int length;
+
+        /**
+         * 条目包含的一元、二元词元，移除条目时据此清理倒排列表；二元词元按高低16位存放两个字符
+         */
+        private final char[] unigrams;
+        private final int[] bigrams;
+
+        /**
+         * 词元的加权词频，只在写入索引前保留
+         */
+        private Map<String, Integer> termFrequencies;
+
+        /**
+         * 创建索引条目
+         * @param id 条目ID
+         * @param title 标题
+         * @param body 正文，只用于统计词元，条目中不保存
+         * @param sortTime 列表排序时间
+         * @param ownerIds 可见该条目的用户ID（创建者、负责人等）
+         * @param publicVisible 是否所有人可见
+         */
+        public Entry(Long id, String title, String body, LocalDateTime sortTime,
+                     Set<Long> ownerIds, boolean publicVisible) {
+            this.id = id;
+            this.title = title != null ? title : "";
+            this.normalizedTitle = normalize(this.title);
+            this.sortTime = sortTime;
+            this.ownerIds = ownerIds;
+            this.publicVisible = publicVisible;
+            String normalizedBody = normalize(body);
+            this.length = normalizedTitle.length() + normalizedBody.length();
+
+            Map<String, Integer> frequencies = new HashMap<>();
+            addGrams(normalizedTitle, TITLE_WEIGHT, frequencies);
+            addGrams(normalizedBody, 1, frequencies);
+            this.termFrequencies = frequencies;
+            int unigramCount = 0;
+            for (String gram : frequencies.keySet()) {
+                if (gram.length() == 1) {
+                    unigramCount++;
+                }
+            }
+            this.unigrams = new char[unigramCount];
+            this.bigrams = new int[frequencies.size() - unigramCount];
+            int u = 0;
+            int b = 0;
+            for (String gram : frequencies.keySet()) {
+                if (gram.length() == 1) {
+                    unigrams[u++] = gram.charAt(0);
+                } else {
+                    bigrams[b++] = gram.charAt(0) << 16 | gram.charAt(1);
+                }
+            }
+        }
+
+        public Long getId() {
+            return id;
+        }
+
+        public String getTitle() {
+            return title;
+        }
+
+        public LocalDateTime getSortTime() {
+            return sortTime;
+        }
+
+        public boolean isPublicVisible() {
+            return publicVisible;
+        }
+
+        /**
+         * 判断用户是否为该条目的相关人
+         * @param userId 用户ID
+         * @return 是返回true
+         */
+        public boolean isOwnedBy(Long userId) {
+            return userId != null && ownerIds.contains(userId);
+        }
+
+        private List<String> grams() {
+            List<String> grams = new ArrayList<>(unigrams.length + bigrams.length);
+            for (char unigram : unigrams) {
+                grams.add(String.valueOf(unigram));
+            }
+            for (int bigram : bigrams) {
+                grams.add(new String(new char[]{(char) (bigram >>> 16), (char) bigram}));
+            }
+            return grams;
+        }
+
+        /**
+         * 统计文本中各词元的出现次数（含重叠出现），按权重累加
+         */
+        private static void addGrams(String value, int weight, Map<String, Integer> frequencies) {
+            for (int i = 0; i < value.length(); i++) {
+                if (Character.isWhitespace(value.charAt(i))) {
+                    continue;
+                }
+                frequencies.merge(value.substring(i, i + 1), weight, Integer::sum);
+                if (i + 2 <= value.length() && !Character.isWhitespace(value.charAt(i + 1))) {
+                    frequencies.merge(value.substring(i, i + 2), weight, Integer::sum);
+                }
+            }
+        }
+    }
+
+    /**
+     * 检索命中，按得分倒序、排序时间倒序排列
+     */
+    public static class Hit {
+
+        private static final Comparator<Hit> ORDER = Comparator.comparingDouble((Hit hit) -> -hit.score)
+                .thenComparing(hit -> hit.entry, Entry.RECENT_FIRST);
+
+        private final Entry entry;
+        private final double score;
+        private final List<String> phrases;
+
+        private Hit(Entry entry, double score, List<String> phrases) {
+            this.entry = entry;
+            this.score = score;
+            this.phrases = phrases;
+        }
+
+        public Entry getEntry() {
+            return entry;
+        }
+
+        public double getScore() {
+            return score;
+        }
+
+        /**
+         * 生成高亮后的标题，命中的短语以&lt;em&gt;标记，其余文本做HTML转义
+         * @return 高亮标题
+         */
+        public String highlightTitle() {
+            return highlight(entry.title, entry.normalizedTitle, 0, entry.title.length());
+        }
+
+        /**
+         * 生成正文高亮片段：取第一个命中位置前后若干字符，正文无命中时取开头
+         * @param body 正文原文，由调用方从数据库读取
+         * @return 高亮片段
+         */
+        public String highlightSnippet(String body) {
+            if (body == null || body.isEmpty()) {
+                return "";
+            }
+            String normalizedBody = normalize(body);
+            int first = -1;
+            for (String phrase : phrases) {
+                int index = normalizedBody.indexOf(phrase);
+                if (index >= 0 && (first < 0 || index < first)) {
+                    first = index;
+                }
+            }
+            int start = Math.max(0, first - SNIPPET_CONTEXT);
+            int end = Math.min(body.length(), (first < 0 ? 0 : first) + SNIPPET_CONTEXT * 2);
+            String snippet = highlight(body, normalizedBody, start, end);
+            return (start > 0 ? "…" : "") + snippet + (end < body.length() ? "…" : "");
+        }
+
+        private String highlight(String text, String normalized, int start, int end) {
+            // 大小写转换改变了长度（极少数字符）时无法对齐位置，不做高亮
+            if (text.length() != normalized.length()) {
+                return HtmlUtils.htmlEscape(text.substring(start, end));
+            }
+            boolean[] marked = new boolean[end - start];
+            for (String phrase : phrases) {
+                for (int from = normalized.indexOf(phrase, start); from >= 0 && from < end;
+                     from = normalized.indexOf(phrase, from + 1)) {
+                    for (int i = from; i < Math.min(end, from + phrase.length()); i++) {
+                        marked[i - start] = true;
+                    }
+                }
+            }
+            StringBuilder result = new StringBuilder();
+            int i = 0;
+            while (i < marked.length) {
+                int j = i;
+                while (j < marked.length && marked[j] == marked[i]) {
+                    j++;
+                }
+                String part = HtmlUtils.htmlEscape(text.substring(start + i, start + j));
+                result.append(marked[i] ? "<em>" + part + "</em>" : part);
+                i = j;
+            }
+            return result.toString();
+        }
+    }
+}
@@ -0,0 +1,61 @@
+package com.deyoch.service.index;
+
+/**
+ * 全文检索的数据类型
+ *
+ * @author deyoch-oa
+ */
+public enum SearchType {
+
+    /**
+     * 文档，检索文件名和抽取的正文
+     */
+    DOCUMENT("document", "oa:document:manage"),
+
+    /**
+     * 任务，检索标题和内容
+     */
+    TASK("task", "oa:task:manage"),
+
+    /**
+     * 公告，检索标题和内容
+     */
+    ANNOUNCEMENT("announcement", "oa:announcement:manage");
+
+    /**
+     * 类型编码，用于接口参数和返回值
+     */
+    private final String code;
+
+    /**
+     * 管理权限，拥有该权限可检索该类型的全部数据，否则只能检索与自己相关或公开的数据
+     */
+    private final String manageAuthority;
+
+    SearchType(String code, String manageAuthority) {
+        this.code = code;
+        this.manageAuthority = manageAuthority;
+    }
+
+    public String getCode() {
+        return code;
+    }
+
+    public String getManageAuthority() {
+        return manageAuthority;
+    }
+
+    /**
+     * 根据编码获取类型
+     * @param code 类型编码
+     * @return 检索类型，编码无效时返回null
+     */
+    public static SearchType fromCode(String code) {
+        for (SearchType type : values()) {
+            if (type.code.equalsIgnoreCase(code)) {
+                return type;
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,308 @@
+package com.deyoch.service.index;
+
+import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
+import com.deyoch.dto.TaskStatsDto;
+import com.deyoch.entity.DeyochTask;
+import com.deyoch.mapper.DeyochTaskMapper;
+import com.deyoch.utils.ReloadThrottle;
+import com.deyoch.utils.TransactionUtil;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 任务统计索引
+ * 按用户维护待办、待阅、已完成、逾期四个计数器，统计范围与原查询一致：用户创建或负责的任务，同一任务只计一次
+ * 未完成且尚未逾期的任务按结束时间排序保存，读取时把结束时间已过的任务依次移入逾期计数，每个任务只移动一次，读取为均摊O(1)
+ * 启动时全量构建，任务变更提交后按任务ID重新读取并增量更新；同一时刻只有一个写入方，后提交的变更总是后应用
+ * 索引未就绪或增量更新失败时由调用方回退到数据库聚合查询，并在重试间隔后重新全量构建
+ *
+ * @author deyoch-oa
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class TaskStatsIndex {
+
+    private final DeyochTaskMapper deyochTaskMapper;
+
+    /**
+     * 写入锁，串行化增量更新与全量重建；读取只使用计数器自身的锁
+     */
+    private final Object writeLock = new Object();
+
+    private volatile Counters counters;
+    private final ReloadThrottle reloadThrottle = new ReloadThrottle();
+
+    private final LongAdder reads = new LongAdder();
+    private final LongAdder updates = new LongAdder();
+
+    /**
+     * 应用启动完成后全量构建索引
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        rebuild();
+    }
+
+    /**
+     * 获取用户任务统计
+     * @param userId 用户ID
+     * @return 任务统计，索引不可用时返回null
+     */
+    public TaskStatsDto get(Long userId) {
+        return get(userId, LocalDateTime.now());
+    }
+
+    TaskStatsDto get(Long userId, LocalDateTime now) {
+        Counters current = counters;
+        if (current == null) {
+            if (reloadThrottle.isDue()) {
+                rebuild();
+            }
+            return null;
+        }
+        reads.increment();
+        return current.get(userId, now);
+    }
+
+    /**
+     * 任务变更后重新读取该任务并更新计数，在当前事务提交后执行
+     * @param taskId 任务ID（任务已删除时移除）
+     */
+    public void refreshTask(Long taskId) {
+        if (taskId == null) {
+            return;
+        }
+        TransactionUtil.afterCommit(() -> {
+            synchronized (writeLock) {
+                Counters current = counters;
+                if (current == null) {
+                    return;
+                }
+                DeyochTask task = deyochTaskMapper.selectOne(columns().eq(DeyochTask::getId, taskId));
+                if (task == null) {
+                    current.remove(taskId);
+                } else {
+                    current.put(task);
+                }
+                updates.increment();
+            }
+        }, this::discard);
+    }
+
+    /**
+     * 全量重建索引
+     */
+    public void rebuild() {
+        synchronized (writeLock) {
+            reloadThrottle.attempted();
+            try {
+                Counters rebuilt = new Counters();
+                for (DeyochTask task : deyochTaskMapper.selectList(columns())) {
+                    rebuilt.put(task);
+                }
+                counters = rebuilt;
+                log.info("任务统计索引构建完成：{}个任务", rebuilt.tasks.size());
+            } catch (Exception e) {
+                log.warn("任务统计索引构建失败，统计将回退到数据库查询", e);
+            }
+        }
+    }
+
+    /**
+     * 获取索引统计
+     * @return 任务数、用户数、待到期任务数、读取和更新次数
+     */
+    public Map<String, Object> getStats() {
+        Counters current = counters;
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("loaded", current != null);
+        if (current != null) {
+            current.describe(stats);
+        }
+        stats.put("reads", reads.sum());
+        stats.put("updates", updates.sum());
+        return stats;
+    }
+
+    private static LambdaQueryWrapper<DeyochTask> columns() {
+        return new LambdaQueryWrapper<DeyochTask>()
+                .select(DeyochTask::getId, DeyochTask::getCreatorId, DeyochTask::getAssigneeId,
+                        DeyochTask::getStatus, DeyochTask::getEndTime);
+    }
+
+    /**
+     * 增量更新失败时计数已不可信，丢弃后由下次读取触发全量重建
+     */
+    private void discard(Exception e) {
+        log.warn("任务统计索引增量更新失败，索引将重新构建", e);
+        counters = null;
+        reloadThrottle.reset();
+    }
+
+    /**
+     * 按用户的计数器，所有方法在自身锁内执行
+     */
+    private static class Counters {
+
+        private static final int PENDING = 0;
+        private static final int REVIEW = 1;
+        private static final int COMPLETED = 2;
+        private static final int OVERDUE = 3;
+
+        private final Map<Long, TaskState> tasks = new HashMap<>();
+        private final Map<Long, long[]> userCounts = new HashMap<>();
+
+        /**
+         * 未完成且尚未计入逾期的任务，按结束时间排序
+         */
+        private final TreeSet<TaskState> deadlines = new TreeSet<>(TaskState.DEADLINE_ORDER);
+
+        /**
+         * 已推进到的时间点，结束时间早于该时间的未完成任务都已计入逾期
+         */
+        private LocalDateTime horizon;
+
+        synchronized void put(DeyochTask task) {
+            remove(task.getId());
+            TaskState state = new TaskState(task);
+            tasks.put(state.id, state);
+            int bucket = state.bucket();
+            if (bucket >= 0) {
+                adjust(state, bucket, 1);
+            }
+            if (state.isOpen() && state.endTime != null) {
+                if (horizon != null && state.endTime.isBefore(horizon)) {
+                    state.overdue = true;
+                    adjust(state, OVERDUE, 1);
+                } else {
+                    deadlines.add(state);
+                }
+            }
+        }
+
+        synchronized void remove(Long taskId) {
+            TaskState state = tasks.remove(taskId);
+            if (state == null) {
+                return;
+            }
+            int bucket = state.bucket();
+            if (bucket >= 0) {
+                adjust(state, bucket, -1);
+            }
+            if (state.overdue) {
+                adjust(state, OVERDUE, -1);
+            } else {
+                deadlines.remove(state);
+            }
+        }
+
+        synchronized TaskStatsDto get(Long userId, LocalDateTime now) {
+            advance(now);
+            long[] counts = userCounts.get(userId);
+            TaskStatsDto stats = new TaskStatsDto();
+            if (counts != null) {
+                stats.setPending(counts[PENDING]);
+                stats.setPendingReview(counts[REVIEW]);
+                stats.setCompleted(counts[COMPLETED]);
+                stats.setOverdue(counts[OVERDUE]);
+            }
+            return stats;
+        }
+
+        synchronized void describe(Map<String, Object> stats) {
+            stats.put("tasks", tasks.size());
+            stats.put("users", userCounts.size());
+            stats.put("pendingDeadlines", deadlines.size());
+        }
+
+        /**
+         * 把结束时间早于now的任务移入逾期计数，时间回拨时不回退
+         */
+        private void advance(LocalDateTime now) {
+            if (horizon != null && !now.isAfter(horizon)) {
+                return;
+            }
+            horizon = now;
+            while (!deadlines.isEmpty() && deadlines.first().endTime.isBefore(now)) {
+                TaskState state = deadlines.pollFirst();
+                state.overdue = true;
+                adjust(state, OVERDUE, 1);
+            }
+        }
+
+        private void adjust(TaskState state, int index, long delta) {
+            for (Long userId : state.userIds) {
+                long[] counts = userCounts.computeIfAbsent(userId, key -> new long[4]);
+                counts[index] += delta;
+                if (counts[PENDING] == 0 && counts[REVIEW] == 0 && counts[COMPLETED] == 0 && counts[OVERDUE] == 0) {
+                    userCounts.remove(userId);
+                }
+            }
+        }
+    }
+
+    /**
+     * 任务在索引中的状态
+     */
+    private static class TaskState {
+
+        private static final Comparator<TaskState> DEADLINE_ORDER = Comparator
+                .comparing((TaskState state) -> state.endTime)
+                .thenComparing(state -> state.id);
+
+        private final Long id;
+        private final Long[] userIds;
+        private final Integer status;
+        private final LocalDateTime endTime;
+        private boolean overdue;
+
+        private TaskState(DeyochTask task) {
+            this.id = task.getId();
+            Long creatorId = task.getCreatorId();
+            Long assigneeId = task.getAssigneeId();
+            if (creatorId == null) {
+                this.userIds = assigneeId == null ? new Long[0] : new Long[]{assigneeId};
+            } else if (assigneeId == null || assigneeId.equals(creatorId)) {
+                this.userIds = new Long[]{creatorId};
+            } else {
+                this.userIds = new Long[]{creatorId, assigneeId};
+            }
+            this.status = task.getStatus();
+            this.endTime = task.getEndTime();
+        }
+
+        /**
+         * 状态对应的计数器，状态为空或未知时不计数
+         */
+        private int bucket() {
+            if (status == null) {
+                return -1;
+            }
+            return switch (status) {
+                case 0, 1 -> Counters.PENDING;
+                case 2 -> Counters.REVIEW;
+                case 3 -> Counters.COMPLETED;
+                default -> -1;
+            };
+        }
+
+        /**
+         * 是否未完成（与SQL中 status &lt;&gt; 3 一致，状态为空时不算）
+         */
+        private boolean isOpen() {
+            return status != null && status != 3;
+        }
+    }
+}
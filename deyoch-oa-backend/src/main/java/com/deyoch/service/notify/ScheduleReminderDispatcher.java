@@ -0,0 +1,520 @@
+package com.deyoch.service.notify;
+
+import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
+import com.deyoch.common.result.Result;
+import com.deyoch.dto.TemplateMessageDto;
+import com.deyoch.entity.DeyochSchedule;
+import com.deyoch.entity.DeyochScheduleSeries;
+import com.deyoch.entity.DeyochScheduleSeriesException;
+import com.deyoch.entity.DeyochScheduleShare;
+import com.deyoch.mapper.DeyochScheduleMapper;
+import com.deyoch.mapper.DeyochScheduleSeriesExceptionMapper;
+import com.deyoch.mapper.DeyochScheduleSeriesMapper;
+import com.deyoch.mapper.DeyochScheduleShareMapper;
+import com.deyoch.service.MessageService;
+import com.deyoch.service.UserInfoConverter;
+import com.deyoch.service.schedule.Recurrence;
+import com.deyoch.service.schedule.ScheduleOccurrenceExpander;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * 日程开始提醒
+ * 普通日程：时间轮只装载提醒时间在接下来horizon内的日程，按refill间隔把窗口向前推进，每次只按start_time范围查询新增的一段，
+ * 不做整表扫描；日程创建、修改、删除提交后按ID重新读取，只在已装载的窗口内重新放置定时器（O(1)），窗口外的由后续推进装载
+ * 重复日程：每个系列只放一个定时器，指向下一次实例的提醒时间，到期后由重复规则惰性算出再下一次；
+ * 被单独修改时间的实例另放一次性定时器，被修改或取消的原定实例由规则定时器跳过
+ * 到期的提醒按日程所有者和被分享用户合并后，按schedule_remind模板批量写入消息表并通过WebSocket推送
+ * 已过提醒时间的日程不补发；时间轮的推进和线程模型见TimingWheelDispatcher
+ *
+ * @author deyoch-oa
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class ScheduleReminderDispatcher extends TimingWheelDispatcher<ScheduleReminderDispatcher.ReminderEvent> {
+
+    private static final String TEMPLATE_TYPE = "schedule_remind";
+
+    private static final DateTimeFormatter TIME_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm");
+
+    private final DeyochScheduleMapper deyochScheduleMapper;
+    private final DeyochScheduleShareMapper deyochScheduleShareMapper;
+    private final DeyochScheduleSeriesMapper deyochScheduleSeriesMapper;
+    private final DeyochScheduleSeriesExceptionMapper deyochScheduleSeriesExceptionMapper;
+    private final MessageService messageService;
+    private final UserInfoConverter userInfoConverter;
+
+    /**
+     * 时间轮tick（毫秒），即提醒的最大延迟
+     */
+    @Value("${schedule.reminder.tick:1000}")
+    private long tick = 1000L;
+
+    /**
+     * 开始前提醒的提前量（毫秒）
+     */
+    @Value("${schedule.reminder.remind-before:900000}")
+    private long remindBefore = 900000L;
+
+    /**
+     * 普通日程装载窗口的长度（毫秒）
+     */
+    @Value("${schedule.reminder.horizon:3600000}")
+    private long horizon = 3600000L;
+
+    /**
+     * 单批发送的消息数上限
+     */
+    @Value("${schedule.reminder.batch-size:200}")
+    private int batchSize = 200;
+
+    /**
+     * 普通日程已装载到的提醒时间（毫秒时间戳），提醒时间早于它的日程都已放入时间轮
+     */
+    private long loadedUntil;
+
+    /**
+     * 已装载的重复日程系列，只在ticker线程上访问
+     */
+    private final Map<Long, SeriesState> seriesStates = new HashMap<>();
+
+    @PostConstruct
+    public void init() {
+        start("schedule-reminder");
+    }
+
+    /**
+     * 应用启动完成后装载定时器并开始推进时间轮和装载窗口
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        startTicking(this::load);
+        scheduleWithFixedDelay(this::refill, Math.max(tick, horizon / 4));
+    }
+
+    /**
+     * 日程变更后重新读取该日程并重新放置提醒，在当前事务提交后执行
+     * @param scheduleId 日程ID（日程已删除时取消提醒）
+     */
+    public void refreshSchedule(Long scheduleId) {
+        if (scheduleId == null) {
+            return;
+        }
+        submitAfterCommit(() -> reloadSchedule(scheduleId), "日程" + scheduleId);
+    }
+
+    /**
+     * 重复日程系列或其单个实例变更后重新装载该系列的提醒，在当前事务提交后执行
+     * @param seriesId 系列ID（系列已删除时取消提醒）
+     */
+    public void refreshSeries(Long seriesId) {
+        if (seriesId == null) {
+            return;
+        }
+        submitAfterCommit(() -> reloadSeries(seriesId), "重复日程" + seriesId);
+    }
+
+    /**
+     * 从当前时间开始装载普通日程的窗口和全部重复日程
+     */
+    void load() {
+        loadedUntil = currentMillis();
+        refill();
+        loadSeries();
+    }
+
+    /**
+     * 把普通日程的装载窗口推进到当前时间之后horizon处，只查询新增的一段
+     * 失败时窗口不推进，下次重试同一段
+     */
+    void refill() {
+        try {
+            long nowMs = currentMillis();
+            long until = nowMs + horizon;
+            if (until <= loadedUntil) {
+                return;
+            }
+            // 提醒时间在[loadedUntil, until)内的日程，即开始时间在该范围加上提前量之内，按start_time索引范围查询
+            List<DeyochSchedule> schedules = deyochScheduleMapper.selectList(scheduleColumns()
+                    .ge(DeyochSchedule::getStartTime, toLocal(loadedUntil + remindBefore))
+                    .lt(DeyochSchedule::getStartTime, toLocal(until + remindBefore)));
+            long from = loadedUntil;
+            loadedUntil = until;
+            for (DeyochSchedule schedule : schedules) {
+                placeSchedule(schedule, nowMs);
+            }
+            log.debug("日程提醒装载 {} ~ {}：{}个日程", toLocal(from), toLocal(until), schedules.size());
+        } catch (Exception e) {
+            log.warn("日程提醒装载失败，下次推进时重试", e);
+        }
+    }
+
+    /**
+     * 装载全部未结束的重复日程系列及其未来的例外，只在启动时执行一次，失败时在重试间隔后重新装载
+     */
+    void loadSeries() {
+        try {
+            long nowMs = currentMillis();
+            LocalDateTime now = toLocal(nowMs);
+            List<DeyochScheduleSeries> seriesList = deyochScheduleSeriesMapper.selectList(
+                    new LambdaQueryWrapper<DeyochScheduleSeries>()
+                            .isNull(DeyochScheduleSeries::getLastStartTime)
+                            .or()
+                            .ge(DeyochScheduleSeries::getLastStartTime, now));
+            Map<Long, List<DeyochScheduleSeriesException>> exceptions = new HashMap<>();
+            if (!seriesList.isEmpty()) {
+                for (DeyochScheduleSeriesException exception : deyochScheduleSeriesExceptionMapper.selectList(
+                        futureExceptions(now))) {
+                    exceptions.computeIfAbsent(exception.getSeriesId(), id -> new ArrayList<>()).add(exception);
+                }
+            }
+            for (DeyochScheduleSeries series : seriesList) {
+                placeSeries(series, exceptions.getOrDefault(series.getId(), List.of()), nowMs);
+            }
+            log.info("日程提醒装载完成：{}个重复日程，{}个定时器", seriesStates.size(), wheel.size());
+        } catch (Exception e) {
+            log.warn("重复日程提醒装载失败，{}毫秒后重试", RELOAD_INTERVAL, e);
+            retryLater(this::loadSeries);
+        }
+    }
+
+    /**
+     * 重复日程的规则定时器到期后放置下一次实例
+     */
+    @Override
+    protected void onExpired(List<ReminderEvent> events, long nowMs) {
+        for (ReminderEvent event : events) {
+            if (event.kind == EventKind.SERIES_RULE) {
+                SeriesState state = seriesStates.get(event.relatedId);
+                if (state != null) {
+                    placeNextOccurrence(state, event.originalStart.plusNanos(1), nowMs);
+                }
+            }
+        }
+    }
+
+    /**
+     * 重新读取日程并重新放置提醒，在ticker线程上执行
+     * @param scheduleId 日程ID
+     */
+    void reloadSchedule(Long scheduleId) {
+        try {
+            DeyochSchedule schedule = deyochScheduleMapper.selectOne(scheduleColumns().eq(DeyochSchedule::getId, scheduleId));
+            if (schedule == null) {
+                wheel.cancel(scheduleKey(scheduleId));
+            } else {
+                placeSchedule(schedule, currentMillis());
+            }
+        } catch (Exception e) {
+            log.warn("日程{}的提醒更新失败", scheduleId, e);
+        }
+    }
+
+    /**
+     * 重新读取系列及其未来的例外并重新放置提醒，在ticker线程上执行
+     * @param seriesId 系列ID
+     */
+    void reloadSeries(Long seriesId) {
+        try {
+            DeyochScheduleSeries series = deyochScheduleSeriesMapper.selectById(seriesId);
+            if (series == null) {
+                SeriesState state = seriesStates.remove(seriesId);
+                if (state != null) {
+                    cancelSeries(state);
+                }
+                return;
+            }
+            long nowMs = currentMillis();
+            List<DeyochScheduleSeriesException> exceptions = deyochScheduleSeriesExceptionMapper.selectList(
+                    futureExceptions(toLocal(nowMs)).eq(DeyochScheduleSeriesException::getSeriesId, seriesId));
+            placeSeries(series, exceptions, nowMs);
+        } catch (Exception e) {
+            log.warn("重复日程{}的提醒更新失败", seriesId, e);
+        }
+    }
+
+    /**
+     * 按日程当前时间重新放置提醒：提醒时间已过或不在已装载窗口内的只取消，窗口外的由后续推进装载
+     */
+    private void placeSchedule(DeyochSchedule schedule, long nowMs) {
+        String key = scheduleKey(schedule.getId());
+        wheel.cancel(key);
+        if (schedule.getStartTime() == null) {
+            return;
+        }
+        long remindAt = toMillis(schedule.getStartTime()) - remindBefore;
+        if (remindAt <= nowMs || remindAt >= loadedUntil) {
+            return;
+        }
+        wheel.schedule(key, remindAt, new ReminderEvent(EventKind.SCHEDULE, schedule.getId(), schedule.getUserId(),
+                schedule.getTitle(), schedule.getLocation(), schedule.getStartTime(), schedule.getEndTime(), null));
+    }
+
+    /**
+     * 重新放置系列的规则定时器和被修改实例的一次性定时器
+     */
+    private void placeSeries(DeyochScheduleSeries series, List<DeyochScheduleSeriesException> exceptions, long nowMs) {
+        SeriesState previous = seriesStates.remove(series.getId());
+        if (previous != null) {
+            cancelSeries(previous);
+        }
+        Recurrence recurrence;
+        try {
+            recurrence = ScheduleOccurrenceExpander.recurrenceOf(series);
+        } catch (IllegalArgumentException e) {
+            log.warn("重复日程系列 {} 的规则无效，不发送提醒：{}", series.getId(), e.getMessage());
+            return;
+        }
+        SeriesState state = new SeriesState(series, recurrence);
+        seriesStates.put(series.getId(), state);
+
+        for (DeyochScheduleSeriesException exception : exceptions) {
+            state.exceptionStarts.add(exception.getOriginalStartTime());
+            if (Integer.valueOf(1).equals(exception.getCancelled())) {
+                continue;
+            }
+            LocalDateTime startTime = exception.getStartTime() != null
+                    ? exception.getStartTime() : exception.getOriginalStartTime();
+            LocalDateTime endTime = exception.getEndTime() != null
+                    ? exception.getEndTime() : startTime.plus(state.duration);
+            long remindAt = toMillis(startTime) - remindBefore;
+            if (remindAt > nowMs) {
+                String key = seriesKey(series.getId()) + ":" + exception.getOriginalStartTime();
+                state.exceptionKeys.add(key);
+                wheel.schedule(key, remindAt, new ReminderEvent(EventKind.SERIES_EXCEPTION, series.getId(),
+                        series.getUserId(),
+                        exception.getTitle() != null ? exception.getTitle() : series.getTitle(),
+                        exception.getLocation() != null ? exception.getLocation() : series.getLocation(),
+                        startTime, endTime, exception.getOriginalStartTime()));
+            }
+        }
+        placeNextOccurrence(state, toLocal(nowMs + remindBefore), nowMs);
+    }
+
+    /**
+     * 放置系列在from之后第一个没有例外的实例的提醒，系列结束时不再放置
+     */
+    private void placeNextOccurrence(SeriesState state, LocalDateTime from, long nowMs) {
+        Iterator<LocalDateTime> starts = state.recurrence.startsFrom(from);
+        while (starts.hasNext()) {
+            LocalDateTime start = starts.next();
+            if (state.exceptionStarts.contains(start)) {
+                continue;
+            }
+            long remindAt = toMillis(start) - remindBefore;
+            if (remindAt <= nowMs) {
+                continue;
+            }
+            DeyochScheduleSeries series = state.series;
+            wheel.schedule(seriesKey(series.getId()), remindAt, new ReminderEvent(EventKind.SERIES_RULE,
+                    series.getId(), series.getUserId(), series.getTitle(), series.getLocation(),
+                    start, start.plus(state.duration), start));
+            return;
+        }
+    }
+
+    private void cancelSeries(SeriesState state) {
+        wheel.cancel(seriesKey(state.series.getId()));
+        for (String key : state.exceptionKeys) {
+            wheel.cancel(key);
+        }
+    }
+
+    @Override
+    protected String name() {
+        return "日程提醒";
+    }
+
+    @Override
+    protected long tick() {
+        return tick;
+    }
+
+    @Override
+    protected int batchSize() {
+        return batchSize;
+    }
+
+    @Override
+    protected void send(List<ReminderEvent> events) {
+        // 普通日程同时提醒被分享的用户，一次查询取出整批日程的分享记录
+        Set<Long> scheduleIds = new LinkedHashSet<>();
+        for (ReminderEvent event : events) {
+            if (event.kind == EventKind.SCHEDULE) {
+                scheduleIds.add(event.relatedId);
+            }
+        }
+        Map<Long, Set<Long>> sharedUserIds = new HashMap<>();
+        if (!scheduleIds.isEmpty()) {
+            for (DeyochScheduleShare share : deyochScheduleShareMapper.selectList(new LambdaQueryWrapper<DeyochScheduleShare>()
+                    .in(DeyochScheduleShare::getScheduleId, scheduleIds))) {
+                sharedUserIds.computeIfAbsent(share.getScheduleId(), id -> new LinkedHashSet<>()).add(share.getUserId());
+            }
+        }
+
+        Map<ReminderEvent, Set<Long>> receivers = new HashMap<>();
+        Set<Long> userIds = new LinkedHashSet<>();
+        for (ReminderEvent event : events) {
+            Set<Long> receiverIds = new LinkedHashSet<>();
+            if (event.userId != null) {
+                receiverIds.add(event.userId);
+            }
+            if (event.kind == EventKind.SCHEDULE) {
+                receiverIds.addAll(sharedUserIds.getOrDefault(event.relatedId, Set.of()));
+            }
+            receivers.put(event, receiverIds);
+            userIds.addAll(receiverIds);
+        }
+        Map<Long, String> names = userInfoConverter.convertUserIdsToNames(userIds);
+
+        List<TemplateMessageDto> messages = new ArrayList<>();
+        for (ReminderEvent event : events) {
+            for (Long receiverId : receivers.get(event)) {
+                Map<String, Object> variables = new HashMap<>();
+                variables.put("receiverName", names.getOrDefault(receiverId, ""));
+                variables.put("scheduleTitle", event.title);
+                variables.put("startTime", event.startTime.format(TIME_FORMAT));
+                variables.put("endTime", event.endTime != null ? event.endTime.format(TIME_FORMAT) : "");
+                variables.put("location", event.location != null ? event.location : "");
+
+                TemplateMessageDto message = new TemplateMessageDto();
+                message.setReceiverId(receiverId);
+                message.setVariables(variables);
+                message.setRelatedType(event.kind == EventKind.SCHEDULE ? "schedule" : "schedule_series");
+                message.setRelatedId(event.relatedId);
+                messages.add(message);
+            }
+        }
+        if (messages.isEmpty()) {
+            return;
+        }
+        Result<Void> result = messageService.sendBatchMessageByTemplate(TEMPLATE_TYPE, messages);
+        if (result.getCode() == 200) {
+            log.info("发送日程提醒：{}个日程，{}条消息", events.size(), messages.size());
+        } else {
+            log.warn("发送日程提醒失败：{}", result.getMessage());
+        }
+    }
+
+    /**
+     * 原定时间或修改后的时间在当前时间之后的例外
+     */
+    private static LambdaQueryWrapper<DeyochScheduleSeriesException> futureExceptions(LocalDateTime now) {
+        return new LambdaQueryWrapper<DeyochScheduleSeriesException>()
+                .and(wrapper -> wrapper
+                        .ge(DeyochScheduleSeriesException::getOriginalStartTime, now)
+                        .or()
+                        .ge(DeyochScheduleSeriesException::getStartTime, now));
+    }
+
+    private static LambdaQueryWrapper<DeyochSchedule> scheduleColumns() {
+        return new LambdaQueryWrapper<DeyochSchedule>()
+                .select(DeyochSchedule::getId, DeyochSchedule::getTitle, DeyochSchedule::getUserId,
+                        DeyochSchedule::getLocation, DeyochSchedule::getStartTime, DeyochSchedule::getEndTime);
+    }
+
+    private static String scheduleKey(Long scheduleId) {
+        return "schedule:" + scheduleId;
+    }
+
+    private static String seriesKey(Long seriesId) {
+        return "series:" + seriesId;
+    }
+
+    /**
+     * 提醒来源
+     */
+    private enum EventKind {
+        /**
+         * 普通日程
+         */
+        SCHEDULE,
+        /**
+         * 重复日程按规则生成的实例
+         */
+        SERIES_RULE,
+        /**
+         * 重复日程被单独修改的实例
+         */
+        SERIES_EXCEPTION
+    }
+
+    /**
+     * 已装载的重复日程系列
+     */
+    private static class SeriesState {
+
+        private final DeyochScheduleSeries series;
+        private final Recurrence recurrence;
+        private final Duration duration;
+
+        /**
+         * 有例外的实例原定开始时间，规则定时器跳过这些实例
+         */
+        private final Set<LocalDateTime> exceptionStarts = new HashSet<>();
+
+        /**
+         * 被修改实例的一次性定时器键
+         */
+        private final List<String> exceptionKeys = new ArrayList<>();
+
+        private SeriesState(DeyochScheduleSeries series, Recurrence recurrence) {
+            this.series = series;
+            this.recurrence = recurrence;
+            this.duration = Duration.between(series.getStartTime(), series.getEndTime());
+        }
+    }
+
+    /**
+     * 到期的提醒，保存放置定时器时的日程快照
+     */
+    static class ReminderEvent {
+
+        private final EventKind kind;
+
+        /**
+         * 普通日程为日程ID，重复日程为系列ID
+         */
+        private final Long relatedId;
+        private final Long userId;
+        private final String title;
+        private final String location;
+        private final LocalDateTime startTime;
+        private final LocalDateTime endTime;
+
+        /**
+         * 重复日程实例的原定开始时间
+         */
+        private final LocalDateTime originalStart;
+
+        private ReminderEvent(EventKind kind, Long relatedId, Long userId, String title, String location,
+                              LocalDateTime startTime, LocalDateTime endTime, LocalDateTime originalStart) {
+            this.kind = kind;
+            this.relatedId = relatedId;
+            this.userId = userId;
+            this.title = title;
+            this.location = location;
+            this.startTime = startTime;
+            this.endTime = endTime;
+            this.originalStart = originalStart;
+        }
+    }
+}
@@ -0,0 +1,268 @@
+package com.deyoch.service.notify;
+
+import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
+import com.deyoch.common.result.Result;
+import com.deyoch.dto.TemplateMessageDto;
+import com.deyoch.entity.DeyochTask;
+import com.deyoch.mapper.DeyochTaskMapper;
+import com.deyoch.service.MessageService;
+import com.deyoch.service.UserInfoConverter;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * 任务截止时间通知
+ * 启动时把未完成且未到截止时间的任务装入分层时间轮，每个任务两个定时器：截止前提醒负责人，截止时通知负责人和创建人已逾期
+ * 任务创建、修改、分配、状态变更提交后按任务ID重新读取并重新放置定时器，任务完成或删除时取消；运行期间不轮询任务表
+ * 同一tick到期的事件合并后按task_update模板批量发送；时间轮的推进和线程模型见TimingWheelDispatcher
+ *
+ * @author deyoch-oa
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class TaskDeadlineNotifier extends TimingWheelDispatcher<TaskDeadlineNotifier.DeadlineEvent> {
+
+    private static final String TEMPLATE_TYPE = "task_update";
+    private static final String RELATED_TYPE = "task";
+
+    private static final DateTimeFormatter DEADLINE_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm");
+
+    private final DeyochTaskMapper deyochTaskMapper;
+    private final MessageService messageService;
+    private final UserInfoConverter userInfoConverter;
+
+    /**
+     * 时间轮tick（毫秒），即通知的最大延迟
+     */
+    @Value("${task.deadline.tick:1000}")
+    private long tick = 1000L;
+
+    /**
+     * 截止前提醒的提前量（毫秒），0表示只发送逾期通知
+     */
+    @Value("${task.deadline.remind-before:3600000}")
+    private long remindBefore = 3600000L;
+
+    /**
+     * 单批发送的消息数上限
+     */
+    @Value("${task.deadline.batch-size:200}")
+    private int batchSize = 200;
+
+    @PostConstruct
+    public void init() {
+        start("task-deadline");
+    }
+
+    /**
+     * 应用启动完成后装载定时器并开始推进时间轮
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        startTicking(this::load);
+    }
+
+    /**
+     * 任务变更后重新读取该任务并重新放置定时器，在当前事务提交后执行
+     * @param taskId 任务ID（任务已删除时取消定时器）
+     */
+    public void refreshTask(Long taskId) {
+        if (taskId == null) {
+            return;
+        }
+        submitAfterCommit(() -> reload(taskId), "任务" + taskId);
+    }
+
+    /**
+     * 装载全部未完成且未到截止时间的任务，失败时在重试间隔后重新装载
+     * 启动前已经逾期的任务不再补发通知
+     */
+    void load() {
+        try {
+            long now = currentMillis();
+            List<DeyochTask> tasks = deyochTaskMapper.selectList(columns()
+                    .ne(DeyochTask::getStatus, 3)
+                    .gt(DeyochTask::getEndTime, toLocal(now)));
+            for (DeyochTask task : tasks) {
+                schedule(task, now);
+            }
+            log.info("任务截止通知装载完成：{}个任务，{}个定时器", tasks.size(), wheel.size());
+        } catch (Exception e) {
+            log.warn("任务截止通知装载失败，{}毫秒后重试", RELOAD_INTERVAL, e);
+            retryLater(this::load);
+        }
+    }
+
+    /**
+     * 重新读取任务并重新放置定时器，在ticker线程上执行
+     * @param taskId 任务ID
+     */
+    void reload(Long taskId) {
+        try {
+            DeyochTask task = deyochTaskMapper.selectOne(columns().eq(DeyochTask::getId, taskId));
+            if (task == null) {
+                cancel(taskId);
+            } else {
+                schedule(task, currentMillis());
+            }
+        } catch (Exception e) {
+            log.warn("任务{}的截止通知更新失败", taskId, e);
+        }
+    }
+
+    /**
+     * 按任务当前状态重新放置定时器：已完成、无截止时间或已过截止时间的任务只取消
+     * 截止前提醒的时间已过时（包括已发送过提醒）不再放置
+     */
+    private void schedule(DeyochTask task, long nowMs) {
+        cancel(task.getId());
+        if (task.getStatus() == null || task.getStatus() == 3 || task.getEndTime() == null) {
+            return;
+        }
+        long deadline = toMillis(task.getEndTime());
+        if (deadline <= nowMs) {
+            return;
+        }
+        wheel.schedule(key(task.getId(), EventKind.OVERDUE), deadline, new DeadlineEvent(task, EventKind.OVERDUE));
+        if (remindBefore > 0 && deadline - remindBefore > nowMs) {
+            wheel.schedule(key(task.getId(), EventKind.DUE_SOON), deadline - remindBefore,
+                    new DeadlineEvent(task, EventKind.DUE_SOON));
+        }
+    }
+
+    private void cancel(Long taskId) {
+        for (EventKind kind : EventKind.values()) {
+            wheel.cancel(key(taskId, kind));
+        }
+    }
+
+    @Override
+    protected String name() {
+        return "任务截止通知";
+    }
+
+    @Override
+    protected long tick() {
+        return tick;
+    }
+
+    @Override
+    protected int batchSize() {
+        return batchSize;
+    }
+
+    @Override
+    protected void send(List<DeadlineEvent> events) {
+        Set<Long> userIds = new LinkedHashSet<>();
+        for (DeadlineEvent event : events) {
+            userIds.addAll(event.receiverIds());
+        }
+        Map<Long, String> names = userInfoConverter.convertUserIdsToNames(userIds);
+
+        List<TemplateMessageDto> messages = new ArrayList<>();
+        for (DeadlineEvent event : events) {
+            for (Long receiverId : event.receiverIds()) {
+                Map<String, Object> variables = new HashMap<>();
+                variables.put("receiverName", names.getOrDefault(receiverId, ""));
+                variables.put("taskTitle", event.title);
+                variables.put("updateType", event.kind.label);
+                variables.put("deadline", event.endTime.format(DEADLINE_FORMAT));
+                variables.put("updateContent", event.kind.content);
+
+                TemplateMessageDto message = new TemplateMessageDto();
+                message.setReceiverId(receiverId);
+                message.setVariables(variables);
+                message.setRelatedType(RELATED_TYPE);
+                message.setRelatedId(event.taskId);
+                messages.add(message);
+            }
+        }
+        if (messages.isEmpty()) {
+            return;
+        }
+        Result<Void> result = messageService.sendBatchMessageByTemplate(TEMPLATE_TYPE, messages);
+        if (result.getCode() == 200) {
+            log.info("发送任务截止通知：{}个事件，{}条消息", events.size(), messages.size());
+        } else {
+            log.warn("发送任务截止通知失败：{}", result.getMessage());
+        }
+    }
+
+    private static LambdaQueryWrapper<DeyochTask> columns() {
+        return new LambdaQueryWrapper<DeyochTask>()
+                .select(DeyochTask::getId, DeyochTask::getTitle, DeyochTask::getCreatorId,
+                        DeyochTask::getAssigneeId, DeyochTask::getStatus, DeyochTask::getEndTime);
+    }
+
+    private static String key(Long taskId, EventKind kind) {
+        return taskId + ":" + kind.name();
+    }
+
+    /**
+     * 截止事件类型
+     */
+    private enum EventKind {
+
+        DUE_SOON("即将到期", "任务即将到达截止时间，请及时处理"),
+        OVERDUE("已逾期", "任务已超过截止时间仍未完成，请尽快处理");
+
+        private final String label;
+        private final String content;
+
+        EventKind(String label, String content) {
+            this.label = label;
+            this.content = content;
+        }
+    }
+
+    /**
+     * 到期事件，保存放置定时器时的任务快照
+     */
+    static class DeadlineEvent {
+
+        private final Long taskId;
+        private final String title;
+        private final Long creatorId;
+        private final Long assigneeId;
+        private final LocalDateTime endTime;
+        private final EventKind kind;
+
+        private DeadlineEvent(DeyochTask task, EventKind kind) {
+            this.taskId = task.getId();
+            this.title = task.getTitle();
+            this.creatorId = task.getCreatorId();
+            this.assigneeId = task.getAssigneeId();
+            this.endTime = task.getEndTime();
+            this.kind = kind;
+        }
+
+        /**
+         * 即将到期只通知负责人（未分配时通知创建人），逾期同时通知负责人和创建人
+         */
+        private Set<Long> receiverIds() {
+            Set<Long> receiverIds = new LinkedHashSet<>();
+            if (assigneeId != null) {
+                receiverIds.add(assigneeId);
+            }
+            if (creatorId != null && (kind == EventKind.OVERDUE || receiverIds.isEmpty())) {
+                receiverIds.add(creatorId);
+            }
+            return receiverIds;
+        }
+    }
+}
@@ -0,0 +1,172 @@
+package com.deyoch.service.notify;
+
+import com.deyoch.utils.HierarchicalTimingWheel;
+import com.deyoch.utils.ReloadThrottle;
+import com.deyoch.utils.TransactionUtil;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 基于分层时间轮的定时通知基类
+ * 时间轮由单个ticker线程按tick推进，同一tick到期的事件按批发送；装载、增量更新、推进和发送都在该线程上串行执行，
+ * 后提交的变更总是后应用，子类的状态只在该线程上访问时不需要加锁
+ * 当前时间统一取自clock，测试时替换为可控的时钟后直接调用装载和推进方法
+ *
+ * @param <E> 到期事件类型
+ * @author deyoch-oa
+ */
+@Slf4j
+abstract class TimingWheelDispatcher<E> {
+
+    /**
+     * 加载失败后的重试间隔（毫秒）
+     */
+    protected static final long RELOAD_INTERVAL = ReloadThrottle.DEFAULT_INTERVAL;
+
+    private static final int WHEEL_SIZE = 64;
+    private static final int WHEEL_LEVELS = 4;
+
+    private Clock clock = Clock.systemDefaultZone();
+
+    protected HierarchicalTimingWheel<String, E> wheel;
+    private ScheduledExecutorService ticker;
+
+    /**
+     * 通知名称，用于日志
+     */
+    protected abstract String name();
+
+    /**
+     * 时间轮tick（毫秒），即通知的最大延迟
+     */
+    protected abstract long tick();
+
+    /**
+     * 单批发送的消息数上限
+     */
+    protected abstract int batchSize();
+
+    /**
+     * 发送一批到期事件
+     * @param events 到期事件，按到期顺序排列
+     */
+    protected abstract void send(List<E> events);
+
+    /**
+     * 到期事件发送前的处理，默认不处理
+     * @param events 本次到期的全部事件
+     * @param nowMs 当前时间（毫秒时间戳）
+     */
+    protected void onExpired(List<E> events, long nowMs) {
+    }
+
+    /**
+     * 创建时间轮和ticker线程，由子类初始化时调用
+     * @param threadName 线程名
+     */
+    protected void start(String threadName) {
+        wheel = new HierarchicalTimingWheel<>(tick(), WHEEL_SIZE, WHEEL_LEVELS, clock.millis());
+        ticker = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, threadName);
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        ticker.shutdownNow();
+    }
+
+    /**
+     * 在ticker线程上执行装载，之后按tick推进时间轮
+     * @param load 装载操作
+     */
+    protected void startTicking(Runnable load) {
+        ticker.execute(load);
+        ticker.scheduleWithFixedDelay(() -> fire(clock.millis()), tick(), tick(), TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * 在ticker线程上按固定间隔执行
+     * @param task 任务
+     * @param intervalMs 间隔（毫秒）
+     */
+    protected void scheduleWithFixedDelay(Runnable task, long intervalMs) {
+        ticker.scheduleWithFixedDelay(task, intervalMs, intervalMs, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * 在重试间隔后于ticker线程上重新执行，应用已关闭时忽略
+     * @param task 任务
+     */
+    protected void retryLater(Runnable task) {
+        try {
+            ticker.schedule(task, RELOAD_INTERVAL, TimeUnit.MILLISECONDS);
+        } catch (RejectedExecutionException ignored) {
+            // 应用已关闭
+        }
+    }
+
+    /**
+     * 在当前事务提交后提交到ticker线程执行，无事务时立即提交
+     * @param action 增量更新操作
+     * @param target 变更对象，用于日志
+     */
+    protected void submitAfterCommit(Runnable action, String target) {
+        TransactionUtil.afterCommit(() -> {
+            try {
+                ticker.execute(action);
+            } catch (RejectedExecutionException e) {
+                log.debug("{}已停止，忽略{}的变更", name(), target);
+            }
+        });
+    }
+
+    /**
+     * 推进时间轮并批量发送到期事件
+     * @param nowMs 当前时间（毫秒时间戳）
+     */
+    void fire(long nowMs) {
+        try {
+            List<E> events = wheel.advance(nowMs);
+            onExpired(events, nowMs);
+            int size = batchSize();
+            for (int from = 0; from < events.size(); from += size) {
+                send(events.subList(from, Math.min(from + size, events.size())));
+            }
+        } catch (Exception e) {
+            // 异常不能抛出，否则定时推进会停止
+            log.error("{}发送失败", name(), e);
+        }
+    }
+
+    /**
+     * 替换时钟，需在初始化之前调用
+     * @param clock 时钟
+     */
+    void setClock(Clock clock) {
+        this.clock = clock;
+    }
+
+    protected long currentMillis() {
+        return clock.millis();
+    }
+
+    protected long toMillis(LocalDateTime time) {
+        return time.atZone(clock.getZone()).toInstant().toEpochMilli();
+    }
+
+    protected LocalDateTime toLocal(long millis) {
+        return LocalDateTime.ofInstant(Instant.ofEpochMilli(millis), clock.getZone());
+    }
+}
@@ -0,0 +1,185 @@
+package com.deyoch.service.schedule;
+
+import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
+import com.deyoch.entity.DeyochSchedule;
+import com.deyoch.mapper.DeyochScheduleMapper;
+import com.deyoch.utils.LruCache;
+import com.deyoch.utils.TransactionUtil;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 日程忙碌时间索引
+ * 供共同空闲时段查找和日程冲突检测使用，冲突查询在用户的区间树上为O(log n + k)
+ * 按用户缓存日程区间（IntervalSet），首次访问时加载，多个未命中的用户合并为一次按user_id的索引查询；
+ * 超过容量时淘汰最久未访问的用户
+ * 日程创建、修改、删除提交后按日程ID重新读取，只更新已缓存用户的区间集合，未缓存的用户下次访问时再加载
+ * 时间以本地时间的秒数表示，只用于比较先后，不涉及时区换算
+ *
+ * @author deyoch-oa
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class FreeBusyIndex {
+
+    private final DeyochScheduleMapper deyochScheduleMapper;
+
+    /**
+     * 缓存的最大用户数
+     */
+    @Value("${schedule.free-busy.max-users:2000}")
+    private int maxUsers = 2000;
+
+    /**
+     * 写入锁，串行化增量更新，保证后提交的变更总是后应用
+     */
+    private final Object writeLock = new Object();
+
+    private final LruCache<Long, IntervalSet> cache = new LruCache<>(() -> maxUsers);
+
+    /**
+     * 更新纪元，每次增量更新递增
+     * 加载开始后发生过更新时不回写缓存，避免把更新前读到的旧数据写回
+     */
+    private final AtomicLong updateEpoch = new AtomicLong();
+
+    /**
+     * 本地时间转为索引使用的秒数
+     * @param time 本地时间
+     * @return 秒数
+     */
+    public static long toKey(LocalDateTime time) {
+        return time.toEpochSecond(ZoneOffset.UTC);
+    }
+
+    /**
+     * 索引使用的秒数转为本地时间
+     * @param key 秒数
+     * @return 本地时间
+     */
+    public static LocalDateTime fromKey(long key) {
+        return LocalDateTime.ofEpochSecond(key, 0, ZoneOffset.UTC);
+    }
+
+    /**
+     * 获取用户的日程区间集合
+     * @param userId 用户ID
+     * @return 区间集合
+     */
+    public IntervalSet get(Long userId) {
+        return getAll(List.of(userId)).get(userId);
+    }
+
+    /**
+     * 批量获取用户的日程区间集合，未缓存的用户一次查询加载
+     * @param userIds 用户ID
+     * @return 用户ID到区间集合的映射，包含每个请求的用户
+     */
+    public Map<Long, IntervalSet> getAll(Collection<Long> userIds) {
+        Map<Long, IntervalSet> result = new HashMap<>();
+        List<Long> missing = new ArrayList<>();
+        synchronized (cache) {
+            for (Long userId : new LinkedHashSet<>(userIds)) {
+                IntervalSet set = cache.get(userId);
+                if (set != null) {
+                    result.put(userId, set);
+                } else {
+                    missing.add(userId);
+                }
+            }
+        }
+        if (missing.isEmpty()) {
+            return result;
+        }
+
+        long epoch = updateEpoch.get();
+        Map<Long, List<long[]>> rows = new HashMap<>();
+        for (Long userId : missing) {
+            rows.put(userId, new ArrayList<>());
+        }
+        for (DeyochSchedule schedule : deyochScheduleMapper.selectList(columns().in(DeyochSchedule::getUserId, missing))) {
+            if (schedule.getStartTime() != null && schedule.getEndTime() != null) {
+                rows.get(schedule.getUserId()).add(interval(schedule));
+            }
+        }
+        Map<Long, IntervalSet> loaded = new HashMap<>();
+        rows.forEach((userId, intervals) -> loaded.put(userId, IntervalSet.of(intervals)));
+        synchronized (cache) {
+            if (updateEpoch.get() == epoch) {
+                cache.putAll(loaded);
+            }
+        }
+        result.putAll(loaded);
+        return result;
+    }
+
+    /**
+     * 日程变更后重新读取该日程并更新已缓存用户的区间集合，在当前事务提交后执行
+     * @param scheduleId 日程ID（日程已删除时移除）
+     * @param previousUserId 变更前的日程所属用户，新建时传null
+     */
+    public void refreshSchedule(Long scheduleId, Long previousUserId) {
+        if (scheduleId == null) {
+            return;
+        }
+        TransactionUtil.afterCommit(() -> {
+            synchronized (writeLock) {
+                DeyochSchedule schedule = deyochScheduleMapper.selectOne(columns().eq(DeyochSchedule::getId, scheduleId));
+                synchronized (cache) {
+                    if (previousUserId != null && (schedule == null || !previousUserId.equals(schedule.getUserId()))) {
+                        IntervalSet set = cache.get(previousUserId);
+                        if (set != null) {
+                            cache.put(previousUserId, set.without(scheduleId));
+                        }
+                    }
+                    if (schedule != null) {
+                        IntervalSet set = cache.get(schedule.getUserId());
+                        if (set != null) {
+                            set = set.without(scheduleId);
+                            if (schedule.getStartTime() != null && schedule.getEndTime() != null) {
+                                long[] interval = interval(schedule);
+                                set = set.with(interval[0], interval[1], interval[2]);
+                            }
+                            cache.put(schedule.getUserId(), set);
+                        }
+                    }
+                    updateEpoch.incrementAndGet();
+                }
+            }
+        }, this::clear);
+    }
+
+    private static long[] interval(DeyochSchedule schedule) {
+        return new long[]{schedule.getId(), toKey(schedule.getStartTime()), toKey(schedule.getEndTime())};
+    }
+
+    private static LambdaQueryWrapper<DeyochSchedule> columns() {
+        return new LambdaQueryWrapper<DeyochSchedule>()
+                .select(DeyochSchedule::getId, DeyochSchedule::getUserId,
+                        DeyochSchedule::getStartTime, DeyochSchedule::getEndTime);
+    }
+
+    /**
+     * 更新失败时无法确定哪些用户的区间已过期，清空缓存，之后的访问重新加载
+     */
+    private void clear(Exception e) {
+        log.warn("日程忙碌时间索引更新失败，缓存已清空", e);
+        synchronized (cache) {
+            cache.clear();
+            updateEpoch.incrementAndGet();
+        }
+    }
+}
@@ -0,0 +1,277 @@
+package com.deyoch.service.schedule;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.PriorityQueue;
+
+/**
+ * 单个用户的日程区间集合
+ * 区间为半开区间[start, end)，按(start, id)排序保存在数组中，数组按二分的中点隐式构成一棵平衡二叉树，
+ * 每个节点记录子树内的最大结束时间（区间树）：子树最大结束时间不晚于查询开始的整棵子树跳过，
+ * 节点开始时间不早于查询结束时右子树跳过，相交查询为O(log n + k)，k为相交的区间数
+ * 另维护结束时间的前缀最大值，用于顺序扫描时定位第一个可能相交的位置
+ * 对象不可变，增删返回新对象（O(n)复制和重建），读取无需加锁
+ * 开始与结束相同的区间不占用时间，不参与相交判断
+ *
+ * @author deyoch-oa
+ */
+public final class IntervalSet {
+
+    private static final IntervalSet EMPTY = new IntervalSet(new long[0], new long[0], new long[0]);
+
+    private final long[] ids;
+    private final long[] starts;
+    private final long[] ends;
+    private final long[] maxEnds;
+    private final long[] subtreeMaxEnds;
+
+    private IntervalSet(long[] ids, long[] starts, long[] ends) {
+        this.ids = ids;
+        this.starts = starts;
+        this.ends = ends;
+        this.maxEnds = new long[ids.length];
+        long max = Long.MIN_VALUE;
+        for (int i = 0; i < ids.length; i++) {
+            max = Math.max(max, ends[i]);
+            maxEnds[i] = max;
+        }
+        this.subtreeMaxEnds = new long[ids.length];
+        buildSubtree(0, ids.length);
+    }
+
+    /**
+     * 空集合
+     * @return 空集合
+     */
+    public static IntervalSet empty() {
+        return EMPTY;
+    }
+
+    /**
+     * 由区间列表构建集合
+     * @param intervals 每个元素为{id, start, end}
+     * @return 区间集合
+     */
+    public static IntervalSet of(List<long[]> intervals) {
+        long[][] sorted = intervals.toArray(new long[0][]);
+        Arrays.sort(sorted, (a, b) -> a[1] != b[1] ? Long.compare(a[1], b[1]) : Long.compare(a[0], b[0]));
+        long[] ids = new long[sorted.length];
+        long[] starts = new long[sorted.length];
+        long[] ends = new long[sorted.length];
+        for (int i = 0; i < sorted.length; i++) {
+            ids[i] = sorted[i][0];
+            starts[i] = sorted[i][1];
+            ends[i] = Math.max(sorted[i][1], sorted[i][2]);
+        }
+        return new IntervalSet(ids, starts, ends);
+    }
+
+    /**
+     * 添加或替换区间
+     * @param id 区间ID
+     * @param start 开始
+     * @param end 结束
+     * @return 新集合
+     */
+    public IntervalSet with(long id, long start, long end) {
+        IntervalSet base = without(id);
+        int n = base.ids.length;
+        int pos = 0;
+        while (pos < n && (base.starts[pos] < start || base.starts[pos] == start && base.ids[pos] < id)) {
+            pos++;
+        }
+        long[] newIds = new long[n + 1];
+        long[] newStarts = new long[n + 1];
+        long[] newEnds = new long[n + 1];
+        System.arraycopy(base.ids, 0, newIds, 0, pos);
+        System.arraycopy(base.starts, 0, newStarts, 0, pos);
+        System.arraycopy(base.ends, 0, newEnds, 0, pos);
+        newIds[pos] = id;
+        newStarts[pos] = start;
+        newEnds[pos] = Math.max(start, end);
+        System.arraycopy(base.ids, pos, newIds, pos + 1, n - pos);
+        System.arraycopy(base.starts, pos, newStarts, pos + 1, n - pos);
+        System.arraycopy(base.ends, pos, newEnds, pos + 1, n - pos);
+        return new IntervalSet(newIds, newStarts, newEnds);
+    }
+
+    /**
+     * 移除区间
+     * @param id 区间ID
+     * @return 新集合，区间不存在时返回自身
+     */
+    public IntervalSet without(long id) {
+        int pos = -1;
+        for (int i = 0; i < ids.length; i++) {
+            if (ids[i] == id) {
+                pos = i;
+                break;
+            }
+        }
+        if (pos < 0) {
+            return this;
+        }
+        int n = ids.length - 1;
+        long[] newIds = new long[n];
+        long[] newStarts = new long[n];
+        long[] newEnds = new long[n];
+        System.arraycopy(ids, 0, newIds, 0, pos);
+        System.arraycopy(starts, 0, newStarts, 0, pos);
+        System.arraycopy(ends, 0, newEnds, 0, pos);
+        System.arraycopy(ids, pos + 1, newIds, pos, n - pos);
+        System.arraycopy(starts, pos + 1, newStarts, pos, n - pos);
+        System.arraycopy(ends, pos + 1, newEnds, pos, n - pos);
+        return new IntervalSet(newIds, newStarts, newEnds);
+    }
+
+    /**
+     * 区间数量
+     * @return 区间数量
+     */
+    public int size() {
+        return ids.length;
+    }
+
+    /**
+     * 查询与[from, to)相交的区间ID，按开始时间排序
+     * @param from 开始
+     * @param to 结束
+     * @return 相交的区间ID
+     */
+    public List<Long> overlapping(long from, long to) {
+        List<Long> result = new ArrayList<>();
+        if (to > from) {
+            collect(0, ids.length, from, to, result);
+        }
+        return result;
+    }
+
+    /**
+     * 计算多个集合在[from, to)内共同的空闲时段
+     * 各集合的忙碌区间已按开始时间有序，用小顶堆做k路归并，扫描一遍即可找出所有空档，找到limit个后停止
+     * 每个长度不小于length的空档返回一个时段：从空档开始起的length长度，同时给出空档的结束位置
+     * @param sets 参与计算的集合
+     * @param from 查询开始
+     * @param to 查询结束
+     * @param length 时段长度
+     * @param limit 最多返回的时段数
+     * @return 每个元素为{开始, 结束, 空档结束}，按时间排序
+     */
+    public static List<long[]> commonFreeSlots(Collection<IntervalSet> sets, long from, long to, long length, int limit) {
+        List<long[]> slots = new ArrayList<>();
+        if (length <= 0 || limit <= 0 || to - from < length) {
+            return slots;
+        }
+        PriorityQueue<Cursor> heap = new PriorityQueue<>((a, b) -> Long.compare(a.set.starts[a.index], b.set.starts[b.index]));
+        for (IntervalSet set : sets) {
+            Cursor cursor = new Cursor(set, from, to);
+            if (cursor.seek()) {
+                heap.add(cursor);
+            }
+        }
+        long freeFrom = from;
+        while (!heap.isEmpty() && slots.size() < limit) {
+            Cursor cursor = heap.poll();
+            long busyStart = cursor.set.starts[cursor.index];
+            if (busyStart - freeFrom >= length) {
+                slots.add(new long[]{freeFrom, freeFrom + length, busyStart});
+            }
+            freeFrom = Math.max(freeFrom, cursor.set.ends[cursor.index]);
+            if (freeFrom >= to) {
+                return slots;
+            }
+            cursor.index++;
+            if (cursor.seek()) {
+                heap.add(cursor);
+            }
+        }
+        if (slots.size() < limit && to - freeFrom >= length) {
+            slots.add(new long[]{freeFrom, freeFrom + length, to});
+        }
+        return slots;
+    }
+
+    /**
+     * 计算[lo, hi)对应子树的最大结束时间，结果保存在中点位置
+     */
+    private long buildSubtree(int lo, int hi) {
+        if (lo >= hi) {
+            return Long.MIN_VALUE;
+        }
+        int mid = (lo + hi) >>> 1;
+        long max = Math.max(ends[mid], Math.max(buildSubtree(lo, mid), buildSubtree(mid + 1, hi)));
+        subtreeMaxEnds[mid] = max;
+        return max;
+    }
+
+    /**
+     * 按中序收集[lo, hi)子树内与[from, to)相交的区间，结果按开始时间排序
+     */
+    private void collect(int lo, int hi, long from, long to, List<Long> result) {
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (subtreeMaxEnds[mid] <= from) {
+                return;
+            }
+            collect(lo, mid, from, to, result);
+            if (starts[mid] >= to) {
+                return;
+            }
+            if (ends[mid] > from && ends[mid] > starts[mid]) {
+                result.add(ids[mid]);
+            }
+            lo = mid + 1;
+        }
+    }
+
+    /**
+     * 第一个结束时间前缀最大值大于from的位置，此前的区间都在from之前结束
+     */
+    private int firstCandidate(long from) {
+        int low = 0;
+        int high = maxEnds.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (maxEnds[mid] > from) {
+                high = mid;
+            } else {
+                low = mid + 1;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * 单个集合在查询范围内的游标，跳过不相交和不占用时间的区间
+     */
+    private static class Cursor {
+
+        private final IntervalSet set;
+        private final long from;
+        private final long to;
+        private int index;
+
+        private Cursor(IntervalSet set, long from, long to) {
+            this.set = set;
+            this.from = from;
+            this.to = to;
+            this.index = set.firstCandidate(from);
+        }
+
+        /**
+         * 移动到下一个相交的区间
+         * @return 存在时返回true
+         */
+        private boolean seek() {
+            while (index < set.ids.length && set.starts[index] < to) {
+                if (set.ends[index] > from && set.ends[index] > set.starts[index]) {
+                    return true;
+                }
+                index++;
+            }
+            return false;
+        }
+    }
+}
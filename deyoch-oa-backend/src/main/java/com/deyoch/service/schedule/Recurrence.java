@@ -0,0 +1,300 @@
+package com.deyoch.service.schedule;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.time.temporal.ChronoUnit;
+import java.time.temporal.TemporalAdjusters;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+/**
+ * 重复规则
+ * 按频率把时间轴划分为周期（每interval天/周/月一个周期），实例按周期顺序生成：
+ * 每天和每月的周期内最多一个实例（每月重复时没有该日期的月份跳过），每周的周期内按weekdays给出的星期生成
+ * 查询时根据目标时间直接算出所在周期和此前的实例数，从该周期开始惰性生成，不需要从首次开始逐个遍历，
+ * 生成的实例数只与实际读取的数量有关
+ * 早于首次开始时间的实例不生成；截止日期和重复次数同时给出时以先到者为准
+ * 对象不可变，可以在多个线程间共享
+ *
+ * @author deyoch-oa
+ */
+public final class Recurrence {
+
+    /**
+     * 重复频率
+     */
+    public enum Frequency {
+        DAILY, WEEKLY, MONTHLY
+    }
+
+    private final Frequency frequency;
+    private final int interval;
+    private final int weekdays;
+    private final LocalDateTime firstStart;
+    private final LocalDate until;
+    private final Integer count;
+
+    /**
+     * 每周重复时首个周期（首次开始所在的周）内不早于首次开始的实例数
+     */
+    private final int firstWeekCount;
+
+    private Recurrence(Frequency frequency, int interval, int weekdays, LocalDateTime firstStart,
+                       LocalDate until, Integer count) {
+        this.frequency = frequency;
+        this.interval = interval;
+        this.weekdays = weekdays;
+        this.firstStart = firstStart;
+        this.until = until;
+        this.count = count;
+        int firstWeek = 0;
+        if (frequency == Frequency.WEEKLY) {
+            for (int day = firstStart.getDayOfWeek().getValue(); day <= 7; day++) {
+                if ((weekdays & weekdayBit(day)) != 0) {
+                    firstWeek++;
+                }
+            }
+        }
+        this.firstWeekCount = firstWeek;
+    }
+
+    /**
+     * 创建重复规则
+     * @param frequency 重复频率：DAILY、WEEKLY、MONTHLY
+     * @param interval 重复间隔，为空时为1
+     * @param weekdays 每周重复的星期，按位表示（1-周一，2-周二，…，64-周日），为空时取首次开始的星期，只用于每周重复
+     * @param firstStart 首次开始时间
+     * @param until 截止日期（包含），为空表示不限
+     * @param count 重复次数，为空表示不限
+     * @return 重复规则
+     * @throws IllegalArgumentException 参数不合法
+     */
+    public static Recurrence of(String frequency, Integer interval, Integer weekdays, LocalDateTime firstStart,
+                                LocalDate until, Integer count) {
+        if (firstStart == null) {
+            throw new IllegalArgumentException("首次开始时间不能为空");
+        }
+        Frequency parsedFrequency;
+        try {
+            parsedFrequency = Frequency.valueOf(frequency);
+        } catch (IllegalArgumentException | NullPointerException e) {
+            throw new IllegalArgumentException("重复频率不合法，只能是DAILY、WEEKLY或MONTHLY");
+        }
+        int parsedInterval = interval != null ? interval : 1;
+        if (parsedInterval < 1) {
+            throw new IllegalArgumentException("重复间隔必须大于0");
+        }
+        int mask = 0;
+        if (parsedFrequency == Frequency.WEEKLY) {
+            mask = weekdays != null ? weekdays : weekdayBit(firstStart.getDayOfWeek().getValue());
+            if (mask <= 0 || mask > 127) {
+                throw new IllegalArgumentException("每周重复的星期不合法");
+            }
+        }
+        if (until != null && until.isBefore(firstStart.toLocalDate())) {
+            throw new IllegalArgumentException("截止日期不能早于首次开始日期");
+        }
+        if (count != null && count < 1) {
+            throw new IllegalArgumentException("重复次数必须大于0");
+        }
+        return new Recurrence(parsedFrequency, parsedInterval, mask, firstStart, until, count);
+    }
+
+    /**
+     * 按顺序惰性生成开始时间不早于from的实例开始时间
+     * @param from 起始时间
+     * @return 实例开始时间的迭代器，规则无限重复时迭代器也不会结束，由调用方决定何时停止
+     */
+    public Iterator<LocalDateTime> startsFrom(LocalDateTime from) {
+        return new OccurrenceIterator(from);
+    }
+
+    /**
+     * 最后一次实例的开始时间
+     * 只给出截止日期时返回截止日期当天结束，作为查询的上界使用；给出重复次数时逐个生成到最后一次
+     * @return 最后一次开始时间的上界，无限重复时返回null
+     */
+    public LocalDateTime lastStart() {
+        LocalDateTime bound = until != null ? until.plusDays(1).atStartOfDay().minusSeconds(1) : null;
+        if (count == null) {
+            return bound;
+        }
+        LocalDateTime last = null;
+        Iterator<LocalDateTime> iterator = startsFrom(firstStart);
+        while (iterator.hasNext()) {
+            last = iterator.next();
+        }
+        return last;
+    }
+
+    /**
+     * 判断给定时间是否为某个实例的开始时间
+     * @param start 开始时间
+     * @return 是实例的开始时间时返回true
+     */
+    public boolean isOccurrence(LocalDateTime start) {
+        Iterator<LocalDateTime> iterator = startsFrom(start);
+        return iterator.hasNext() && iterator.next().equals(start);
+    }
+
+    private static int weekdayBit(int dayOfWeek) {
+        return 1 << (dayOfWeek - 1);
+    }
+
+    /**
+     * 包含目标时间的周期，早于首次开始时为0
+     */
+    private long periodOf(LocalDateTime time) {
+        if (!time.isAfter(firstStart)) {
+            return 0;
+        }
+        long elapsed;
+        switch (frequency) {
+            case DAILY:
+                elapsed = ChronoUnit.DAYS.between(firstStart.toLocalDate(), time.toLocalDate());
+                break;
+            case WEEKLY:
+                elapsed = ChronoUnit.WEEKS.between(weekStart(firstStart.toLocalDate()), weekStart(time.toLocalDate()));
+                break;
+            default:
+                elapsed = ChronoUnit.MONTHS.between(YearMonth.from(firstStart), YearMonth.from(time));
+                break;
+        }
+        return elapsed / interval;
+    }
+
+    /**
+     * 周期p之前的实例数
+     */
+    private long countBefore(long period) {
+        if (period == 0) {
+            return 0;
+        }
+        switch (frequency) {
+            case DAILY:
+                return period;
+            case WEEKLY:
+                return firstWeekCount + (period - 1) * Integer.bitCount(weekdays);
+            default:
+                if (firstStart.getDayOfMonth() <= 28) {
+                    return period;
+                }
+                // 日期在29日之后时部分月份没有实例，逐个周期计算（只做日期运算，不生成实例）
+                long before = 0;
+                for (long p = 0; p < period; p++) {
+                    if (monthOf(p).isValidDay(firstStart.getDayOfMonth())) {
+                        before++;
+                    }
+                }
+                return before;
+        }
+    }
+
+    /**
+     * 周期p内的实例开始时间，按时间排序，不含早于首次开始的实例
+     */
+    private List<LocalDateTime> occurrencesIn(long period) {
+        List<LocalDateTime> occurrences = new ArrayList<>(1);
+        switch (frequency) {
+            case DAILY:
+                occurrences.add(firstStart.plusDays(period * interval));
+                break;
+            case WEEKLY:
+                LocalDate monday = weekStart(firstStart.toLocalDate()).plusWeeks(period * interval);
+                for (int day = 1; day <= 7; day++) {
+                    if ((weekdays & weekdayBit(day)) != 0) {
+                        LocalDateTime start = monday.plusDays(day - 1).atTime(firstStart.toLocalTime());
+                        if (!start.isBefore(firstStart)) {
+                            occurrences.add(start);
+                        }
+                    }
+                }
+                break;
+            default:
+                YearMonth month = monthOf(period);
+                if (month.isValidDay(firstStart.getDayOfMonth())) {
+                    occurrences.add(month.atDay(firstStart.getDayOfMonth()).atTime(firstStart.toLocalTime()));
+                }
+                break;
+        }
+        return occurrences;
+    }
+
+    private YearMonth monthOf(long period) {
+        return YearMonth.from(firstStart).plusMonths(period * interval);
+    }
+
+    private static LocalDate weekStart(LocalDate date) {
+        return date.with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY));
+    }
+
+    /**
+     * 从目标时间所在周期开始逐周期生成实例
+     */
+    private class OccurrenceIterator implements Iterator<LocalDateTime> {
+
+        private final LocalDateTime from;
+        private long period;
+        private long index;
+        private List<LocalDateTime> buffer;
+        private int position;
+        private LocalDateTime next;
+        private boolean finished;
+
+        private OccurrenceIterator(LocalDateTime from) {
+            this.from = from;
+            this.period = periodOf(from);
+            this.index = countBefore(period);
+            this.buffer = occurrencesIn(period);
+        }
+
+        @Override
+        public boolean hasNext() {
+            if (next == null && !finished) {
+                next = advance();
+                finished = next == null;
+            }
+            return next != null;
+        }
+
+        @Override
+        public LocalDateTime next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            LocalDateTime result = next;
+            next = null;
+            return result;
+        }
+
+        private LocalDateTime advance() {
+            // 每月重复时连续没有实例的周期不会超过12个，这里留出余量防止规则异常时死循环
+            int emptyPeriods = 0;
+            while (emptyPeriods <= 12) {
+                if (position >= buffer.size()) {
+                    period++;
+                    buffer = occurrencesIn(period);
+                    position = 0;
+                    emptyPeriods = buffer.isEmpty() ? emptyPeriods + 1 : 0;
+                    continue;
+                }
+                LocalDateTime start = buffer.get(position++);
+                if (count != null && index >= count) {
+                    return null;
+                }
+                index++;
+                if (until != null && start.toLocalDate().isAfter(until)) {
+                    return null;
+                }
+                if (!start.isBefore(from)) {
+                    return start;
+                }
+            }
+            return null;
+        }
+    }
+}
@@ -0,0 +1,89 @@
+package com.deyoch.service.schedule;
+
+import com.deyoch.dto.ScheduleDayDto;
+import com.deyoch.entity.DeyochSchedule;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.time.temporal.TemporalAdjusters;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * 日历视图计算
+ * 日程占用的时间为半开区间[开始时间, 结束时间)，结束于零点的日程不计入结束当天；开始与结束相同的日程计入开始当天
+ *
+ * @author deyoch-oa
+ */
+public final class ScheduleCalendar {
+
+    public static final String VIEW_MONTH = "month";
+    public static final String VIEW_WEEK = "week";
+
+    private ScheduleCalendar() {
+    }
+
+    /**
+     * 计算视图覆盖的日期范围：月视图为当月第一天到最后一天，周视图为周一到周日
+     * @param view 视图类型：month、week
+     * @param date 视图内的任意日期
+     * @return 第一天和最后一天（都包含）
+     * @throws IllegalArgumentException 视图类型不支持时抛出
+     */
+    public static LocalDate[] viewRange(String view, LocalDate date) {
+        String type = view != null ? view.toLowerCase(Locale.ROOT) : VIEW_MONTH;
+        return switch (type) {
+            case VIEW_MONTH -> new LocalDate[]{
+                    date.withDayOfMonth(1), date.with(TemporalAdjusters.lastDayOfMonth())};
+            case VIEW_WEEK -> new LocalDate[]{
+                    date.with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY)),
+                    date.with(TemporalAdjusters.nextOrSame(DayOfWeek.SUNDAY))};
+            default -> throw new IllegalArgumentException("不支持的视图类型：" + view);
+        };
+    }
+
+    /**
+     * 日程覆盖的最后一天
+     * @param schedule 日程
+     * @return 最后一天
+     */
+    public static LocalDate lastDay(DeyochSchedule schedule) {
+        LocalDateTime start = schedule.getStartTime();
+        LocalDateTime end = schedule.getEndTime();
+        if (end == null || !end.isAfter(start)) {
+            return start.toLocalDate();
+        }
+        return end.minusNanos(1).toLocalDate();
+    }
+
+    /**
+     * 把日程按天分组，跨天日程展开到覆盖的每一天，只保留范围内的日期
+     * @param schedules 按开始时间升序排列的日程
+     * @param firstDay 第一天
+     * @param lastDay 最后一天（包含）
+     * @return 范围内每一天的日程，没有日程的日期也返回
+     */
+    public static List<ScheduleDayDto> bucketByDay(List<DeyochSchedule> schedules, LocalDate firstDay, LocalDate lastDay) {
+        int dayCount = (int) ChronoUnit.DAYS.between(firstDay, lastDay) + 1;
+        List<ScheduleDayDto> days = new ArrayList<>(dayCount);
+        for (int i = 0; i < dayCount; i++) {
+            ScheduleDayDto day = new ScheduleDayDto();
+            day.setDate(firstDay.plusDays(i));
+            days.add(day);
+        }
+        for (DeyochSchedule schedule : schedules) {
+            if (schedule.getStartTime() == null) {
+                continue;
+            }
+            long from = Math.max(0, ChronoUnit.DAYS.between(firstDay, schedule.getStartTime().toLocalDate()));
+            long to = Math.min(dayCount - 1, ChronoUnit.DAYS.between(firstDay, lastDay(schedule)));
+            for (long i = from; i <= to; i++) {
+                days.get((int) i).getSchedules().add(schedule);
+            }
+        }
+        return days;
+    }
+}
@@ -0,0 +1,297 @@
+package com.deyoch.service.schedule;
+
+import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
+import com.deyoch.entity.DeyochSchedule;
+import com.deyoch.entity.DeyochScheduleSeries;
+import com.deyoch.entity.DeyochScheduleSeriesException;
+import com.deyoch.mapper.DeyochScheduleSeriesExceptionMapper;
+import com.deyoch.mapper.DeyochScheduleSeriesMapper;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+
+/**
+ * 重复日程实例展开
+ * 只查询与窗口可能相交的系列及窗口内的例外，每个系列从窗口开始处惰性生成实例，
+ * 多个系列用小顶堆按开始时间归并，达到单次上限后停止，生成的实例数只与窗口大小有关，与系列已重复的次数无关
+ * 单个实例移动后的时间与原定时间相差不超过单个日程的最大跨度，系列和例外的查询范围据此放宽
+ *
+ * @author deyoch-oa
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class ScheduleOccurrenceExpander {
+
+    private final DeyochScheduleSeriesMapper deyochScheduleSeriesMapper;
+    private final DeyochScheduleSeriesExceptionMapper deyochScheduleSeriesExceptionMapper;
+
+    /**
+     * 单个日程的最大跨度（天），与日程查询保持一致
+     */
+    @Value("${schedule.max-span-days:31}")
+    private int maxSpanDays = 31;
+
+    /**
+     * 单次查询最多展开的实例数
+     */
+    @Value("${schedule.series.max-occurrences:2000}")
+    private int maxOccurrences = 2000;
+
+    /**
+     * 由系列记录构建重复规则
+     * @param series 系列
+     * @return 重复规则
+     * @throws IllegalArgumentException 规则不合法
+     */
+    public static Recurrence recurrenceOf(DeyochScheduleSeries series) {
+        return Recurrence.of(series.getFrequency(), series.getRepeatInterval(), series.getWeekdays(),
+                series.getStartTime(), series.getUntilDate(), series.getOccurrenceCount());
+    }
+
+    /**
+     * 展开用户在窗口内的重复日程实例，按开始时间排序
+     * @param userId 用户ID
+     * @param from 窗口开始
+     * @param to 窗口结束（不含）
+     * @param overlapping true时返回与窗口相交的实例，false时返回开始时间在窗口内的实例
+     * @return 实例，id为空，seriesId和originalStartTime标识所属系列和原定开始时间
+     */
+    public List<DeyochSchedule> expand(Long userId, LocalDateTime from, LocalDateTime to, boolean overlapping) {
+        if (userId == null) {
+            return new ArrayList<>();
+        }
+        return expandAll(List.of(userId), from, to, overlapping).get(userId);
+    }
+
+    /**
+     * 批量展开多个用户在窗口内的重复日程实例，系列和例外各一次查询，每个用户的实例数分别受上限约束
+     * @param userIds 用户ID
+     * @param from 窗口开始
+     * @param to 窗口结束（不含）
+     * @param overlapping true时返回与窗口相交的实例，false时返回开始时间在窗口内的实例
+     * @return 用户ID到按开始时间排序的实例的映射，包含每个请求的用户
+     */
+    public Map<Long, List<DeyochSchedule>> expandAll(Collection<Long> userIds, LocalDateTime from, LocalDateTime to,
+                                                     boolean overlapping) {
+        Map<Long, List<DeyochSchedule>> result = new HashMap<>();
+        for (Long userId : userIds) {
+            result.put(userId, new ArrayList<>());
+        }
+        if (result.isEmpty() || !to.isAfter(from)) {
+            return result;
+        }
+        // 相交查询时实例可能在窗口之前开始，开始时间的下界按最大跨度放宽
+        LocalDateTime lower = overlapping ? from.minusDays(maxSpanDays) : from;
+
+        LambdaQueryWrapper<DeyochScheduleSeries> seriesWrapper = new LambdaQueryWrapper<>();
+        seriesWrapper.in(DeyochScheduleSeries::getUserId, result.keySet());
+        seriesWrapper.lt(DeyochScheduleSeries::getStartTime, to.plusDays(maxSpanDays));
+        seriesWrapper.and(wrapper -> wrapper
+                .isNull(DeyochScheduleSeries::getLastStartTime)
+                .or()
+                .ge(DeyochScheduleSeries::getLastStartTime, lower.minusDays(maxSpanDays)));
+        List<DeyochScheduleSeries> seriesList = deyochScheduleSeriesMapper.selectList(seriesWrapper);
+        if (seriesList.isEmpty()) {
+            return result;
+        }
+
+        Map<Long, List<DeyochScheduleSeries>> seriesByUser = new HashMap<>();
+        Set<Long> seriesIds = new HashSet<>();
+        for (DeyochScheduleSeries series : seriesList) {
+            seriesByUser.computeIfAbsent(series.getUserId(), id -> new ArrayList<>()).add(series);
+            seriesIds.add(series.getId());
+        }
+        // 原定时间或修改后的时间落在窗口内的例外，一次查询取出
+        LambdaQueryWrapper<DeyochScheduleSeriesException> exceptionWrapper = new LambdaQueryWrapper<>();
+        exceptionWrapper.in(DeyochScheduleSeriesException::getSeriesId, seriesIds);
+        exceptionWrapper.and(wrapper -> wrapper
+                .ge(DeyochScheduleSeriesException::getOriginalStartTime, lower)
+                .lt(DeyochScheduleSeriesException::getOriginalStartTime, to)
+                .or()
+                .ge(DeyochScheduleSeriesException::getStartTime, lower)
+                .lt(DeyochScheduleSeriesException::getStartTime, to));
+        Map<Long, Map<LocalDateTime, DeyochScheduleSeriesException>> exceptions = new HashMap<>();
+        for (DeyochScheduleSeriesException exception : deyochScheduleSeriesExceptionMapper.selectList(exceptionWrapper)) {
+            exceptions.computeIfAbsent(exception.getSeriesId(), id -> new HashMap<>())
+                    .put(exception.getOriginalStartTime(), exception);
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        seriesByUser.forEach((userId, userSeries) ->
+                result.put(userId, merge(userId, userSeries, exceptions, from, to, overlapping, now)));
+        return result;
+    }
+
+    /**
+     * 归并单个用户各系列的实例
+     */
+    private List<DeyochSchedule> merge(Long userId, List<DeyochScheduleSeries> seriesList,
+                                       Map<Long, Map<LocalDateTime, DeyochScheduleSeriesException>> exceptions,
+                                       LocalDateTime from, LocalDateTime to, boolean overlapping, LocalDateTime now) {
+        List<DeyochSchedule> occurrences = new ArrayList<>();
+        PriorityQueue<Cursor> heap = new PriorityQueue<>(Comparator.comparing((Cursor cursor) -> cursor.next));
+        Map<Long, Recurrence> recurrences = new HashMap<>();
+        Map<Long, DeyochScheduleSeries> seriesById = new HashMap<>();
+        for (DeyochScheduleSeries series : seriesList) {
+            Recurrence recurrence;
+            try {
+                recurrence = recurrenceOf(series);
+            } catch (IllegalArgumentException e) {
+                log.warn("重复日程系列 {} 的规则无效，跳过展开：{}", series.getId(), e.getMessage());
+                continue;
+            }
+            recurrences.put(series.getId(), recurrence);
+            seriesById.put(series.getId(), series);
+            Duration duration = Duration.between(series.getStartTime(), series.getEndTime());
+            Cursor cursor = new Cursor(series, duration,
+                    recurrence.startsFrom(overlapping ? from.minus(duration) : from));
+            if (cursor.advance()) {
+                heap.add(cursor);
+            }
+        }
+
+        while (!heap.isEmpty() && occurrences.size() < maxOccurrences) {
+            Cursor cursor = heap.poll();
+            LocalDateTime originalStart = cursor.next;
+            if (!originalStart.isBefore(to)) {
+                // 堆顶已超出窗口，其余系列的实例都更晚
+                break;
+            }
+            Map<LocalDateTime, DeyochScheduleSeriesException> seriesExceptions = exceptions.get(cursor.series.getId());
+            DeyochScheduleSeriesException exception = seriesExceptions != null ? seriesExceptions.remove(originalStart) : null;
+            DeyochSchedule occurrence = toOccurrence(cursor.series, cursor.duration, originalStart, exception, now);
+            if (occurrence != null && inWindow(occurrence, from, to, overlapping)) {
+                occurrences.add(occurrence);
+            }
+            if (cursor.advance()) {
+                heap.add(cursor);
+            }
+        }
+
+        // 原定时间不在生成范围内、修改后移入窗口的实例
+        for (Long seriesId : seriesById.keySet()) {
+            Map<LocalDateTime, DeyochScheduleSeriesException> seriesExceptions = exceptions.get(seriesId);
+            if (seriesExceptions == null) {
+                continue;
+            }
+            DeyochScheduleSeries series = seriesById.get(seriesId);
+            Recurrence recurrence = recurrences.get(seriesId);
+            Duration duration = Duration.between(series.getStartTime(), series.getEndTime());
+            for (DeyochScheduleSeriesException exception : seriesExceptions.values()) {
+                LocalDateTime originalStart = exception.getOriginalStartTime();
+                if (!recurrence.isOccurrence(originalStart)) {
+                    continue;
+                }
+                DeyochSchedule occurrence = toOccurrence(series, duration, originalStart, exception, now);
+                if (occurrence != null && inWindow(occurrence, from, to, overlapping)) {
+                    occurrences.add(occurrence);
+                }
+            }
+        }
+
+        occurrences.sort(Comparator.comparing(DeyochSchedule::getStartTime));
+        if (occurrences.size() > maxOccurrences) {
+            log.warn("用户 {} 在 {} ~ {} 内的重复日程实例超过上限 {}，已截断", userId, from, to, maxOccurrences);
+            return new ArrayList<>(occurrences.subList(0, maxOccurrences));
+        }
+        return occurrences;
+    }
+
+    /**
+     * 生成实例，例外为取消时返回null
+     */
+    private static DeyochSchedule toOccurrence(DeyochScheduleSeries series, Duration duration,
+                                               LocalDateTime originalStart, DeyochScheduleSeriesException exception,
+                                               LocalDateTime now) {
+        if (exception != null && Integer.valueOf(1).equals(exception.getCancelled())) {
+            return null;
+        }
+        DeyochSchedule occurrence = new DeyochSchedule();
+        occurrence.setSeriesId(series.getId());
+        occurrence.setOriginalStartTime(originalStart);
+        occurrence.setUserId(series.getUserId());
+        occurrence.setTitle(series.getTitle());
+        occurrence.setContent(series.getContent());
+        occurrence.setLocation(series.getLocation());
+        occurrence.setStartTime(originalStart);
+        occurrence.setEndTime(originalStart.plus(duration));
+        occurrence.setCreatedAt(series.getCreatedAt());
+        occurrence.setUpdatedAt(series.getUpdatedAt());
+        if (exception != null) {
+            if (exception.getTitle() != null) {
+                occurrence.setTitle(exception.getTitle());
+            }
+            if (exception.getLocation() != null) {
+                occurrence.setLocation(exception.getLocation());
+            }
+            if (exception.getStartTime() != null) {
+                occurrence.setStartTime(exception.getStartTime());
+                occurrence.setEndTime(exception.getStartTime().plus(duration));
+            }
+            if (exception.getEndTime() != null) {
+                occurrence.setEndTime(exception.getEndTime());
+            }
+        }
+        // 实例不单独保存状态，按当前时间推算：0-未开始，1-进行中，2-已结束
+        if (now.isBefore(occurrence.getStartTime())) {
+            occurrence.setStatus(0);
+        } else if (now.isBefore(occurrence.getEndTime())) {
+            occurrence.setStatus(1);
+        } else {
+            occurrence.setStatus(2);
+        }
+        return occurrence;
+    }
+
+    private static boolean inWindow(DeyochSchedule occurrence, LocalDateTime from, LocalDateTime to, boolean overlapping) {
+        LocalDateTime start = occurrence.getStartTime();
+        if (!start.isBefore(to)) {
+            return false;
+        }
+        return !start.isBefore(from) || overlapping && occurrence.getEndTime().isAfter(from);
+    }
+
+    /**
+     * 单个系列的实例游标
+     */
+    private static class Cursor {
+
+        private final DeyochScheduleSeries series;
+        private final Duration duration;
+        private final Iterator<LocalDateTime> starts;
+        private LocalDateTime next;
+
+        private Cursor(DeyochScheduleSeries series, Duration duration, Iterator<LocalDateTime> starts) {
+            this.series = series;
+            this.duration = duration;
+            this.starts = starts;
+        }
+
+        /**
+         * 移动到下一个实例
+         * @return 存在时返回true
+         */
+        private boolean advance() {
+            if (!starts.hasNext()) {
+                return false;
+            }
+            next = starts.next();
+            return true;
+        }
+    }
+}
@@ -0,0 +1,232 @@
+package com.deyoch.utils;
+
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+/**
+ * 微批量加载器（DataLoader风格）
+ * 多个线程在一个很短的时间窗口内请求的键合并为一次批量查询，所有等待方共享结果；
+ * 同一个键正在加载时，其他线程直接等待这次加载，不会重复查询
+ * 不使用额外的调度线程：第一个向空批次添加键的线程成为本批次的"领头者"，
+ * 等待窗口结束（或批次已满）后在自己的线程上执行查询并唤醒其他等待方
+ * 调用方处于事务中时不参与合并，直接在自己的线程上查询：否则领头者会在自己的事务连接上替其他线程查询，
+ * 其他线程可能读到领头者未提交的数据，事务中的调用方也可能复用别人的结果而读不到自己刚写入的数据
+ *
+ * @param <K> 键类型
+ * @param <V> 值类型
+ * @author deyoch-oa
+ */
+public class BatchLoader<K, V> {
+
+    private final Function<Set<K>, Map<K, V>> batchFunction;
+    private final long windowNanos;
+    private final int maxBatchSize;
+    private final long timeoutMillis;
+
+    /**
+     * 正在加载的键，同一键的并发请求共享同一个Future
+     */
+    private final Map<K, CompletableFuture<V>> inFlight = new ConcurrentHashMap<>();
+
+    private final Object lock = new Object();
+
+    /**
+     * 正在收集键的批次，由lock保护
+     */
+    private Batch<K> pending;
+
+    private final LongAdder batches = new LongAdder();
+    private final LongAdder batchedKeys = new LongAdder();
+    private final LongAdder inFlightJoins = new LongAdder();
+    private final LongAdder directLoads = new LongAdder();
+
+    /**
+     * 创建批量加载器
+     * @param batchFunction 批量查询函数，返回结果中缺少的键对应值为null
+     * @param windowMillis 收集窗口（毫秒），0表示不等待
+     * @param maxBatchSize 单批最大键数量，达到后立即执行
+     * @param timeoutMillis 等待结果的最长时间（毫秒）
+     */
+    public BatchLoader(Function<Set<K>, Map<K, V>> batchFunction, long windowMillis,
+                       int maxBatchSize, long timeoutMillis) {
+        this.batchFunction = batchFunction;
+        this.windowNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(0, windowMillis));
+        this.maxBatchSize = Math.max(1, maxBatchSize);
+        this.timeoutMillis = timeoutMillis;
+    }
+
+    /**
+     * 批量加载
+     * @param keys 键集合
+     * @return 键到值的映射，批量查询未返回的键不在映射中
+     * @throws IllegalStateException 批量查询失败、等待超时或被中断
+     */
+    public Map<K, V> loadAll(Set<K> keys) {
+        if (TransactionSynchronizationManager.isActualTransactionActive()) {
+            return loadDirectly(keys);
+        }
+        Map<K, CompletableFuture<V>> futures = new LinkedHashMap<>(keys.size() * 2);
+        List<K> owned = new ArrayList<>();
+        for (K key : keys) {
+            CompletableFuture<V> created = new CompletableFuture<>();
+            CompletableFuture<V> existing = inFlight.putIfAbsent(key, created);
+            if (existing != null) {
+                inFlightJoins.increment();
+                futures.put(key, existing);
+            } else {
+                futures.put(key, created);
+                owned.add(key);
+            }
+        }
+        if (!owned.isEmpty()) {
+            enqueue(owned);
+        }
+
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMillis);
+        Map<K, V> result = new HashMap<>(futures.size() * 2);
+        for (Map.Entry<K, CompletableFuture<V>> entry : futures.entrySet()) {
+            V value = await(entry.getValue(), deadline);
+            if (value != null) {
+                result.put(entry.getKey(), value);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * 获取统计信息
+     * @return 批次数、批量加载的键数量、平均批次大小、复用进行中加载的次数、事务中直接查询的次数
+     */
+    public Map<String, Object> getStats() {
+        long batchCount = batches.sum();
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("batches", batchCount);
+        stats.put("batchedKeys", batchedKeys.sum());
+        stats.put("avgBatchSize", batchCount == 0 ? 0.0 : (double) batchedKeys.sum() / batchCount);
+        stats.put("inFlightJoins", inFlightJoins.sum());
+        stats.put("directLoads", directLoads.sum());
+        return stats;
+    }
+
+    /**
+     * 在调用方线程上直接查询，不与其他线程合并
+     */
+    private Map<K, V> loadDirectly(Set<K> keys) {
+        directLoads.increment();
+        Map<K, V> values;
+        try {
+            values = batchFunction.apply(keys);
+        } catch (RuntimeException e) {
+            throw new IllegalStateException("批量加载失败", e);
+        }
+        Map<K, V> result = new HashMap<>(keys.size() * 2);
+        if (values != null) {
+            for (K key : keys) {
+                V value = values.get(key);
+                if (value != null) {
+                    result.put(key, value);
+                }
+            }
+        }
+        return result;
+    }
+
+    private void enqueue(List<K> keys) {
+        Batch<K> batch;
+        boolean leader;
+        synchronized (lock) {
+            leader = pending == null;
+            if (leader) {
+                pending = new Batch<>();
+            }
+            batch = pending;
+            batch.keys.addAll(keys);
+            if (batch.keys.size() >= maxBatchSize) {
+                // 批次已满，关闭批次并唤醒领头者立即执行
+                batch.sealed = true;
+                pending = null;
+                lock.notifyAll();
+            }
+        }
+        if (!leader) {
+            return;
+        }
+
+        synchronized (lock) {
+            long deadline = System.nanoTime() + windowNanos;
+            long remaining = windowNanos;
+            while (!batch.sealed && remaining > 0) {
+                try {
+                    TimeUnit.NANOSECONDS.timedWait(lock, remaining);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    break;
+                }
+                remaining = deadline - System.nanoTime();
+            }
+            batch.sealed = true;
+            if (pending == batch) {
+                pending = null;
+            }
+        }
+        dispatch(batch.keys);
+    }
+
+    private void dispatch(Set<K> keys) {
+        batches.increment();
+        batchedKeys.add(keys.size());
+        Map<K, V> values;
+        try {
+            values = batchFunction.apply(keys);
+        } catch (Throwable e) {
+            for (K key : keys) {
+                CompletableFuture<V> future = inFlight.remove(key);
+                if (future != null) {
+                    future.completeExceptionally(e);
+                }
+            }
+            return;
+        }
+        for (K key : keys) {
+            CompletableFuture<V> future = inFlight.remove(key);
+            if (future != null) {
+                future.complete(values != null ? values.get(key) : null);
+            }
+        }
+    }
+
+    private V await(CompletableFuture<V> future, long deadline) {
+        try {
+            return future.get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("批量加载失败", e.getCause());
+        } catch (TimeoutException e) {
+            throw new IllegalStateException("批量加载等待超时", e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("批量加载等待被中断", e);
+        }
+    }
+
+    /**
+     * 收集中的批次
+     */
+    private static class Batch<K> {
+        private final Set<K> keys = new LinkedHashSet<>();
+        private boolean sealed;
+    }
+}
@@ -0,0 +1,103 @@
+package com.deyoch.utils;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * 字符串布隆过滤器
+ * 判断"一定不存在"或"可能存在"，可能存在时需要再做精确查询
+ * 使用双重哈希（Kirsch-Mitzenmacher）由两个64位哈希派生k个下标，位数组基于AtomicLongArray，支持并发读写
+ *
+ * @author deyoch-oa
+ */
+public class BloomFilter {
+
+    private final AtomicLongArray words;
+    private final long bitSize;
+    private final int hashCount;
+    private final long expectedInsertions;
+
+    /**
+     * 创建布隆过滤器
+     * @param expectedInsertions 预计插入数量
+     * @param falsePositiveRate 期望误判率，如0.01
+     */
+    public BloomFilter(long expectedInsertions, double falsePositiveRate) {
+        long n = Math.max(1, expectedInsertions);
+        long m = (long) Math.ceil(-n * Math.log(falsePositiveRate) / (Math.log(2) * Math.log(2)));
+        this.bitSize = Math.max(64, m);
+        this.hashCount = Math.max(1, (int) Math.round((double) bitSize / n * Math.log(2)));
+        this.words = new AtomicLongArray((int) ((bitSize + 63) >>> 6));
+        this.expectedInsertions = n;
+    }
+
+    /**
+     * 添加元素
+     * @param value 元素
+     */
+    public void put(String value) {
+        long[] hashes = hash(value);
+        for (int i = 0; i < hashCount; i++) {
+            long bit = index(hashes, i);
+            int word = (int) (bit >>> 6);
+            long mask = 1L << bit;
+            long current;
+            do {
+                current = words.get(word);
+                if ((current & mask) != 0) {
+                    break;
+                }
+            } while (!words.compareAndSet(word, current, current | mask));
+        }
+    }
+
+    /**
+     * 判断元素是否可能存在
+     * @param value 元素
+     * @return false表示一定不存在，true表示可能存在
+     */
+    public boolean mightContain(String value) {
+        long[] hashes = hash(value);
+        for (int i = 0; i < hashCount; i++) {
+            long bit = index(hashes, i);
+            if ((words.get((int) (bit >>> 6)) & (1L << bit)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * 获取预计插入数量（容量）
+     * @return 预计插入数量
+     */
+    public long getExpectedInsertions() {
+        return expectedInsertions;
+    }
+
+    private long index(long[] hashes, int i) {
+        long combined = hashes[0] + i * hashes[1];
+        return (combined & Long.MAX_VALUE) % bitSize;
+    }
+
+    /**
+     * 计算两个独立的64位FNV-1a哈希（不同偏移基数）
+     */
+    private static long[] hash(String value) {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        long h1 = 0xcbf29ce484222325L;
+        long h2 = 0x84222325cbf29ce4L;
+        for (byte b : bytes) {
+            h1 = (h1 ^ (b & 0xff)) * 0x100000001b3L;
+            h2 = (h2 ^ (b & 0xff)) * 0x100000001b3L;
+        }
+        // 最终混合，改善低位分布
+        h1 ^= h1 >>> 33;
+        h1 *= 0xff51afd7ed558ccdL;
+        h1 ^= h1 >>> 33;
+        h2 ^= h2 >>> 29;
+        h2 *= 0xc4ceb9fe1a85ec53L;
+        h2 ^= h2 >>> 32;
+        return new long[]{h1, h2 | 1};
+    }
+}
@@ -0,0 +1,56 @@
+package com.deyoch.utils;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * 文本GZIP压缩工具类
+ *
+ * @author deyoch-oa
+ */
+public class GzipUtil {
+
+    private GzipUtil() {
+    }
+
+    /**
+     * 将文本按UTF-8编码后压缩
+     * @param text 文本
+     * @return 压缩数据，文本为null时返回null
+     */
+    public static byte[] compress(String text) {
+        if (text == null) {
+            return null;
+        }
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+        try (OutputStream out = new GZIPOutputStream(buffer)) {
+            out.write(text.getBytes(StandardCharsets.UTF_8));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return buffer.toByteArray();
+    }
+
+    /**
+     * 解压为UTF-8文本
+     * @param data 压缩数据
+     * @return 文本，数据为null时返回null
+     */
+    public static String decompress(byte[] data) {
+        if (data == null) {
+            return null;
+        }
+        try (InputStream in = new GZIPInputStream(new ByteArrayInputStream(data))) {
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,190 @@
+package com.deyoch.utils;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 分层时间轮
+ * 第0层每个槽位跨度为一个tick，第n层每个槽位跨度为wheelSize^n个tick；定时器按距到期的tick数放入能容纳它的最低一层，
+ * 高层槽位轮到时整体下放到低层，到第0层槽位轮到时到期。添加、取消为O(1)，推进一个tick只处理当前槽位
+ * 超出最高层范围的定时器先放在最高层的最远槽位，下放时按实际到期时间重新放置
+ * 定时器按键去重，同一个键再次添加时替换原定时器；所有方法线程安全
+ *
+ * @param <K> 定时器键类型
+ * @param <V> 到期时返回的值类型
+ * @author deyoch-oa
+ */
+public class HierarchicalTimingWheel<K, V> {
+
+    private final long tickMs;
+    private final int wheelSize;
+    private final int levels;
+
+    /**
+     * 每层单个槽位跨越的tick数
+     */
+    private final long[] spans;
+
+    private final Map<K, Timer<K, V>>[][] buckets;
+    private final Map<K, Timer<K, V>> timers = new HashMap<>();
+
+    /**
+     * 已处理到的tick，该tick及之前到期的定时器都已返回
+     */
+    private long currentTick;
+
+    /**
+     * 创建时间轮
+     * @param tickMs 单个tick的毫秒数
+     * @param wheelSize 每层槽位数
+     * @param levels 层数
+     * @param startMs 起始时间（毫秒时间戳）
+     */
+    @SuppressWarnings("unchecked")
+    public HierarchicalTimingWheel(long tickMs, int wheelSize, int levels, long startMs) {
+        if (tickMs <= 0 || wheelSize < 2 || levels < 1) {
+            throw new IllegalArgumentException("时间轮参数无效");
+        }
+        this.tickMs = tickMs;
+        this.wheelSize = wheelSize;
+        this.levels = levels;
+        this.spans = new long[levels];
+        this.buckets = new Map[levels][wheelSize];
+        long span = 1;
+        for (int level = 0; level < levels; level++) {
+            spans[level] = span;
+            for (int slot = 0; slot < wheelSize; slot++) {
+                buckets[level][slot] = new LinkedHashMap<>();
+            }
+            span = Math.multiplyExact(span, wheelSize);
+        }
+        this.currentTick = startMs / tickMs;
+    }
+
+    /**
+     * 添加定时器，键已存在时替换原定时器
+     * 到期时间不晚于已处理的时间时在下一个tick到期
+     * @param key 定时器键
+     * @param deadlineMs 到期时间（毫秒时间戳）
+     * @param value 到期时返回的值
+     */
+    public synchronized void schedule(K key, long deadlineMs, V value) {
+        cancel(key);
+        // 向上取整，保证不早于到期时间触发
+        Timer<K, V> timer = new Timer<>(key, value, Math.floorDiv(deadlineMs + tickMs - 1, tickMs));
+        timers.put(key, timer);
+        place(timer, currentTick + 1);
+    }
+
+    /**
+     * 取消定时器
+     * @param key 定时器键
+     * @return 定时器存在且尚未到期返回true
+     */
+    public synchronized boolean cancel(K key) {
+        Timer<K, V> timer = timers.remove(key);
+        if (timer == null) {
+            return false;
+        }
+        buckets[timer.level][timer.slot].remove(key);
+        return true;
+    }
+
+    /**
+     * 推进到指定时间，返回期间到期的定时器值，按到期顺序排列
+     * 时间回拨时不处理
+     * @param nowMs 当前时间（毫秒时间戳）
+     * @return 到期的定时器值
+     */
+    public synchronized List<V> advance(long nowMs) {
+        long targetTick = nowMs / tickMs;
+        List<V> expired = new ArrayList<>();
+        while (currentTick < targetTick) {
+            if (timers.isEmpty()) {
+                // 没有定时器时直接跳到目标tick，避免长时间空转
+                currentTick = targetTick;
+                break;
+            }
+            currentTick++;
+            // 先由高到低下放，下放到当前tick的定时器随第0层一起到期
+            for (int level = levels - 1; level > 0; level--) {
+                if (currentTick % spans[level] == 0) {
+                    Map<K, Timer<K, V>> bucket = buckets[level][slot(currentTick, level)];
+                    if (!bucket.isEmpty()) {
+                        List<Timer<K, V>> moved = new ArrayList<>(bucket.values());
+                        bucket.clear();
+                        for (Timer<K, V> timer : moved) {
+                            place(timer, currentTick);
+                        }
+                    }
+                }
+            }
+            Map<K, Timer<K, V>> bucket = buckets[0][slot(currentTick, 0)];
+            if (!bucket.isEmpty()) {
+                List<Timer<K, V>> due = new ArrayList<>(bucket.values());
+                bucket.clear();
+                for (Timer<K, V> timer : due) {
+                    if (timer.expireTick > currentTick) {
+                        // 只有一层时超出范围的定时器会停在第0层，重新放置
+                        place(timer, currentTick + 1);
+                    } else {
+                        timers.remove(timer.key);
+                        expired.add(timer.value);
+                    }
+                }
+            }
+        }
+        return expired;
+    }
+
+    /**
+     * 获取未到期的定时器数量
+     * @return 定时器数量
+     */
+    public synchronized int size() {
+        return timers.size();
+    }
+
+    /**
+     * 把定时器放入能容纳它的最低一层
+     * @param earliestTick 允许放置的最早tick
+     */
+    private void place(Timer<K, V> timer, long earliestTick) {
+        long tick = Math.max(timer.expireTick, earliestTick);
+        long delta = tick - currentTick;
+        int level = 0;
+        while (level < levels - 1 && delta >= spans[level] * wheelSize) {
+            level++;
+        }
+        long range = spans[level] * wheelSize;
+        if (delta >= range) {
+            // 超出最高层范围，先放在最远的槽位，下放时再按实际到期时间放置
+            tick = currentTick + range - 1;
+        }
+        timer.level = level;
+        timer.slot = slot(tick, level);
+        buckets[level][timer.slot].put(timer.key, timer);
+    }
+
+    private int slot(long tick, int level) {
+        return (int) ((tick / spans[level]) % wheelSize);
+    }
+
+    private static class Timer<K, V> {
+
+        private final K key;
+        private final V value;
+        private final long expireTick;
+        private int level;
+        private int slot;
+
+        private Timer(K key, V value, long expireTick) {
+            this.key = key;
+            this.value = value;
+            this.expireTick = expireTick;
+        }
+    }
+}
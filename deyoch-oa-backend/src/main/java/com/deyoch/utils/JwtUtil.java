@@ -1,8 +1,11 @@
 package com.deyoch.utils;
 
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.security.Keys;
+import jakarta.annotation.PostConstruct;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
@@ -11,6 +14,7 @@ import java.nio.charset.StandardCharsets;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.UUID;
 
 /**
  * JWT工具类
@@ -19,18 +23,55 @@ import java.util.Map;
 @Component
 public class JwtUtil {
 
+    /**
+     * 声明名：紧凑编码的权限集合（无状态授权模式）
+     */
+    public static final String CLAIM_PERMS = "perms";
+
+    /**
+     * 声明名：签发时的权限纪元（无状态授权模式）
+     */
+    public static final String CLAIM_PERM_EPOCH = "permEpoch";
+
+    /**
+     * 声明名：用户角色ID（无状态授权模式）
+     */
+    public static final String CLAIM_ROLE_ID = "roleId";
+
     @Value("${jwt.secret}")
     private String secret;
 
     @Value("${jwt.expire}")
     private Long expire;
 
+    /**
+     * 签名密钥，启动时构建一次
+     */
+    private SecretKey signKey;
+
+    /**
+     * JWT解析器，线程安全，启动时构建一次
+     */
+    private JwtParser jwtParser;
+
+    /**
+     * 初始化签名密钥和解析器
+     * 避免每次签发或解析Token时重复构建HMAC密钥与解析器
+     */
+    @PostConstruct
+    public void init() {
+        signKey = Keys.hmacShaKeyFor(secret.getBytes(StandardCharsets.UTF_8));
+        jwtParser = Jwts.parser()
+                .verifyWith(signKey)
+                .build();
+    }
+
     /**
      * 获取签名密钥
      * @return SecretKey 签名密钥
      */
     private SecretKey getSignKey() {
-        return Keys.hmacShaKeyFor(secret.getBytes(StandardCharsets.UTF_8));
+        return signKey;
     }
 
     /**
@@ -43,6 +84,7 @@ public class JwtUtil {
         Date expireDate = new Date(now.getTime() + expire);
         return Jwts.builder()
                 .claims(claims)
+                .id(UUID.randomUUID().toString())
                 .subject(String.valueOf(claims.get("username")))
                 .issuedAt(now)
                 .expiration(expireDate)
@@ -56,11 +98,21 @@ public class JwtUtil {
      * @return Claims 声明信息
      */
     public Claims parseToken(String token) {
-        return Jwts.parser()
-                .verifyWith(getSignKey())
-                .build()
-                .parseSignedClaims(token)
-                .getPayload();
+        return jwtParser.parseSignedClaims(token).getPayload();
+    }
+
+    /**
+     * 验证并解析Token
+     * 将验签与解析合并为一次操作，供过滤器在每个请求上只验签一次
+     * @param token JWT Token
+     * @return Claims 声明信息，Token无效或已过期返回null
+     */
+    public Claims tryParseToken(String token) {
+        try {
+            return parseToken(token);
+        } catch (JwtException | IllegalArgumentException e) {
+            return null;
+        }
     }
 
     /**
@@ -0,0 +1,166 @@
+package com.deyoch.utils;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.IntSupplier;
+import java.util.function.LongSupplier;
+import java.util.function.Predicate;
+
+/**
+ * 有界LRU缓存
+ * 超过容量时淘汰最久未访问的条目；设置了有效期时，条目自写入起超过有效期即视为未命中，在读取时移除
+ * 所有方法都在缓存对象自身的锁内执行，调用方需要把多次访问与其他状态（如失效纪元）一起原子执行时，
+ * 可以在synchronized (cache)块内组合调用
+ *
+ * @author deyoch-oa
+ */
+public class LruCache<K, V> {
+
+    private final IntSupplier maxSize;
+    private final LongSupplier ttl;
+
+    private final LinkedHashMap<K, Node<V>> map = new LinkedHashMap<>(256, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<K, Node<V>> eldest) {
+            if (size() > maxSize.getAsInt()) {
+                evictions.increment();
+                return true;
+            }
+            return false;
+        }
+    };
+
+    private final LongAdder evictions = new LongAdder();
+
+    /**
+     * 创建缓存
+     * @param maxSize 最大条目数
+     * @param ttl 有效期（毫秒）
+     */
+    public LruCache(int maxSize, long ttl) {
+        this(() -> maxSize, () -> ttl);
+    }
+
+    /**
+     * 创建不过期的缓存，容量在每次写入时读取
+     * @param maxSize 最大条目数
+     */
+    public LruCache(IntSupplier maxSize) {
+        this(maxSize, null);
+    }
+
+    /**
+     * 创建缓存，容量和有效期在每次写入时读取
+     * 用于在构造之后才注入配置的组件
+     * @param maxSize 最大条目数
+     * @param ttl 有效期（毫秒），为null时不过期
+     */
+    public LruCache(IntSupplier maxSize, LongSupplier ttl) {
+        this.maxSize = maxSize;
+        this.ttl = ttl;
+    }
+
+    /**
+     * 读取条目并标记为最近访问
+     * @param key 键
+     * @return 值，不存在或已过期返回null
+     */
+    public synchronized V get(K key) {
+        Node<V> node = map.get(key);
+        if (node == null) {
+            return null;
+        }
+        if (node.expireAt <= System.currentTimeMillis()) {
+            map.remove(key);
+            return null;
+        }
+        return node.value;
+    }
+
+    /**
+     * 写入条目，有效期从写入时开始计算
+     * @param key 键
+     * @param value 值
+     */
+    public synchronized void put(K key, V value) {
+        map.put(key, new Node<>(value, expireAt()));
+    }
+
+    /**
+     * 批量写入条目
+     * @param values 键值映射
+     */
+    public synchronized void putAll(Map<? extends K, ? extends V> values) {
+        long expireAt = expireAt();
+        values.forEach((key, value) -> map.put(key, new Node<>(value, expireAt)));
+    }
+
+    /**
+     * 移除条目
+     * @param key 键
+     */
+    public synchronized void remove(K key) {
+        map.remove(key);
+    }
+
+    /**
+     * 仅当缓存中仍是指定的值（同一对象）时移除，避免误删并发写入的新条目
+     * @param key 键
+     * @param value 读取时得到的值
+     * @return 移除返回true
+     */
+    public synchronized boolean remove(K key, V value) {
+        Node<V> node = map.get(key);
+        if (node != null && node.value == value) {
+            map.remove(key);
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * 移除值满足条件的条目
+     * @param predicate 条件
+     * @return 移除的条目数
+     */
+    public synchronized int removeIf(Predicate<? super V> predicate) {
+        int removed = 0;
+        Iterator<Node<V>> iterator = map.values().iterator();
+        while (iterator.hasNext()) {
+            if (predicate.test(iterator.next().value)) {
+                iterator.remove();
+                removed++;
+            }
+        }
+        return removed;
+    }
+
+    public synchronized void clear() {
+        map.clear();
+    }
+
+    /**
+     * 获取条目数，包括已过期但尚未读取到的条目
+     * @return 条目数
+     */
+    public synchronized int size() {
+        return map.size();
+    }
+
+    /**
+     * 获取因超过容量被淘汰的条目数
+     * @return 淘汰数
+     */
+    public long getEvictions() {
+        return evictions.sum();
+    }
+
+    private long expireAt() {
+        return ttl != null ? System.currentTimeMillis() + ttl.getAsLong() : Long.MAX_VALUE;
+    }
+
+    private record Node<V>(V value, long expireAt) {
+    }
+}
@@ -0,0 +1,89 @@
+package com.deyoch.utils;
+
+import java.nio.charset.Charset;
+
+/**
+ * 拼音首字母工具类
+ * GB2312一级汉字（3755个常用字）按拼音排序，每个声母对应一段连续的区位码，
+ * 因此只需比较汉字的GB2312编码落在哪一段即可得到拼音首字母，无需引入拼音词典
+ * 二级汉字及GB2312以外的字符没有首字母，多音字按GB2312中的读音处理
+ *
+ * @author deyoch-oa
+ */
+public final class PinyinUtil {
+
+    private static final Charset GB2312 = Charset.forName("GB2312");
+
+    /**
+     * 各声母在GB2312一级汉字中的起始编码，与INITIALS一一对应
+     */
+    private static final int[] BOUNDARIES = {
+            45217, 45253, 45761, 46318, 46826, 47010, 47297, 47614, 48119, 49062, 49324, 49896,
+            50371, 50614, 50622, 50906, 51387, 51446, 52218, 52698, 52980, 53689, 54481
+    };
+
+    private static final char[] INITIALS = "abcdefghjklmnopqrstwxyz".toCharArray();
+
+    /**
+     * GB2312一级汉字的结束编码（不含）
+     */
+    private static final int LEVEL1_END = 55290;
+
+    private PinyinUtil() {
+    }
+
+    /**
+     * 获取字符串的拼音首字母
+     * 汉字转为小写首字母，英文字母和数字转为小写后保留，其他字符忽略
+     * 例如："张三" -> "zs"，"李A1" -> "la1"
+     *
+     * @param text 字符串
+     * @return 拼音首字母，text为null时返回空字符串
+     */
+    public static String getInitials(String text) {
+        if (text == null || text.isEmpty()) {
+            return "";
+        }
+        StringBuilder initials = new StringBuilder(text.length());
+        for (int i = 0; i < text.length(); i++) {
+            char ch = text.charAt(i);
+            if (ch < 128) {
+                if (Character.isLetterOrDigit(ch)) {
+                    initials.append(Character.toLowerCase(ch));
+                }
+            } else {
+                char initial = getInitial(ch);
+                if (initial != 0) {
+                    initials.append(initial);
+                }
+            }
+        }
+        return initials.toString();
+    }
+
+    /**
+     * 获取单个汉字的拼音首字母
+     *
+     * @param ch 汉字
+     * @return 小写首字母，不是GB2312一级汉字时返回0
+     */
+    public static char getInitial(char ch) {
+        if (!Character.isIdeographic(ch)) {
+            return 0;
+        }
+        byte[] bytes = String.valueOf(ch).getBytes(GB2312);
+        if (bytes.length != 2) {
+            return 0;
+        }
+        int code = ((bytes[0] & 0xff) << 8) | (bytes[1] & 0xff);
+        if (code < BOUNDARIES[0] || code >= LEVEL1_END) {
+            return 0;
+        }
+        for (int i = BOUNDARIES.length - 1; i >= 0; i--) {
+            if (code >= BOUNDARIES[i]) {
+                return INITIALS[i];
+            }
+        }
+        return 0;
+    }
+}
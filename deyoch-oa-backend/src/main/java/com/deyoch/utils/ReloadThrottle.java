@@ -0,0 +1,53 @@
+package com.deyoch.utils;
+
+/**
+ * 重新加载节流
+ * 内存索引加载失败或被丢弃后，距上次加载尝试超过重试间隔才再次全量加载，
+ * 数据库不可用期间不会每个请求都触发一次重建
+ *
+ * @author deyoch-oa
+ */
+public class ReloadThrottle {
+
+    /**
+     * 默认重试间隔（毫秒）
+     */
+    public static final long DEFAULT_INTERVAL = 30000L;
+
+    private final long interval;
+
+    private volatile long lastAttempt;
+
+    public ReloadThrottle() {
+        this(DEFAULT_INTERVAL);
+    }
+
+    /**
+     * @param interval 重试间隔（毫秒）
+     */
+    public ReloadThrottle(long interval) {
+        this.interval = interval;
+    }
+
+    /**
+     * 判断距上次加载尝试是否已超过重试间隔
+     * @return 超过返回true
+     */
+    public boolean isDue() {
+        return System.currentTimeMillis() - lastAttempt >= interval;
+    }
+
+    /**
+     * 记录一次加载尝试
+     */
+    public void attempted() {
+        lastAttempt = System.currentTimeMillis();
+    }
+
+    /**
+     * 清除尝试记录，下次判断时立即允许加载
+     */
+    public void reset() {
+        lastAttempt = 0L;
+    }
+}
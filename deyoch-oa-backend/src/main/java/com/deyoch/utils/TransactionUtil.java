@@ -0,0 +1,60 @@
+package com.deyoch.utils;
+
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.function.Consumer;
+
+/**
+ * 事务工具类
+ * 缓存、索引等内存结构的更新需要在事务提交后执行，避免事务回滚后与数据库不一致
+ *
+ * @author deyoch-oa
+ */
+public class TransactionUtil {
+
+    private TransactionUtil() {
+    }
+
+    /**
+     * 判断当前线程是否处于事务同步中
+     * @return 处于事务中返回true
+     */
+    public static boolean inTransaction() {
+        return TransactionSynchronizationManager.isSynchronizationActive();
+    }
+
+    /**
+     * 在当前事务提交后执行，无事务时立即执行
+     * 事务回滚时不执行
+     * @param action 要执行的操作
+     */
+    public static void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+
+    /**
+     * 在当前事务提交后执行，无事务时立即执行；执行抛出异常时交给失败处理
+     * 用于增量更新内存索引：更新失败后索引已与数据库不一致，由失败处理丢弃索引，之后重新加载
+     * @param action 要执行的操作
+     * @param onFailure 失败处理，参数为执行时抛出的异常
+     */
+    public static void afterCommit(Runnable action, Consumer<Exception> onFailure) {
+        afterCommit(() -> {
+            try {
+                action.run();
+            } catch (Exception e) {
+                onFailure.accept(e);
+            }
+        });
+    }
+}
@@ -1,5 +1,7 @@
 package com.deyoch.utils;
 
+import com.deyoch.security.TokenContext;
+import io.jsonwebtoken.Claims;
 import jakarta.servlet.http.HttpServletRequest;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
@@ -12,6 +14,7 @@ import org.springframework.web.context.request.ServletRequestAttributes;
  * 用户上下文工具类
  * 提供获取当前用户信息的静态方法，支持从SecurityContext或JWT Token中获取
  * 统一处理用户信息获取逻辑，避免重复代码
+ * 优先读取JWT过滤器绑定到请求的TokenContext，仅在其不存在时才重新解析Token
  * 
  * @author deyoch-oa
  */
@@ -54,6 +57,10 @@ public class UserContextUtil {
      * @return 用户名，无效token返回null
      */
     public static String getUsernameFromToken(JwtUtil jwtUtil) {
+        TokenContext context = TokenContext.current();
+        if (context != null) {
+            return context.getUsername();
+        }
         String token = getCurrentToken();
         if (StringUtils.hasText(token)) {
             try {
@@ -72,6 +79,10 @@ public class UserContextUtil {
      * @return 用户ID，无效token返回null
      */
     public static Long getUserIdFromToken(JwtUtil jwtUtil) {
+        TokenContext context = TokenContext.current();
+        if (context != null) {
+            return context.getUserId();
+        }
         String token = getCurrentToken();
         if (StringUtils.hasText(token)) {
             try {
@@ -90,12 +101,19 @@ public class UserContextUtil {
      * @return 用户信息对象，包含用户名和用户ID
      */
     public static UserInfo getCurrentUserInfo(JwtUtil jwtUtil) {
-        // 优先从JWT token获取
+        // 优先从过滤器已解析的Token上下文获取
+        TokenContext context = TokenContext.current();
+        if (context != null && context.getUserId() != null && StringUtils.hasText(context.getUsername())) {
+            return new UserInfo(context.getUserId(), context.getUsername());
+        }
+
+        // 其次解析JWT token（只解析一次）
         String token = getCurrentToken();
         if (StringUtils.hasText(token)) {
             try {
-                Long userId = jwtUtil.getUserIdFromToken(token);
-                String username = jwtUtil.getUsernameFromToken(token);
+                Claims claims = jwtUtil.parseToken(token);
+                Long userId = claims.get("userId", Long.class);
+                String username = claims.getSubject();
                 if (userId != null && StringUtils.hasText(username)) {
                     return new UserInfo(userId, username);
                 }
@@ -161,6 +161,48 @@ INSERT INTO `deyoch_dept` VALUES (9, '测试组', 2, '001001003', 7, '1380013801
 INSERT INTO `deyoch_dept` VALUES (10, '销售一部', 3, '001002001', 10, '13800138021', 'sales1@deyoch.com', 1, 1, '2026-01-09 14:40:55', '2026-01-09 14:40:55');
 INSERT INTO `deyoch_dept` VALUES (11, '销售二部', 3, '001002002', 12, '13800138022', 'sales2@deyoch.com', 2, 1, '2026-01-09 14:40:55', '2026-01-09 14:40:55');
 
+-- ----------------------------
+-- Table structure for deyoch_dept_closure
+-- ----------------------------
+DROP TABLE IF EXISTS `deyoch_dept_closure`;
+CREATE TABLE `deyoch_dept_closure`  (
+  `ancestor_id` bigint NOT NULL COMMENT '祖先部门ID',
+  `descendant_id` bigint NOT NULL COMMENT '后代部门ID',
+  `depth` int NOT NULL COMMENT '层级距离：0-自身，1-直接子部门',
+  PRIMARY KEY (`ancestor_id`, `descendant_id`) USING BTREE,
+  INDEX `idx_descendant_depth`(`descendant_id`, `depth`) USING BTREE
+) ENGINE = InnoDB CHARACTER SET = utf8mb4 COLLATE = utf8mb4_unicode_ci COMMENT = '部门层级闭包表' ROW_FORMAT = DYNAMIC;
+
+-- ----------------------------
+-- Records of deyoch_dept_closure
+-- ----------------------------
+INSERT INTO `deyoch_dept_closure` VALUES (1, 1, 0);
+INSERT INTO `deyoch_dept_closure` VALUES (1, 2, 1);
+INSERT INTO `deyoch_dept_closure` VALUES (1, 3, 1);
+INSERT INTO `deyoch_dept_closure` VALUES (1, 4, 1);
+INSERT INTO `deyoch_dept_closure` VALUES (1, 5, 1);
+INSERT INTO `deyoch_dept_closure` VALUES (1, 6, 1);
+INSERT INTO `deyoch_dept_closure` VALUES (1, 7, 2);
+INSERT INTO `deyoch_dept_closure` VALUES (1, 8, 2);
+INSERT INTO `deyoch_dept_closure` VALUES (1, 9, 2);
+INSERT INTO `deyoch_dept_closure` VALUES (1, 10, 2);
+INSERT INTO `deyoch_dept_closure` VALUES (1, 11, 2);
+INSERT INTO `deyoch_dept_closure` VALUES (2, 2, 0);
+INSERT INTO `deyoch_dept_closure` VALUES (2, 7, 1);
+INSERT INTO `deyoch_dept_closure` VALUES (2, 8, 1);
+INSERT INTO `deyoch_dept_closure` VALUES (2, 9, 1);
+INSERT INTO `deyoch_dept_closure` VALUES (3, 3, 0);
+INSERT INTO `deyoch_dept_closure` VALUES (3, 10, 1);
+INSERT INTO `deyoch_dept_closure` VALUES (3, 11, 1);
+INSERT INTO `deyoch_dept_closure` VALUES (4, 4, 0);
+INSERT INTO `deyoch_dept_closure` VALUES (5, 5, 0);
+INSERT INTO `deyoch_dept_closure` VALUES (6, 6, 0);
+INSERT INTO `deyoch_dept_closure` VALUES (7, 7, 0);
+INSERT INTO `deyoch_dept_closure` VALUES (8, 8, 0);
+INSERT INTO `deyoch_dept_closure` VALUES (9, 9, 0);
+INSERT INTO `deyoch_dept_closure` VALUES (10, 10, 0);
+INSERT INTO `deyoch_dept_closure` VALUES (11, 11, 0);
+
 -- ----------------------------
 -- Table structure for deyoch_document
 -- ----------------------------
@@ -183,6 +225,7 @@ CREATE TABLE `deyoch_document`  (
   INDEX `idx_dept_id`(`dept_id`) USING BTREE,
   INDEX `idx_user_id`(`user_id`) USING BTREE,
   INDEX `idx_file_type`(`file_type`) USING BTREE,
+  INDEX `idx_created_at`(`created_at`, `id`) USING BTREE,
   CONSTRAINT `fk_document_dept` FOREIGN KEY (`dept_id`) REFERENCES `deyoch_dept` (`id`) ON DELETE CASCADE ON UPDATE CASCADE,
   CONSTRAINT `fk_document_user` FOREIGN KEY (`user_id`) REFERENCES `deyoch_user` (`id`) ON DELETE CASCADE ON UPDATE CASCADE
 ) ENGINE = InnoDB AUTO_INCREMENT = 21 CHARACTER SET = utf8mb4 COLLATE = utf8mb4_unicode_ci COMMENT = '文档表' ROW_FORMAT = DYNAMIC;
@@ -201,6 +244,23 @@ INSERT INTO `deyoch_document` VALUES (8, '招聘流程图.png', '/documents/2026
 INSERT INTO `deyoch_document` VALUES (9, '办公室管理制度.docx', '/documents/2026/01/office_management.docx', 768000, 'docx', 19, 6, 1, '2026-01-09 14:40:55', '2026-01-09 14:40:55', '2.0', 1, NULL);
 INSERT INTO `deyoch_document` VALUES (10, 'API接口文档.json', '/documents/2026/01/api_docs.json', 384000, 'json', 4, 2, 1, '2026-01-09 14:40:55', '2026-01-09 14:40:55', '1.3', 1, NULL);
 
+-- ----------------------------
+-- Table structure for deyoch_document_content
+-- ----------------------------
+DROP TABLE IF EXISTS `deyoch_document_content`;
+CREATE TABLE `deyoch_document_content`  (
+  `document_id` bigint NOT NULL COMMENT '文档ID',
+  `source_path` varchar(500) CHARACTER SET utf8mb4 COLLATE utf8mb4_unicode_ci NULL DEFAULT NULL COMMENT '抽取时使用的文件路径',
+  `status` tinyint NOT NULL COMMENT '抽取状态：1-成功，2-失败，3-跳过',
+  `content` longblob NULL COMMENT 'GZIP压缩的UTF-8正文',
+  `text_length` int NOT NULL DEFAULT 0 COMMENT '正文字符数',
+  `truncated` tinyint NOT NULL DEFAULT 0 COMMENT '是否超出预算被截断：0-否，1-是',
+  `error_message` varchar(500) CHARACTER SET utf8mb4 COLLATE utf8mb4_unicode_ci NULL DEFAULT NULL COMMENT '失败或跳过原因',
+  `extracted_at` datetime NOT NULL COMMENT '抽取时间',
+  PRIMARY KEY (`document_id`) USING BTREE,
+  CONSTRAINT `fk_document_content_document` FOREIGN KEY (`document_id`) REFERENCES `deyoch_document` (`id`) ON DELETE CASCADE ON UPDATE CASCADE
+) ENGINE = InnoDB CHARACTER SET = utf8mb4 COLLATE = utf8mb4_unicode_ci COMMENT = '文档正文表' ROW_FORMAT = DYNAMIC;
+
 -- ----------------------------
 -- Table structure for deyoch_document_version
 -- ----------------------------
@@ -252,6 +312,7 @@ CREATE TABLE `deyoch_message`  (
   INDEX `idx_type`(`type`) USING BTREE,
   INDEX `idx_related`(`related_type`, `related_id`) USING BTREE,
   INDEX `idx_sender_id`(`sender_id`) USING BTREE,
+  INDEX `idx_receiver_created`(`receiver_id`, `created_at`, `id`) USING BTREE,
   CONSTRAINT `fk_message_receiver` FOREIGN KEY (`receiver_id`) REFERENCES `deyoch_user` (`id`) ON DELETE CASCADE ON UPDATE CASCADE,
   CONSTRAINT `fk_message_sender` FOREIGN KEY (`sender_id`) REFERENCES `deyoch_user` (`id`) ON DELETE SET NULL ON UPDATE CASCADE
 ) ENGINE = InnoDB AUTO_INCREMENT = 16 CHARACTER SET = utf8mb4 COLLATE = utf8mb4_0900_ai_ci COMMENT = '消息表' ROW_FORMAT = DYNAMIC;
@@ -291,7 +352,7 @@ CREATE TABLE `deyoch_message_template`  (
   PRIMARY KEY (`id`) USING BTREE,
   INDEX `idx_type`(`type`) USING BTREE,
   INDEX `idx_status`(`status`) USING BTREE
-) ENGINE = InnoDB AUTO_INCREMENT = 5 CHARACTER SET = utf8mb4 COLLATE = utf8mb4_0900_ai_ci COMMENT = '消息模板表' ROW_FORMAT = DYNAMIC;
+) ENGINE = InnoDB AUTO_INCREMENT = 7 CHARACTER SET = utf8mb4 COLLATE = utf8mb4_0900_ai_ci COMMENT = '消息模板表' ROW_FORMAT = DYNAMIC;
 
 -- ----------------------------
 -- Records of deyoch_message_template
@@ -300,6 +361,8 @@ INSERT INTO `deyoch_message_template` VALUES (1, '任务分配通知', 'task_ass
 INSERT INTO `deyoch_message_template` VALUES (2, '会议通知', 'meeting', '会议通知：{meetingTitle}', '您好，{receiverName}！\n\n您有一个会议需要参加：\n\n会议主题：{meetingTitle}\n会议时间：{meetingTime}\n会议地点：{meetingLocation}\n会议内容：{meetingContent}\n\n请准时参加。', 'receiverName,meetingTitle,meetingTime,meetingLocation,meetingContent', 1, '2026-01-09 14:40:55');
 INSERT INTO `deyoch_message_template` VALUES (3, '审批通知', 'approval', '您有新的审批任务', '您好，{receiverName}！\n\n您有一个新的审批任务：\n\n申请类型：{approvalType}\n申请人：{applicantName}\n申请时间：{applyTime}\n申请内容：{applyContent}\n\n请及时处理审批。', 'receiverName,approvalType,applicantName,applyTime,applyContent', 1, '2026-01-09 14:40:55');
 INSERT INTO `deyoch_message_template` VALUES (4, '系统通知', 'system', '系统通知：{noticeTitle}', '您好，{receiverName}！\n\n系统通知：\n\n{noticeContent}\n\n如有疑问，请联系系统管理员。', 'receiverName,noticeTitle,noticeContent', 1, '2026-01-09 14:40:55');
+INSERT INTO `deyoch_message_template` VALUES (5, '任务更新通知', 'task_update', '任务{updateType}：{taskTitle}', '您好，{receiverName}！\n\n任务状态提醒：\n\n任务标题：{taskTitle}\n截止时间：{deadline}\n\n{updateContent}', 'receiverName,taskTitle,updateType,deadline,updateContent', 1, '2026-01-09 14:40:55');
+INSERT INTO `deyoch_message_template` VALUES (6, '日程提醒', 'schedule_remind', '日程提醒：{scheduleTitle}', '您好，{receiverName}！\n\n您有一个日程即将开始：\n\n日程标题：{scheduleTitle}\n开始时间：{startTime}\n结束时间：{endTime}\n地点：{location}\n\n请提前做好准备。', 'receiverName,scheduleTitle,startTime,endTime,location', 1, '2026-01-09 14:40:55');
 
 -- ----------------------------
 -- Table structure for deyoch_permission
@@ -339,6 +402,18 @@ INSERT INTO `deyoch_permission` VALUES (11, '文档管理', 'oa:document:manage'
 INSERT INTO `deyoch_permission` VALUES (12, '通讯录', 'oa:contact:view', 'menu', 0, '/contact', 'contact/index', 'AddressBook', 7, 1, '2026-01-09 10:25:14', '2026-01-09 10:25:14');
 INSERT INTO `deyoch_permission` VALUES (13, '消息中心', 'oa:message:view', 'menu', 0, '/message', 'message/index', 'ChatDotRound', 8, 1, '2026-01-09 10:25:14', '2026-01-09 10:25:14');
 
+-- ----------------------------
+-- Table structure for deyoch_permission_change
+-- ----------------------------
+DROP TABLE IF EXISTS `deyoch_permission_change`;
+CREATE TABLE `deyoch_permission_change`  (
+  `id` bigint NOT NULL AUTO_INCREMENT COMMENT '变更序号，即权限纪元',
+  `scope` varchar(32) CHARACTER SET utf8mb4 COLLATE utf8mb4_unicode_ci NOT NULL COMMENT '变更范围：all-全部，u:{用户ID}，r:{角色ID}',
+  `created_at` datetime NOT NULL DEFAULT CURRENT_TIMESTAMP COMMENT '变更时间，超过Token有效期的记录可清理',
+  PRIMARY KEY (`id`) USING BTREE,
+  INDEX `idx_created_at`(`created_at`) USING BTREE
+) ENGINE = InnoDB CHARACTER SET = utf8mb4 COLLATE = utf8mb4_unicode_ci COMMENT = '权限变更记录表' ROW_FORMAT = DYNAMIC;
+
 -- ----------------------------
 -- Table structure for deyoch_process
 -- ----------------------------
@@ -512,7 +587,8 @@ CREATE TABLE `deyoch_schedule`  (
   `created_at` datetime NULL DEFAULT CURRENT_TIMESTAMP COMMENT '创建时间',
   `updated_at` datetime NULL DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP COMMENT '更新时间',
   PRIMARY KEY (`id`) USING BTREE,
-  INDEX `idx_user_id`(`user_id`) USING BTREE,
+  INDEX `idx_user_start`(`user_id`, `start_time`) USING BTREE,
+  INDEX `idx_user_end`(`user_id`, `end_time`) USING BTREE,
   INDEX `idx_start_time`(`start_time`) USING BTREE,
   INDEX `idx_end_time`(`end_time`) USING BTREE,
   CONSTRAINT `fk_schedule_user` FOREIGN KEY (`user_id`) REFERENCES `deyoch_user` (`id`) ON DELETE CASCADE ON UPDATE CASCADE
@@ -529,6 +605,64 @@ INSERT INTO `deyoch_schedule` VALUES (5, '新员工面试', '面试前端开发
 INSERT INTO `deyoch_schedule` VALUES (6, '系统培训', '为新员工进行OA系统使用培训', 5, '2026-01-18 14:00:00', '2026-01-18 16:00:00', '培训室', 1, '2026-01-09 14:40:55', '2026-01-09 14:40:55');
 INSERT INTO `deyoch_schedule` VALUES (7, '部门聚餐', '技术部团建聚餐活动', 2, '2026-01-19 18:00:00', '2026-01-19 21:00:00', '海底捞火锅', 1, '2026-01-09 14:40:55', '2026-01-09 14:40:55');
 
+-- ----------------------------
+-- Table structure for deyoch_schedule_series
+-- ----------------------------
+DROP TABLE IF EXISTS `deyoch_schedule_series`;
+CREATE TABLE `deyoch_schedule_series`  (
+  `id` bigint NOT NULL AUTO_INCREMENT COMMENT '主键ID',
+  `title` varchar(100) CHARACTER SET utf8mb4 COLLATE utf8mb4_unicode_ci NOT NULL COMMENT '日程标题',
+  `content` text CHARACTER SET utf8mb4 COLLATE utf8mb4_unicode_ci NULL COMMENT '日程内容',
+  `user_id` bigint NOT NULL COMMENT '用户ID',
+  `location` varchar(100) CHARACTER SET utf8mb4 COLLATE utf8mb4_unicode_ci NULL DEFAULT NULL COMMENT '地点',
+  `start_time` datetime NOT NULL COMMENT '首次开始时间',
+  `end_time` datetime NOT NULL COMMENT '首次结束时间',
+  `frequency` varchar(10) CHARACTER SET utf8mb4 COLLATE utf8mb4_unicode_ci NOT NULL COMMENT '重复频率：DAILY-每天，WEEKLY-每周，MONTHLY-每月',
+  `repeat_interval` int NOT NULL DEFAULT 1 COMMENT '重复间隔',
+  `weekdays` tinyint NULL DEFAULT NULL COMMENT '每周重复的星期，按位表示：1-周一，2-周二，…，64-周日',
+  `until_date` date NULL DEFAULT NULL COMMENT '截止日期（包含），为空表示不限',
+  `occurrence_count` int NULL DEFAULT NULL COMMENT '重复次数，为空表示不限',
+  `last_start_time` datetime NULL DEFAULT NULL COMMENT '最后一次开始时间的上界，为空表示无限重复',
+  `created_at` datetime NULL DEFAULT CURRENT_TIMESTAMP COMMENT '创建时间',
+  `updated_at` datetime NULL DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP COMMENT '更新时间',
+  PRIMARY KEY (`id`) USING BTREE,
+  INDEX `idx_user_start`(`user_id`, `start_time`) USING BTREE,
+  CONSTRAINT `fk_schedule_series_user` FOREIGN KEY (`user_id`) REFERENCES `deyoch_user` (`id`) ON DELETE CASCADE ON UPDATE CASCADE
+) ENGINE = InnoDB CHARACTER SET = utf8mb4 COLLATE = utf8mb4_unicode_ci COMMENT = '重复日程系列表' ROW_FORMAT = DYNAMIC;
+
+-- ----------------------------
+-- Table structure for deyoch_schedule_series_exception
+-- ----------------------------
+DROP TABLE IF EXISTS `deyoch_schedule_series_exception`;
+CREATE TABLE `deyoch_schedule_series_exception`  (
+  `series_id` bigint NOT NULL COMMENT '系列ID',
+  `original_start_time` datetime NOT NULL COMMENT '实例原定开始时间',
+  `cancelled` tinyint NOT NULL DEFAULT 0 COMMENT '是否取消：0-否，1-是',
+  `title` varchar(100) CHARACTER SET utf8mb4 COLLATE utf8mb4_unicode_ci NULL DEFAULT NULL COMMENT '修改后的标题',
+  `start_time` datetime NULL DEFAULT NULL COMMENT '修改后的开始时间',
+  `end_time` datetime NULL DEFAULT NULL COMMENT '修改后的结束时间',
+  `location` varchar(100) CHARACTER SET utf8mb4 COLLATE utf8mb4_unicode_ci NULL DEFAULT NULL COMMENT '修改后的地点',
+  `created_at` datetime NOT NULL DEFAULT CURRENT_TIMESTAMP COMMENT '创建时间',
+  PRIMARY KEY (`series_id`, `original_start_time`) USING BTREE,
+  INDEX `idx_series_start`(`series_id`, `start_time`) USING BTREE,
+  CONSTRAINT `fk_schedule_series_exception_series` FOREIGN KEY (`series_id`) REFERENCES `deyoch_schedule_series` (`id`) ON DELETE CASCADE ON UPDATE CASCADE
+) ENGINE = InnoDB CHARACTER SET = utf8mb4 COLLATE = utf8mb4_unicode_ci COMMENT = '重复日程例外表' ROW_FORMAT = DYNAMIC;
+
+-- ----------------------------
+-- Table structure for deyoch_schedule_share
+-- ----------------------------
+DROP TABLE IF EXISTS `deyoch_schedule_share`;
+CREATE TABLE `deyoch_schedule_share`  (
+  `schedule_id` bigint NOT NULL COMMENT '日程ID',
+  `user_id` bigint NOT NULL COMMENT '被分享用户ID',
+  `shared_by` bigint NOT NULL COMMENT '分享人ID',
+  `created_at` datetime NOT NULL DEFAULT CURRENT_TIMESTAMP COMMENT '分享时间',
+  PRIMARY KEY (`schedule_id`, `user_id`) USING BTREE,
+  INDEX `idx_user_schedule`(`user_id`, `schedule_id`) USING BTREE,
+  CONSTRAINT `fk_schedule_share_schedule` FOREIGN KEY (`schedule_id`) REFERENCES `deyoch_schedule` (`id`) ON DELETE CASCADE ON UPDATE CASCADE,
+  CONSTRAINT `fk_schedule_share_user` FOREIGN KEY (`user_id`) REFERENCES `deyoch_user` (`id`) ON DELETE CASCADE ON UPDATE CASCADE
+) ENGINE = InnoDB CHARACTER SET = utf8mb4 COLLATE = utf8mb4_unicode_ci COMMENT = '日程分享表' ROW_FORMAT = DYNAMIC;
+
 -- ----------------------------
 -- Table structure for deyoch_task
 -- ----------------------------
@@ -550,6 +684,7 @@ CREATE TABLE `deyoch_task`  (
   INDEX `idx_status`(`status`) USING BTREE,
   INDEX `idx_priority`(`priority`) USING BTREE,
   INDEX `idx_creator_id`(`creator_id`) USING BTREE,
+  INDEX `idx_created_at`(`created_at`, `id`) USING BTREE,
   CONSTRAINT `fk_task_assignee` FOREIGN KEY (`assignee_id`) REFERENCES `deyoch_user` (`id`) ON DELETE CASCADE ON UPDATE CASCADE,
   CONSTRAINT `fk_task_creator` FOREIGN KEY (`creator_id`) REFERENCES `deyoch_user` (`id`) ON DELETE CASCADE ON UPDATE CASCADE
 ) ENGINE = InnoDB AUTO_INCREMENT = 7 CHARACTER SET = utf8mb4 COLLATE = utf8mb4_unicode_ci COMMENT = '任务表' ROW_FORMAT = DYNAMIC;
@@ -564,6 +699,20 @@ INSERT INTO `deyoch_task` VALUES (4, '客户需求调研', '对重点客户进
 INSERT INTO `deyoch_task` VALUES (5, '年度财务报表编制', '编制2025年度财务报表：\n1. 收集财务数据\n2. 编制报表\n3. 审核确认', 14, 13, 3, 1, '2026-01-05 09:00:00', '2026-01-31 18:00:00', '2026-01-09 14:40:55', '2026-01-09 14:40:55');
 INSERT INTO `deyoch_task` VALUES (6, '招聘计划制定', '制定2026年第一季度招聘计划：\n1. 各部门需求调研\n2. 制定招聘策略\n3. 发布招聘信息', 17, 16, 2, 2, '2026-01-03 09:00:00', '2026-01-15 18:00:00', '2026-01-09 14:40:55', '2026-01-09 14:40:55');
 
+-- ----------------------------
+-- Table structure for deyoch_token_revocation
+-- ----------------------------
+DROP TABLE IF EXISTS `deyoch_token_revocation`;
+CREATE TABLE `deyoch_token_revocation`  (
+  `jti` varchar(64) CHARACTER SET utf8mb4 COLLATE utf8mb4_unicode_ci NOT NULL COMMENT 'Token唯一标识',
+  `user_id` bigint NULL DEFAULT NULL COMMENT '用户ID',
+  `expire_at` datetime NOT NULL COMMENT 'Token过期时间，过期后记录可清理',
+  `created_at` datetime NULL DEFAULT CURRENT_TIMESTAMP COMMENT '吊销时间',
+  PRIMARY KEY (`jti`) USING BTREE,
+  INDEX `idx_expire_at`(`expire_at`) USING BTREE,
+  INDEX `idx_created_at`(`created_at`) USING BTREE
+) ENGINE = InnoDB CHARACTER SET = utf8mb4 COLLATE = utf8mb4_unicode_ci COMMENT = 'Token吊销表' ROW_FORMAT = DYNAMIC;
+
 -- ----------------------------
 -- Table structure for deyoch_user
 -- ----------------------------
@@ -592,7 +741,8 @@ CREATE TABLE `deyoch_user`  (
   INDEX `idx_role_id`(`role_id`) USING BTREE,
   INDEX `idx_real_name`(`real_name`) USING BTREE,
   INDEX `idx_position`(`position`) USING BTREE,
-  INDEX `idx_employee_id`(`employee_id`) USING BTREE
+  INDEX `idx_employee_id`(`employee_id`) USING BTREE,
+  INDEX `idx_created_at`(`created_at`, `id`) USING BTREE
 ) ENGINE = InnoDB AUTO_INCREMENT = 21 CHARACTER SET = utf8mb4 COLLATE = utf8mb4_unicode_ci COMMENT = '用户表' ROW_FORMAT = DYNAMIC;
 
 -- ----------------------------
@@ -0,0 +1,84 @@
+package com.deyoch.benchmark;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtParser;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import javax.crypto.SecretKey;
+import java.nio.charset.StandardCharsets;
+import java.util.Date;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JWT解析基准测试
+ * 对比单个请求内的Token处理开销：
+ * perRequestRebuild - 旧实现：validateToken、parseToken、getUserIdFromToken、getUsernameFromToken
+ *                     各自重建密钥和解析器并验签，共4次
+ * parseOnceCached   - 新实现：启动时构建密钥和解析器，过滤器验签一次，后续读取请求上下文
+ *
+ * 运行方式：mvn test-compile 后以测试类路径执行本类的main方法
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JwtParseBenchmark {
+
+    private static final String SECRET = "deyoch-oa-secret-key-2025-very-complex-random-string-for-security";
+
+    private String token;
+    private JwtParser cachedParser;
+
+    @Setup
+    public void setUp() {
+        SecretKey key = Keys.hmacShaKeyFor(SECRET.getBytes(StandardCharsets.UTF_8));
+        Date now = new Date();
+        token = Jwts.builder()
+                .claims(Map.of("userId", 1L, "username", "admin"))
+                .subject("admin")
+                .issuedAt(now)
+                .expiration(new Date(now.getTime() + 86400000L))
+                .signWith(key)
+                .compact();
+        cachedParser = Jwts.parser().verifyWith(key).build();
+    }
+
+    @Benchmark
+    public Object perRequestRebuild() {
+        Object result = null;
+        for (int i = 0; i < 4; i++) {
+            SecretKey key = Keys.hmacShaKeyFor(SECRET.getBytes(StandardCharsets.UTF_8));
+            result = Jwts.parser().verifyWith(key).build().parseSignedClaims(token).getPayload();
+        }
+        return result;
+    }
+
+    @Benchmark
+    public Object parseOnceCached() {
+        Claims claims = cachedParser.parseSignedClaims(token).getPayload();
+        return claims.get("userId", Long.class);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(JwtParseBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
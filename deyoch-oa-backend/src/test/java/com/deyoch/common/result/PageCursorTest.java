@@ -0,0 +1,79 @@
+package com.deyoch.common.result;
+
+import com.deyoch.entity.DeyochTask;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * 游标分页测试
+ * 验证游标编解码，以及创建时间相同的行在翻页时不重复、不遗漏
+ */
+public class PageCursorTest {
+
+    @Test
+    void shouldRoundTripCursor() {
+        LocalDateTime createdAt = LocalDateTime.of(2026, 1, 8, 9, 30, 15, 123000000);
+        PageCursor decoded = PageCursor.decode(new PageCursor(createdAt, 42L).encode());
+
+        assertThat(decoded.getCreatedAt()).isEqualTo(createdAt);
+        assertThat(decoded.getId()).isEqualTo(42L);
+        assertThat(PageCursor.decode("")).isNull();
+        assertThat(PageCursor.decode(null)).isNull();
+    }
+
+    @Test
+    void shouldRejectMalformedCursor() {
+        assertThatThrownBy(() -> PageCursor.decode("not-a-cursor"))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("无效的分页游标");
+        assertThatThrownBy(() -> PageCursor.decode("%%%"))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void shouldWalkAllRowsWithTiedTimestamps() {
+        LocalDateTime base = LocalDateTime.of(2026, 1, 1, 0, 0);
+        List<DeyochTask> table = new ArrayList<>();
+        for (long id = 1; id <= 23; id++) {
+            DeyochTask task = new DeyochTask();
+            task.setId(id);
+            // 每3行共用一个创建时间
+            task.setCreatedAt(base.plusMinutes(id / 3));
+            table.add(task);
+        }
+        Comparator<DeyochTask> order = Comparator.comparing(DeyochTask::getCreatedAt)
+                .thenComparing(DeyochTask::getId).reversed();
+
+        List<Long> visited = new ArrayList<>();
+        String cursor = "";
+        int pages = 0;
+        while (cursor != null) {
+            PageCursor position = PageCursor.decode(cursor);
+            // 模拟 WHERE created_at < ? OR (created_at = ? AND id < ?) ORDER BY created_at DESC, id DESC LIMIT 6
+            List<DeyochTask> rows = table.stream()
+                    .filter(t -> position == null
+                            || t.getCreatedAt().isBefore(position.getCreatedAt())
+                            || (t.getCreatedAt().equals(position.getCreatedAt()) && t.getId() < position.getId()))
+                    .sorted(order)
+                    .limit(6)
+                    .collect(Collectors.toList());
+            PageResult<DeyochTask> page = PageCursor.toPageResult(rows, 5, DeyochTask::getCreatedAt, DeyochTask::getId);
+            assertThat(page.getRecords()).hasSizeLessThanOrEqualTo(5);
+            page.getRecords().forEach(t -> visited.add(t.getId()));
+            cursor = page.getNextCursor();
+            pages++;
+        }
+
+        assertThat(pages).isEqualTo(5);
+        assertThat(visited).containsExactlyElementsOf(
+                table.stream().sorted(order).map(DeyochTask::getId).collect(Collectors.toList()));
+    }
+}
@@ -0,0 +1,141 @@
+package com.deyoch.config;
+
+import com.baomidou.mybatisplus.annotation.DbType;
+import com.baomidou.mybatisplus.core.metadata.IPage;
+import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
+import com.deyoch.common.result.CountAwarePage;
+import org.apache.ibatis.builder.StaticSqlSource;
+import org.apache.ibatis.executor.Executor;
+import org.apache.ibatis.executor.SimpleExecutor;
+import org.apache.ibatis.mapping.BoundSql;
+import org.apache.ibatis.mapping.MappedStatement;
+import org.apache.ibatis.mapping.ParameterMapping;
+import org.apache.ibatis.mapping.ResultMap;
+import org.apache.ibatis.mapping.SqlCommandType;
+import org.apache.ibatis.mapping.SqlSource;
+import org.apache.ibatis.session.Configuration;
+import org.apache.ibatis.session.RowBounds;
+import org.apache.ibatis.transaction.Transaction;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * COUNT缓存分页插件测试
+ * 验证翻页复用缓存的总数、写入对应表后失效，以及无筛选条件时的估算总数
+ */
+public class CachedCountPaginationInnerInterceptorTest {
+
+    private Configuration configuration;
+    private Transaction transaction;
+    private Executor executor;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        configuration = new Configuration();
+        transaction = mock(Transaction.class);
+        executor = spy(new SimpleExecutor(configuration, transaction));
+        doReturn(List.of(42L)).when(executor).query(any(), any(), any(), any(), any(), any());
+    }
+
+    @Test
+    void shouldReuseCountAcrossPagesUntilTableIsWritten() throws Exception {
+        CachedCountPaginationInnerInterceptor interceptor = interceptor(false);
+        MappedStatement select = statement("doc.selectPage",
+                "SELECT id FROM deyoch_document WHERE user_id = ?", SqlCommandType.SELECT, "userId");
+
+        assertThat(count(interceptor, select, new Page<>(1, 10), 1L)).isEqualTo(42L);
+        assertThat(count(interceptor, select, new Page<>(2, 10), 1L)).isEqualTo(42L);
+        verify(executor, times(1)).query(any(), any(), any(), any(), any(), any());
+
+        // 不同的筛选参数单独统计
+        count(interceptor, select, new Page<>(1, 10), 2L);
+        verify(executor, times(2)).query(any(), any(), any(), any(), any(), any());
+
+        // 写入其他表不影响缓存
+        interceptor.beforeUpdate(executor, statement("task.update",
+                "UPDATE deyoch_task SET status = ? WHERE id = ?", SqlCommandType.UPDATE, "status", "id"), new HashMap<>());
+        count(interceptor, select, new Page<>(3, 10), 1L);
+        verify(executor, times(2)).query(any(), any(), any(), any(), any(), any());
+
+        // 写入文档表后重新统计
+        interceptor.beforeUpdate(executor, statement("doc.update",
+                "UPDATE `deyoch_document` SET file_name = ? WHERE id = ?", SqlCommandType.UPDATE, "fileName", "id"),
+                new HashMap<>());
+        count(interceptor, select, new Page<>(1, 10), 1L);
+        verify(executor, times(3)).query(any(), any(), any(), any(), any(), any());
+    }
+
+    @Test
+    void shouldEstimateUnfilteredTotalWhenAllowed() throws Exception {
+        Connection connection = mock(Connection.class);
+        PreparedStatement statement = mock(PreparedStatement.class);
+        ResultSet resultSet = mock(ResultSet.class);
+        when(transaction.getConnection()).thenReturn(connection);
+        when(connection.prepareStatement(anyString())).thenReturn(statement);
+        when(statement.executeQuery()).thenReturn(resultSet);
+        when(resultSet.next()).thenReturn(true);
+        when(resultSet.getLong(1)).thenReturn(250000L);
+
+        CachedCountPaginationInnerInterceptor interceptor = interceptor(true);
+        MappedStatement select = statement("doc.selectAll",
+                "SELECT id FROM deyoch_document ORDER BY created_at DESC", SqlCommandType.SELECT);
+
+        CountAwarePage<Object> approximate = new CountAwarePage<>(1, 10, true);
+        assertThat(count(interceptor, select, approximate, null)).isEqualTo(250000L);
+        assertThat(approximate.isTotalExact()).isFalse();
+        verify(statement).setString(1, "deyoch_document");
+        verify(executor, never()).query(any(), any(), any(), any(), any(), any());
+
+        // 不允许估算的分页参数仍精确统计
+        MappedStatement other = statement("doc.selectAllExact",
+                "SELECT id FROM deyoch_document ORDER BY created_at DESC", SqlCommandType.SELECT);
+        CountAwarePage<Object> exact = new CountAwarePage<>(1, 10, false);
+        assertThat(count(interceptor, other, exact, null)).isEqualTo(42L);
+        assertThat(exact.isTotalExact()).isTrue();
+    }
+
+    private CachedCountPaginationInnerInterceptor interceptor(boolean approximateEnabled) {
+        return new CachedCountPaginationInnerInterceptor(DbType.MYSQL, 100, 60000L, approximateEnabled, 100000L);
+    }
+
+    private long count(CachedCountPaginationInnerInterceptor interceptor, MappedStatement ms, IPage<?> page,
+                       Long userId) throws Exception {
+        Map<String, Object> parameter = new HashMap<>();
+        parameter.put("page", page);
+        parameter.put("userId", userId);
+        BoundSql boundSql = ms.getBoundSql(parameter);
+        interceptor.willDoQuery(executor, ms, parameter, RowBounds.DEFAULT, Executor.NO_RESULT_HANDLER, boundSql);
+        return page.getTotal();
+    }
+
+    private MappedStatement statement(String id, String sql, SqlCommandType type, String... properties) {
+        List<ParameterMapping> mappings = new ArrayList<>();
+        for (String property : properties) {
+            mappings.add(new ParameterMapping.Builder(configuration, property, Object.class).build());
+        }
+        SqlSource sqlSource = new StaticSqlSource(configuration, sql, mappings);
+        return new MappedStatement.Builder(configuration, id, sqlSource, type)
+                .resultMaps(List.of(new ResultMap.Builder(configuration, id + "-map", Long.class,
+                        new ArrayList<>()).build()))
+                .build();
+    }
+}
@@ -0,0 +1,72 @@
+package com.deyoch.security;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * 密码哈希执行器测试
+ * 验证队列已满时快速拒绝，以及排队/耗时统计
+ */
+public class PasswordHashExecutorTest {
+
+    private final CountDownLatch release = new CountDownLatch(1);
+    private PasswordHashExecutor executor;
+
+    @BeforeEach
+    void setUp() {
+        PasswordEncoder encoder = mock(PasswordEncoder.class);
+        when(encoder.encode(anyString())).thenAnswer(invocation -> {
+            release.await(5, TimeUnit.SECONDS);
+            return "encoded";
+        });
+        executor = new PasswordHashExecutor(encoder);
+        ReflectionTestUtils.setField(executor, "poolSize", 1);
+        ReflectionTestUtils.setField(executor, "queueCapacity", 1);
+        ReflectionTestUtils.setField(executor, "timeout", 5000L);
+        executor.init();
+    }
+
+    @AfterEach
+    void tearDown() {
+        release.countDown();
+        executor.shutdown();
+    }
+
+    @Test
+    void shouldRejectWhenQueueIsFull() {
+        CompletableFuture<String> running = executor.encodeAsync("a");
+        CompletableFuture<String> queued = executor.encodeAsync("b");
+        CompletableFuture<String> rejected = executor.encodeAsync("c");
+
+        assertThat(rejected).isCompletedExceptionally();
+        assertThatThrownBy(rejected::join).satisfies(e -> assertThat(PasswordHashExecutor.isRejected(e)).isTrue());
+
+        release.countDown();
+        assertThat(running.join()).isEqualTo("encoded");
+        assertThat(queued.join()).isEqualTo("encoded");
+        assertThat(executor.getStats().get("rejected")).isEqualTo(1L);
+        assertThat(executor.getStats().get("completed")).isEqualTo(2L);
+    }
+
+    @Test
+    void shouldThrowRejectedForSynchronousCallersWhenFull() {
+        executor.encodeAsync("a");
+        executor.encodeAsync("b");
+
+        assertThatThrownBy(() -> executor.encode("c")).isInstanceOf(RejectedExecutionException.class);
+    }
+}
@@ -0,0 +1,87 @@
+package com.deyoch.security;
+
+import com.deyoch.entity.DeyochPermission;
+import com.deyoch.entity.DeyochRolePermission;
+import com.deyoch.mapper.DeyochPermissionMapper;
+import com.deyoch.mapper.DeyochRolePermissionMapper;
+import com.deyoch.service.notify.TableInfoTestSupport;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.BitSet;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * 角色权限位图索引测试
+ * 验证全量加载后的位测试结果以及增量维护
+ */
+public class PermissionBitsetIndexTest {
+
+    private PermissionBitsetIndex index;
+
+    @BeforeAll
+    static void initTableInfo() {
+        TableInfoTestSupport.init(DeyochPermission.class);
+    }
+
+    @BeforeEach
+    void setUp() {
+        DeyochPermissionMapper permissionMapper = mock(DeyochPermissionMapper.class);
+        DeyochRolePermissionMapper rolePermissionMapper = mock(DeyochRolePermissionMapper.class);
+        when(permissionMapper.selectList(any())).thenReturn(List.of(
+                permission(1L, "sys:user:manage"),
+                permission(11L, "oa:document:manage"),
+                permission(12L, "oa:contact:view")));
+        when(rolePermissionMapper.selectList(any())).thenReturn(List.of(
+                new DeyochRolePermission(1L, 1L, 1L),
+                new DeyochRolePermission(2L, 1L, 11L),
+                new DeyochRolePermission(3L, 2L, 12L)));
+        index = new PermissionBitsetIndex(permissionMapper, rolePermissionMapper);
+    }
+
+    @Test
+    void shouldAnswerHasAuthorityByBitTest() {
+        BitSet admin = index.getRoleBits(1L);
+        BitSet staff = index.getRoleBits(2L);
+
+        assertThat(index.hasAuthority(admin, "oa:document:manage")).isTrue();
+        assertThat(index.hasAuthority(admin, "oa:contact:view")).isFalse();
+        assertThat(index.hasAuthority(staff, "oa:contact:view")).isTrue();
+        assertThat(index.hasAuthority(staff, "unknown:code")).isFalse();
+        assertThat(index.getRoleBits(99L).isEmpty()).isTrue();
+    }
+
+    @Test
+    void shouldUpdateRoleBitsIncrementally() {
+        index.getRoleBits(1L);
+        index.onRolePermissionsChanged(2L, List.of(11L, 12L));
+
+        assertThat(index.hasAuthority(index.getRoleBits(2L), "oa:document:manage")).isTrue();
+        assertThat(index.hasAuthority(index.getRoleBits(1L), "oa:contact:view")).isFalse();
+    }
+
+    @Test
+    void shouldRemapRenamedAndRemovedPermissions() {
+        BitSet admin = index.getRoleBits(1L);
+        index.onPermissionSaved(permission(11L, "oa:doc:manage"));
+        assertThat(index.hasAuthority(admin, "oa:doc:manage")).isTrue();
+        assertThat(index.hasAuthority(admin, "oa:document:manage")).isFalse();
+
+        index.onPermissionRemoved(1L);
+        assertThat(index.hasAuthority(index.getRoleBits(1L), "sys:user:manage")).isFalse();
+        assertThat(index.hasAuthority(index.getRoleBits(1L), "oa:doc:manage")).isTrue();
+    }
+
+    private DeyochPermission permission(Long id, String permCode) {
+        DeyochPermission permission = new DeyochPermission();
+        permission.setId(id);
+        permission.setPermCode(permCode);
+        return permission;
+    }
+}
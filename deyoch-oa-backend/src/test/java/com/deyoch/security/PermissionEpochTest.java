@@ -0,0 +1,120 @@
+package com.deyoch.security;
+
+import com.deyoch.entity.DeyochPermissionChange;
+import com.deyoch.mapper.DeyochPermissionChangeMapper;
+import com.deyoch.service.notify.TableInfoTestSupport;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * 权限纪元测试
+ * 验证按用户、角色和全部范围判断Token纪元是否有效，以及其他实例写入的变更在同步后生效
+ */
+public class PermissionEpochTest {
+
+    /**
+     * 模拟变更记录表，自增序号由所有实例共享
+     */
+    private final List<DeyochPermissionChange> table = new ArrayList<>();
+    private final AtomicLong sequence = new AtomicLong();
+
+    private PermissionEpoch epoch;
+
+    @BeforeAll
+    static void initTableInfo() {
+        TableInfoTestSupport.init(DeyochPermissionChange.class);
+    }
+
+    @BeforeEach
+    void setUp() {
+        DeyochPermissionChangeMapper mapper = mock(DeyochPermissionChangeMapper.class);
+        when(mapper.insert(any(DeyochPermissionChange.class))).thenAnswer(invocation -> {
+            DeyochPermissionChange change = invocation.getArgument(0);
+            change.setId(sequence.incrementAndGet());
+            table.add(change);
+            return 1;
+        });
+        when(mapper.selectList(any())).thenAnswer(invocation -> List.copyOf(table));
+        epoch = new PermissionEpoch(mapper, mock(PlatformTransactionManager.class));
+        ReflectionTestUtils.setField(epoch, "enabled", true);
+    }
+
+    @Test
+    void shouldDistrustTokensUntilChangesAreLoaded() {
+        assertThat(epoch.isCurrent(0L, 1L, 10L)).isFalse();
+        epoch.sync();
+        assertThat(epoch.isCurrent(0L, 1L, 10L)).isTrue();
+    }
+
+    @Test
+    void shouldOnlyInvalidateTokensInChangedScope() {
+        epoch.sync();
+        long issued = epoch.current();
+
+        epoch.advanceUser(1L);
+        assertThat(epoch.isCurrent(issued, 1L, 10L)).isFalse();
+        assertThat(epoch.isCurrent(issued, 2L, 10L)).isTrue();
+
+        epoch.advanceRole(20L);
+        assertThat(epoch.isCurrent(issued, 2L, 10L)).isTrue();
+        assertThat(epoch.isCurrent(issued, 3L, 20L)).isFalse();
+        // 变更之后登录签入的纪元不受影响
+        assertThat(epoch.isCurrent(epoch.current(), 1L, 20L)).isTrue();
+
+        long definition = epoch.definitionEpoch();
+        epoch.advanceAll();
+        assertThat(epoch.definitionEpoch()).isGreaterThan(definition);
+        assertThat(epoch.isCurrent(issued, 2L, 10L)).isFalse();
+    }
+
+    @Test
+    void shouldApplyChangesFromOtherInstancesOnSync() {
+        epoch.sync();
+        long issued = epoch.current();
+
+        // 其他实例写入的变更
+        table.add(new DeyochPermissionChange(sequence.incrementAndGet(), "u:1", LocalDateTime.now()));
+        assertThat(epoch.isCurrent(issued, 1L, 10L)).isTrue();
+
+        epoch.sync();
+        assertThat(epoch.isCurrent(issued, 1L, 10L)).isFalse();
+        assertThat(epoch.isCurrent(issued, 2L, 10L)).isTrue();
+        assertThat(epoch.current()).isEqualTo(sequence.get());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void shouldPruneScopesCoveredByGlobalChangeOnCleanup() {
+        epoch.sync();
+        long issued = epoch.current();
+        epoch.advanceUser(1L);
+        epoch.advanceRole(20L);
+        epoch.advanceAll();
+        long afterAll = epoch.current();
+        epoch.advanceUser(2L);
+
+        ReflectionTestUtils.setField(epoch, "lastCleanup", 0L);
+        epoch.sync();
+
+        // 用户1、角色20的变更早于全部范围的变更，已被覆盖；之后的用户2变更保留
+        Map<String, Long> latest = (Map<String, Long>) ReflectionTestUtils.getField(epoch, "latest");
+        assertThat(latest).containsOnlyKeys("all", "u:2");
+        assertThat(epoch.isCurrent(issued, 1L, 20L)).isFalse();
+        assertThat(epoch.isCurrent(afterAll, 1L, 20L)).isTrue();
+        assertThat(epoch.isCurrent(afterAll, 2L, 20L)).isFalse();
+    }
+}
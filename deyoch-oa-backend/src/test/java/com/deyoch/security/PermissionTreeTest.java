@@ -0,0 +1,100 @@
+package com.deyoch.security;
+
+import com.deyoch.entity.DeyochPermission;
+import com.deyoch.mapper.DeyochPermissionMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * 权限树快照测试
+ * 验证父子挂接、快照复用、按权限集合裁剪、环的处理以及加载期间失效的处理
+ */
+public class PermissionTreeTest {
+
+    private DeyochPermissionMapper permissionMapper;
+    private PermissionTree tree;
+
+    @BeforeEach
+    void setUp() {
+        permissionMapper = mock(DeyochPermissionMapper.class);
+        when(permissionMapper.selectList(any())).thenReturn(List.of(
+                permission(1L, 0L),
+                permission(2L, 0L),
+                permission(11L, 1L),
+                permission(12L, 1L),
+                permission(111L, 11L)));
+        tree = new PermissionTree(permissionMapper);
+    }
+
+    @Test
+    void shouldLinkChildrenAndReuseSnapshot() {
+        List<DeyochPermission> roots = tree.getTree();
+
+        assertThat(roots).extracting(DeyochPermission::getId).containsExactly(1L, 2L);
+        assertThat(roots.get(0).getChildren()).extracting(DeyochPermission::getId).containsExactly(11L, 12L);
+        assertThat(roots.get(0).getChildren().get(0).getChildren()).extracting(DeyochPermission::getId).containsExactly(111L);
+
+        tree.getTree();
+        verify(permissionMapper, times(1)).selectList(any());
+        tree.invalidate();
+        tree.getTree();
+        verify(permissionMapper, times(2)).selectList(any());
+    }
+
+    @Test
+    void shouldReloadWhenInvalidatedDuringLoad() {
+        // 第一次查询返回后、发布前权限发生变更，查到的是变更前的数据
+        when(permissionMapper.selectList(any())).thenAnswer(invocation -> {
+            tree.invalidate();
+            return List.of(permission(1L, 0L));
+        }).thenReturn(List.of(permission(1L, 0L), permission(2L, 0L)));
+
+        assertThat(tree.getTree()).extracting(DeyochPermission::getId).containsExactly(1L, 2L);
+        assertThat(tree.getTree()).extracting(DeyochPermission::getId).containsExactly(1L, 2L);
+        verify(permissionMapper, times(2)).selectList(any());
+    }
+
+    @Test
+    void shouldAttachPrunedNodesToNearestIncludedAncestor() {
+        Set<Long> granted = Set.of(1L, 111L, 2L);
+
+        List<DeyochPermission> roots = tree.getPrunedTree(granted::contains);
+
+        assertThat(roots).extracting(DeyochPermission::getId).containsExactly(1L, 2L);
+        assertThat(roots.get(0).getChildren()).extracting(DeyochPermission::getId).containsExactly(111L);
+        // 裁剪视图不影响快照
+        assertThat(tree.getTree().get(0).getChildren()).hasSize(2);
+    }
+
+    @Test
+    void shouldBreakParentCycles() {
+        when(permissionMapper.selectList(any())).thenReturn(List.of(
+                permission(1L, 0L),
+                permission(5L, 6L),
+                permission(6L, 5L)));
+
+        List<DeyochPermission> roots = tree.getTree();
+
+        assertThat(roots).extracting(DeyochPermission::getId).containsExactly(1L, 5L);
+        assertThat(roots.get(1).getChildren()).extracting(DeyochPermission::getId).containsExactly(6L);
+        assertThat(roots.get(1).getChildren().get(0).getChildren()).isEmpty();
+    }
+
+    private DeyochPermission permission(Long id, Long parentId) {
+        DeyochPermission permission = new DeyochPermission();
+        permission.setId(id);
+        permission.setParentId(parentId);
+        permission.setPermCode("perm:" + id);
+        return permission;
+    }
+}
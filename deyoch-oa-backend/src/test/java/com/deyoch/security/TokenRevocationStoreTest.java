@@ -0,0 +1,113 @@
+package com.deyoch.security;
+
+import com.deyoch.entity.DeyochTokenRevocation;
+import com.deyoch.mapper.DeyochTokenRevocationMapper;
+import com.deyoch.service.notify.TableInfoTestSupport;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDateTime;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Token吊销存储测试
+ * 验证重建查询之后、新过滤器发布之前吊销的jti不会从新过滤器中丢失、其他实例的吊销在同步后生效，
+ * 以及重复吊销和超出容量不影响登出请求
+ */
+public class TokenRevocationStoreTest {
+
+    @BeforeAll
+    static void initTableInfo() {
+        TableInfoTestSupport.init(DeyochTokenRevocation.class);
+    }
+
+    @Test
+    void shouldKeepTokensRevokedDuringRebuild() throws Exception {
+        DeyochTokenRevocationMapper mapper = mock(DeyochTokenRevocationMapper.class);
+        CountDownLatch queried = new CountDownLatch(1);
+        CountDownLatch revoked = new CountDownLatch(1);
+        // 重建的查询返回后停住，期间另一个线程吊销新的jti
+        when(mapper.selectList(any())).thenAnswer(invocation -> {
+            queried.countDown();
+            assertThat(revoked.await(5, TimeUnit.SECONDS)).isTrue();
+            return List.of();
+        });
+        when(mapper.selectById(anyString())).thenAnswer(invocation -> "late-jti".equals(invocation.getArgument(0))
+                ? new DeyochTokenRevocation("late-jti", 1L, LocalDateTime.now().plusHours(1), LocalDateTime.now())
+                : null);
+
+        TokenRevocationStore store = new TokenRevocationStore(mapper);
+        ReflectionTestUtils.setField(store, "expectedInsertions", 1000L);
+        ReflectionTestUtils.setField(store, "falsePositiveRate", 0.01);
+
+        CompletableFuture<Void> rebuild = CompletableFuture.runAsync(() -> store.rebuild(1000L));
+        assertThat(queried.await(5, TimeUnit.SECONDS)).isTrue();
+        store.revoke("late-jti", 1L, new Date(System.currentTimeMillis() + 3600000L));
+        revoked.countDown();
+        rebuild.get(5, TimeUnit.SECONDS);
+
+        assertThat(store.isRevoked("late-jti")).isTrue();
+        assertThat(store.getStats().get("revoked")).isEqualTo(1L);
+    }
+
+    @Test
+    void shouldPickUpRevocationsFromOtherInstancesOnSync() {
+        DeyochTokenRevocationMapper mapper = mock(DeyochTokenRevocationMapper.class);
+        DeyochTokenRevocation remote = new DeyochTokenRevocation("remote-jti", 2L,
+                LocalDateTime.now().plusHours(1), LocalDateTime.now());
+        // 第一次查询为重建，之后为同步
+        when(mapper.selectList(any())).thenReturn(List.of(), List.of(remote));
+        when(mapper.selectById("remote-jti")).thenReturn(remote);
+
+        TokenRevocationStore store = new TokenRevocationStore(mapper);
+        ReflectionTestUtils.setField(store, "expectedInsertions", 1000L);
+        ReflectionTestUtils.setField(store, "falsePositiveRate", 0.01);
+        store.sync();
+        // 本实例的过滤器尚未包含其他实例的吊销
+        assertThat(store.isRevoked("remote-jti")).isFalse();
+
+        store.sync();
+        assertThat(store.isRevoked("remote-jti")).isTrue();
+        assertThat(store.getStats().get("revoked")).isEqualTo(1L);
+    }
+
+    @Test
+    void shouldTolerateDuplicateRevocationAndRebuildOffTheRequestThread() {
+        DeyochTokenRevocationMapper mapper = mock(DeyochTokenRevocationMapper.class);
+        when(mapper.selectList(any())).thenReturn(List.of());
+        when(mapper.insert(any(DeyochTokenRevocation.class)))
+                .thenReturn(1)
+                .thenThrow(new DuplicateKeyException("Duplicate entry 'jti-1'"));
+        when(mapper.selectById("jti-1")).thenReturn(
+                new DeyochTokenRevocation("jti-1", 1L, LocalDateTime.now().plusHours(1), LocalDateTime.now()));
+
+        TokenRevocationStore store = new TokenRevocationStore(mapper);
+        ReflectionTestUtils.setField(store, "expectedInsertions", 1L);
+        ReflectionTestUtils.setField(store, "falsePositiveRate", 0.01);
+        store.sync();
+
+        Date expiration = new Date(System.currentTimeMillis() + 3600000L);
+        store.revoke("jti-1", 1L, expiration);
+        // 并发登出同一Token时第二次写入主键冲突
+        store.revoke("jti-1", 1L, expiration);
+        assertThat(store.isRevoked("jti-1")).isTrue();
+        // 超出容量后登出请求不重建，由同步线程重建
+        verify(mapper, times(1)).selectList(any());
+        store.sync();
+        verify(mapper, times(2)).selectList(any());
+    }
+}
@@ -0,0 +1,111 @@
+package com.deyoch.security;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+
+/**
+ * 用户权限缓存测试
+ * 验证命中统计、容量淘汰、按用户/角色失效、失效前的加载不写回以及按失效范围推进权限纪元
+ */
+public class UserAuthorityCacheTest {
+
+    private UserAuthorityCache cache;
+
+    private final List<GrantedAuthority> authorities = List.of(new SimpleGrantedAuthority("oa:document:manage"));
+
+    @BeforeEach
+    void setUp() {
+        cache = new UserAuthorityCache(mock(PermissionEpoch.class));
+        ReflectionTestUtils.setField(cache, "maxSize", 2);
+        ReflectionTestUtils.setField(cache, "ttl", 60000L);
+    }
+
+    @Test
+    void shouldCountHitsAndMisses() {
+        assertThat(cache.get("admin")).isNull();
+        cache.put("admin", 1L, 1L, authorities, cache.generation());
+        assertThat(cache.get("admin").getAuthorities()).isEqualTo(authorities);
+
+        assertThat(cache.getStats().get("hits")).isEqualTo(1L);
+        assertThat(cache.getStats().get("misses")).isEqualTo(1L);
+    }
+
+    @Test
+    void shouldEvictLeastRecentlyUsedEntry() {
+        cache.put("a", 1L, 1L, authorities, cache.generation());
+        cache.put("b", 2L, 1L, authorities, cache.generation());
+        cache.get("a");
+        cache.put("c", 3L, 1L, authorities, cache.generation());
+
+        assertThat(cache.get("a")).isNotNull();
+        assertThat(cache.get("b")).isNull();
+        assertThat(cache.get("c")).isNotNull();
+    }
+
+    @Test
+    void shouldTreatExpiredEntryAsMiss() {
+        ReflectionTestUtils.setField(cache, "ttl", -1L);
+        cache.put("admin", 1L, 1L, authorities, cache.generation());
+        assertThat(cache.get("admin")).isNull();
+    }
+
+    @Test
+    void shouldInvalidateByUserAndRole() {
+        cache.put("a", 1L, 10L, authorities, cache.generation());
+        cache.put("b", 2L, 20L, authorities, cache.generation());
+
+        cache.invalidateUser(1L);
+        assertThat(cache.get("a")).isNull();
+        assertThat(cache.get("b")).isNotNull();
+
+        cache.invalidateRole(20L);
+        assertThat(cache.get("b")).isNull();
+    }
+
+    @Test
+    void shouldNotCacheLoadThatStartedBeforeCommittedInvalidation() {
+        cache.put("a", 1L, 10L, authorities, cache.generation());
+
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            // 角色权限变更尚未提交，并发请求未命中缓存，读到的仍是旧权限
+            cache.invalidateRole(10L);
+            long loadedAt = cache.generation();
+            List<TransactionSynchronization> synchronizations = TransactionSynchronizationManager.getSynchronizations();
+            // 事务提交，提交后的失效先于旧权限写入执行
+            synchronizations.forEach(TransactionSynchronization::afterCommit);
+            assertThat(cache.put("a", 1L, 10L, authorities, loadedAt).getAuthorities()).isEqualTo(authorities);
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        assertThat(cache.get("a")).isNull();
+        assertThat(cache.getStats().get("staleLoads")).isEqualTo(1L);
+        cache.put("a", 1L, 10L, authorities, cache.generation());
+        assertThat(cache.get("a")).isNotNull();
+    }
+
+    @Test
+    void shouldAdvancePermissionEpochInInvalidatedScope() {
+        PermissionEpoch epoch = mock(PermissionEpoch.class);
+        cache = new UserAuthorityCache(epoch);
+
+        cache.invalidateUser(1L);
+        cache.invalidateRole(10L);
+        cache.invalidateAll();
+        verify(epoch).advanceUser(1L);
+        verify(epoch).advanceRole(10L);
+        verify(epoch).advanceAll();
+    }
+}
@@ -4,7 +4,7 @@ import com.deyoch.entity.DeyochUser;
 import com.deyoch.mapper.DeyochUserMapper;
 import com.deyoch.service.impl.UserInfoConverterImpl;
 import net.jqwik.api.*;
-import org.junit.jupiter.api.BeforeEach;
+import net.jqwik.api.lifecycle.BeforeTry;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
 import static org.assertj.core.api.Assertions.assertThat;
@@ -27,7 +27,7 @@ public class BatchQueryOptimizationPropertyTest {
     
     private UserInfoConverter userInfoConverter;
 
-    @BeforeEach
+    @BeforeTry
     void setUp() {
         MockitoAnnotations.openMocks(this);
         userInfoConverter = new UserInfoConverterImpl(deyochUserMapper);
@@ -37,7 +37,7 @@ public class BatchQueryOptimizationPropertyTest {
     @Label("对于任何需要用户信息的列表查询，服务层应该使用批量查询而不是逐个查询用户信息")
     void shouldUseBatchQueryForUserInformation(@ForAll("entityLists") List<TestEntity> entities) {
         // 模拟数据库返回
-        when(deyochUserMapper.selectBatchIds(any())).thenReturn(createMockUsers());
+        when(deyochUserMapper.selectByIds(any())).thenReturn(createMockUsers());
         
         // 执行批量填充用户名
         userInfoConverter.populateUserNames(
@@ -48,13 +48,13 @@ public class BatchQueryOptimizationPropertyTest {
         
         if (!entities.isEmpty() && hasAnyUserIds(entities)) {
             // 验证只调用了一次批量查询
-            verify(deyochUserMapper, times(1)).selectBatchIds(any());
+            verify(deyochUserMapper, times(1)).selectByIds(any());
             
             // 验证没有调用单个查询方法（如果存在的话）
             verify(deyochUserMapper, never()).selectById(any());
         } else {
             // 如果没有用户ID，应该不调用数据库
-            verify(deyochUserMapper, never()).selectBatchIds(any());
+            verify(deyochUserMapper, never()).selectByIds(any());
         }
     }
 
@@ -62,7 +62,7 @@ public class BatchQueryOptimizationPropertyTest {
     @Label("当多个实体引用相同用户时，服务实现应该创建一次用户ID到用户名的映射")
     void shouldCreateUserMappingOnceForDuplicateUsers(@ForAll("entitiesWithDuplicateUsers") List<TestEntity> entities) {
         // 模拟数据库返回
-        when(deyochUserMapper.selectBatchIds(any())).thenReturn(createMockUsers());
+        when(deyochUserMapper.selectByIds(any())).thenReturn(createMockUsers());
         
         // 执行批量填充用户名
         userInfoConverter.populateUserNames(
@@ -73,10 +73,10 @@ public class BatchQueryOptimizationPropertyTest {
         
         if (!entities.isEmpty() && hasAnyUserIds(entities)) {
             // 验证只调用了一次批量查询，即使有重复的用户ID
-            verify(deyochUserMapper, times(1)).selectBatchIds(any());
+            verify(deyochUserMapper, times(1)).selectByIds(any());
             
             // 验证传递给数据库的用户ID集合是去重的
-            verify(deyochUserMapper).selectBatchIds(argThat(userIds -> {
+            verify(deyochUserMapper).selectByIds(argThat(userIds -> {
                 Set<Long> uniqueIds = new HashSet<>((Collection<Long>) userIds);
                 return uniqueIds.size() == ((Collection<Long>) userIds).size();
             }));
@@ -94,7 +94,7 @@ public class BatchQueryOptimizationPropertyTest {
         );
         
         // 验证没有调用数据库查询
-        verify(deyochUserMapper, never()).selectBatchIds(any());
+        verify(deyochUserMapper, never()).selectByIds(any());
         verify(deyochUserMapper, never()).selectById(any());
     }
 
@@ -102,7 +102,7 @@ public class BatchQueryOptimizationPropertyTest {
     @Label("批量查询应该最小化数据库往返次数")
     void shouldMinimizeDatabaseRoundTrips(@ForAll("largeEntityList") List<TestEntity> entities) {
         // 模拟数据库返回
-        when(deyochUserMapper.selectBatchIds(any())).thenReturn(createMockUsers());
+        when(deyochUserMapper.selectByIds(any())).thenReturn(createMockUsers());
         
         // 执行批量填充用户名
         userInfoConverter.populateUserNames(
@@ -113,16 +113,35 @@ public class BatchQueryOptimizationPropertyTest {
         
         if (!entities.isEmpty() && hasAnyUserIds(entities)) {
             // 无论实体数量多少，都应该只有一次数据库查询
-            verify(deyochUserMapper, times(1)).selectBatchIds(any());
+            verify(deyochUserMapper, times(1)).selectByIds(any());
             
             // 验证查询的用户ID数量不超过实体数量的两倍（考虑每个实体最多有两个用户ID）
-            verify(deyochUserMapper).selectBatchIds(argThat(userIds -> {
+            verify(deyochUserMapper).selectByIds(argThat(userIds -> {
                 Collection<Long> ids = (Collection<Long>) userIds;
                 return ids.size() <= entities.size() * 2;
             }));
         }
     }
 
+    @Property(tries = 100)
+    @Label("重复加载同一页时用户信息应全部来自缓存，失效后只重新查询被失效的用户")
+    void shouldServeRepeatedPagesFromCache(@ForAll("entitiesWithDuplicateUsers") List<TestEntity> entities) {
+        when(deyochUserMapper.selectByIds(any())).thenReturn(createMockUsers());
+
+        userInfoConverter.populateUserNames(entities, this::extractUserIds, this::setUserNames);
+        userInfoConverter.populateUserNames(entities, this::extractUserIds, this::setUserNames);
+
+        // 第二次加载不产生任何查询
+        verify(deyochUserMapper, times(1)).selectByIds(any());
+
+        Long invalidated = entities.get(0).getCreatorId();
+        userInfoConverter.invalidateUser(invalidated);
+        userInfoConverter.populateUserNames(entities, this::extractUserIds, this::setUserNames);
+
+        verify(deyochUserMapper).selectByIds(argThat(userIds -> userIds.size() == 1 && userIds.contains(invalidated)));
+        assertThat(entities.get(0).getCreatorName()).isEqualTo("user" + invalidated);
+    }
+
     /**
      * 测试实体类
      */
@@ -0,0 +1,63 @@
+package com.deyoch.service;
+
+import com.deyoch.dto.ContactDto;
+import com.deyoch.mapper.ContactMapper;
+import com.deyoch.service.impl.ContactServiceImpl;
+import org.apache.ibatis.cursor.Cursor;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.ByteArrayInputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * 通讯录流式导出测试
+ * 验证游标数据全部写出、列宽按样本估算以及游标关闭
+ */
+public class ContactExportTest {
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void shouldStreamAllRowsFromCursor() throws Exception {
+        List<ContactDto> contacts = new ArrayList<>();
+        for (long i = 1; i <= 500; i++) {
+            ContactDto contact = new ContactDto();
+            contact.setId(i);
+            contact.setRealName("员工" + i);
+            contact.setUsername("user" + i);
+            contact.setEmail(i == 1 ? "a-very-long-email-address@example.com" : "u" + i + "@example.com");
+            contacts.add(contact);
+        }
+        Cursor<ContactDto> cursor = mock(Cursor.class);
+        when(cursor.iterator()).thenReturn(contacts.iterator());
+        ContactMapper contactMapper = mock(ContactMapper.class);
+        when(contactMapper.selectAllContactsCursor()).thenReturn(cursor);
+
+        ContactServiceImpl contactService = new ContactServiceImpl();
+        ReflectionTestUtils.setField(contactService, "contactMapper", contactMapper);
+        ReflectionTestUtils.setField(contactService, "exportWindowSize", 50);
+        ReflectionTestUtils.setField(contactService, "exportWidthSampleRows", 100);
+
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        contactService.exportContacts(response);
+
+        try (XSSFWorkbook workbook = new XSSFWorkbook(new ByteArrayInputStream(response.getContentAsByteArray()))) {
+            Sheet sheet = workbook.getSheetAt(0);
+            assertThat(sheet.getLastRowNum()).isEqualTo(500);
+            assertThat(sheet.getRow(0).getCell(0).getStringCellValue()).isEqualTo("姓名");
+            assertThat(sheet.getRow(500).getCell(1).getStringCellValue()).isEqualTo("user500");
+            // 邮箱列宽由样本中最长的值决定
+            assertThat(sheet.getColumnWidth(6)).isEqualTo(("a-very-long-email-address@example.com".length() + 2) * 256);
+        }
+        verify(cursor).close();
+    }
+}
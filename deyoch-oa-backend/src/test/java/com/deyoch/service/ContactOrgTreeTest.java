@@ -0,0 +1,75 @@
+package com.deyoch.service;
+
+import com.deyoch.dto.OrgTreeDto;
+import com.deyoch.dto.OrgTreeSnapshot;
+import com.deyoch.mapper.ContactMapper;
+import com.deyoch.service.impl.ContactServiceImpl;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * 组织架构树测试
+ * 验证两次集合查询组装树、快照复用以及失效后版本变化
+ */
+public class ContactOrgTreeTest {
+
+    private ContactMapper contactMapper;
+    private ContactServiceImpl contactService;
+
+    @BeforeEach
+    void setUp() {
+        contactMapper = mock(ContactMapper.class);
+        when(contactMapper.selectDepartmentTree()).thenReturn(List.of(
+                node(1L, 0L, "dept"),
+                node(2L, 1L, "dept"),
+                node(3L, 1L, "dept")));
+        when(contactMapper.selectActiveUsersForTree()).thenReturn(List.of(
+                node(100L, 1L, "user"),
+                node(101L, 2L, "user"),
+                node(102L, 2L, "user"),
+                node(103L, 99L, "user")));
+        contactService = new ContactServiceImpl();
+        ReflectionTestUtils.setField(contactService, "contactMapper", contactMapper);
+    }
+
+    @Test
+    void shouldAssembleTreeFromTwoQueries() {
+        List<OrgTreeDto> tree = contactService.getOrganizationTree().getData();
+
+        assertThat(tree).extracting(OrgTreeDto::getId).containsExactly(1L);
+        assertThat(tree.get(0).getChildren()).extracting(OrgTreeDto::getId).containsExactly(2L, 3L, 100L);
+        assertThat(tree.get(0).getChildren().get(0).getChildren()).extracting(OrgTreeDto::getId).containsExactly(101L, 102L);
+        verify(contactMapper, times(1)).selectDepartmentTree();
+        verify(contactMapper, times(1)).selectActiveUsersForTree();
+    }
+
+    @Test
+    void shouldReuseSnapshotUntilInvalidated() {
+        OrgTreeSnapshot first = contactService.getOrganizationTreeSnapshot().getData();
+        OrgTreeSnapshot second = contactService.getOrganizationTreeSnapshot().getData();
+        assertThat(second).isSameAs(first);
+
+        contactService.invalidateOrganizationTree();
+        OrgTreeSnapshot third = contactService.getOrganizationTreeSnapshot().getData();
+
+        assertThat(third.getEtag()).isNotEqualTo(first.getEtag());
+        verify(contactMapper, times(2)).selectDepartmentTree();
+    }
+
+    private OrgTreeDto node(Long id, Long parentId, String type) {
+        OrgTreeDto node = new OrgTreeDto();
+        node.setId(id);
+        node.setParentId(parentId);
+        node.setType(type);
+        return node;
+    }
+}
@@ -0,0 +1,304 @@
+package com.deyoch.service;
+
+import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
+import com.deyoch.common.result.Result;
+import com.deyoch.common.result.ResultCode;
+import com.deyoch.entity.DeyochDept;
+import com.deyoch.entity.DeyochDeptClosure;
+import com.deyoch.mapper.DeyochDeptClosureMapper;
+import com.deyoch.mapper.DeyochDeptMapper;
+import com.deyoch.service.impl.DeptServiceImpl;
+import com.deyoch.service.notify.TableInfoTestSupport;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * 部门闭包表维护测试
+ * 闭包表的模拟按DeyochDeptClosureMapper.xml中各条SQL的连接条件逐行实现，
+ * 验证新增、移动（含移动到自身子部门下的校验）、删除和重建后每个部门的祖先、后代记录
+ */
+public class DeptClosureTest {
+
+    /**
+     * 闭包记录，格式为 祖先-后代-深度
+     */
+    private final Set<String> closure = new LinkedHashSet<>();
+    private final Map<Long, DeyochDept> deptTable = new HashMap<>();
+
+    private DeyochDeptClosureMapper closureMapper;
+    private DeptServiceImpl deptService;
+
+    @BeforeAll
+    static void initTableInfo() {
+        TableInfoTestSupport.init(DeyochDept.class, DeyochDeptClosure.class);
+    }
+
+    @BeforeEach
+    void setUp() {
+        DeyochDeptMapper deptMapper = mock(DeyochDeptMapper.class);
+        when(deptMapper.insert(any(DeyochDept.class))).thenAnswer(invocation -> {
+            DeyochDept dept = invocation.getArgument(0);
+            dept.setId((long) deptTable.size() + 1);
+            deptTable.put(dept.getId(), copy(dept));
+            return 1;
+        });
+        when(deptMapper.selectById(anyLong())).thenAnswer(invocation -> {
+            DeyochDept dept = deptTable.get((Long) invocation.getArgument(0));
+            return dept != null ? copy(dept) : null;
+        });
+        when(deptMapper.updateById(any(DeyochDept.class))).thenAnswer(invocation -> {
+            DeyochDept dept = invocation.getArgument(0);
+            deptTable.get(dept.getId()).setParentId(dept.getParentId());
+            return 1;
+        });
+        when(deptMapper.selectList(any())).thenAnswer(invocation -> new ArrayList<>(deptTable.values()));
+
+        closureMapper = mock(DeyochDeptClosureMapper.class);
+        when(closureMapper.insertNode(anyLong(), anyLong())).thenAnswer(invocation -> {
+            long deptId = invocation.getArgument(0);
+            long parentId = invocation.getArgument(1);
+            List<long[]> inserted = new ArrayList<>();
+            for (long[] row : rows()) {
+                if (row[1] == parentId) {
+                    inserted.add(new long[]{row[0], deptId, row[2] + 1});
+                }
+            }
+            inserted.add(new long[]{deptId, deptId, 0});
+            inserted.forEach(this::add);
+            return inserted.size();
+        });
+        when(closureMapper.detachSubtree(anyLong())).thenAnswer(invocation -> {
+            long deptId = invocation.getArgument(0);
+            List<long[]> rows = rows();
+            int deleted = 0;
+            for (long[] c : rows) {
+                boolean inSubtree = contains(rows, deptId, c[1]);
+                boolean innerLink = contains(rows, deptId, c[0]);
+                if (inSubtree && !innerLink) {
+                    closure.remove(key(c));
+                    deleted++;
+                }
+            }
+            return deleted;
+        });
+        when(closureMapper.attachSubtree(anyLong(), anyLong())).thenAnswer(invocation -> {
+            long deptId = invocation.getArgument(0);
+            long parentId = invocation.getArgument(1);
+            List<long[]> rows = rows();
+            int inserted = 0;
+            for (long[] sup : rows) {
+                for (long[] sub : rows) {
+                    if (sup[1] == parentId && sub[0] == deptId) {
+                        add(new long[]{sup[0], sub[1], sup[2] + sub[2] + 1});
+                        inserted++;
+                    }
+                }
+            }
+            return inserted;
+        });
+        when(closureMapper.insertBatch(anyList())).thenAnswer(invocation -> {
+            List<DeyochDeptClosure> closures = invocation.getArgument(0);
+            for (DeyochDeptClosure c : closures) {
+                add(new long[]{c.getAncestorId(), c.getDescendantId(), c.getDepth()});
+            }
+            return closures.size();
+        });
+        // isInSubtree：祖先 = ? AND 后代 = ?
+        when(closureMapper.selectCount(any())).thenAnswer(invocation -> {
+            List<Object> params = params(invocation.getArgument(0));
+            return contains(rows(), (Long) params.get(0), (Long) params.get(1)) ? 1L : 0L;
+        });
+        // 子部门检查：祖先 = ? AND 深度 = 1
+        when(closureMapper.selectList(any())).thenAnswer(invocation -> {
+            List<Object> params = params(invocation.getArgument(0));
+            List<DeyochDeptClosure> result = new ArrayList<>();
+            for (long[] row : rows()) {
+                if (row[0] == (Long) params.get(0) && row[2] == (Integer) params.get(1)) {
+                    result.add(new DeyochDeptClosure(row[0], row[1], (int) row[2]));
+                }
+            }
+            return result;
+        });
+        // 删除叶子部门：后代 = ?；重建时条件为空
+        when(closureMapper.delete(any())).thenAnswer(invocation -> {
+            LambdaQueryWrapper<DeyochDeptClosure> wrapper = invocation.getArgument(0);
+            if (wrapper == null) {
+                int size = closure.size();
+                closure.clear();
+                return size;
+            }
+            long deptId = (Long) params(wrapper).get(0);
+            int size = closure.size();
+            closure.removeIf(row -> Long.parseLong(row.split("-")[1]) == deptId);
+            return size - closure.size();
+        });
+
+        deptService = new DeptServiceImpl(closureMapper, mock(ContactService.class), mock(ObjectProvider.class));
+        ReflectionTestUtils.setField(deptService, "baseMapper", deptMapper);
+    }
+
+    @Test
+    void shouldCopyParentAncestorsOnCreate() {
+        long root = create(0L);
+        long child = create(root);
+        long grandChild = create(child);
+
+        assertThat(closure).containsExactlyInAnyOrder(
+                root + "-" + root + "-0",
+                child + "-" + child + "-0", root + "-" + child + "-1",
+                grandChild + "-" + grandChild + "-0", child + "-" + grandChild + "-1", root + "-" + grandChild + "-2");
+    }
+
+    @Test
+    void shouldRelinkWholeSubtreeOnMove() {
+        long root = create(0L);
+        long a = create(root);
+        long a1 = create(a);
+        long b = create(root);
+
+        // a及其子部门a1移动到b下，子树内部的记录保留
+        assertThat(move(a, b).getCode()).isEqualTo(ResultCode.SUCCESS.getCode());
+        assertThat(ancestorsOf(a)).containsExactlyInAnyOrder(a + "-0", b + "-1", root + "-2");
+        assertThat(ancestorsOf(a1)).containsExactlyInAnyOrder(a1 + "-0", a + "-1", b + "-2", root + "-3");
+        assertThat(ancestorsOf(b)).containsExactlyInAnyOrder(b + "-0", root + "-1");
+
+        // 移回根部门下
+        assertThat(move(a, root).getCode()).isEqualTo(ResultCode.SUCCESS.getCode());
+        assertThat(ancestorsOf(a1)).containsExactlyInAnyOrder(a1 + "-0", a + "-1", root + "-2");
+    }
+
+    @Test
+    void shouldRejectMovingUnderOwnSubtree() {
+        long root = create(0L);
+        long a = create(root);
+        long a1 = create(a);
+        Set<String> before = new LinkedHashSet<>(closure);
+
+        assertThat(move(a, a1).getCode()).isEqualTo(ResultCode.PARAM_ERROR.getCode());
+        assertThat(move(a, a).getCode()).isEqualTo(ResultCode.PARAM_ERROR.getCode());
+        assertThat(closure).isEqualTo(before);
+    }
+
+    @Test
+    void shouldOnlyDeleteLeafDepartments() {
+        long root = create(0L);
+        long a = create(root);
+        long a1 = create(a);
+
+        assertThat(deptService.deleteDept(a).getCode()).isEqualTo(ResultCode.DEPT_HAS_CHILDREN.getCode());
+        assertThat(deptService.deleteDept(a1).getCode()).isEqualTo(ResultCode.SUCCESS.getCode());
+        assertThat(closure).containsExactlyInAnyOrder(
+                root + "-" + root + "-0", a + "-" + a + "-0", root + "-" + a + "-1");
+    }
+
+    @Test
+    void rebuildShouldMatchIncrementalMaintenanceInOneBatch() {
+        long root = create(0L);
+        long a = create(root);
+        create(a);
+        long b = create(root);
+        move(a, b);
+        Set<String> incremental = new LinkedHashSet<>(closure);
+
+        assertThat(deptService.rebuildDeptClosure().getCode()).isEqualTo(ResultCode.SUCCESS.getCode());
+        assertThat(closure).containsExactlyInAnyOrderElementsOf(incremental);
+        verify(closureMapper, times(1)).insertBatch(anyList());
+    }
+
+    private long create(long parentId) {
+        DeyochDept dept = new DeyochDept();
+        dept.setParentId(parentId);
+        deptService.createDept(dept);
+        return dept.getId();
+    }
+
+    private Result<DeyochDept> move(long deptId, long parentId) {
+        DeyochDept dept = new DeyochDept();
+        dept.setId(deptId);
+        dept.setParentId(parentId);
+        return deptService.updateDept(dept);
+    }
+
+    /**
+     * 部门的祖先记录，格式为 祖先-深度
+     */
+    private List<String> ancestorsOf(long deptId) {
+        List<String> ancestors = new ArrayList<>();
+        for (long[] row : rows()) {
+            if (row[1] == deptId) {
+                ancestors.add(row[0] + "-" + row[2]);
+            }
+        }
+        return ancestors;
+    }
+
+    private List<long[]> rows() {
+        List<long[]> rows = new ArrayList<>();
+        for (String row : closure) {
+            String[] parts = row.split("-");
+            rows.add(new long[]{Long.parseLong(parts[0]), Long.parseLong(parts[1]), Long.parseLong(parts[2])});
+        }
+        return rows;
+    }
+
+    private void add(long[] row) {
+        // 闭包表以(祖先, 后代)为主键
+        for (long[] existing : rows()) {
+            if (existing[0] == row[0] && existing[1] == row[1]) {
+                throw new IllegalStateException("闭包记录重复：" + key(row));
+            }
+        }
+        closure.add(key(row));
+    }
+
+    private static boolean contains(List<long[]> rows, long ancestorId, long descendantId) {
+        for (long[] row : rows) {
+            if (row[0] == ancestorId && row[1] == descendantId) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static String key(long[] row) {
+        return row[0] + "-" + row[1] + "-" + row[2];
+    }
+
+    private static DeyochDept copy(DeyochDept dept) {
+        DeyochDept copy = new DeyochDept();
+        copy.setId(dept.getId());
+        copy.setParentId(dept.getParentId());
+        return copy;
+    }
+
+    /**
+     * 按参数名中的序号取出查询条件的参数值
+     */
+    private static List<Object> params(LambdaQueryWrapper<?> wrapper) {
+        wrapper.getSqlSegment();
+        return wrapper.getParamNameValuePairs().entrySet().stream()
+                .sorted(Comparator.comparingInt(entry -> Integer.parseInt(entry.getKey().replaceAll("\\D", ""))))
+                .map(Map.Entry::getValue)
+                .toList();
+    }
+}
@@ -0,0 +1,79 @@
+package com.deyoch.service;
+
+import com.deyoch.mapper.DeyochDocumentContentMapper;
+import com.deyoch.mapper.DeyochDocumentMapper;
+import com.deyoch.mapper.DocumentVersionMapper;
+import com.deyoch.service.impl.DocumentContentServiceImpl;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * 正文抽取重试测试
+ * 队列已满被放弃的文档在下次重试时由补偿抽取重新排队，没有被放弃的任务时重试不查询数据库
+ */
+public class DocumentContentRetryTest {
+
+    private DocumentContentServiceImpl service;
+
+    @AfterEach
+    void tearDown() {
+        service.shutdown();
+    }
+
+    @Test
+    void shouldRequeueRejectedDocumentsOnRetry() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        DeyochDocumentMapper documentMapper = mock(DeyochDocumentMapper.class);
+        when(documentMapper.selectById(1L)).thenAnswer(invocation -> {
+            started.countDown();
+            release.await(5, TimeUnit.SECONDS);
+            return null;
+        });
+        DeyochDocumentContentMapper contentMapper = mock(DeyochDocumentContentMapper.class);
+        when(contentMapper.selectPendingDocumentIds(anyInt())).thenReturn(List.of(4L));
+
+        service = new DocumentContentServiceImpl(documentMapper, mock(DocumentVersionMapper.class),
+                contentMapper, mock(SearchService.class));
+        ReflectionTestUtils.setField(service, "poolSize", 1);
+        ReflectionTestUtils.setField(service, "queueCapacity", 2);
+        service.init();
+
+        // 文档1占用唯一的线程，文档2、3占满队列，文档4被放弃
+        service.scheduleExtraction(1L);
+        assertThat(started.await(5, TimeUnit.SECONDS)).isTrue();
+        service.scheduleExtraction(2L);
+        service.scheduleExtraction(3L);
+        service.scheduleExtraction(4L);
+        assertThat(service.getStats().get("rejected")).isEqualTo(1L);
+
+        // 队列仍满时不查询，保留重试标记
+        ReflectionTestUtils.invokeMethod(service, "retryRejected");
+        verify(contentMapper, times(0)).selectPendingDocumentIds(anyInt());
+
+        release.countDown();
+        verify(documentMapper, timeout(5000)).selectById(3L);
+        while ((Integer) service.getStats().get("pendingTasks") > 0) {
+            Thread.sleep(10);
+        }
+        ReflectionTestUtils.invokeMethod(service, "retryRejected");
+        verify(documentMapper, timeout(5000)).selectById(4L);
+
+        // 补偿抽取已排完，之后的重试不再查询
+        ReflectionTestUtils.invokeMethod(service, "retryRejected");
+        verify(contentMapper, times(1)).selectPendingDocumentIds(anyInt());
+    }
+}
@@ -0,0 +1,79 @@
+package com.deyoch.service;
+
+import com.deyoch.common.result.Result;
+import com.deyoch.dto.FreeSlotDto;
+import com.deyoch.entity.DeyochScheduleSeries;
+import com.deyoch.entity.DeyochScheduleSeriesException;
+import com.deyoch.mapper.DeyochScheduleSeriesExceptionMapper;
+import com.deyoch.mapper.DeyochScheduleSeriesMapper;
+import com.deyoch.mapper.DeyochScheduleShareMapper;
+import com.deyoch.service.impl.ScheduleServiceImpl;
+import com.deyoch.service.notify.ScheduleReminderDispatcher;
+import com.deyoch.service.notify.TableInfoTestSupport;
+import com.deyoch.service.schedule.FreeBusyIndex;
+import com.deyoch.service.schedule.IntervalSet;
+import com.deyoch.service.schedule.ScheduleOccurrenceExpander;
+import com.deyoch.utils.JwtUtil;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * 共同空闲时段测试
+ * 普通日程的索引为空，只有重复日程时，窗口内展开的实例仍应计入各用户的忙碌时间
+ */
+public class ScheduleFreeSlotsTest {
+
+    @BeforeAll
+    static void initTableInfo() {
+        TableInfoTestSupport.init(DeyochScheduleSeries.class, DeyochScheduleSeriesException.class);
+    }
+
+    @Test
+    void shouldTreatRecurringOccurrencesAsBusy() {
+        // 用户1每天09:00站会半小时，用户2每周一10:00例会一小时，2026-03-02为周一
+        DeyochScheduleSeries standup = series(1L, 1L, "DAILY", LocalDateTime.of(2026, 2, 2, 9, 0), 30);
+        DeyochScheduleSeries weekly = series(2L, 2L, "WEEKLY", LocalDateTime.of(2026, 2, 23, 10, 0), 60);
+        DeyochScheduleSeriesMapper seriesMapper = mock(DeyochScheduleSeriesMapper.class);
+        when(seriesMapper.selectList(any())).thenReturn(List.of(standup, weekly));
+        DeyochScheduleSeriesExceptionMapper exceptionMapper = mock(DeyochScheduleSeriesExceptionMapper.class);
+        when(exceptionMapper.selectList(any())).thenReturn(List.of());
+
+        FreeBusyIndex freeBusyIndex = mock(FreeBusyIndex.class);
+        when(freeBusyIndex.getAll(anyCollection()))
+                .thenReturn(Map.of(1L, IntervalSet.empty(), 2L, IntervalSet.empty()));
+        ScheduleServiceImpl service = new ScheduleServiceImpl(mock(JwtUtil.class), mock(UserInfoConverter.class),
+                mock(DeyochScheduleShareMapper.class), freeBusyIndex,
+                new ScheduleOccurrenceExpander(seriesMapper, exceptionMapper), mock(ScheduleReminderDispatcher.class));
+
+        Result<List<FreeSlotDto>> result = service.findFreeSlots(List.of(1L, 2L),
+                "2026-03-02 09:00:00", "2026-03-02 12:00:00", 60, 5);
+
+        // 09:30~10:00只有半小时，第一个满足一小时的空档在例会结束后
+        assertThat(result.getData()).hasSize(1);
+        assertThat(result.getData().get(0).getStartTime()).isEqualTo(LocalDateTime.of(2026, 3, 2, 11, 0));
+        assertThat(result.getData().get(0).getFreeUntil()).isEqualTo(LocalDateTime.of(2026, 3, 2, 12, 0));
+    }
+
+    private static DeyochScheduleSeries series(Long id, Long userId, String frequency,
+                                               LocalDateTime startTime, int minutes) {
+        DeyochScheduleSeries series = new DeyochScheduleSeries();
+        series.setId(id);
+        series.setUserId(userId);
+        series.setTitle("系列" + id);
+        series.setStartTime(startTime);
+        series.setEndTime(startTime.plusMinutes(minutes));
+        series.setFrequency(frequency);
+        series.setRepeatInterval(1);
+        return series;
+    }
+}
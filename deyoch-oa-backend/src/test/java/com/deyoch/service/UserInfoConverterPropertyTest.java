@@ -4,7 +4,7 @@ import com.deyoch.entity.DeyochUser;
 import com.deyoch.mapper.DeyochUserMapper;
 import com.deyoch.service.impl.UserInfoConverterImpl;
 import net.jqwik.api.*;
-import org.junit.jupiter.api.BeforeEach;
+import net.jqwik.api.lifecycle.BeforeTry;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
 import static org.assertj.core.api.Assertions.assertThat;
@@ -25,7 +25,7 @@ public class UserInfoConverterPropertyTest {
     
     private UserInfoConverter userInfoConverter;
 
-    @BeforeEach
+    @BeforeTry
     void setUp() {
         MockitoAnnotations.openMocks(this);
         userInfoConverter = new UserInfoConverterImpl(deyochUserMapper);
@@ -35,7 +35,7 @@ public class UserInfoConverterPropertyTest {
     @Label("对于任何不存在的用户ID，服务层应该使用'未知用户'作为用户名的回退值")
     void shouldReturnUnknownUserForNonExistentUserIds(@ForAll("nonExistentUserIds") Set<Long> userIds) {
         // 模拟数据库查询返回空列表（用户不存在）
-        when(deyochUserMapper.selectBatchIds(any())).thenReturn(new ArrayList<>());
+        when(deyochUserMapper.selectByIds(any())).thenReturn(new ArrayList<>());
         
         // 执行转换
         Map<Long, String> result = userInfoConverter.convertUserIdsToNames(userIds);
@@ -54,7 +54,7 @@ public class UserInfoConverterPropertyTest {
     @Label("对于任何包含null值的用户ID集合，应该正确处理并忽略null值")
     void shouldHandleNullUserIdsGracefully(@ForAll("userIdsWithNulls") Set<Long> userIds) {
         // 模拟数据库查询
-        when(deyochUserMapper.selectBatchIds(any())).thenReturn(new ArrayList<>());
+        when(deyochUserMapper.selectByIds(any())).thenReturn(new ArrayList<>());
         
         // 执行转换
         Map<Long, String> result = userInfoConverter.convertUserIdsToNames(userIds);
@@ -101,7 +101,7 @@ public class UserInfoConverterPropertyTest {
             }
         }
         
-        when(deyochUserMapper.selectBatchIds(any())).thenReturn(existingUsers);
+        when(deyochUserMapper.selectByIds(any())).thenReturn(existingUsers);
         
         // 执行转换
         Map<Long, String> result = userInfoConverter.convertUserIdsToNames(userIds);
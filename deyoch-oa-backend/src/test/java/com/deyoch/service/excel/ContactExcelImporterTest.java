@@ -0,0 +1,103 @@
+package com.deyoch.service.excel;
+
+import com.deyoch.dto.ContactDto;
+import com.deyoch.entity.DeyochDept;
+import com.deyoch.mapper.DeyochDeptMapper;
+import com.deyoch.service.notify.TableInfoTestSupport;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * 通讯录流式导入测试
+ * 验证逐行校验、按批次写入以及用户名不存在时的错误报告
+ */
+public class ContactExcelImporterTest {
+
+    @BeforeAll
+    static void initTableInfo() {
+        TableInfoTestSupport.init(DeyochDept.class);
+    }
+
+    @Test
+    void shouldValidateRowsAndWriteInBatches() throws Exception {
+        DeyochDeptMapper deptMapper = mock(DeyochDeptMapper.class);
+        when(deptMapper.selectList(any())).thenReturn(List.of(dept(10L, "研发部"), dept(11L, "市场部"), dept(12L, "市场部")));
+
+        List<List<ContactDto>> batches = new ArrayList<>();
+        ContactExcelImporter importer = new ContactExcelImporter(
+                mock(SqlSessionFactory.class), mock(PlatformTransactionManager.class), deptMapper) {
+            @Override
+            int[] writeBatch(List<ContactDto> contacts) {
+                batches.add(new ArrayList<>(contacts));
+                return contacts.stream().mapToInt(c -> c.getUsername().equals("ghost") ? 0 : 1).toArray();
+            }
+        };
+        ReflectionTestUtils.setField(importer, "batchSize", 2);
+        ReflectionTestUtils.setField(importer, "maxErrorDetails", 10);
+
+        byte[] xlsx = workbook(
+                new String[]{"张三", "zhangsan", "E001", "工程师", "研发部", "13800000001", "zs@example.com"},
+                new String[]{"", "nobody"},
+                new String[]{"李四", "lisi", "", "", "市场部"},
+                new String[]{"王五", "wangwu", "", "", "", "not-a-phone"},
+                new String[]{"赵六", "zhaoliu", "", "", "", "", "zl@example.com"},
+                new String[]{"幽灵", "ghost"},
+                new String[]{"孙七", "sunqi", "", "", "研发部"});
+
+        ContactExcelImporter.ImportReport report = importer.importContacts(new ByteArrayInputStream(xlsx));
+
+        assertThat(batches).extracting(List::size).containsExactly(2, 2);
+        assertThat(batches.get(0).get(0).getDeptId()).isEqualTo(10L);
+        assertThat(report.getSuccessCount()).isEqualTo(3);
+        assertThat(report.getErrorCount()).isEqualTo(4);
+        assertThat(report.getSummary())
+                .contains("第3行：姓名和用户名不能为空")
+                .contains("第4行：部门名称不唯一：市场部")
+                .contains("第5行：电话格式不正确")
+                .contains("第7行：用户名不存在：ghost");
+    }
+
+    private DeyochDept dept(Long id, String name) {
+        DeyochDept dept = new DeyochDept();
+        dept.setId(id);
+        dept.setDeptName(name);
+        return dept;
+    }
+
+    private byte[] workbook(String[]... rows) throws Exception {
+        try (XSSFWorkbook workbook = new XSSFWorkbook(); ByteArrayOutputStream out = new ByteArrayOutputStream()) {
+            Sheet sheet = workbook.createSheet("通讯录");
+            String[] headers = {"姓名", "用户名", "工号", "职位", "部门", "电话", "邮箱", "办公地点", "分机号"};
+            Row header = sheet.createRow(0);
+            for (int i = 0; i < headers.length; i++) {
+                header.createCell(i).setCellValue(headers[i]);
+            }
+            for (int r = 0; r < rows.length; r++) {
+                Row row = sheet.createRow(r + 1);
+                for (int c = 0; c < rows[r].length; c++) {
+                    if (!rows[r][c].isEmpty()) {
+                        row.createCell(c).setCellValue(rows[r][c]);
+                    }
+                }
+            }
+            workbook.write(out);
+            return out.toByteArray();
+        }
+    }
+}
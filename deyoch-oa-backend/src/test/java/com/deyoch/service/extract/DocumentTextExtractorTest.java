@@ -0,0 +1,122 @@
+package com.deyoch.service.extract;
+
+import org.apache.poi.xslf.usermodel.XMLSlideShow;
+import org.apache.poi.xslf.usermodel.XSLFTextBox;
+import org.apache.poi.xssf.usermodel.XSSFSheet;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.apache.poi.xwpf.usermodel.XWPFDocument;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * 文档正文抽取测试
+ * 验证各格式的流式抽取、段落与单元格分隔、字符和耗时预算截断以及非UTF-8文本的回退
+ */
+public class DocumentTextExtractorTest {
+
+    @TempDir
+    Path tempDir;
+
+    private final DocumentTextExtractor extractor = new DocumentTextExtractor(10000, 10000);
+
+    @Test
+    void shouldExtractWordParagraphs() throws IOException {
+        File file = tempDir.resolve("handbook.docx").toFile();
+        try (XWPFDocument document = new XWPFDocument(); OutputStream out = Files.newOutputStream(file.toPath())) {
+            document.createParagraph().createRun().setText("员工手册");
+            document.createParagraph().createRun().setText("第一章 考勤制度");
+            document.write(out);
+        }
+
+        DocumentTextExtractor.ExtractedText text = extractor.extract(file, "DOCX");
+        assertThat(text.getText()).contains("员工手册\n第一章 考勤制度");
+        assertThat(text.isTruncated()).isFalse();
+    }
+
+    @Test
+    void shouldExtractEverySheetWithCellSeparators() throws IOException {
+        File file = tempDir.resolve("budget.xlsx").toFile();
+        try (XSSFWorkbook workbook = new XSSFWorkbook(); OutputStream out = Files.newOutputStream(file.toPath())) {
+            XSSFSheet first = workbook.createSheet("预算");
+            first.createRow(0).createCell(0).setCellValue("差旅");
+            first.getRow(0).createCell(1).setCellValue(1200);
+            workbook.createSheet("备注").createRow(0).createCell(0).setCellValue("季度汇总");
+            workbook.write(out);
+        }
+
+        String text = extractor.extract(file, "xlsx").getText();
+        assertThat(text).contains("差旅\t1200").contains("季度汇总");
+        assertThat(text).doesNotContain("差旅1200");
+    }
+
+    @Test
+    void shouldExtractSlidesInOrder() throws IOException {
+        File file = tempDir.resolve("training.pptx").toFile();
+        try (XMLSlideShow slideShow = new XMLSlideShow(); OutputStream out = Files.newOutputStream(file.toPath())) {
+            for (String title : new String[]{"销售目标", "客户拜访", "季度复盘"}) {
+                XSLFTextBox box = slideShow.createSlide().createTextBox();
+                box.setText(title);
+            }
+            slideShow.write(out);
+        }
+
+        String text = extractor.extract(file, "pptx").getText();
+        assertThat(text.indexOf("销售目标")).isGreaterThanOrEqualTo(0)
+                .isLessThan(text.indexOf("客户拜访"));
+        assertThat(text.indexOf("客户拜访")).isLessThan(text.indexOf("季度复盘"));
+    }
+
+    @Test
+    void shouldTruncateAtCharacterBudget() throws IOException {
+        File file = tempDir.resolve("large.txt").toFile();
+        Files.writeString(file.toPath(), "a".repeat(50000));
+
+        DocumentTextExtractor.ExtractedText text = new DocumentTextExtractor(1000, 10000).extract(file, "txt");
+        assertThat(text.getText()).hasSize(1000);
+        assertThat(text.isTruncated()).isTrue();
+    }
+
+    @Test
+    void shouldStopAtDeadlineEvenWithoutText() throws IOException {
+        File file = tempDir.resolve("empty-paragraphs.docx").toFile();
+        try (XWPFDocument document = new XWPFDocument(); OutputStream out = Files.newOutputStream(file.toPath())) {
+            for (int i = 0; i < 1000; i++) {
+                document.createParagraph();
+            }
+            document.write(out);
+        }
+
+        // 没有文本节点时不会追加内容，耗时预算需要在解析元素时检查
+        DocumentTextExtractor.ExtractedText text = new DocumentTextExtractor(10000, -1).extract(file, "docx");
+        assertThat(text.getText()).isEmpty();
+        assertThat(text.isTruncated()).isTrue();
+    }
+
+    @Test
+    void shouldFallBackToGbkForNonUtf8Text() throws IOException {
+        File file = tempDir.resolve("notice.txt").toFile();
+        Files.write(file.toPath(), "会议通知：周五下午".getBytes(Charset.forName("GBK")));
+
+        assertThat(extractor.extract(file, "txt").getText()).isEqualTo("会议通知：周五下午");
+    }
+
+    @Test
+    void shouldRejectUnsupportedAndCorruptFiles() throws IOException {
+        File file = tempDir.resolve("broken.docx").toFile();
+        Files.writeString(file.toPath(), "not a zip");
+
+        assertThat(DocumentTextExtractor.supports("pdf")).isFalse();
+        assertThat(DocumentTextExtractor.supports("PPTX")).isTrue();
+        assertThatThrownBy(() -> extractor.extract(file, "docx")).isInstanceOf(IOException.class);
+    }
+}
@@ -0,0 +1,90 @@
+package com.deyoch.service.index;
+
+import com.deyoch.dto.ContactDto;
+import com.deyoch.mapper.ContactMapper;
+import com.deyoch.utils.PinyinUtil;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * 通讯录搜索索引测试
+ * 验证n-gram匹配与LIKE语义一致、拼音首字母匹配、排序以及增量更新
+ */
+public class ContactSearchIndexTest {
+
+    private ContactMapper contactMapper;
+    private ContactSearchIndex index;
+
+    @BeforeEach
+    void setUp() {
+        contactMapper = mock(ContactMapper.class);
+        when(contactMapper.selectAllContacts()).thenReturn(new ArrayList<>(List.of(
+                contact(1L, "张三", "zhangsan", "13800000001", 10L, "研发部"),
+                contact(2L, "李四", "lisi", "13800000002", 10L, "研发部"),
+                contact(3L, "张三丰", "zsf", "13900000003", 20L, "市场部"),
+                contact(4L, "王五", "wangwu", "13700000004", 20L, "市场部"))));
+        index = new ContactSearchIndex(contactMapper);
+        index.rebuild();
+    }
+
+    @Test
+    void shouldMatchSubstringsLikeSqlLike() {
+        assertThat(ids(index.search("张三", null))).containsExactly(1L, 3L);
+        assertThat(ids(index.search("三", null))).containsExactly(3L, 1L);
+        assertThat(ids(index.search("1380000", null))).containsExactly(2L, 1L);
+        assertThat(ids(index.search("研发", null))).containsExactlyInAnyOrder(1L, 2L);
+        assertThat(ids(index.search("LISI", null))).containsExactly(2L);
+        assertThat(index.search("张四", null)).isEmpty();
+    }
+
+    @Test
+    void shouldMatchPinyinInitialsAndFilterByDept() {
+        assertThat(PinyinUtil.getInitials("张三丰")).isEqualTo("zsf");
+        assertThat(ids(index.search("zs", null))).containsExactly(3L, 1L);
+        assertThat(ids(index.search("zs", 20L))).containsExactly(3L);
+        assertThat(ids(index.search("ww", null))).containsExactly(4L);
+    }
+
+    @Test
+    void shouldApplyIncrementalUpdates() {
+        when(contactMapper.selectContactById(2L)).thenReturn(contact(2L, "赵六", "zhaoliu", "13800000002", 10L, "研发部"));
+        index.refreshUser(2L);
+        assertThat(index.search("李四", null)).isEmpty();
+        assertThat(ids(index.search("赵六", null))).containsExactly(2L);
+
+        when(contactMapper.selectContactById(4L)).thenReturn(null);
+        index.refreshUser(4L);
+        assertThat(index.search("王五", null)).isEmpty();
+
+        when(contactMapper.selectContactsByDeptId(10L)).thenReturn(List.of(
+                contact(1L, "张三", "zhangsan", "13800000001", 10L, "产品部"),
+                contact(2L, "赵六", "zhaoliu", "13800000002", 10L, "产品部")));
+        index.refreshDept(10L);
+        assertThat(index.search("研发", null)).isEmpty();
+        assertThat(ids(index.search("产品", null))).containsExactlyInAnyOrder(1L, 2L);
+    }
+
+    private ContactDto contact(Long id, String realName, String username, String phone, Long deptId, String deptName) {
+        ContactDto contact = new ContactDto();
+        contact.setId(id);
+        contact.setRealName(realName);
+        contact.setUsername(username);
+        contact.setPhone(phone);
+        contact.setDeptId(deptId);
+        contact.setDeptName(deptName);
+        contact.setCreatedAt(LocalDateTime.of(2026, 1, 1, 0, 0).plusDays(id));
+        return contact;
+    }
+
+    private List<Long> ids(List<ContactDto> contacts) {
+        return contacts.stream().map(ContactDto::getId).toList();
+    }
+}
@@ -0,0 +1,142 @@
+package com.deyoch.service.index;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 全文倒排索引测试
+ * 验证子串匹配与LIKE语义一致、排序、相关度、正文按需读取以及高亮转义
+ */
+public class FullTextIndexTest {
+
+    private static final LocalDateTime BASE = LocalDateTime.of(2026, 3, 1, 9, 0);
+
+    /**
+     * 模拟数据库中的正文，索引校验候选时从这里读取
+     */
+    private final Map<Long, String> bodies = new HashMap<>();
+    private final List<List<Long>> bodyLoads = new ArrayList<>();
+
+    private FullTextIndex newIndex() {
+        return new FullTextIndex(ids -> {
+            bodyLoads.add(List.copyOf(ids));
+            Map<Long, String> result = new HashMap<>();
+            for (Long id : ids) {
+                if (bodies.get(id) != null) {
+                    result.put(id, bodies.get(id));
+                }
+            }
+            return result;
+        });
+    }
+
+    private FullTextIndex.Entry entry(long id, String title, String body, LocalDateTime sortTime) {
+        bodies.put(id, body);
+        return new FullTextIndex.Entry(id, title, body, sortTime, Set.of(100L + id), false);
+    }
+
+    @Test
+    void matchShouldFollowLikeSemanticsAndListOrder() {
+        FullTextIndex index = newIndex();
+        index.put(entry(1L, "年度预算报告", "财务部提交", BASE));
+        index.put(entry(2L, "Budget Plan", "季度预算草案", BASE.plusDays(1)));
+        index.put(entry(3L, "会议纪要", "讨论预 算调整", BASE.plusDays(2)));
+        index.put(entry(4L, "预算说明", null, null));
+        index.put(entry(5L, "预算复核", "", BASE.plusDays(1)));
+
+        // 排序时间倒序，时间相同按ID倒序，时间为空的排在最后；“预 算”中间有空格不算命中
+        assertThat(index.match("预算")).containsExactly(5L, 2L, 1L, 4L);
+        assertThat(index.match("budget")).containsExactly(2L);
+        assertThat(index.match("et pl")).containsExactly(2L);
+        assertThat(index.match("报")).containsExactly(1L);
+        assertThat(index.match("不存在")).isEmpty();
+        assertThat(index.match("   ")).isNull();
+    }
+
+    @Test
+    void removeAndReplaceShouldUpdatePostings() {
+        FullTextIndex index = newIndex();
+        index.put(entry(1L, "项目周报", "进度正常", BASE));
+        index.put(entry(2L, "项目月报", null, BASE));
+        int terms = index.termCount();
+
+        index.put(entry(1L, "人事通知", null, BASE));
+        assertThat(index.match("项目")).containsExactly(2L);
+        assertThat(index.match("人事")).containsExactly(1L);
+
+        index.remove(1L);
+        index.remove(2L);
+        assertThat(index.size()).isZero();
+        assertThat(index.termCount()).isZero();
+        assertThat(terms).isPositive();
+    }
+
+    @Test
+    void searchShouldRankTitleHitsFirstAndRequireAllPhrases() {
+        FullTextIndex index = newIndex();
+        index.put(entry(1L, "差旅报销流程", "填写报销单后提交审批", BASE));
+        index.put(entry(2L, "行政通知", "本月起差旅报销改为线上提交", BASE.plusDays(1)));
+        index.put(entry(3L, "差旅安排", "下周出差", BASE.plusDays(2)));
+
+        List<FullTextIndex.Hit> hits = index.search("差旅 报销", entry -> true);
+        assertThat(hits).extracting(hit -> hit.getEntry().getId()).containsExactly(1L, 2L);
+        assertThat(hits.get(0).getScore()).isGreaterThan(hits.get(1).getScore());
+
+        assertThat(index.search("差旅", entry -> entry.isOwnedBy(103L)))
+                .extracting(hit -> hit.getEntry().getId()).containsExactly(3L);
+        assertThat(index.search("", entry -> true)).isEmpty();
+    }
+
+    @Test
+    void shouldReadBodiesOnlyForCandidatesUndecidedByTitleOrGram() {
+        FullTextIndex index = newIndex();
+        index.put(entry(1L, "季度预算", "预算编制说明", BASE));
+        index.put(entry(2L, "会议纪要", "讨论预算编制", BASE));
+        index.put(entry(3L, "培训安排", "预算，算编制", BASE));
+
+        // 两个字符的短语就是一个词元，倒排列表即可判定
+        assertThat(index.match("预算")).containsExactly(3L, 2L, 1L);
+        assertThat(bodyLoads).isEmpty();
+
+        // 条目3含全部二元组但不含连续的“预算编制”；条目1只需校验正文，不因标题不含短语而漏掉
+        assertThat(index.match("预算编制")).containsExactly(2L, 1L);
+        assertThat(bodyLoads).hasSize(1);
+        assertThat(bodyLoads.get(0)).containsExactlyInAnyOrder(1L, 2L, 3L);
+
+        // 标题已包含短语的候选不读取正文
+        bodyLoads.clear();
+        assertThat(index.search("季度预算", entry -> true))
+                .extracting(hit -> hit.getEntry().getId()).containsExactly(1L);
+        assertThat(bodyLoads).isEmpty();
+    }
+
+    @Test
+    void highlightShouldEscapeHtmlAndMarkPhrases() {
+        FullTextIndex index = newIndex();
+        StringBuilder body = new StringBuilder();
+        for (int i = 0; i < 60; i++) {
+            body.append('x');
+        }
+        body.append("<b>Alert</b> 告警");
+        index.put(entry(1L, "<script>告警</script>", body.toString(), BASE));
+
+        FullTextIndex.Hit hit = index.search("alert", entry -> true).get(0);
+        assertThat(hit.highlightTitle()).isEqualTo("&lt;script&gt;告警&lt;/script&gt;");
+        assertThat(hit.highlightSnippet(body.toString()))
+                .startsWith("…")
+                .contains("&lt;b&gt;<em>Alert</em>&lt;/b&gt;")
+                .doesNotContain("<b>");
+
+        FullTextIndex.Hit titleHit = index.search("告警", entry -> true).get(0);
+        assertThat(titleHit.highlightTitle()).isEqualTo("&lt;script&gt;<em>告警</em>&lt;/script&gt;");
+        assertThat(titleHit.highlightSnippet(null)).isEmpty();
+    }
+}
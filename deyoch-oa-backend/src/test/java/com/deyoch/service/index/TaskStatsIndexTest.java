@@ -0,0 +1,121 @@
+package com.deyoch.service.index;
+
+import com.deyoch.dto.TaskStatsDto;
+import com.deyoch.entity.DeyochTask;
+import com.deyoch.mapper.DeyochTaskMapper;
+import com.deyoch.service.notify.TableInfoTestSupport;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * 任务统计索引测试
+ * 验证计数与原查询语义一致（创建人或负责人、同一任务只计一次）、逾期随时间推进以及增量更新
+ */
+public class TaskStatsIndexTest {
+
+    private static final LocalDateTime NOW = LocalDateTime.of(2026, 3, 10, 12, 0);
+
+    private DeyochTaskMapper taskMapper;
+    private TaskStatsIndex index;
+
+    @BeforeAll
+    static void initTableInfo() {
+        TableInfoTestSupport.init(DeyochTask.class);
+    }
+
+    @BeforeEach
+    void setUp() {
+        taskMapper = mock(DeyochTaskMapper.class);
+        when(taskMapper.selectList(any())).thenReturn(new ArrayList<>(List.of(
+                task(1L, 10L, 20L, 0, NOW.minusDays(1)),
+                task(2L, 10L, 10L, 1, NOW.plusHours(2)),
+                task(3L, 20L, 10L, 2, null),
+                task(4L, 10L, 30L, 3, NOW.minusDays(3)),
+                task(5L, 30L, 40L, null, NOW.minusDays(1)))));
+        index = new TaskStatsIndex(taskMapper);
+        index.rebuild();
+    }
+
+    @Test
+    void shouldCountTasksCreatedOrAssignedOnce() {
+        TaskStatsDto stats = index.get(10L, NOW);
+        assertThat(stats.getPending()).isEqualTo(2);
+        assertThat(stats.getPendingReview()).isEqualTo(1);
+        assertThat(stats.getCompleted()).isEqualTo(1);
+        // 已完成的任务4和状态为空的任务5不算逾期
+        assertThat(stats.getOverdue()).isEqualTo(1);
+
+        assertThat(index.get(20L, NOW).getOverdue()).isEqualTo(1);
+        assertThat(index.get(40L, NOW).getPending()).isZero();
+        assertThat(index.get(99L, NOW).getPending()).isZero();
+    }
+
+    @Test
+    void shouldMoveTasksToOverdueAsTimeAdvances() {
+        assertThat(index.get(10L, NOW).getOverdue()).isEqualTo(1);
+        assertThat(index.get(10L, NOW.plusHours(2)).getOverdue()).isEqualTo(1);
+        assertThat(index.get(10L, NOW.plusHours(2).plusSeconds(1)).getOverdue()).isEqualTo(2);
+        // 时间回拨时不回退
+        assertThat(index.get(10L, NOW).getOverdue()).isEqualTo(2);
+    }
+
+    @Test
+    void shouldApplyIncrementalUpdates() {
+        index.get(10L, NOW);
+
+        // 逾期任务完成后不再计入逾期
+        when(taskMapper.selectOne(any())).thenReturn(task(1L, 10L, 20L, 3, NOW.minusDays(1)));
+        index.refreshTask(1L);
+        assertThat(index.get(10L, NOW).getOverdue()).isZero();
+        assertThat(index.get(10L, NOW).getCompleted()).isEqualTo(2);
+        assertThat(index.get(20L, NOW).getCompleted()).isEqualTo(1);
+
+        // 新任务的结束时间已过，直接计入逾期
+        when(taskMapper.selectOne(any())).thenReturn(task(6L, 50L, 10L, 0, NOW.minusMinutes(5)));
+        index.refreshTask(6L);
+        assertThat(index.get(50L, NOW).getOverdue()).isEqualTo(1);
+
+        // 重新分配后原负责人不再统计
+        when(taskMapper.selectOne(any())).thenReturn(task(6L, 50L, 20L, 1, NOW.minusMinutes(5)));
+        index.refreshTask(6L);
+        assertThat(index.get(10L, NOW).getPending()).isEqualTo(1);
+        assertThat(index.get(20L, NOW).getPending()).isEqualTo(1);
+
+        // 删除后移除全部计数
+        when(taskMapper.selectOne(any())).thenReturn(null);
+        index.refreshTask(6L);
+        assertThat(index.get(50L, NOW).getOverdue()).isZero();
+        assertThat(index.get(50L, NOW).getPending()).isZero();
+    }
+
+    @Test
+    void shouldReturnNullWhenNotLoaded() {
+        DeyochTaskMapper failingMapper = mock(DeyochTaskMapper.class);
+        when(failingMapper.selectList(any())).thenThrow(new IllegalStateException("数据库不可用"));
+        TaskStatsIndex unloaded = new TaskStatsIndex(failingMapper);
+        unloaded.rebuild();
+
+        assertThat(unloaded.get(10L)).isNull();
+        assertThat(unloaded.getStats()).containsEntry("loaded", false);
+    }
+
+    private static DeyochTask task(Long id, Long creatorId, Long assigneeId, Integer status, LocalDateTime endTime) {
+        DeyochTask task = new DeyochTask();
+        task.setId(id);
+        task.setCreatorId(creatorId);
+        task.setAssigneeId(assigneeId);
+        task.setStatus(status);
+        task.setEndTime(endTime);
+        return task;
+    }
+}
@@ -0,0 +1,42 @@
+package com.deyoch.service.notify;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+
+/**
+ * 可手动设置当前时间的时钟，用于通知调度测试
+ */
+class MutableClock extends Clock {
+
+    private final ZoneId zone = ZoneId.systemDefault();
+    private Instant instant;
+
+    MutableClock(LocalDateTime time) {
+        set(time);
+    }
+
+    void set(LocalDateTime time) {
+        instant = time.atZone(zone).toInstant();
+    }
+
+    long millisAt(LocalDateTime time) {
+        return time.atZone(zone).toInstant().toEpochMilli();
+    }
+
+    @Override
+    public ZoneId getZone() {
+        return zone;
+    }
+
+    @Override
+    public Clock withZone(ZoneId zone) {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public Instant instant() {
+        return instant;
+    }
+}
@@ -0,0 +1,216 @@
+package com.deyoch.service.notify;
+
+import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
+import com.deyoch.common.result.Result;
+import com.deyoch.dto.TemplateMessageDto;
+import com.deyoch.entity.DeyochSchedule;
+import com.deyoch.entity.DeyochScheduleSeries;
+import com.deyoch.entity.DeyochScheduleSeriesException;
+import com.deyoch.entity.DeyochScheduleShare;
+import com.deyoch.mapper.DeyochScheduleMapper;
+import com.deyoch.mapper.DeyochScheduleSeriesExceptionMapper;
+import com.deyoch.mapper.DeyochScheduleSeriesMapper;
+import com.deyoch.mapper.DeyochScheduleShareMapper;
+import com.deyoch.service.MessageService;
+import com.deyoch.service.UserInfoConverter;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * 日程开始提醒测试
+ * 用可控时钟直接调用装载、推进和增量更新，验证装载窗口边界、重复日程的例外以及修改和删除后的重新放置
+ */
+public class ScheduleReminderDispatcherTest {
+
+    private static final LocalDateTime BASE = LocalDateTime.of(2026, 3, 2, 7, 0);
+
+    private final MutableClock clock = new MutableClock(BASE);
+
+    /**
+     * 模拟日程表，按查询条件中的开始时间范围或ID返回
+     */
+    private final Map<Long, DeyochSchedule> scheduleTable = new LinkedHashMap<>();
+    private final List<String> sentStartTimes = new ArrayList<>();
+
+    private DeyochScheduleSeriesMapper seriesMapper;
+    private DeyochScheduleSeriesExceptionMapper exceptionMapper;
+    private ScheduleReminderDispatcher dispatcher;
+
+    @BeforeAll
+    static void initTableInfo() {
+        TableInfoTestSupport.init(DeyochSchedule.class, DeyochScheduleSeries.class, DeyochScheduleSeriesException.class, DeyochScheduleShare.class);
+    }
+
+    @BeforeEach
+    void setUp() {
+        DeyochScheduleMapper scheduleMapper = mock(DeyochScheduleMapper.class);
+        when(scheduleMapper.selectList(any())).thenAnswer(invocation -> {
+            List<Object> params = params(invocation.getArgument(0));
+            LocalDateTime from = (LocalDateTime) params.get(0);
+            LocalDateTime to = (LocalDateTime) params.get(1);
+            return scheduleTable.values().stream()
+                    .filter(schedule -> !schedule.getStartTime().isBefore(from) && schedule.getStartTime().isBefore(to))
+                    .toList();
+        });
+        when(scheduleMapper.selectOne(any())).thenAnswer(invocation ->
+                scheduleTable.get((Long) params(invocation.getArgument(0)).get(0)));
+        seriesMapper = mock(DeyochScheduleSeriesMapper.class);
+        exceptionMapper = mock(DeyochScheduleSeriesExceptionMapper.class);
+
+        MessageService messageService = mock(MessageService.class);
+        when(messageService.sendBatchMessageByTemplate(eq("schedule_remind"), anyList())).thenAnswer(invocation -> {
+            List<TemplateMessageDto> messages = invocation.getArgument(1);
+            for (TemplateMessageDto message : messages) {
+                sentStartTimes.add((String) message.getVariables().get("startTime"));
+            }
+            return Result.success();
+        });
+
+        dispatcher = new ScheduleReminderDispatcher(scheduleMapper, mock(DeyochScheduleShareMapper.class),
+                seriesMapper, exceptionMapper, messageService, mock(UserInfoConverter.class));
+        ReflectionTestUtils.setField(dispatcher, "tick", 60000L);
+        dispatcher.setClock(clock);
+        dispatcher.init();
+    }
+
+    @AfterEach
+    void tearDown() {
+        dispatcher.shutdown();
+    }
+
+    @Test
+    void shouldLoadReminderAtWindowBoundaryExactlyOnce() {
+        // 默认提前15分钟提醒、装载窗口1小时：07:00装载提醒时间在[07:00, 08:00)内的日程
+        put(schedule(1L, BASE.plusMinutes(74)));
+        put(schedule(2L, BASE.plusMinutes(75)));
+        dispatcher.load();
+
+        // 提醒时间正好在窗口结束处的日程由下一段窗口装载
+        clock.set(BASE.plusMinutes(15));
+        dispatcher.refill();
+        clock.set(BASE.plusMinutes(30));
+        dispatcher.refill();
+
+        dispatcher.fire(clock.millisAt(BASE.plusMinutes(58)));
+        assertThat(sentStartTimes).isEmpty();
+        dispatcher.fire(clock.millisAt(BASE.plusMinutes(61)));
+        assertThat(sentStartTimes).containsExactly("2026-03-02 08:14", "2026-03-02 08:15");
+        dispatcher.fire(clock.millisAt(BASE.plusHours(2)));
+        assertThat(sentStartTimes).hasSize(2);
+    }
+
+    @Test
+    void shouldSkipCancelledAndMovedOccurrencesOfSeries() {
+        DeyochScheduleSeries series = dailySeries(LocalDateTime.of(2026, 3, 2, 9, 0));
+        when(seriesMapper.selectList(any())).thenReturn(List.of(series));
+        DeyochScheduleSeriesException cancelled = exception(LocalDateTime.of(2026, 3, 3, 9, 0));
+        cancelled.setCancelled(1);
+        DeyochScheduleSeriesException moved = exception(LocalDateTime.of(2026, 3, 4, 9, 0));
+        moved.setStartTime(LocalDateTime.of(2026, 3, 4, 15, 0));
+        when(exceptionMapper.selectList(any())).thenReturn(List.of(cancelled, moved));
+        dispatcher.load();
+
+        dispatcher.fire(clock.millisAt(LocalDateTime.of(2026, 3, 2, 8, 46)));
+        assertThat(sentStartTimes).containsExactly("2026-03-02 09:00");
+        dispatcher.fire(clock.millisAt(LocalDateTime.of(2026, 3, 3, 23, 0)));
+        assertThat(sentStartTimes).hasSize(1);
+        dispatcher.fire(clock.millisAt(LocalDateTime.of(2026, 3, 4, 14, 46)));
+        assertThat(sentStartTimes).containsExactly("2026-03-02 09:00", "2026-03-04 15:00");
+        dispatcher.fire(clock.millisAt(LocalDateTime.of(2026, 3, 5, 8, 46)));
+        assertThat(sentStartTimes).containsExactly("2026-03-02 09:00", "2026-03-04 15:00", "2026-03-05 09:00");
+    }
+
+    @Test
+    void shouldRescheduleOnUpdateAndCancelOnDelete() {
+        put(schedule(1L, BASE.plusMinutes(60)));
+        put(schedule(2L, BASE.plusMinutes(72)));
+        DeyochScheduleSeries series = dailySeries(LocalDateTime.of(2026, 3, 2, 9, 0));
+        when(seriesMapper.selectList(any())).thenReturn(List.of(series));
+        dispatcher.load();
+
+        // 日程1推迟10分钟，日程2删除，系列改到09:30
+        put(schedule(1L, BASE.plusMinutes(70)));
+        dispatcher.reloadSchedule(1L);
+        scheduleTable.remove(2L);
+        dispatcher.reloadSchedule(2L);
+        DeyochScheduleSeries moved = dailySeries(LocalDateTime.of(2026, 3, 2, 9, 30));
+        when(seriesMapper.selectById(1L)).thenReturn(moved);
+        dispatcher.reloadSeries(1L);
+
+        dispatcher.fire(clock.millisAt(BASE.plusMinutes(46)));
+        assertThat(sentStartTimes).isEmpty();
+        dispatcher.fire(clock.millisAt(BASE.plusMinutes(58)));
+        assertThat(sentStartTimes).containsExactly("2026-03-02 08:10");
+        dispatcher.fire(clock.millisAt(LocalDateTime.of(2026, 3, 2, 9, 16)));
+        assertThat(sentStartTimes).containsExactly("2026-03-02 08:10", "2026-03-02 09:30");
+
+        // 系列删除后不再提醒后续实例
+        when(seriesMapper.selectById(1L)).thenReturn(null);
+        clock.set(LocalDateTime.of(2026, 3, 2, 10, 0));
+        dispatcher.reloadSeries(1L);
+        dispatcher.fire(clock.millisAt(LocalDateTime.of(2026, 3, 4, 10, 0)));
+        assertThat(sentStartTimes).hasSize(2);
+    }
+
+    /**
+     * 按参数名中的序号取出查询条件的参数值
+     */
+    private static List<Object> params(LambdaQueryWrapper<?> wrapper) {
+        wrapper.getSqlSegment();
+        return wrapper.getParamNameValuePairs().entrySet().stream()
+                .sorted(Comparator.comparingInt(entry -> Integer.parseInt(entry.getKey().replaceAll("\\D", ""))))
+                .map(Map.Entry::getValue)
+                .toList();
+    }
+
+    private void put(DeyochSchedule schedule) {
+        scheduleTable.put(schedule.getId(), schedule);
+    }
+
+    private static DeyochSchedule schedule(Long id, LocalDateTime startTime) {
+        DeyochSchedule schedule = new DeyochSchedule();
+        schedule.setId(id);
+        schedule.setUserId(10L);
+        schedule.setTitle("日程" + id);
+        schedule.setStartTime(startTime);
+        schedule.setEndTime(startTime.plusHours(1));
+        return schedule;
+    }
+
+    private static DeyochScheduleSeries dailySeries(LocalDateTime startTime) {
+        DeyochScheduleSeries series = new DeyochScheduleSeries();
+        series.setId(1L);
+        series.setUserId(10L);
+        series.setTitle("晨会");
+        series.setStartTime(startTime);
+        series.setEndTime(startTime.plusMinutes(30));
+        series.setFrequency("DAILY");
+        series.setRepeatInterval(1);
+        return series;
+    }
+
+    private static DeyochScheduleSeriesException exception(LocalDateTime originalStartTime) {
+        DeyochScheduleSeriesException exception = new DeyochScheduleSeriesException();
+        exception.setSeriesId(1L);
+        exception.setOriginalStartTime(originalStartTime);
+        exception.setCancelled(0);
+        return exception;
+    }
+}
@@ -0,0 +1,22 @@
+package com.deyoch.service.notify;
+
+import com.baomidou.mybatisplus.core.MybatisConfiguration;
+import com.baomidou.mybatisplus.core.metadata.TableInfoHelper;
+import org.apache.ibatis.builder.MapperBuilderAssistant;
+
+/**
+ * 实体表信息初始化，用于不启动Spring的测试
+ * LambdaQueryWrapper按表信息把方法引用解析为列名，测试中用到的实体需先注册
+ */
+public final class TableInfoTestSupport {
+
+    private TableInfoTestSupport() {
+    }
+
+    public static void init(Class<?>... entities) {
+        MapperBuilderAssistant assistant = new MapperBuilderAssistant(new MybatisConfiguration(), "");
+        for (Class<?> entity : entities) {
+            TableInfoHelper.initTableInfo(assistant, entity);
+        }
+    }
+}
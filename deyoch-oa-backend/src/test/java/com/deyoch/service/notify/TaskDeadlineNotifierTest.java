@@ -0,0 +1,164 @@
+package com.deyoch.service.notify;
+
+import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
+import com.deyoch.common.result.Result;
+import com.deyoch.dto.TemplateMessageDto;
+import com.deyoch.entity.DeyochTask;
+import com.deyoch.mapper.DeyochTaskMapper;
+import com.deyoch.service.MessageService;
+import com.deyoch.service.UserInfoConverter;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * 任务截止时间通知测试
+ * 用可控时钟直接调用装载、推进和按任务重新读取，验证定时器的放置、取消、重新放置和接收人
+ */
+public class TaskDeadlineNotifierTest {
+
+    private static final LocalDateTime BASE = LocalDateTime.of(2026, 3, 2, 9, 0);
+
+    private static final Long CREATOR = 1L;
+    private static final Long ASSIGNEE = 2L;
+
+    private final MutableClock clock = new MutableClock(BASE);
+
+    /**
+     * 模拟任务表，按查询条件中的任务ID返回
+     */
+    private final Map<Long, DeyochTask> taskTable = new LinkedHashMap<>();
+
+    /**
+     * 已发送的消息，格式为 接收人:通知类型:任务标题
+     */
+    private final List<String> sent = new ArrayList<>();
+
+    private TaskDeadlineNotifier notifier;
+
+    @BeforeAll
+    static void initTableInfo() {
+        TableInfoTestSupport.init(DeyochTask.class);
+    }
+
+    @BeforeEach
+    void setUp() {
+        DeyochTaskMapper taskMapper = mock(DeyochTaskMapper.class);
+        when(taskMapper.selectList(any())).thenAnswer(invocation -> new ArrayList<>(taskTable.values()));
+        when(taskMapper.selectOne(any())).thenAnswer(invocation -> {
+            LambdaQueryWrapper<?> wrapper = invocation.getArgument(0);
+            wrapper.getSqlSegment();
+            return taskTable.get((Long) wrapper.getParamNameValuePairs().values().iterator().next());
+        });
+
+        MessageService messageService = mock(MessageService.class);
+        when(messageService.sendBatchMessageByTemplate(eq("task_update"), anyList())).thenAnswer(invocation -> {
+            List<TemplateMessageDto> messages = invocation.getArgument(1);
+            for (TemplateMessageDto message : messages) {
+                sent.add(message.getReceiverId() + ":" + message.getVariables().get("updateType")
+                        + ":" + message.getVariables().get("taskTitle"));
+            }
+            return Result.success();
+        });
+
+        notifier = new TaskDeadlineNotifier(taskMapper, messageService, mock(UserInfoConverter.class));
+        ReflectionTestUtils.setField(notifier, "tick", 60000L);
+        notifier.setClock(clock);
+        notifier.init();
+    }
+
+    @AfterEach
+    void tearDown() {
+        notifier.shutdown();
+    }
+
+    @Test
+    void shouldRemindAssigneeThenNotifyBothWhenOverdue() {
+        put(task(10L, ASSIGNEE, 0, BASE.plusHours(3)));
+        notifier.load();
+
+        fire(BASE.plusHours(2).plusMinutes(1));
+        assertThat(sent).containsExactly("2:即将到期:任务10");
+        fire(BASE.plusHours(3).plusMinutes(1));
+        assertThat(sent).containsExactly("2:即将到期:任务10", "2:已逾期:任务10", "1:已逾期:任务10");
+        fire(BASE.plusDays(1));
+        assertThat(sent).hasSize(3);
+    }
+
+    @Test
+    void shouldRemindCreatorWhenUnassigned() {
+        put(task(10L, null, 0, BASE.plusHours(3)));
+        notifier.load();
+
+        fire(BASE.plusHours(4));
+        assertThat(sent).containsExactly("1:即将到期:任务10", "1:已逾期:任务10");
+    }
+
+    @Test
+    void shouldOnlyScheduleOverdueWhenReminderTimeHasPassed() {
+        // 截止时间在提醒提前量以内，只放置逾期定时器；已完成和已逾期的任务不放置
+        put(task(10L, ASSIGNEE, 0, BASE.plusMinutes(30)));
+        put(task(11L, ASSIGNEE, 3, BASE.plusHours(3)));
+        put(task(12L, ASSIGNEE, 0, BASE.minusMinutes(5)));
+        notifier.load();
+
+        fire(BASE.plusDays(1));
+        assertThat(sent).containsExactly("2:已逾期:任务10", "1:已逾期:任务10");
+    }
+
+    @Test
+    void shouldRescheduleOnUpdateAndCancelOnCompleteOrDelete() {
+        put(task(10L, ASSIGNEE, 0, BASE.plusHours(3)));
+        put(task(11L, ASSIGNEE, 0, BASE.plusHours(3)));
+        put(task(12L, ASSIGNEE, 0, BASE.plusHours(3)));
+        notifier.load();
+
+        // 任务10延期一天并改派给3，任务11完成，任务12删除
+        put(task(10L, 3L, 0, BASE.plusDays(1).plusHours(3)));
+        notifier.reload(10L);
+        put(task(11L, ASSIGNEE, 3, BASE.plusHours(3)));
+        notifier.reload(11L);
+        taskTable.remove(12L);
+        notifier.reload(12L);
+
+        fire(BASE.plusHours(4));
+        assertThat(sent).isEmpty();
+        fire(BASE.plusDays(1).plusHours(4));
+        assertThat(sent).containsExactly("3:即将到期:任务10", "3:已逾期:任务10", "1:已逾期:任务10");
+    }
+
+    private void fire(LocalDateTime time) {
+        clock.set(time);
+        notifier.fire(clock.millis());
+    }
+
+    private void put(DeyochTask task) {
+        taskTable.put(task.getId(), task);
+    }
+
+    private static DeyochTask task(Long id, Long assigneeId, Integer status, LocalDateTime endTime) {
+        DeyochTask task = new DeyochTask();
+        task.setId(id);
+        task.setTitle("任务" + id);
+        task.setCreatorId(CREATOR);
+        task.setAssigneeId(assigneeId);
+        task.setStatus(status);
+        task.setEndTime(endTime);
+        return task;
+    }
+}
@@ -0,0 +1,139 @@
+package com.deyoch.service.schedule;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 日程区间集合测试
+ * 验证相交查询（含嵌套的长区间）、增删后的有序性，区间树查询和多用户共同空闲时段与暴力计算一致
+ */
+public class IntervalSetTest {
+
+    @Test
+    void shouldFindOverlapsIncludingNestedIntervals() {
+        IntervalSet set = IntervalSet.of(List.of(
+                new long[]{1, 0, 1000},
+                new long[]{2, 100, 200},
+                new long[]{3, 300, 400},
+                new long[]{4, 500, 500}));
+
+        // 长区间1在前，结束时间前缀最大值保证它不会被二分跳过
+        assertThat(set.overlapping(350, 360)).containsExactly(1L, 3L);
+        // 半开区间：结束于200的区间与[200, 300)不相交
+        assertThat(set.overlapping(200, 300)).containsExactly(1L);
+        // 开始与结束相同的区间不占用时间
+        assertThat(set.overlapping(450, 550)).containsExactly(1L);
+        assertThat(set.overlapping(1000, 2000)).isEmpty();
+    }
+
+    @Test
+    void shouldKeepOrderAfterUpdates() {
+        IntervalSet set = IntervalSet.empty()
+                .with(1, 100, 200)
+                .with(2, 50, 80)
+                .with(3, 300, 400);
+        set = set.with(1, 500, 600).without(2);
+
+        assertThat(set.size()).isEqualTo(2);
+        assertThat(set.overlapping(0, 1000)).containsExactly(3L, 1L);
+        assertThat(set.without(99)).isSameAs(set);
+    }
+
+    @Test
+    void shouldFindCommonFreeSlots() {
+        IntervalSet alice = IntervalSet.of(List.of(new long[]{1, 60, 120}, new long[]{2, 200, 260}));
+        IntervalSet bob = IntervalSet.of(List.of(new long[]{3, 100, 180}));
+
+        List<long[]> slots = IntervalSet.commonFreeSlots(List.of(alice, bob), 0, 400, 30, 10);
+        assertThat(slots).extracting(slot -> slot[0]).containsExactly(0L, 260L);
+        assertThat(slots.get(0)[2]).isEqualTo(60);
+        assertThat(slots.get(1)[2]).isEqualTo(400);
+
+        assertThat(IntervalSet.commonFreeSlots(List.of(alice, bob), 0, 400, 20, 1))
+                .extracting(slot -> slot[0]).containsExactly(0L);
+    }
+
+    @Test
+    void shouldMatchBruteForceForRandomSchedules() {
+        Random random = new Random(7);
+        for (int round = 0; round < 50; round++) {
+            List<IntervalSet> sets = new ArrayList<>();
+            boolean[] busy = new boolean[1000];
+            for (int user = 0; user < 8; user++) {
+                List<long[]> intervals = new ArrayList<>();
+                for (int i = 0; i < 10; i++) {
+                    int start = random.nextInt(1000);
+                    int end = Math.min(1000, start + random.nextInt(80));
+                    intervals.add(new long[]{i, start, end});
+                    for (int t = start; t < end; t++) {
+                        busy[t] = true;
+                    }
+                }
+                sets.add(IntervalSet.of(intervals));
+            }
+            int from = random.nextInt(200);
+            int to = 800 + random.nextInt(200);
+            int length = 1 + random.nextInt(30);
+
+            List<Long> expected = new ArrayList<>();
+            int gapStart = -1;
+            for (int t = from; t <= to; t++) {
+                boolean free = t < to && !busy[t];
+                if (free && gapStart < 0) {
+                    gapStart = t;
+                } else if (!free && gapStart >= 0) {
+                    if (t - gapStart >= length) {
+                        expected.add((long) gapStart);
+                    }
+                    gapStart = -1;
+                }
+            }
+
+            assertThat(IntervalSet.commonFreeSlots(sets, from, to, length, 1000))
+                    .extracting(slot -> slot[0]).containsExactlyElementsOf(expected);
+        }
+    }
+
+    @Test
+    void shouldMatchBruteForceOverlapQueries() {
+        Random random = new Random(11);
+        for (int round = 0; round < 50; round++) {
+            // 随机增删构建集合，少量长区间用于检验子树最大结束时间的剪枝
+            Map<Long, long[]> intervals = new HashMap<>();
+            IntervalSet set = IntervalSet.empty();
+            for (int i = 0; i < 60; i++) {
+                long id = random.nextInt(40);
+                if (random.nextInt(5) == 0) {
+                    intervals.remove(id);
+                    set = set.without(id);
+                } else {
+                    long start = random.nextInt(1000);
+                    long end = start + (random.nextInt(4) == 0 ? random.nextInt(600) : random.nextInt(40));
+                    intervals.put(id, new long[]{id, start, end});
+                    set = set.with(id, start, end);
+                }
+            }
+            List<long[]> sorted = new ArrayList<>(intervals.values());
+            sorted.sort((a, b) -> a[1] != b[1] ? Long.compare(a[1], b[1]) : Long.compare(a[0], b[0]));
+
+            for (int q = 0; q < 20; q++) {
+                long from = random.nextInt(1100);
+                long to = from + random.nextInt(200);
+                List<Long> expected = new ArrayList<>();
+                for (long[] interval : sorted) {
+                    if (from < to && interval[1] < to && interval[2] > from && interval[2] > interval[1]) {
+                        expected.add(interval[0]);
+                    }
+                }
+                assertThat(set.overlapping(from, to)).containsExactlyElementsOf(expected);
+            }
+        }
+    }
+}
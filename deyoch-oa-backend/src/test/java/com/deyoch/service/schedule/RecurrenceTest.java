@@ -0,0 +1,83 @@
+package com.deyoch.service.schedule;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * 重复规则测试
+ * 验证每周多天、每月31日跳过短月、截止日期与次数的限制，以及从任意时间直接定位与从头逐个生成一致
+ */
+public class RecurrenceTest {
+
+    @Test
+    void shouldExpandWeeklyOnSelectedDays() {
+        // 2026-03-04为周三，每2周的周一、周三、周五
+        Recurrence recurrence = Recurrence.of("WEEKLY", 2, 1 | 4 | 16,
+                LocalDateTime.of(2026, 3, 4, 9, 0), null, 5);
+
+        assertThat(take(recurrence.startsFrom(LocalDateTime.of(2026, 1, 1, 0, 0)), 10)).containsExactly(
+                LocalDateTime.of(2026, 3, 4, 9, 0),
+                LocalDateTime.of(2026, 3, 6, 9, 0),
+                LocalDateTime.of(2026, 3, 16, 9, 0),
+                LocalDateTime.of(2026, 3, 18, 9, 0),
+                LocalDateTime.of(2026, 3, 20, 9, 0));
+        assertThat(recurrence.lastStart()).isEqualTo(LocalDateTime.of(2026, 3, 20, 9, 0));
+        assertThat(recurrence.isOccurrence(LocalDateTime.of(2026, 3, 16, 9, 0))).isTrue();
+        assertThat(recurrence.isOccurrence(LocalDateTime.of(2026, 3, 9, 9, 0))).isFalse();
+    }
+
+    @Test
+    void shouldSkipMonthsWithoutTheDayAndStopAtUntil() {
+        Recurrence recurrence = Recurrence.of("MONTHLY", 1, null,
+                LocalDateTime.of(2026, 1, 31, 10, 0), LocalDate.of(2026, 7, 31), null);
+
+        assertThat(take(recurrence.startsFrom(LocalDateTime.of(2026, 2, 1, 0, 0)), 10)).containsExactly(
+                LocalDateTime.of(2026, 3, 31, 10, 0),
+                LocalDateTime.of(2026, 5, 31, 10, 0),
+                LocalDateTime.of(2026, 7, 31, 10, 0));
+        assertThatThrownBy(() -> Recurrence.of("YEARLY", 1, null, LocalDateTime.now(), null, null))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void shouldMatchSequentialExpansionFromAnyPoint() {
+        Random random = new Random(3);
+        String[] frequencies = {"DAILY", "WEEKLY", "MONTHLY"};
+        for (int round = 0; round < 100; round++) {
+            LocalDateTime firstStart = LocalDateTime.of(2026, 1, 1, 8, 30)
+                    .plusDays(random.nextInt(60)).plusMinutes(random.nextInt(600));
+            Integer count = random.nextBoolean() ? 1 + random.nextInt(80) : null;
+            LocalDate until = random.nextBoolean() ? firstStart.toLocalDate().plusDays(random.nextInt(900)) : null;
+            Recurrence recurrence = Recurrence.of(frequencies[random.nextInt(3)], 1 + random.nextInt(3),
+                    1 + random.nextInt(127), firstStart, until, count);
+
+            LocalDateTime from = firstStart.plusHours(random.nextInt(24 * 700));
+            List<LocalDateTime> expected = new ArrayList<>();
+            Iterator<LocalDateTime> sequential = recurrence.startsFrom(firstStart);
+            while (sequential.hasNext() && expected.size() < 20) {
+                LocalDateTime start = sequential.next();
+                if (!start.isBefore(from)) {
+                    expected.add(start);
+                }
+            }
+            assertThat(take(recurrence.startsFrom(from), 20)).containsExactlyElementsOf(expected);
+        }
+    }
+
+    private static List<LocalDateTime> take(Iterator<LocalDateTime> iterator, int limit) {
+        List<LocalDateTime> result = new ArrayList<>();
+        while (iterator.hasNext() && result.size() < limit) {
+            result.add(iterator.next());
+        }
+        return result;
+    }
+}
@@ -0,0 +1,58 @@
+package com.deyoch.service.schedule;
+
+import com.deyoch.dto.ScheduleDayDto;
+import com.deyoch.entity.DeyochSchedule;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * 日历视图计算测试
+ * 验证月、周视图范围，跨天日程的展开、零点结束的处理以及范围外部分的裁剪
+ */
+public class ScheduleCalendarTest {
+
+    @Test
+    void shouldComputeMonthAndWeekRanges() {
+        LocalDate date = LocalDate.of(2026, 2, 11);
+
+        assertThat(ScheduleCalendar.viewRange("month", date))
+                .containsExactly(LocalDate.of(2026, 2, 1), LocalDate.of(2026, 2, 28));
+        assertThat(ScheduleCalendar.viewRange("WEEK", date))
+                .containsExactly(LocalDate.of(2026, 2, 9), LocalDate.of(2026, 2, 15));
+        assertThatThrownBy(() -> ScheduleCalendar.viewRange("year", date))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void shouldExpandMultiDaySchedulesWithinRange() {
+        DeyochSchedule trip = schedule(1L, "2026-02-07T09:00", "2026-02-10T18:00");
+        DeyochSchedule meeting = schedule(2L, "2026-02-09T14:00", "2026-02-09T15:00");
+        DeyochSchedule overnight = schedule(3L, "2026-02-11T22:00", "2026-02-12T00:00");
+        DeyochSchedule reminder = schedule(4L, "2026-02-15T08:00", "2026-02-15T08:00");
+
+        List<ScheduleDayDto> days = ScheduleCalendar.bucketByDay(List.of(trip, meeting, overnight, reminder),
+                LocalDate.of(2026, 2, 9), LocalDate.of(2026, 2, 15));
+
+        assertThat(days).hasSize(7);
+        assertThat(days.get(0).getSchedules()).containsExactly(trip, meeting);
+        assertThat(days.get(1).getSchedules()).containsExactly(trip);
+        // 零点结束的日程不计入次日
+        assertThat(days.get(2).getSchedules()).containsExactly(overnight);
+        assertThat(days.get(3).getSchedules()).isEmpty();
+        assertThat(days.get(6).getSchedules()).containsExactly(reminder);
+    }
+
+    private static DeyochSchedule schedule(Long id, String start, String end) {
+        DeyochSchedule schedule = new DeyochSchedule();
+        schedule.setId(id);
+        schedule.setStartTime(LocalDateTime.parse(start));
+        schedule.setEndTime(LocalDateTime.parse(end));
+        return schedule;
+    }
+}
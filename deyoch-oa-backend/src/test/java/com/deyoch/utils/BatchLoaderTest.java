@@ -0,0 +1,127 @@
+package com.deyoch.utils;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * 微批量加载器测试
+ * 验证窗口内并发请求合并为一次批量查询、批次满时立即执行、失败传播以及事务中不参与合并
+ */
+public class BatchLoaderTest {
+
+    @Test
+    void shouldMergeConcurrentRequestsIntoOneBatch() throws Exception {
+        List<Set<Long>> calls = new CopyOnWriteArrayList<>();
+        BatchLoader<Long, String> loader = new BatchLoader<>(keys -> {
+            calls.add(Set.copyOf(keys));
+            Map<Long, String> values = new HashMap<>();
+            keys.stream().filter(key -> key != 404L).forEach(key -> values.put(key, "user" + key));
+            return values;
+        }, 200, 1000, 5000);
+
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        CountDownLatch start = new CountDownLatch(1);
+        List<CompletableFuture<Map<Long, String>>> results = new ArrayList<>();
+        for (long i = 0; i < 8; i++) {
+            Set<Long> keys = Set.of(i, i + 1, 404L);
+            results.add(CompletableFuture.supplyAsync(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return loader.loadAll(keys);
+            }, executor));
+        }
+        start.countDown();
+
+        for (int i = 0; i < results.size(); i++) {
+            Map<Long, String> result = results.get(i).get(5, TimeUnit.SECONDS);
+            assertThat(result).containsEntry((long) i, "user" + i).containsEntry(i + 1L, "user" + (i + 1)).doesNotContainKey(404L);
+        }
+        executor.shutdown();
+
+        assertThat(calls).hasSize(1);
+        assertThat(calls.get(0)).hasSize(10);
+        assertThat(loader.getStats()).containsEntry("batches", 1L);
+    }
+
+    @Test
+    void shouldDispatchImmediatelyWhenBatchIsFull() {
+        List<Set<Long>> calls = new CopyOnWriteArrayList<>();
+        BatchLoader<Long, String> loader = new BatchLoader<>(keys -> {
+            calls.add(Set.copyOf(keys));
+            return Map.of();
+        }, 10000, 2, 5000);
+
+        long started = System.nanoTime();
+        loader.loadAll(Set.of(1L, 2L, 3L));
+
+        assertThat(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started)).isLessThan(5000);
+        assertThat(calls).hasSize(1);
+    }
+
+    @Test
+    void shouldPropagateBatchFailureToAllWaiters() {
+        BatchLoader<Long, String> loader = new BatchLoader<>(keys -> {
+            throw new IllegalArgumentException("db down");
+        }, 0, 100, 5000);
+
+        assertThatThrownBy(() -> loader.loadAll(Set.of(1L)))
+                .isInstanceOf(IllegalStateException.class)
+                .hasRootCauseMessage("db down");
+        // 失败后不残留进行中的键，下一次请求会重新查询
+        assertThatThrownBy(() -> loader.loadAll(Set.of(1L))).isInstanceOf(IllegalStateException.class);
+        assertThat(loader.getStats()).containsEntry("batches", 2L);
+    }
+
+    @Test
+    void shouldLoadOnCallerThreadWithoutBatchingInsideTransaction() throws Exception {
+        List<String> threads = new CopyOnWriteArrayList<>();
+        CountDownLatch leaderWaiting = new CountDownLatch(1);
+        BatchLoader<Long, String> loader = new BatchLoader<>(keys -> {
+            threads.add(Thread.currentThread().getName());
+            Map<Long, String> values = new HashMap<>();
+            keys.forEach(key -> values.put(key, "user" + key));
+            return values;
+        }, 500, 1000, 5000);
+
+        // 无事务的线程先成为领头者并等待窗口结束
+        CompletableFuture<Map<Long, String>> outside = CompletableFuture.supplyAsync(() -> {
+            leaderWaiting.countDown();
+            return loader.loadAll(Set.of(1L));
+        });
+        assertThat(leaderWaiting.await(5, TimeUnit.SECONDS)).isTrue();
+
+        TransactionSynchronizationManager.setActualTransactionActive(true);
+        try {
+            long started = System.nanoTime();
+            // 事务中请求同一个键也不复用领头者的加载，直接在本线程查询
+            assertThat(loader.loadAll(Set.of(1L, 2L))).containsEntry(1L, "user1").containsEntry(2L, "user2");
+            assertThat(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started)).isLessThan(500);
+            assertThat(threads).contains(Thread.currentThread().getName());
+        } finally {
+            TransactionSynchronizationManager.setActualTransactionActive(false);
+        }
+
+        assertThat(outside.get(5, TimeUnit.SECONDS)).containsEntry(1L, "user1");
+        assertThat(threads).hasSize(2);
+        assertThat(loader.getStats()).containsEntry("batches", 1L).containsEntry("directLoads", 1L)
+                .containsEntry("inFlightJoins", 0L);
+    }
+}
@@ -0,0 +1,83 @@
+package com.deyoch.utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 分层时间轮测试
+ * 验证跨层下放后按时到期、不提前触发、取消与替换、超出范围的定时器以及随机数据下的到期顺序
+ */
+public class HierarchicalTimingWheelTest {
+
+    private static final long START = 1_000_000L;
+
+    @Test
+    void shouldExpireAtDeadlineAcrossLevels() {
+        HierarchicalTimingWheel<String, String> wheel = new HierarchicalTimingWheel<>(10, 8, 3, START);
+        wheel.schedule("near", START + 30, "near");
+        wheel.schedule("middle", START + 700, "middle");
+        wheel.schedule("far", START + 4000, "far");
+
+        assertThat(wheel.advance(START + 29)).isEmpty();
+        assertThat(wheel.advance(START + 30)).containsExactly("near");
+        assertThat(wheel.advance(START + 699)).isEmpty();
+        assertThat(wheel.advance(START + 700)).containsExactly("middle");
+        assertThat(wheel.advance(START + 3999)).isEmpty();
+        assertThat(wheel.advance(START + 4000)).containsExactly("far");
+        assertThat(wheel.size()).isZero();
+    }
+
+    @Test
+    void shouldCancelAndReplaceByKey() {
+        HierarchicalTimingWheel<Long, String> wheel = new HierarchicalTimingWheel<>(10, 8, 3, START);
+        wheel.schedule(1L, START + 100, "first");
+        wheel.schedule(2L, START + 200, "second");
+        wheel.schedule(1L, START + 300, "rescheduled");
+
+        assertThat(wheel.cancel(2L)).isTrue();
+        assertThat(wheel.cancel(2L)).isFalse();
+        assertThat(wheel.advance(START + 250)).isEmpty();
+        assertThat(wheel.advance(START + 300)).containsExactly("rescheduled");
+    }
+
+    @Test
+    void shouldFireOverdueOnNextTickAndHoldBeyondRange() {
+        HierarchicalTimingWheel<String, String> wheel = new HierarchicalTimingWheel<>(10, 4, 2, START);
+        wheel.schedule("past", START - 500, "past");
+        // 两层四槽位的范围为160毫秒
+        wheel.schedule("beyond", START + 1000, "beyond");
+
+        assertThat(wheel.advance(START + 10)).containsExactly("past");
+        assertThat(wheel.advance(START + 990)).isEmpty();
+        assertThat(wheel.advance(START + 1000)).containsExactly("beyond");
+    }
+
+    @Test
+    void shouldMatchSortedDeadlinesForRandomTimers() {
+        HierarchicalTimingWheel<Integer, Long> wheel = new HierarchicalTimingWheel<>(1, 16, 3, START);
+        Random random = new Random(42);
+        List<Long> deadlines = new ArrayList<>();
+        for (int i = 0; i < 2000; i++) {
+            long deadline = START + 1 + random.nextInt(10000);
+            deadlines.add(deadline);
+            wheel.schedule(i, deadline, deadline);
+        }
+
+        List<Long> fired = new ArrayList<>();
+        for (long now = START; now <= START + 10000; now += 1 + random.nextInt(50)) {
+            for (Long deadline : wheel.advance(now)) {
+                assertThat(deadline).isLessThanOrEqualTo(now);
+                fired.add(deadline);
+            }
+        }
+        fired.addAll(wheel.advance(START + 10000));
+
+        deadlines.sort(null);
+        assertThat(fired).isSorted().containsExactlyElementsOf(deadlines);
+    }
+}
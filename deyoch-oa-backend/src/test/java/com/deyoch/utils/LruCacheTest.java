@@ -0,0 +1,81 @@
+package com.deyoch.utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * LRU缓存测试
+ * 验证按访问顺序淘汰、有效期、按值条件移除，以及创建后调整容量的生效方式
+ */
+public class LruCacheTest {
+
+    @Test
+    void shouldEvictLeastRecentlyAccessed() {
+        LruCache<Long, String> cache = new LruCache<>(() -> 2);
+        cache.put(1L, "a");
+        cache.put(2L, "b");
+        // 访问1后，2成为最久未访问的条目
+        assertThat(cache.get(1L)).isEqualTo("a");
+        cache.put(3L, "c");
+
+        assertThat(cache.get(2L)).isNull();
+        assertThat(cache.get(1L)).isEqualTo("a");
+        assertThat(cache.get(3L)).isEqualTo("c");
+        assertThat(cache.getEvictions()).isEqualTo(1L);
+    }
+
+    @Test
+    void shouldTreatExpiredEntriesAsMissing() throws InterruptedException {
+        LruCache<Long, String> cache = new LruCache<>(10, 20L);
+        cache.putAll(Map.of(1L, "a", 2L, "b"));
+        assertThat(cache.get(1L)).isEqualTo("a");
+
+        Thread.sleep(40);
+        assertThat(cache.get(1L)).isNull();
+        assertThat(cache.size()).isEqualTo(1);
+        assertThat(cache.getEvictions()).isZero();
+    }
+
+    @Test
+    void shouldOnlyRemoveMatchingValue() {
+        LruCache<Long, String> cache = new LruCache<>(() -> 10);
+        String stale = new String("a");
+        cache.put(1L, stale);
+        String fresh = new String("a");
+        cache.put(1L, fresh);
+
+        // 值相等但不是读取时的同一对象，保留并发写入的新条目
+        assertThat(cache.remove(1L, stale)).isFalse();
+        assertThat(cache.get(1L)).isSameAs(fresh);
+        assertThat(cache.remove(1L, fresh)).isTrue();
+        assertThat(cache.size()).isZero();
+    }
+
+    @Test
+    void shouldRemoveByPredicate() {
+        LruCache<Long, String> cache = new LruCache<>(() -> 10);
+        cache.putAll(Map.of(1L, "a", 2L, "b", 3L, "a"));
+
+        assertThat(cache.removeIf("a"::equals)).isEqualTo(2);
+        assertThat(cache.get(2L)).isEqualTo("b");
+        assertThat(cache.size()).isEqualTo(1);
+    }
+
+    @Test
+    void shouldReadCapacityOnEachWrite() {
+        AtomicInteger maxSize = new AtomicInteger();
+        LruCache<Long, String> cache = new LruCache<>(maxSize::get);
+        // 容量在创建之后才注入
+        maxSize.set(2);
+        cache.put(1L, "a");
+        cache.put(2L, "b");
+        cache.put(3L, "c");
+
+        assertThat(cache.size()).isEqualTo(2);
+        assertThat(cache.get(1L)).isNull();
+    }
+}